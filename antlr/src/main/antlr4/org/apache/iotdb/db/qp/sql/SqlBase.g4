@@ -91,6 +91,8 @@ statement
     | MOVE stringLiteral stringLiteral #moveFile
     | DELETE PARTITION prefixPath INT(COMMA INT)* #deletePartition
     | CREATE SNAPSHOT FOR SCHEMA #createSnapshot
+    | CREATE SCHEMA TEMPLATE templateName=ID LR_BRACKET templateMeasurementClause (COMMA templateMeasurementClause)* RR_BRACKET #createTemplate
+    | SET SCHEMA TEMPLATE templateName=ID TO prefixPath #setDeviceTemplate
     | SELECT topClause? selectElements
     fromClause
     whereClause?
@@ -124,6 +126,8 @@ functionName
     | FIRST_VALUE
     | SUM
     | LAST_VALUE
+    | VARIANCE
+    | STDDEV
     ;
 
 functionAsClause
@@ -156,6 +160,11 @@ aliasClause
     : ALIAS OPERATOR_EQ ID
     ;
 
+templateMeasurementClause
+    : nodeNameWithoutStar WITH DATATYPE OPERATOR_EQ dataType COMMA ENCODING OPERATOR_EQ encoding
+    (COMMA (COMPRESSOR | COMPRESSION) OPERATOR_EQ compressor)?
+    ;
+
 attributeClauses
     : DATATYPE OPERATOR_EQ dataType (COMMA ENCODING OPERATOR_EQ encoding)?
     (COMMA (COMPRESSOR | COMPRESSION) OPERATOR_EQ compressor)?
@@ -172,6 +181,7 @@ compressor
     | PAA
     | PLA
     | LZ4
+    | ZSTD
     ;
 
 attributeClause
@@ -187,7 +197,11 @@ setClause
     ;
 
 whereClause
-    : WHERE (orExpression | indexPredicateClause)
+    : WHERE (tagPredicateClause (OPERATOR_AND orExpression)? | orExpression | indexPredicateClause)
+    ;
+
+tagPredicateClause
+    : TAGS LR_BRACKET property (OPERATOR_AND property)* RR_BRACKET
     ;
 
 showWhereClause
@@ -489,6 +503,8 @@ nodeName
     | FIRST_VALUE
     | SUM
     | LAST_VALUE
+    | VARIANCE
+    | STDDEV
     | LAST
     | DISABLE
     | ALIGN
@@ -503,6 +519,7 @@ nodeName
     | SNAPSHOT
     | FOR
     | SCHEMA
+    | TEMPLATE
     | TRACING
     | OFF
     | (ID | OPERATOR_IN)? LS_BRACKET ID? RS_BRACKET ID?
@@ -601,6 +618,8 @@ nodeNameWithoutStar
     | FIRST_VALUE
     | SUM
     | LAST_VALUE
+    | VARIANCE
+    | STDDEV
     | LAST
     | DISABLE
     | ALIGN
@@ -615,6 +634,7 @@ nodeNameWithoutStar
     | SNAPSHOT
     | FOR
     | SCHEMA
+    | TEMPLATE
     | TRACING
     | OFF
     | (ID | OPERATOR_IN)? LS_BRACKET ID? RS_BRACKET ID?
@@ -653,7 +673,8 @@ dateExpression
     ;
 
 encoding
-    : PLAIN | PLAIN_DICTIONARY | RLE | DIFF | TS_2DIFF | GORILLA | REGULAR
+    : PLAIN | PLAIN_DICTIONARY | RLE | DIFF | TS_2DIFF | GORILLA | REGULAR | CHIMP | ELF
+    | BLOCK_DELTA
     ;
 
 realLiteral
@@ -874,6 +895,18 @@ GORILLA
     : G O R I L L A
     ;
 
+CHIMP
+    : C H I M P
+    ;
+
+ELF
+    : E L F
+    ;
+
+BLOCK_DELTA
+    : B L O C K '_' D E L T A
+    ;
+
 
 REGULAR
     : R E G U L A R
@@ -1062,6 +1095,14 @@ SUM
     : S U M
     ;
 
+VARIANCE
+    : V A R I A N C E
+    ;
+
+STDDEV
+    : S T D D E V
+    ;
+
 LAST_VALUE
     : L A S T UNDERLINE V A L U E
     ;
@@ -1155,6 +1196,10 @@ LZ4
    : L Z '4' 
    ;
 
+ZSTD
+   : Z S T D
+   ;
+
 LATEST
     : L A T E S T
     ;
@@ -1175,6 +1220,10 @@ SCHEMA
     : S C H E M A
     ;
 
+TEMPLATE
+    : T E M P L A T E
+    ;
+
 DESC
     : D E S C
     ;
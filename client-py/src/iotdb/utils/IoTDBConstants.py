@@ -40,6 +40,9 @@ class TSEncoding(Enum):
     GORILLA_V1 = 6
     REGULAR = 7
     GORILLA = 8
+    CHIMP = 9
+    ELF = 10
+    BLOCK_DELTA = 11
 
 
 @unique
@@ -52,3 +55,4 @@ class Compressor(Enum):
     PAA = 5
     PLA = 6
     LZ4 = 7
+    ZSTD = 8
@@ -85,6 +85,7 @@ import org.apache.iotdb.db.qp.physical.sys.CreateTimeSeriesPlan;
 import org.apache.iotdb.db.qp.physical.sys.SetStorageGroupPlan;
 import org.apache.iotdb.db.qp.physical.sys.ShowTimeSeriesPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.dataset.ShowTimeSeriesCursor;
 import org.apache.iotdb.db.query.dataset.ShowTimeSeriesResult;
 import org.apache.iotdb.db.service.IoTDB;
 import org.apache.iotdb.db.utils.SchemaUtils;
@@ -1268,6 +1269,23 @@ public class CMManager extends MManager {
     return super.showTimeseries(plan, context);
   }
 
+  /**
+   * The timeseries are spread over the data groups, so each batch is still fetched as a page of
+   * the global result, restoring the paging parameters that showTimeseries() modifies.
+   */
+  @Override
+  public ShowTimeSeriesCursor showTimeseriesCursor(ShowTimeSeriesPlan plan, QueryContext context) {
+    int[] offset = {plan.getOffset()};
+    return batchSize -> {
+      int limit = batchSize == Integer.MAX_VALUE ? plan.getLimit() : batchSize;
+      plan.setLimit(limit);
+      plan.setOffset(offset[0]);
+      List<ShowTimeSeriesResult> results = showTimeseries(plan, context);
+      offset[0] += results.size();
+      return results;
+    };
+  }
+
   @Override
   public List<ShowTimeSeriesResult> showTimeseries(ShowTimeSeriesPlan plan, QueryContext context)
       throws MetadataException {
@@ -92,6 +92,21 @@ public class TsFileSequenceRead {
               }
             }
             break;
+          case MetaMarker.TIME_CHUNK_HEADER:
+          case MetaMarker.VALUE_CHUNK_HEADER:
+            // the pages of an aligned chunk group are decoded by querying its value chunks
+            System.out.println(marker == MetaMarker.TIME_CHUNK_HEADER ? "\t[Time Chunk]"
+                    : "\t[Value Chunk]");
+            System.out.println("\tposition: " + reader.position());
+            ChunkHeader alignedHeader = reader.readChunkHeader(marker);
+            System.out.println("\tMeasurement: " + alignedHeader.getMeasurementID());
+            for (int j = 0; j < alignedHeader.getNumOfPages(); j++) {
+              PageHeader pageHeader = reader.readPageHeader(alignedHeader.getDataType());
+              System.out.println("\t\t[Page]\n \t\tpoints in the page: "
+                      + pageHeader.getNumOfValues());
+              reader.skipPageData(pageHeader);
+            }
+            break;
           case MetaMarker.CHUNK_GROUP_FOOTER:
             System.out.println("Chunk Group Footer position: " + reader.position());
             ChunkGroupFooter chunkGroupFooter = reader.readChunkGroupFooter();
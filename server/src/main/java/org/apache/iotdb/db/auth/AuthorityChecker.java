@@ -115,6 +115,8 @@ public class AuthorityChecker {
       case SET_STORAGE_GROUP:
         return PrivilegeType.SET_STORAGE_GROUP.ordinal();
       case CREATE_TIMESERIES:
+      case CREATE_TEMPLATE:
+      case SET_DEVICE_TEMPLATE:
         return PrivilegeType.CREATE_TIMESERIES.ordinal();
       case DELETE_TIMESERIES:
         return PrivilegeType.DELETE_TIMESERIES.ordinal();
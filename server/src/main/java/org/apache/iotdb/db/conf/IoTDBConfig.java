@@ -32,6 +32,7 @@ import org.apache.iotdb.db.service.TSServiceImpl;
 import org.apache.iotdb.rpc.RpcTransportFactory;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.fileSystem.FSType;
@@ -252,6 +253,28 @@ public class IoTDBConfig {
    */
   private String multiDirStrategyClassName = null;
 
+  /**
+   * Data directories of the colder storage tiers, tierDataDirs[i] are the directories of tier
+   * i + 1 while dataDirs are tier 0. Closed TsFiles are migrated into the colder tiers as they age.
+   */
+  private String[][] tierDataDirs = new String[0][];
+
+  /**
+   * tierDataAgesInMs[i] is how long after its newest data a TsFile is migrated into tier i + 1.
+   */
+  private long[] tierDataAgesInMs = new long[0];
+
+  /**
+   * A TsFile read within this time is not migrated, so that the files being queried stay in the
+   * faster tiers.
+   */
+  private long tierMinIdleTimeInMs = 3_600_000L;
+
+  /**
+   * How often the TsFiles are checked for migration between tiers.
+   */
+  private long tierMigrationCheckIntervalInMs = 60_000L;
+
   /**
    * Wal directory.
    */
@@ -418,6 +441,12 @@ public class IoTDBConfig {
    */
   private int mManagerCacheSize = 300000;
 
+  /**
+   * Number of path patterns whose matched timeseries are cached in {@link MManager}, 0 means
+   * disabled.
+   */
+  private int pathPatternCacheSize = 1000;
+
   /**
    * Cache size of {@code checkAndGetDataTypeCache} in {@link MManager}.
    */
@@ -574,6 +603,13 @@ public class IoTDBConfig {
    */
   private long mergeMemoryBudget = (long) (Runtime.getRuntime().maxMemory() * 0.1);
 
+  /**
+   * When set to true, a merge task merges the series in batches fitting mergeMemoryBudget and
+   * spills the chunks being merged to temporary files when they exceed it, so the file selection
+   * only needs to reserve memory for the metadata of the new files.
+   */
+  private boolean enableMergeMemorySpill = false;
+
   /**
    * How many threads will be set up to perform upgrade tasks.
    */
@@ -615,17 +651,43 @@ public class IoTDBConfig {
    */
   private boolean forceFullMerge = false;
 
+  /**
+   * When set to true, an unseq merge that is not a full merge only rewrites the chunks of the
+   * SeqFiles overlapped by unseq data and appends them to the SeqFiles with a new metadata footer,
+   * the other chunks of the SeqFiles are left untouched.
+   */
+  private boolean enableIncrementalMerge = false;
+
   /**
    * The limit of compaction merge can reach per second
    */
   private int mergeWriteThroughputMbPerSec = 8;
 
+  /**
+   * The target p99 latency of insertions. The write throughput of compactions and merges is
+   * lowered (down to 1/16 of merge_write_throughput_mb_per_sec) while insertions are slower than
+   * it. Set to 0 to disable the adaptive throughput.
+   */
+  private long mergeIngestLatencyTargetMs = 200;
+
   /**
    * How many thread will be set up to perform compaction, 10 by default. Set to 1 when less
    * than or equal to 0.
    */
   private int compactionThreadNum = 10;
 
+  /**
+   * How many sub-tasks a compaction into the last level is split into by device ranges, each
+   * writing a separate target file. Set to 1 when less than or equal to 0.
+   */
+  private int compactionSubThreadNum = 4;
+
+  /**
+   * The compressor of the chunks compacted into the files of each level, the last one is used by
+   * the higher levels. A null one keeps the compressors of the series.
+   */
+  private CompressionType[] compactionLevelCompressors = new CompressionType[0];
+
   private MergeFileStrategy mergeFileStrategy = MergeFileStrategy.MAX_SERIES_NUM;
 
   /**
@@ -754,6 +816,14 @@ public class IoTDBConfig {
   // if enable partial insert, one measurement failure will not impact other measurements
   private boolean enablePartialInsert = true;
 
+  // if enabled, the devices inserted by tablets are flushed as aligned chunk groups, whose
+  // measurements share one time chunk
+  private boolean enableAlignedTabletStorage = false;
+
+  // if enabled, the time buckets of the devices and a Bloom filter of the series of a sealed tsfile
+  // are recorded in its resource to skip the files not queried without opening them
+  private boolean enableResourceIndex = true;
+
   // Open ID Secret
   private String openIdProviderUrl = null;
 
@@ -870,11 +940,21 @@ public class IoTDBConfig {
       for (int i = 0; i < dataDirs.length; i++) {
         dataDirs[i] = hdfsDir + File.separatorChar + dataDirs[i];
       }
+      for (String[] tierDirs : tierDataDirs) {
+        for (int i = 0; i < tierDirs.length; i++) {
+          tierDirs[i] = hdfsDir + File.separatorChar + tierDirs[i];
+        }
+      }
     } else {
       queryDir = addHomeDir(queryDir);
       for (int i = 0; i < dataDirs.length; i++) {
         dataDirs[i] = addHomeDir(dataDirs[i]);
       }
+      for (String[] tierDirs : tierDataDirs) {
+        for (int i = 0; i < tierDirs.length; i++) {
+          tierDirs[i] = addHomeDir(tierDirs[i]);
+        }
+      }
     }
   }
 
@@ -1075,6 +1155,38 @@ public class IoTDBConfig {
     this.multiDirStrategyClassName = multiDirStrategyClassName;
   }
 
+  public String[][] getTierDataDirs() {
+    return tierDataDirs;
+  }
+
+  public void setTierDataDirs(String[][] tierDataDirs) {
+    this.tierDataDirs = tierDataDirs;
+  }
+
+  public long[] getTierDataAgesInMs() {
+    return tierDataAgesInMs;
+  }
+
+  public void setTierDataAgesInMs(long[] tierDataAgesInMs) {
+    this.tierDataAgesInMs = tierDataAgesInMs;
+  }
+
+  public long getTierMinIdleTimeInMs() {
+    return tierMinIdleTimeInMs;
+  }
+
+  public void setTierMinIdleTimeInMs(long tierMinIdleTimeInMs) {
+    this.tierMinIdleTimeInMs = tierMinIdleTimeInMs;
+  }
+
+  public long getTierMigrationCheckIntervalInMs() {
+    return tierMigrationCheckIntervalInMs;
+  }
+
+  public void setTierMigrationCheckIntervalInMs(long tierMigrationCheckIntervalInMs) {
+    this.tierMigrationCheckIntervalInMs = tierMigrationCheckIntervalInMs;
+  }
+
   public int getBatchSize() {
     return batchSize;
   }
@@ -1139,6 +1251,14 @@ public class IoTDBConfig {
     this.mManagerCacheSize = mManagerCacheSize;
   }
 
+  public int getPathPatternCacheSize() {
+    return pathPatternCacheSize;
+  }
+
+  void setPathPatternCacheSize(int pathPatternCacheSize) {
+    this.pathPatternCacheSize = pathPatternCacheSize;
+  }
+
   public int getmRemoteSchemaCacheSize() {
     return mRemoteSchemaCacheSize;
   }
@@ -1231,10 +1351,18 @@ public class IoTDBConfig {
     return mergeMemoryBudget;
   }
 
-  void setMergeMemoryBudget(long mergeMemoryBudget) {
+  public void setMergeMemoryBudget(long mergeMemoryBudget) {
     this.mergeMemoryBudget = mergeMemoryBudget;
   }
 
+  public boolean isEnableMergeMemorySpill() {
+    return enableMergeMemorySpill;
+  }
+
+  public void setEnableMergeMemorySpill(boolean enableMergeMemorySpill) {
+    this.enableMergeMemorySpill = enableMergeMemorySpill;
+  }
+
   public int getMergeThreadNum() {
     return mergeThreadNum;
   }
@@ -1379,6 +1507,22 @@ public class IoTDBConfig {
     this.enablePartialInsert = enablePartialInsert;
   }
 
+  public boolean isEnableAlignedTabletStorage() {
+    return enableAlignedTabletStorage;
+  }
+
+  public void setEnableAlignedTabletStorage(boolean enableAlignedTabletStorage) {
+    this.enableAlignedTabletStorage = enableAlignedTabletStorage;
+  }
+
+  public boolean isEnableResourceIndex() {
+    return enableResourceIndex;
+  }
+
+  public void setEnableResourceIndex(boolean enableResourceIndex) {
+    this.enableResourceIndex = enableResourceIndex;
+  }
+
   public boolean isForceFullMerge() {
     return forceFullMerge;
   }
@@ -1387,6 +1531,14 @@ public class IoTDBConfig {
     this.forceFullMerge = forceFullMerge;
   }
 
+  public boolean isEnableIncrementalMerge() {
+    return enableIncrementalMerge;
+  }
+
+  public void setEnableIncrementalMerge(boolean enableIncrementalMerge) {
+    this.enableIncrementalMerge = enableIncrementalMerge;
+  }
+
   public int getCompactionThreadNum() {
     return compactionThreadNum;
   }
@@ -1395,6 +1547,51 @@ public class IoTDBConfig {
     this.compactionThreadNum = compactionThreadNum;
   }
 
+  public long getMergeIngestLatencyTargetMs() {
+    return mergeIngestLatencyTargetMs;
+  }
+
+  public void setMergeIngestLatencyTargetMs(long mergeIngestLatencyTargetMs) {
+    this.mergeIngestLatencyTargetMs = mergeIngestLatencyTargetMs;
+  }
+
+  public int getCompactionSubThreadNum() {
+    return compactionSubThreadNum;
+  }
+
+  public void setCompactionSubThreadNum(int compactionSubThreadNum) {
+    this.compactionSubThreadNum = compactionSubThreadNum;
+  }
+
+  /**
+   * @return the compressor of the chunks compacted into the files of the level, or null if they
+   * keep the compressors of their series
+   */
+  public CompressionType getCompactionCompressor(int level) {
+    if (compactionLevelCompressors.length == 0) {
+      return null;
+    }
+    return compactionLevelCompressors[Math.min(level, compactionLevelCompressors.length - 1)];
+  }
+
+  /**
+   * @param compressors the names of the compressors of each level, an empty one keeps the
+   *                    compressors of the series
+   */
+  public void setCompactionLevelCompressors(String[] compressors) {
+    if (compressors.length == 1 && compressors[0].trim().isEmpty()) {
+      compactionLevelCompressors = new CompressionType[0];
+      return;
+    }
+    CompressionType[] levelCompressors = new CompressionType[compressors.length];
+    for (int i = 0; i < compressors.length; i++) {
+      String compressor = compressors[i].trim();
+      levelCompressors[i] = compressor.isEmpty() ? null
+          : CompressionType.valueOf(compressor.toUpperCase());
+    }
+    compactionLevelCompressors = levelCompressors;
+  }
+
   public int getMergeWriteThroughputMbPerSec() {
     return mergeWriteThroughputMbPerSec;
   }
@@ -231,6 +231,25 @@ public class IoTDBDescriptor {
       conf.setDataDirs(properties.getProperty("data_dirs", conf.getDataDirs()[0])
           .split(","));
 
+      String[] tiers = properties.getProperty("tier_data_dirs", "").trim().split(";");
+      String[] tierAges = properties.getProperty("tier_data_ages_in_ms", "").trim().split(",");
+      if (!tiers[0].isEmpty()) {
+        String[][] tierDataDirs = new String[tiers.length][];
+        long[] tierDataAgesInMs = new long[tiers.length];
+        for (int i = 0; i < tiers.length; i++) {
+          tierDataDirs[i] = tiers[i].trim().split(",");
+          tierDataAgesInMs[i] = i < tierAges.length && !tierAges[i].trim().isEmpty()
+              ? Long.parseLong(tierAges[i].trim()) : Long.MAX_VALUE;
+        }
+        conf.setTierDataDirs(tierDataDirs);
+        conf.setTierDataAgesInMs(tierDataAgesInMs);
+      }
+      conf.setTierMinIdleTimeInMs(Long.parseLong(properties.getProperty(
+          "tier_min_idle_time_in_ms", Long.toString(conf.getTierMinIdleTimeInMs()))));
+      conf.setTierMigrationCheckIntervalInMs(Long.parseLong(properties.getProperty(
+          "tier_migration_check_interval_in_ms",
+          Long.toString(conf.getTierMigrationCheckIntervalInMs()))));
+
       conf.setWalDir(properties.getProperty("wal_dir", conf.getWalDir()));
 
       int walBufferSize = Integer.parseInt(properties.getProperty("wal_buffer_size",
@@ -364,6 +383,10 @@ public class IoTDBDescriptor {
           .parseInt(properties.getProperty("metadata_node_cache_size",
               Integer.toString(conf.getmManagerCacheSize())).trim()));
 
+      conf.setPathPatternCacheSize(Integer
+          .parseInt(properties.getProperty("path_pattern_cache_size",
+              Integer.toString(conf.getPathPatternCacheSize())).trim()));
+
       conf.setmRemoteSchemaCacheSize(Integer
           .parseInt(properties.getProperty("remote_schema_cache_size",
               Integer.toString(conf.getmRemoteSchemaCacheSize())).trim()));
@@ -385,6 +408,8 @@ public class IoTDBDescriptor {
           Integer.toString(conf.getUpgradeThreadNum()))));
       conf.setMergeMemoryBudget(Long.parseLong(properties.getProperty("merge_memory_budget",
           Long.toString(conf.getMergeMemoryBudget()))));
+      conf.setEnableMergeMemorySpill(Boolean.parseBoolean(properties.getProperty(
+          "enable_merge_memory_spill", Boolean.toString(conf.isEnableMergeMemorySpill()))));
       conf.setMergeThreadNum(Integer.parseInt(properties.getProperty("merge_thread_num",
           Integer.toString(conf.getMergeThreadNum()))));
       conf.setMergeChunkSubThreadNum(Integer.parseInt(properties.getProperty
@@ -399,16 +424,32 @@ public class IoTDBDescriptor {
           Long.toString(conf.getMergeIntervalSec()))));
       conf.setForceFullMerge(Boolean.parseBoolean(properties.getProperty("force_full_merge",
           Boolean.toString(conf.isForceFullMerge()))));
+      conf.setEnableIncrementalMerge(Boolean.parseBoolean(properties.getProperty(
+          "enable_incremental_merge", Boolean.toString(conf.isEnableIncrementalMerge()))));
       conf.setCompactionThreadNum(Integer.parseInt(properties.getProperty(
           "compaction_thread_num", Integer.toString(conf.getCompactionThreadNum()))));
+      conf.setCompactionSubThreadNum(Integer.parseInt(properties.getProperty(
+          "compaction_subthread_num", Integer.toString(conf.getCompactionSubThreadNum()))));
+      conf.setCompactionLevelCompressors(
+          properties.getProperty("compaction_level_compressors", "").split(","));
       conf.setMergeWriteThroughputMbPerSec(Integer.parseInt(properties.getProperty(
           "merge_write_throughput_mb_per_sec",
           Integer.toString(conf.getMergeWriteThroughputMbPerSec()))));
+      conf.setMergeIngestLatencyTargetMs(Long.parseLong(properties.getProperty(
+          "merge_ingest_latency_target_ms",
+          Long.toString(conf.getMergeIngestLatencyTargetMs()))));
 
       conf.setEnablePartialInsert(
           Boolean.parseBoolean(properties.getProperty("enable_partial_insert",
               String.valueOf(conf.isEnablePartialInsert()))));
 
+      conf.setEnableAlignedTabletStorage(
+          Boolean.parseBoolean(properties.getProperty("enable_aligned_tablet_storage",
+              String.valueOf(conf.isEnableAlignedTabletStorage()))));
+      conf.setEnableResourceIndex(
+          Boolean.parseBoolean(properties.getProperty("enable_resource_index",
+              String.valueOf(conf.isEnableResourceIndex()))));
+
       conf.setEnableMTreeSnapshot(Boolean.parseBoolean(properties.getProperty(
           "enable_mtree_snapshot", Boolean.toString(conf.isEnableMTreeSnapshot()))));
       conf.setMtreeSnapshotInterval(Integer.parseInt(properties.getProperty(
@@ -677,6 +718,10 @@ public class IoTDBDescriptor {
         .parseInt(properties.getProperty("max_number_of_points_in_page",
             Integer.toString(
                 TSFileDescriptor.getInstance().getConfig().getMaxNumberOfPointsInPage()))));
+    TSFileDescriptor.getInstance().getConfig().setPageIndexMinPageNum(Integer
+        .parseInt(properties.getProperty("page_index_min_page_num",
+            Integer.toString(
+                TSFileDescriptor.getInstance().getConfig().getPageIndexMinPageNum()))));
     TSFileDescriptor.getInstance().getConfig().setTimeSeriesDataType(properties
         .getProperty("time_series_data_type",
             TSFileDescriptor.getInstance().getConfig().getTimeSeriesDataType()));
@@ -700,6 +745,9 @@ public class IoTDBDescriptor {
     TSFileDescriptor.getInstance().getConfig().setCompressor(properties
         .getProperty("compressor",
             TSFileDescriptor.getInstance().getConfig().getCompressor().toString()));
+    TSFileDescriptor.getInstance().getConfig().setGzipCompressionLevel(Integer.parseInt(properties
+        .getProperty("gzip_compression_level", Integer
+            .toString(TSFileDescriptor.getInstance().getConfig().getGzipCompressionLevel()))));
     TSFileDescriptor.getInstance().getConfig().setMaxDegreeOfIndexNode(Integer.parseInt(properties
         .getProperty("max_degree_of_index_node", Integer
             .toString(TSFileDescriptor.getInstance().getConfig().getMaxDegreeOfIndexNode()))));
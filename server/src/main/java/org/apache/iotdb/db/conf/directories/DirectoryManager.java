@@ -21,7 +21,9 @@ package org.apache.iotdb.db.conf.directories;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.directories.strategy.DirectoryStrategy;
@@ -33,6 +35,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * The main class of multiple directories. Used to allocate folders to data files.
+ * <p>
+ * The data directories may be organized in storage tiers from hot to cold: new data files are
+ * allocated in the folders of tier 0, i.e., data_dirs, and migrated into the folders of the colder
+ * tiers, i.e., tier_data_dirs, as they age.
  */
 public class DirectoryManager {
 
@@ -43,6 +49,14 @@ public class DirectoryManager {
   private DirectoryStrategy sequenceStrategy;
   private DirectoryStrategy unsequenceStrategy;
 
+  // the folders and strategies of tier 1, 2, ...
+  private List<List<String>> tierSequenceFileFolders = new ArrayList<>();
+  private List<List<String>> tierUnsequenceFileFolders = new ArrayList<>();
+  private List<DirectoryStrategy> tierSequenceStrategies = new ArrayList<>();
+  private List<DirectoryStrategy> tierUnsequenceStrategies = new ArrayList<>();
+  // data folder -> its tier
+  private Map<String, Integer> folderTierMap = new HashMap<>();
+
   private DirectoryManager() {
     sequenceFileFolders =
         new ArrayList<>(Arrays.asList(IoTDBDescriptor.getInstance().getConfig().getDataDirs()));
@@ -73,6 +87,72 @@ public class DirectoryManager {
     } catch (Exception e) {
       logger.error("Can't find strategy {} for mult-directories.", strategyName, e);
     }
+
+    updateTierFolders();
+  }
+
+  /**
+   * Load the folders of the colder tiers from tier_data_dirs.
+   */
+  public void updateTierFolders() {
+    String strategyName = IoTDBDescriptor.getInstance().getConfig().getMultiDirStrategyClassName();
+    List<List<String>> newTierSequenceFileFolders = new ArrayList<>();
+    List<List<String>> newTierUnsequenceFileFolders = new ArrayList<>();
+    List<DirectoryStrategy> newTierSequenceStrategies = new ArrayList<>();
+    List<DirectoryStrategy> newTierUnsequenceStrategies = new ArrayList<>();
+    for (String[] tierDataDirs : IoTDBDescriptor.getInstance().getConfig().getTierDataDirs()) {
+      List<String> tierSequenceFolders = new ArrayList<>();
+      List<String> tierUnsequenceFolders = new ArrayList<>();
+      for (String tierDataDir : tierDataDirs) {
+        tierSequenceFolders.add(tierDataDir + File.separator + IoTDBConstant.SEQUENCE_FLODER_NAME);
+        tierUnsequenceFolders
+            .add(tierDataDir + File.separator + IoTDBConstant.UNSEQUENCE_FLODER_NAME);
+      }
+      mkDataDirs(tierSequenceFolders);
+      mkDataDirs(tierUnsequenceFolders);
+      try {
+        Class<?> clazz = Class.forName(strategyName);
+        DirectoryStrategy tierSequenceStrategy = (DirectoryStrategy) clazz.newInstance();
+        tierSequenceStrategy.setFolders(tierSequenceFolders);
+        DirectoryStrategy tierUnsequenceStrategy = (DirectoryStrategy) clazz.newInstance();
+        tierUnsequenceStrategy.setFolders(tierUnsequenceFolders);
+        newTierSequenceStrategies.add(tierSequenceStrategy);
+        newTierUnsequenceStrategies.add(tierUnsequenceStrategy);
+      } catch (DiskSpaceInsufficientException e) {
+        logger.error("All disks of folders of tier {} are full, ignore the colder tiers.",
+            newTierSequenceFileFolders.size() + 1, e);
+        break;
+      } catch (Exception e) {
+        logger.error("Can't find strategy {} for mult-directories.", strategyName, e);
+        break;
+      }
+      newTierSequenceFileFolders.add(tierSequenceFolders);
+      newTierUnsequenceFileFolders.add(tierUnsequenceFolders);
+    }
+    this.tierSequenceStrategies = newTierSequenceStrategies;
+    this.tierUnsequenceStrategies = newTierUnsequenceStrategies;
+    this.tierSequenceFileFolders = newTierSequenceFileFolders;
+    this.tierUnsequenceFileFolders = newTierUnsequenceFileFolders;
+    updateFolderTierMap();
+  }
+
+  private void updateFolderTierMap() {
+    Map<String, Integer> newFolderTierMap = new HashMap<>();
+    for (String folder : sequenceFileFolders) {
+      newFolderTierMap.put(new File(folder).getAbsolutePath(), 0);
+    }
+    for (String folder : unsequenceFileFolders) {
+      newFolderTierMap.put(new File(folder).getAbsolutePath(), 0);
+    }
+    for (int i = 0; i < tierSequenceFileFolders.size(); i++) {
+      for (String folder : tierSequenceFileFolders.get(i)) {
+        newFolderTierMap.put(new File(folder).getAbsolutePath(), i + 1);
+      }
+      for (String folder : tierUnsequenceFileFolders.get(i)) {
+        newFolderTierMap.put(new File(folder).getAbsolutePath(), i + 1);
+      }
+    }
+    folderTierMap = newFolderTierMap;
   }
 
   public void updateFileFolders() throws LoadConfigurationException {
@@ -88,6 +168,7 @@ public class DirectoryManager {
       unsequenceStrategy.setFolders(unsequenceFileFolders);
       this.sequenceFileFolders = sequenceFileFolders;
       this.unsequenceFileFolders = unsequenceFileFolders;
+      updateFolderTierMap();
       logger.info("Success to update file folders.");
     } catch (DiskSpaceInsufficientException e) {
       logger.error(
@@ -148,8 +229,46 @@ public class DirectoryManager {
     return sequenceFileFolders.get(index);
   }
 
+  /**
+   * @return the sequence folders of all tiers
+   */
   public List<String> getAllSequenceFileFolders() {
-    return new ArrayList<>(sequenceFileFolders);
+    List<String> folders = new ArrayList<>(sequenceFileFolders);
+    tierSequenceFileFolders.forEach(folders::addAll);
+    return folders;
+  }
+
+  public int getTierNum() {
+    return tierSequenceFileFolders.size() + 1;
+  }
+
+  /**
+   * @param tier 0 for data_dirs, i for the i-th tier of tier_data_dirs
+   */
+  public String getNextFolderForTier(int tier, boolean sequence)
+      throws DiskSpaceInsufficientException {
+    if (tier == 0) {
+      return sequence ? getNextFolderForSequenceFile() : getNextFolderForUnSequenceFile();
+    }
+    if (sequence) {
+      return tierSequenceFileFolders.get(tier - 1)
+          .get(tierSequenceStrategies.get(tier - 1).nextFolderIndex());
+    }
+    return tierUnsequenceFileFolders.get(tier - 1)
+        .get(tierUnsequenceStrategies.get(tier - 1).nextFolderIndex());
+  }
+
+  /**
+   * @param tsFile a TsFile in "{data folder}/{storage group}/{time partition}/"
+   * @return the tier of the data folder where the TsFile is, 0 if it is not in any data folder
+   */
+  public int getTier(File tsFile) {
+    File partitionFolder = tsFile.getAbsoluteFile().getParentFile();
+    if (partitionFolder == null || partitionFolder.getParentFile() == null) {
+      return 0;
+    }
+    String dataFolder = partitionFolder.getParentFile().getParent();
+    return dataFolder == null ? 0 : folderTierMap.getOrDefault(dataFolder, 0);
   }
 
   private static class DirectoriesHolder {
@@ -186,8 +305,13 @@ public class DirectoryManager {
     return unsequenceFileFolders.indexOf(folder);
   }
 
+  /**
+   * @return the unsequence folders of all tiers
+   */
   public List<String> getAllUnSequenceFileFolders() {
-    return new ArrayList<>(unsequenceFileFolders);
+    List<String> folders = new ArrayList<>(unsequenceFileFolders);
+    tierUnsequenceFileFolders.forEach(folders::addAll);
+    return folders;
   }
 
 }
@@ -43,6 +43,7 @@ import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.ServerConfigConsistent;
+import org.apache.iotdb.db.engine.compaction.CompactionScheduler;
 import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
 import org.apache.iotdb.db.engine.flush.CloseFileListener;
 import org.apache.iotdb.db.engine.flush.FlushListener;
@@ -394,6 +395,7 @@ public class StorageEngine implements IService {
     StorageGroupProcessor storageGroupProcessor = getProcessor(insertRowPlan.getDeviceId());
 
     // TODO monitor: update statistics
+    long startTime = System.nanoTime();
     try {
       storageGroupProcessor.insert(insertRowPlan);
       if (config.isEnableStatMonitor()) {
@@ -401,6 +403,8 @@ public class StorageEngine implements IService {
       }
     } catch (WriteProcessException e) {
       throw new StorageEngineException(e);
+    } finally {
+      CompactionScheduler.getInstance().recordInsertLatency(System.nanoTime() - startTime);
     }
   }
 
@@ -418,9 +422,14 @@ public class StorageEngine implements IService {
     }
 
     // TODO monitor: update statistics
-    storageGroupProcessor.insertTablet(insertTabletPlan);
-    if (config.isEnableStatMonitor()) {
-      updateMonitorStatistics(storageGroupProcessor, insertTabletPlan);
+    long startTime = System.nanoTime();
+    try {
+      storageGroupProcessor.insertTablet(insertTabletPlan);
+      if (config.isEnableStatMonitor()) {
+        updateMonitorStatistics(storageGroupProcessor, insertTabletPlan);
+      }
+    } finally {
+      CompactionScheduler.getInstance().recordInsertLatency(System.nanoTime() - startTime);
     }
   }
 
@@ -625,6 +634,15 @@ public class StorageEngine implements IService {
     }
   }
 
+  /**
+   * migrate the closed TsFiles of all storage groups into the colder tiers they belong to
+   */
+  public void migrateColdFiles() {
+    for (StorageGroupProcessor storageGroupProcessor : processorMap.values()) {
+      storageGroupProcessor.migrateColdFiles();
+    }
+  }
+
   /**
    * delete all data files (both memory data and file on disk) in a storage group. It is used when
    * there is no timeseries (which are all deleted) in this storage group)
@@ -664,6 +682,7 @@ public class StorageEngine implements IService {
     if (processor != null) {
       processor.deleteFolder(systemDir);
     }
+    CompactionScheduler.getInstance().removeStorageGroup(storageGroupPath.getFullPath());
   }
 
   public void loadNewTsFileForSync(TsFileResource newTsFileResource)
@@ -25,6 +25,7 @@ import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.tier.TierManager;
 import org.apache.iotdb.db.utils.TestOnly;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
@@ -85,9 +86,7 @@ public class ChunkCache {
 
   public Chunk get(ChunkMetadata chunkMetaData, TsFileSequenceReader reader) throws IOException {
     if (!CACHE_ENABLE) {
-      Chunk chunk = reader.readMemChunk(chunkMetaData);
-      return new Chunk(chunk.getHeader(), chunk.getData().duplicate(),
-          chunk.getDeleteIntervalList());
+      return copy(readMemChunk(chunkMetaData, reader));
     }
 
     cacheRequestNum.incrementAndGet();
@@ -105,7 +104,7 @@ public class ChunkCache {
     } else {
       printCacheLog(false);
       try {
-        chunk = reader.readMemChunk(chunkMetaData);
+        chunk = readMemChunk(chunkMetaData, reader);
       } catch (IOException e) {
         logger.error("something wrong happened while reading {}", reader.getFileName());
         throw e;
@@ -121,7 +120,29 @@ public class ChunkCache {
     if (config.isDebugOn()) {
       DEBUG_LOGGER.info("get chunk from cache whose meta data is: " + chunkMetaData);
     }
-    return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeleteIntervalList());
+    return copy(chunk);
+  }
+
+  /**
+   * @return a chunk sharing the data of the chunk with its own position, so that the chunk can be
+   * read by several queries at the same time
+   */
+  private static Chunk copy(Chunk chunk) {
+    Chunk copiedChunk = new Chunk(chunk.getHeader(), chunk.getData().duplicate(),
+        chunk.getDeleteIntervalList(), chunk.getTimeChunk());
+    copiedChunk.setPageIndex(chunk.getPageIndex());
+    return copiedChunk;
+  }
+
+  /**
+   * read the chunk from the file and record the read latency of the tier where the file is
+   */
+  private Chunk readMemChunk(ChunkMetadata chunkMetaData, TsFileSequenceReader reader)
+      throws IOException {
+    long startTime = System.nanoTime();
+    Chunk chunk = reader.readMemChunk(chunkMetaData);
+    TierManager.getInstance().recordRead(reader.getFileName(), System.nanoTime() - startTime);
+    return chunk;
   }
 
   private void printCacheLog(boolean isHit) {
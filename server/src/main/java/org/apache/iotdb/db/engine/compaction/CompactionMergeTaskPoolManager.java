@@ -19,13 +19,20 @@
 
 package org.apache.iotdb.db.engine.compaction;
 
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.IoTThreadFactory;
 import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.compaction.TsFileManagement.CompactionMergeTask;
+import org.apache.iotdb.db.engine.merge.manage.MergeManager;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
 import org.slf4j.Logger;
@@ -33,7 +40,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * CompactionMergeTaskPoolManager provides a ThreadPool to queue and run all compaction
- * tasks.
+ * tasks, and another ThreadPool to run the sub-tasks a compaction is split into. The queued tasks
+ * are run in the order given by the CompactionScheduler, which is adjusted periodically.
  */
 public class CompactionMergeTaskPoolManager implements IService {
 
@@ -41,6 +49,8 @@ public class CompactionMergeTaskPoolManager implements IService {
       .getLogger(CompactionMergeTaskPoolManager.class);
   private static final CompactionMergeTaskPoolManager INSTANCE = new CompactionMergeTaskPoolManager();
   private ExecutorService pool;
+  private ExecutorService subTaskPool;
+  private ScheduledExecutorService scheduler;
 
   public static CompactionMergeTaskPoolManager getInstance() {
     return INSTANCE;
@@ -49,10 +59,19 @@ public class CompactionMergeTaskPoolManager implements IService {
   @Override
   public void start() {
     if (pool == null) {
-      this.pool = IoTDBThreadPoolFactory
-          .newScheduledThreadPool(
-              IoTDBDescriptor.getInstance().getConfig().getCompactionThreadNum(),
-              ThreadName.COMPACTION_SERVICE.getName());
+      int threadNum = IoTDBDescriptor.getInstance().getConfig().getCompactionThreadNum();
+      int subThreadNum = Math
+          .max(IoTDBDescriptor.getInstance().getConfig().getCompactionSubThreadNum(), 1);
+      // the compaction tasks are comparable by their priorities
+      this.pool = new ThreadPoolExecutor(threadNum, threadNum, 0L, TimeUnit.MILLISECONDS,
+          new PriorityBlockingQueue<>(),
+          new IoTThreadFactory(ThreadName.COMPACTION_SERVICE.getName()));
+      this.subTaskPool = IoTDBThreadPoolFactory.newFixedThreadPool(threadNum * subThreadNum,
+          ThreadName.COMPACTION_SUB_TASK_SERVICE.getName());
+      this.scheduler = IoTDBThreadPoolFactory
+          .newSingleThreadScheduledExecutor(ThreadName.COMPACTION_SCHEDULER.getName());
+      scheduler.scheduleAtFixedRate(this::adjustSchedule, CompactionScheduler.ADJUST_INTERVAL_MS,
+          CompactionScheduler.ADJUST_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
     logger.info("Compaction task manager started.");
   }
@@ -60,7 +79,9 @@ public class CompactionMergeTaskPoolManager implements IService {
   @Override
   public void stop() {
     if (pool != null) {
+      scheduler.shutdownNow();
       pool.shutdownNow();
+      subTaskPool.shutdownNow();
       logger.info("Waiting for task pool to shut down");
       waitTermination();
     }
@@ -69,7 +90,9 @@ public class CompactionMergeTaskPoolManager implements IService {
   @Override
   public void waitAndStop(long milliseconds) {
     if (pool != null) {
+      scheduler.shutdownNow();
       awaitTermination(pool, milliseconds);
+      awaitTermination(subTaskPool, milliseconds);
       logger.info("Waiting for task pool to shut down");
       waitTermination();
     }
@@ -77,7 +100,7 @@ public class CompactionMergeTaskPoolManager implements IService {
 
   private void waitTermination() {
     long startTime = System.currentTimeMillis();
-    while (!pool.isTerminated()) {
+    while (!pool.isTerminated() || !subTaskPool.isTerminated()) {
       int timeMillis = 0;
       try {
         Thread.sleep(200);
@@ -93,6 +116,8 @@ public class CompactionMergeTaskPoolManager implements IService {
       }
     }
     pool = null;
+    subTaskPool = null;
+    scheduler = null;
     logger.info("CompactionManager stopped");
   }
 
@@ -107,6 +132,11 @@ public class CompactionMergeTaskPoolManager implements IService {
     service.shutdownNow();
   }
 
+  private void adjustSchedule() {
+    CompactionScheduler.getInstance().adjust();
+    MergeManager.getINSTANCE().updateMergeWriteRate();
+  }
+
   @Override
   public ServiceType getID() {
     return ServiceType.COMPACTION_SERVICE;
@@ -115,8 +145,20 @@ public class CompactionMergeTaskPoolManager implements IService {
   public void submitTask(CompactionMergeTask compactionMergeTask)
       throws RejectedExecutionException {
     if (pool != null && !pool.isTerminated()) {
-      pool.submit(compactionMergeTask);
+      // a task submitted would be wrapped into an incomparable future
+      pool.execute(compactionMergeTask);
+    }
+  }
+
+  /**
+   * Submit a sub-task of a running compaction task. The sub-tasks run in a separate pool, so a
+   * compaction task waiting for its sub-tasks never occupies the threads they need.
+   */
+  public Future<Void> submitSubTask(Callable<Void> subTask) throws RejectedExecutionException {
+    if (subTaskPool == null || subTaskPool.isShutdown()) {
+      throw new RejectedExecutionException("Compaction sub-task pool is not running");
     }
+    return subTaskPool.submit(subTask);
   }
 
   public boolean isTerminated() {
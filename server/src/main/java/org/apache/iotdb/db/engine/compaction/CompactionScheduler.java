@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.compaction;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CompactionScheduler decides which compactions run first and how fast the compactions and merges
+ * write.
+ * <p>
+ * The read amplification of a time partition is the number of extra files the queries of a series
+ * have to read in it, decayed over time. The compaction tasks of the partitions with larger read
+ * amplification run first, as compacting them saves the most reads.
+ * <p>
+ * The write throughput of compactions and merges is adjusted periodically to keep the p99 latency
+ * of insertions under merge_ingest_latency_target_ms: it is halved when the latency exceeds the
+ * target and increased step by step back to merge_write_throughput_mb_per_sec otherwise.
+ */
+public class CompactionScheduler {
+
+  private static final Logger logger = LoggerFactory.getLogger(CompactionScheduler.class);
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  static final long ADJUST_INTERVAL_MS = 1000;
+  // the read amplification halves in about a minute without queries
+  private static final double READ_AMPLIFICATION_DECAY = 0.99;
+  // the throughput is never throttled below 1/16 of the configured one, or it may never catch up
+  private static final int MIN_THROUGHPUT_DIVISOR = 16;
+  private static final int THROUGHPUT_INCREASE_STEPS = 10;
+
+  private static final CompactionScheduler INSTANCE = new CompactionScheduler();
+
+  // storage group -> time partition -> read amplification
+  private final Map<String, Map<Long, ReadAmplification>> readAmplificationMap = new ConcurrentHashMap<>();
+  // the i-th bucket counts the insertions taking [2^i, 2^(i+1)) ns in the current interval
+  private final AtomicLongArray insertLatencyHistogram = new AtomicLongArray(Long.SIZE);
+  private volatile double mergeWriteThroughputMbPerSec = config.getMergeWriteThroughputMbPerSec();
+
+  public static CompactionScheduler getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * record the files a query of a series reads in each time partition
+   */
+  public void recordQuery(String storageGroupName, QueryDataSource dataSource) {
+    Map<Long, Integer> partitionFileNum = new HashMap<>();
+    countFilesByPartition(dataSource.getSeqResources(), partitionFileNum);
+    countFilesByPartition(dataSource.getUnseqResources(), partitionFileNum);
+    for (Map.Entry<Long, Integer> entry : partitionFileNum.entrySet()) {
+      // reading one file of a partition is the best compaction can achieve
+      if (entry.getValue() > 1) {
+        readAmplificationMap.computeIfAbsent(storageGroupName, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(entry.getKey(), k -> new ReadAmplification())
+            .record(entry.getValue() - 1L);
+      }
+    }
+  }
+
+  private void countFilesByPartition(List<TsFileResource> resources,
+      Map<Long, Integer> partitionFileNum) {
+    for (TsFileResource resource : resources) {
+      partitionFileNum.merge(resource.getTimePartition(), 1, Integer::sum);
+    }
+  }
+
+  public double getReadAmplification(String storageGroupName, long timePartition) {
+    Map<Long, ReadAmplification> partitionReadAmplification = readAmplificationMap
+        .get(storageGroupName);
+    if (partitionReadAmplification == null) {
+      return 0;
+    }
+    ReadAmplification readAmplification = partitionReadAmplification.get(timePartition);
+    return readAmplification == null ? 0 : readAmplification.get();
+  }
+
+  public void removeStorageGroup(String storageGroupName) {
+    readAmplificationMap.remove(storageGroupName);
+  }
+
+  public void recordInsertLatency(long latencyNanos) {
+    if (latencyNanos > 0) {
+      insertLatencyHistogram
+          .incrementAndGet(Long.SIZE - 1 - Long.numberOfLeadingZeros(latencyNanos));
+    }
+  }
+
+  /**
+   * @return the current write throughput limit of compactions and merges, 0 means unlimited
+   */
+  public double getMergeWriteThroughputMbPerSec() {
+    return config.getMergeIngestLatencyTargetMs() > 0 ? mergeWriteThroughputMbPerSec
+        : config.getMergeWriteThroughputMbPerSec();
+  }
+
+  /**
+   * Decay the read amplifications and adjust the write throughput by the insertion latency of
+   * the last interval. Called every ADJUST_INTERVAL_MS.
+   */
+  void adjust() {
+    for (Map<Long, ReadAmplification> partitionReadAmplification : readAmplificationMap
+        .values()) {
+      partitionReadAmplification.values().removeIf(ReadAmplification::decay);
+    }
+
+    long p99LatencyNanos = pollP99InsertLatency();
+    int maxThroughput = config.getMergeWriteThroughputMbPerSec();
+    long targetNanos = config.getMergeIngestLatencyTargetMs() * 1_000_000L;
+    if (targetNanos <= 0 || maxThroughput <= 0) {
+      // not adaptive or not limited
+      mergeWriteThroughputMbPerSec = maxThroughput;
+      return;
+    }
+    double throughput = Math.min(mergeWriteThroughputMbPerSec, maxThroughput);
+    if (p99LatencyNanos > targetNanos) {
+      throughput = Math.max(throughput / 2, (double) maxThroughput / MIN_THROUGHPUT_DIVISOR);
+    } else {
+      throughput = Math
+          .min(throughput + (double) maxThroughput / THROUGHPUT_INCREASE_STEPS, maxThroughput);
+    }
+    if (throughput != mergeWriteThroughputMbPerSec) {
+      logger.debug("insertion p99 latency {}ns, merge write throughput is adjusted to {}MB/s",
+          p99LatencyNanos, throughput);
+      mergeWriteThroughputMbPerSec = throughput;
+    }
+  }
+
+  /**
+   * @return the upper bound of the p99 insertion latency in the last interval, and reset the
+   * histogram
+   */
+  private long pollP99InsertLatency() {
+    long[] counts = new long[insertLatencyHistogram.length()];
+    long total = 0;
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = insertLatencyHistogram.getAndSet(i, 0);
+      total += counts[i];
+    }
+    long toSkip = total - (long) Math.ceil(total * 0.99);
+    for (int i = counts.length - 1; i >= 0; i--) {
+      if (counts[i] > toSkip) {
+        return i == Long.SIZE - 2 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+      }
+      toSkip -= counts[i];
+    }
+    return 0;
+  }
+
+  private static class ReadAmplification {
+
+    private final LongAdder recentFileNum = new LongAdder();
+    private volatile double value;
+
+    private void record(long extraFileNum) {
+      recentFileNum.add(extraFileNum);
+    }
+
+    private double get() {
+      return value + recentFileNum.sum();
+    }
+
+    /**
+     * @return true if the read amplification has decayed to nothing
+     */
+    private boolean decay() {
+      value = value * READ_AMPLIFICATION_DECAY + recentFileNum.sumThenReset();
+      return value < 1;
+    }
+  }
+}
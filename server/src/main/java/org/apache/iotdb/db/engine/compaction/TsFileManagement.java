@@ -26,8 +26,14 @@ import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.TSFILE_SUFF
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
@@ -52,6 +58,7 @@ import org.slf4j.LoggerFactory;
 public abstract class TsFileManagement {
 
   private static final Logger logger = LoggerFactory.getLogger(TsFileManagement.class);
+  private static final AtomicLong TASK_ORDER = new AtomicLong();
   protected String storageGroupName;
   protected String storageGroupDir;
 
@@ -88,6 +95,41 @@ public abstract class TsFileManagement {
    */
   public abstract Iterator<TsFileResource> getIterator(boolean sequence);
 
+  /**
+   * get the TsFile list of a time partition in sequence
+   */
+  public List<TsFileResource> getTsFileListByTimePartition(boolean sequence, long timePartition) {
+    List<TsFileResource> result = new ArrayList<>();
+    for (TsFileResource tsFileResource : getTsFileList(sequence)) {
+      if (tsFileResource.getTimePartition() == timePartition) {
+        result.add(tsFileResource);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * get the time partitions that have TsFiles in ascending order
+   */
+  public SortedSet<Long> getTimePartitions() {
+    SortedSet<Long> result = new TreeSet<>();
+    for (TsFileResource tsFileResource : getTsFileList(true)) {
+      result.add(tsFileResource.getTimePartition());
+    }
+    for (TsFileResource tsFileResource : getTsFileList(false)) {
+      result.add(tsFileResource.getTimePartition());
+    }
+    return result;
+  }
+
+  /**
+   * remove all TsFiles of a time partition from list
+   */
+  public void removeTimePartition(long timePartition) {
+    removeAll(getTsFileListByTimePartition(true, timePartition), true);
+    removeAll(getTsFileListByTimePartition(false, timePartition), false);
+  }
+
   /**
    * remove one TsFile from list
    */
@@ -160,15 +202,30 @@ public abstract class TsFileManagement {
 
   protected abstract void merge(long timePartition);
 
-  public class CompactionMergeTask implements Runnable {
+  /**
+   * The tasks of the time partitions with larger read amplification run first, and the tasks of
+   * the same read amplification run in the order of submission.
+   */
+  public class CompactionMergeTask implements Runnable, Comparable<CompactionMergeTask> {
 
     private CloseCompactionMergeCallBack closeCompactionMergeCallBack;
     private long timePartitionId;
+    private final double readAmplification;
+    private final long submitOrder;
 
     public CompactionMergeTask(CloseCompactionMergeCallBack closeCompactionMergeCallBack,
         long timePartitionId) {
       this.closeCompactionMergeCallBack = closeCompactionMergeCallBack;
       this.timePartitionId = timePartitionId;
+      this.readAmplification = CompactionScheduler.getInstance()
+          .getReadAmplification(storageGroupName, timePartitionId);
+      this.submitOrder = TASK_ORDER.getAndIncrement();
+    }
+
+    @Override
+    public int compareTo(CompactionMergeTask o) {
+      int cmp = Double.compare(o.readAmplification, readAmplification);
+      return cmp != 0 ? cmp : Long.compare(submitOrder, o.submitOrder);
     }
 
     @Override
@@ -189,6 +246,17 @@ public abstract class TsFileManagement {
     }
     isUnseqMerging = true;
 
+    // the files being migrated into other tiers are copied without locks, and replacing them by
+    // merge would make the migrated copies stale. The whole partition is skipped so that the data
+    // overlapping a migrating seq file is not merged into its neighbours
+    Set<Long> migratingPartitions = new HashSet<>();
+    collectMigratingPartitions(seqMergeList, migratingPartitions);
+    collectMigratingPartitions(unSeqMergeList, migratingPartitions);
+    if (!migratingPartitions.isEmpty()) {
+      seqMergeList = excludePartitions(seqMergeList, migratingPartitions);
+      unSeqMergeList = excludePartitions(unSeqMergeList, migratingPartitions);
+    }
+
     if (seqMergeList.isEmpty()) {
       logger.info("{} no seq files to be merged", storageGroupName);
       isUnseqMerging = false;
@@ -245,6 +313,26 @@ public abstract class TsFileManagement {
     }
   }
 
+  private void collectMigratingPartitions(List<TsFileResource> resources,
+      Set<Long> partitions) {
+    for (TsFileResource resource : resources) {
+      if (resource.isMigrating()) {
+        partitions.add(resource.getTimePartition());
+      }
+    }
+  }
+
+  private List<TsFileResource> excludePartitions(List<TsFileResource> resources,
+      Set<Long> partitions) {
+    List<TsFileResource> result = new ArrayList<>(resources.size());
+    for (TsFileResource resource : resources) {
+      if (!partitions.contains(resource.getTimePartition())) {
+        result.add(resource);
+      }
+    }
+    return result;
+  }
+
   private IMergeFileSelector getMergeFileSelector(long budget, MergeResource resource) {
     MergeFileStrategy strategy = IoTDBDescriptor.getInstance().getConfig().getMergeFileStrategy();
     switch (strategy) {
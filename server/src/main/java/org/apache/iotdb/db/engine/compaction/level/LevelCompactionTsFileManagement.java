@@ -31,17 +31,25 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.cache.ChunkMetadataCache;
+import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.engine.compaction.CompactionMergeTaskPoolManager;
 import org.apache.iotdb.db.engine.compaction.TsFileManagement;
 import org.apache.iotdb.db.engine.compaction.utils.CompactionLogAnalyzer;
 import org.apache.iotdb.db.engine.compaction.utils.CompactionLogger;
@@ -75,8 +83,11 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
   // First map is partition list; Second list is level list; Third list is file list in level;
   private final Map<Long, List<TreeSet<TsFileResource>>> sequenceTsFileResources = new ConcurrentSkipListMap<>();
   private final Map<Long, List<List<TsFileResource>>> unSequenceTsFileResources = new ConcurrentSkipListMap<>();
-  private final List<List<TsFileResource>> forkedSequenceTsFileResources = new ArrayList<>();
-  private final List<List<TsFileResource>> forkedUnSequenceTsFileResources = new ArrayList<>();
+  private final int compactionSubThreadNum = IoTDBDescriptor.getInstance().getConfig()
+      .getCompactionSubThreadNum();
+  // partition -> the forked level list, each partition is compacted by one task at a time
+  private final Map<Long, List<List<TsFileResource>>> forkedSequenceTsFileResources = new ConcurrentHashMap<>();
+  private final Map<Long, List<List<TsFileResource>>> forkedUnSequenceTsFileResources = new ConcurrentHashMap<>();
 
   public LevelCompactionTsFileManagement(String storageGroupName, String storageGroupDir) {
     super(storageGroupName, storageGroupDir);
@@ -117,6 +128,7 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
       FileReaderManager.getInstance().closeFileAndRemoveReader(seqFile.getTsFilePath());
       seqFile.setDeleted(true);
       seqFile.delete();
+      seqFile.removeModFile();
     } catch (IOException e) {
       logger.error(e.getMessage(), e);
     } finally {
@@ -158,6 +170,21 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
     return result;
   }
 
+  @Override
+  public SortedSet<Long> getTimePartitions() {
+    SortedSet<Long> result = new TreeSet<>(sequenceTsFileResources.keySet());
+    result.addAll(unSequenceTsFileResources.keySet());
+    return result;
+  }
+
+  @Override
+  public void removeTimePartition(long timePartition) {
+    sequenceTsFileResources.remove(timePartition);
+    unSequenceTsFileResources.remove(timePartition);
+    forkedSequenceTsFileResources.remove(timePartition);
+    forkedUnSequenceTsFileResources.remove(timePartition);
+  }
+
   @Override
   public Iterator<TsFileResource> getIterator(boolean sequence) {
     return getTsFileList(sequence).iterator();
@@ -311,10 +338,21 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
    * recover files
    */
   @Override
-  @SuppressWarnings("squid:S3776")
   public void recover() {
-    File logFile = FSFactoryProducer.getFSFactory()
-        .getFile(storageGroupDir, storageGroupName + COMPACTION_LOG_NAME);
+    // each time partition is compacted with its own log
+    File[] logFiles = FSFactoryProducer.getFSFactory().getFile(storageGroupDir)
+        .listFiles((dir, name) -> name.startsWith(storageGroupName)
+            && name.endsWith(COMPACTION_LOG_NAME));
+    if (logFiles == null) {
+      return;
+    }
+    for (File logFile : logFiles) {
+      recover(logFile);
+    }
+  }
+
+  @SuppressWarnings("squid:S3776")
+  private void recover(File logFile) {
     try {
       if (logFile.exists()) {
         CompactionLogAnalyzer logAnalyzer = new CompactionLogAnalyzer(logFile);
@@ -329,6 +367,14 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
         if (targetFile == null) {
           return;
         }
+        if (logAnalyzer.getTargetFiles().size() > 1) {
+          // the sub-tasks of a split compaction are not resumed, the sources are only removed
+          // after all targets are finished, so the unfinished targets can just be dropped
+          if (!isMergeFinished) {
+            deleteUnfinishedTargets(logAnalyzer.getTargetFiles(), isSeq);
+          }
+          return;
+        }
         if (fullMerge) {
           if (!isMergeFinished) {
             RestorableTsFileIOWriter writer = new RestorableTsFileIOWriter(new File(targetFile));
@@ -338,7 +384,7 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
             long timePartition = targetTsFileResource.getTimePartition();
             CompactionUtils
                 .merge(targetTsFileResource, getTsFileList(isSeq), storageGroupName,
-                    new CompactionLogger(storageGroupDir, storageGroupName), deviceSet, isSeq);
+                    new CompactionLogger(logFile), deviceSet, isSeq);
             if (isSeq) {
               for (int level = 0; level < sequenceTsFileResources.get(timePartition).size();
                   level++) {
@@ -378,14 +424,19 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
               if (isSeq) {
                 CompactionUtils
                     .merge(targetResource, sourceTsFileResources, storageGroupName,
-                        new CompactionLogger(storageGroupDir, storageGroupName), deviceSet, true);
+                        new CompactionLogger(logFile), deviceSet, true);
+                // the devices merged before the restart did not apply the later modifications
+                writeRemainingModifications(sourceTsFileResources,
+                    Collections.singletonList(targetResource), Collections.emptyMap());
                 deleteLevelFilesInDisk(sourceTsFileResources);
                 deleteLevelFilesInList(timePartition, sourceTsFileResources, level, isSeq);
                 sequenceTsFileResources.get(timePartition).get(level + 1).add(targetResource);
               } else {
                 CompactionUtils
                     .merge(targetResource, sourceTsFileResources, storageGroupName,
-                        new CompactionLogger(storageGroupDir, storageGroupName), deviceSet, false);
+                        new CompactionLogger(logFile), deviceSet, false);
+                writeRemainingModifications(sourceTsFileResources,
+                    Collections.singletonList(targetResource), Collections.emptyMap());
                 deleteLevelFilesInDisk(sourceTsFileResources);
                 deleteLevelFilesInList(timePartition, sourceTsFileResources, level, isSeq);
                 unSequenceTsFileResources.get(timePartition).get(level + 1).add(targetResource);
@@ -407,24 +458,37 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
     }
   }
 
+  private void deleteUnfinishedTargets(List<String> targetFiles, boolean isSeq)
+      throws IOException {
+    for (String targetFile : targetFiles) {
+      TsFileResource targetResource = findTsFileResource(targetFile, isSeq);
+      if (targetResource != null) {
+        remove(targetResource, isSeq);
+        deleteLevelFile(targetResource);
+      } else {
+        Files.deleteIfExists(new File(targetFile).toPath());
+        Files.deleteIfExists(new File(targetFile + TsFileResource.RESOURCE_SUFFIX).toPath());
+      }
+      logger.info("{} [Compaction] delete unfinished target TsFile {}", storageGroupName,
+          targetFile);
+    }
+  }
+
   @Override
   public void forkCurrentFileList(long timePartition) {
-    forkTsFileList(
-        forkedSequenceTsFileResources,
+    forkedSequenceTsFileResources.put(timePartition, forkTsFileList(
         sequenceTsFileResources.computeIfAbsent(timePartition, this::newSequenceTsFileResources),
-        seqLevelNum, seqFileNumInEachLevel);
+        seqLevelNum, seqFileNumInEachLevel));
     // we have to copy all unseq file
-    forkTsFileList(
-        forkedUnSequenceTsFileResources,
+    forkedUnSequenceTsFileResources.put(timePartition, forkTsFileList(
         unSequenceTsFileResources
             .computeIfAbsent(timePartition, this::newUnSequenceTsFileResources),
-        unseqLevelNum + 1, unseqFileNumInEachLevel);
+        unseqLevelNum + 1, unseqFileNumInEachLevel));
   }
 
-  private void forkTsFileList(
-      List<List<TsFileResource>> forkedTsFileResources,
+  private List<List<TsFileResource>> forkTsFileList(
       List rawTsFileResources, int currMaxLevel, int currFileNumInEachLevel) {
-    forkedTsFileResources.clear();
+    List<List<TsFileResource>> forkedTsFileResources = new ArrayList<>();
     for (int i = 0; i < currMaxLevel - 1; i++) {
       List<TsFileResource> forkedLevelTsFileResources = new ArrayList<>();
       Collection<TsFileResource> levelRawTsFileResources = (Collection<TsFileResource>) rawTsFileResources
@@ -439,21 +503,50 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
       }
       forkedTsFileResources.add(forkedLevelTsFileResources);
     }
+    return forkedTsFileResources;
   }
 
   @Override
   protected void merge(long timePartition) {
-    merge(forkedSequenceTsFileResources, true, timePartition, seqLevelNum,
+    List<List<TsFileResource>> forkedSeqTsFileResources = forkedSequenceTsFileResources
+        .remove(timePartition);
+    List<List<TsFileResource>> forkedUnSeqTsFileResources = forkedUnSequenceTsFileResources
+        .remove(timePartition);
+    if (forkedSeqTsFileResources == null || forkedUnSeqTsFileResources == null) {
+      logger.warn("{} [Compaction] time partition {} is not forked before merge",
+          storageGroupName, timePartition);
+      return;
+    }
+    merge(forkedSeqTsFileResources, true, timePartition, seqLevelNum,
         seqFileNumInEachLevel);
-    if (enableUnseqCompaction && unseqLevelNum <= 1 && forkedUnSequenceTsFileResources.size() > 0) {
-      merge(isForceFullMerge, getTsFileList(true), forkedUnSequenceTsFileResources.get(0),
-          Long.MAX_VALUE);
+    if (enableUnseqCompaction && unseqLevelNum <= 1 && !forkedUnSeqTsFileResources.isEmpty()) {
+      merge(isForceFullMerge, getTsFileListByTimePartition(true, timePartition),
+          forkedUnSeqTsFileResources.get(0), Long.MAX_VALUE);
     } else {
-      merge(forkedUnSequenceTsFileResources, false, timePartition, unseqLevelNum,
+      merge(forkedUnSeqTsFileResources, false, timePartition, unseqLevelNum,
           unseqFileNumInEachLevel);
     }
   }
 
+  /**
+   * the unseq files of a time partition only overlap the seq files of the same partition, and the
+   * seq files of the other partitions may be compacted concurrently
+   */
+  @Override
+  public List<TsFileResource> getTsFileListByTimePartition(boolean sequence,
+      long timePartition) {
+    List<TsFileResource> result = new ArrayList<>();
+    List<? extends Collection<TsFileResource>> partitionTsFileResources = sequence
+        ? sequenceTsFileResources.get(timePartition)
+        : unSequenceTsFileResources.get(timePartition);
+    if (partitionTsFileResources != null) {
+      for (int i = partitionTsFileResources.size() - 1; i >= 0; i--) {
+        result.addAll(partitionTsFileResources.get(i));
+      }
+    }
+    return result;
+  }
+
   @SuppressWarnings("squid:S3776")
   private void merge(List<List<TsFileResource>> mergeResources, boolean sequence,
       long timePartition, int currMaxLevel, int currMaxFileNumInEachLevel) {
@@ -475,51 +568,68 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
           // level is numbered from 0
           if (enableUnseqCompaction && !sequence && i == currMaxLevel - 2) {
             // do not merge current unseq file level to upper level and just merge all of them to seq file
-            merge(isForceFullMerge, getTsFileList(true), mergeResources.get(i), Long.MAX_VALUE);
+            merge(isForceFullMerge, getTsFileListByTimePartition(true, timePartition),
+                mergeResources.get(i), Long.MAX_VALUE);
           } else {
             CompactionLogger compactionLogger = new CompactionLogger(storageGroupDir,
-                storageGroupName);
+                storageGroupName, timePartition);
             for (TsFileResource mergeResource : mergeResources.get(i)) {
               compactionLogger.logFile(SOURCE_NAME, mergeResource.getTsFile());
             }
-            File newLevelFile = createNewTsFileName(mergeResources.get(i).get(0).getTsFile(),
-                i + 1);
-            compactionLogger.logSequence(sequence);
-            compactionLogger.logFile(TARGET_NAME, newLevelFile);
             List<TsFileResource> toMergeTsFiles = mergeResources.get(i);
-            logger.info("{} [Compaction] merge level-{}'s {} TsFiles to next level",
-                storageGroupName, i, toMergeTsFiles.size());
+            // the files in the last level are not compacted any more, so a compaction into it can
+            // be split by devices without increasing the compactions of the upper levels
+            List<Set<String>> deviceRanges = i + 1 == currMaxLevel - 1
+                ? splitDevices(toMergeTsFiles) : Collections.emptyList();
+            List<TsFileResource> newResources = new ArrayList<>();
+            compactionLogger.logSequence(sequence);
+            for (int j = 0; j < Math.max(deviceRanges.size(), 1); j++) {
+              File newLevelFile = createNewTsFileName(toMergeTsFiles.get(j).getTsFile(), i + 1);
+              compactionLogger.logFile(TARGET_NAME, newLevelFile);
+              newResources.add(new TsFileResource(newLevelFile));
+            }
+            logger.info("{} [Compaction] merge level-{}'s {} TsFiles to next level in {} files",
+                storageGroupName, i, toMergeTsFiles.size(), newResources.size());
+            // the modifications written before are applied by the compaction
+            Map<TsFileResource, Integer> appliedModificationNums = new HashMap<>();
             for (TsFileResource toMergeTsFile : toMergeTsFiles) {
               logger.info("{} [Compaction] start to merge TsFile {}", storageGroupName,
                   toMergeTsFile);
+              appliedModificationNums
+                  .put(toMergeTsFile, toMergeTsFile.getModFile().getModifications().size());
             }
 
-            TsFileResource newResource = new TsFileResource(newLevelFile);
-            CompactionUtils
-                .merge(newResource, toMergeTsFiles, storageGroupName, compactionLogger,
-                    new HashSet<>(), sequence);
+            if (deviceRanges.isEmpty()) {
+              CompactionUtils
+                  .merge(newResources.get(0), toMergeTsFiles, storageGroupName, compactionLogger,
+                      new HashSet<>(), sequence);
+            } else {
+              mergeBySubTasks(newResources, toMergeTsFiles, deviceRanges, sequence);
+            }
             logger.info(
                 "{} [Compaction] merged level-{}'s {} TsFiles to next level, and start to delete old files",
                 storageGroupName, i, toMergeTsFiles.size());
+            // the targets replace the sources at once for the queries
             writeLock();
             try {
+              writeRemainingModifications(toMergeTsFiles, newResources, appliedModificationNums);
               compactionLogger.logMergeFinish();
               if (sequence) {
-                sequenceTsFileResources.get(timePartition).get(i + 1).add(newResource);
+                sequenceTsFileResources.get(timePartition).get(i + 1).addAll(newResources);
               } else {
-                unSequenceTsFileResources.get(timePartition).get(i + 1).add(newResource);
+                unSequenceTsFileResources.get(timePartition).get(i + 1).addAll(newResources);
               }
               deleteLevelFilesInList(timePartition, toMergeTsFiles, i, sequence);
               if (mergeResources.size() > i + 1) {
-                mergeResources.get(i + 1).add(newResource);
+                mergeResources.get(i + 1).addAll(newResources);
               }
             } finally {
               writeUnlock();
             }
             deleteLevelFilesInDisk(toMergeTsFiles);
             compactionLogger.close();
-            File logFile = FSFactoryProducer.getFSFactory()
-                .getFile(storageGroupDir, storageGroupName + COMPACTION_LOG_NAME);
+            File logFile = CompactionLogger
+                .getLogFile(storageGroupDir, storageGroupName, timePartition);
             if (logFile.exists()) {
               Files.delete(logFile.toPath());
             }
@@ -536,6 +646,98 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
     }
   }
 
+  /**
+   * Write the modifications of the source files into the target files, except those already
+   * applied by the compaction, which are the first ones of each source file. A modification
+   * applied twice deletes nothing more.
+   */
+  private void writeRemainingModifications(List<TsFileResource> sourceResources,
+      List<TsFileResource> targetResources, Map<TsFileResource, Integer> appliedModificationNums)
+      throws IOException {
+    boolean written = false;
+    for (TsFileResource sourceResource : sourceResources) {
+      List<Modification> modifications = new ArrayList<>(
+          sourceResource.getModFile().getModifications());
+      int appliedNum = Math
+          .min(appliedModificationNums.getOrDefault(sourceResource, 0), modifications.size());
+      for (Modification modification : modifications.subList(appliedNum, modifications.size())) {
+        for (TsFileResource targetResource : targetResources) {
+          targetResource.getModFile().write(modification);
+        }
+        written = true;
+      }
+    }
+    if (written) {
+      for (TsFileResource targetResource : targetResources) {
+        targetResource.getModFile().close();
+      }
+    }
+  }
+
+  /**
+   * Split the devices of the source files into ordered ranges of about the same number, one range
+   * for each sub-task. There are at most as many ranges as the source files, so the target files
+   * can be named after different source files.
+   *
+   * @return the device ranges, or an empty list if the compaction is not worth splitting
+   */
+  private List<Set<String>> splitDevices(List<TsFileResource> sourceResources) {
+    TreeSet<String> devices = new TreeSet<>();
+    for (TsFileResource sourceResource : sourceResources) {
+      devices.addAll(sourceResource.getDeviceToIndexMap().keySet());
+    }
+    int subTaskNum = Math
+        .min(Math.min(compactionSubThreadNum, sourceResources.size()), devices.size());
+    if (subTaskNum <= 1) {
+      return Collections.emptyList();
+    }
+    List<Set<String>> deviceRanges = new ArrayList<>();
+    Iterator<String> deviceIterator = devices.iterator();
+    for (int i = 0; i < subTaskNum; i++) {
+      // spread the remainder over the first ranges
+      int rangeSize = devices.size() / subTaskNum + (i < devices.size() % subTaskNum ? 1 : 0);
+      Set<String> deviceRange = new HashSet<>();
+      for (int j = 0; j < rangeSize; j++) {
+        deviceRange.add(deviceIterator.next());
+      }
+      deviceRanges.add(deviceRange);
+    }
+    return deviceRanges;
+  }
+
+  /**
+   * merge each device range into its own target file concurrently, and wait until all of them
+   * end even if some fail, so no sub-task still writes when the failure is handled
+   */
+  private void mergeBySubTasks(List<TsFileResource> targetResources,
+      List<TsFileResource> sourceResources, List<Set<String>> deviceRanges, boolean sequence)
+      throws IOException {
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < deviceRanges.size(); i++) {
+      TsFileResource targetResource = targetResources.get(i);
+      Set<String> deviceRange = deviceRanges.get(i);
+      futures.add(CompactionMergeTaskPoolManager.getInstance().submitSubTask(() -> {
+        CompactionUtils.mergeDevices(targetResource, sourceResources, storageGroupName,
+            deviceRange, sequence);
+        return null;
+      }));
+    }
+    IOException exception = null;
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        exception = new IOException(e);
+      } catch (ExecutionException e) {
+        exception = new IOException(e.getCause());
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
   /**
    * if level < maxLevel-1, the file need compaction else, the file can be merged later
    */
@@ -576,6 +778,15 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
   }
 
   private TsFileResource getTsFileResource(String filePath, boolean isSeq) throws IOException {
+    TsFileResource tsFileResource = findTsFileResource(filePath, isSeq);
+    if (tsFileResource == null) {
+      logger.error("cannot get tsfile resource path: {}", filePath);
+      throw new IOException();
+    }
+    return tsFileResource;
+  }
+
+  private TsFileResource findTsFileResource(String filePath, boolean isSeq) {
     if (isSeq) {
       for (List<TreeSet<TsFileResource>> tsFileResourcesWithLevel : sequenceTsFileResources
           .values()) {
@@ -599,7 +810,6 @@ public class LevelCompactionTsFileManagement extends TsFileManagement {
         }
       }
     }
-    logger.error("cannot get tsfile resource path: {}", filePath);
-    throw new IOException();
+    return null;
   }
 }
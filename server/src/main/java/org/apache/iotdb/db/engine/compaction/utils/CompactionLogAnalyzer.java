@@ -44,7 +44,7 @@ public class CompactionLogAnalyzer {
   private Set<String> deviceSet = new HashSet<>();
   private long offset = 0;
   private List<String> sourceFiles = new ArrayList<>();
-  private String targetFile = null;
+  private List<String> targetFiles = new ArrayList<>();
   private boolean isSeq = false;
   private boolean fullMerge = false;
 
@@ -67,7 +67,7 @@ public class CompactionLogAnalyzer {
             break;
           case TARGET_NAME:
             currLine = bufferedReader.readLine();
-            targetFile = currLine;
+            targetFiles.add(currLine);
             break;
           case MERGE_FINISHED:
             isMergeFinished = true;
@@ -110,7 +110,14 @@ public class CompactionLogAnalyzer {
   }
 
   public String getTargetFile() {
-    return targetFile;
+    return targetFiles.isEmpty() ? null : targetFiles.get(0);
+  }
+
+  /**
+   * @return the target files, there are several ones if the compaction is split into sub-tasks
+   */
+  public List<String> getTargetFiles() {
+    return targetFiles;
   }
 
   public boolean isSeq() {
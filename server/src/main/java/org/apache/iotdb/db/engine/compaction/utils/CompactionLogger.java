@@ -19,6 +19,7 @@
 
 package org.apache.iotdb.db.engine.compaction.utils;
 
+import static org.apache.iotdb.db.conf.IoTDBConstant.FILE_NAME_SEPARATOR;
 import static org.apache.iotdb.db.engine.compaction.utils.CompactionLogAnalyzer.STR_DEVICE_OFFSET_SEPERATOR;
 
 import java.io.BufferedWriter;
@@ -45,6 +46,28 @@ public class CompactionLogger {
             storageGroupName + COMPACTION_LOG_NAME), true));
   }
 
+  /**
+   * Log a compaction of a time partition in its own file, so the compactions of different time
+   * partitions can run concurrently.
+   */
+  public CompactionLogger(String storageGroupDir, String storageGroupName, long timePartition)
+      throws IOException {
+    this(getLogFile(storageGroupDir, storageGroupName, timePartition));
+  }
+
+  /**
+   * Append to an existing log, e.g., the log being recovered.
+   */
+  public CompactionLogger(File logFile) throws IOException {
+    logStream = new BufferedWriter(new FileWriter(logFile, true));
+  }
+
+  public static File getLogFile(String storageGroupDir, String storageGroupName,
+      long timePartition) {
+    return SystemFileFactory.INSTANCE.getFile(storageGroupDir,
+        storageGroupName + FILE_NAME_SEPARATOR + timePartition + COMPACTION_LOG_NAME);
+  }
+
   public void close() throws IOException {
     logStream.close();
   }
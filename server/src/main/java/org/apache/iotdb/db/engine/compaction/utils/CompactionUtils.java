@@ -19,37 +19,38 @@
 
 package org.apache.iotdb.db.engine.compaction.utils;
 
-import static org.apache.iotdb.db.utils.MergeUtils.writeTVPair;
-
 import com.google.common.util.concurrent.RateLimiter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.function.Predicate;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.compaction.level.LevelCompactionTsFileManagement;
+import org.apache.iotdb.db.engine.compaction.utils.SeriesMergeIterator.Page;
 import org.apache.iotdb.db.engine.merge.manage.MergeManager;
+import org.apache.iotdb.db.engine.modification.DeletionIndex;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.metadata.IllegalPathException;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.metadata.PartialPath;
 import org.apache.iotdb.db.service.IoTDB;
+import org.apache.iotdb.db.utils.QueryUtils;
+import org.apache.iotdb.tsfile.exception.write.PageException;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
-import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Chunk;
-import org.apache.iotdb.tsfile.read.reader.BatchDataIterator;
-import org.apache.iotdb.tsfile.read.reader.IChunkReader;
-import org.apache.iotdb.tsfile.read.reader.IPointReader;
-import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderByTimestamp;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,61 +60,65 @@ public class CompactionUtils {
   private static final Logger logger = LoggerFactory.getLogger(CompactionUtils.class);
   private static final int MERGE_PAGE_POINT_NUM = IoTDBDescriptor.getInstance().getConfig()
       .getMergePagePointNumberThreshold();
+  private static final int MERGE_CHUNK_POINT_NUM = IoTDBDescriptor.getInstance().getConfig()
+      .getMergeChunkPointNumberThreshold();
 
   private CompactionUtils() {
     throw new IllegalStateException("Utility class");
   }
 
+  /**
+   * @param mergedTimeChunks the time chunks appended for the value chunks of current device, by
+   * the positions of their source time chunks, so that the value chunks appended from the same
+   * time chunks share one time chunk
+   * @return the chunks appended into one chunk, or null if some of them are value chunks of
+   * aligned chunk groups and the others are not, which cannot be appended
+   */
   private static Pair<ChunkMetadata, Chunk> readByAppendMerge(
-      Map<TsFileSequenceReader, List<ChunkMetadata>> readerChunkMetadataMap) throws IOException {
-    ChunkMetadata newChunkMetadata = null;
-    Chunk newChunk = null;
+      Map<TsFileSequenceReader, List<ChunkMetadata>> readerChunkMetadataMap,
+      Map<String, Chunk> mergedTimeChunks) throws IOException {
+    List<Chunk> chunks = new ArrayList<>();
+    StringBuilder timeChunkPositions = new StringBuilder();
     for (Entry<TsFileSequenceReader, List<ChunkMetadata>> entry : readerChunkMetadataMap
         .entrySet()) {
       for (ChunkMetadata chunkMetadata : entry.getValue()) {
         Chunk chunk = entry.getKey().readMemChunk(chunkMetadata);
+        if (!chunks.isEmpty()
+            && (chunks.get(0).getTimeChunk() == null) != (chunk.getTimeChunk() == null)) {
+          return null;
+        }
+        if (chunk.getTimeChunk() != null) {
+          timeChunkPositions.append(entry.getKey().getFileName()).append(':')
+              .append(chunk.getHeader().getTimeChunkOffset()).append(';');
+        }
+        chunks.add(chunk);
+      }
+    }
+    Chunk mergedTimeChunk = mergedTimeChunks.get(timeChunkPositions.toString());
+    ChunkMetadata newChunkMetadata = null;
+    Chunk newChunk = null;
+    int i = 0;
+    for (List<ChunkMetadata> chunkMetadataList : readerChunkMetadataMap.values()) {
+      for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+        Chunk chunk = chunks.get(i++);
         if (newChunkMetadata == null) {
           newChunkMetadata = chunkMetadata;
           newChunk = chunk;
         } else {
           newChunkMetadata.mergeChunkMetadata(chunkMetadata);
-          newChunk.mergeChunk(chunk);
+          newChunk.mergeChunk(chunk, mergedTimeChunk);
         }
       }
     }
-    return new Pair<>(newChunkMetadata, newChunk);
-  }
-
-  private static long readByDeserializeMerge(
-      Map<TsFileSequenceReader, List<ChunkMetadata>> readerChunkMetadataMap, long maxVersion,
-      Map<Long, TimeValuePair> timeValuePairMap)
-      throws IOException {
-    for (Entry<TsFileSequenceReader, List<ChunkMetadata>> entry : readerChunkMetadataMap
-        .entrySet()) {
-      TsFileSequenceReader reader = entry.getKey();
-      List<ChunkMetadata> chunkMetadataList = entry.getValue();
-      for (ChunkMetadata chunkMetadata : chunkMetadataList) {
-        maxVersion = Math.max(chunkMetadata.getVersion(), maxVersion);
-        IChunkReader chunkReader = new ChunkReaderByTimestamp(
-            reader.readMemChunk(chunkMetadata));
-        while (chunkReader.hasNextSatisfiedPage()) {
-          IPointReader iPointReader = new BatchDataIterator(
-              chunkReader.nextPageData());
-          while (iPointReader.hasNextTimeValuePair()) {
-            TimeValuePair timeValuePair = iPointReader.nextTimeValuePair();
-            timeValuePairMap.put(timeValuePair.getTimestamp(), timeValuePair);
-          }
-        }
-      }
+    if (chunks.size() > 1 && mergedTimeChunk == null && newChunk.getTimeChunk() != null) {
+      mergedTimeChunks.put(timeChunkPositions.toString(), newChunk.getTimeChunk());
     }
-    return maxVersion;
+    return new Pair<>(newChunkMetadata, newChunk);
   }
 
   private static long writeByAppendMerge(long maxVersion, String device,
-      RateLimiter compactionWriteRateLimiter,
-      Map<TsFileSequenceReader, List<ChunkMetadata>> readerChunkMetadatasMap,
+      RateLimiter compactionWriteRateLimiter, Pair<ChunkMetadata, Chunk> chunkPair,
       TsFileResource targetResource, RestorableTsFileIOWriter writer) throws IOException {
-    Pair<ChunkMetadata, Chunk> chunkPair = readByAppendMerge(readerChunkMetadatasMap);
     ChunkMetadata newChunkMetadata = chunkPair.left;
     Chunk newChunk = chunkPair.right;
     if (newChunkMetadata != null && newChunk != null) {
@@ -128,38 +133,102 @@ public class CompactionUtils {
     return maxVersion;
   }
 
-  private static long writeByDeserializeMerge(long maxVersion, String device,
+  /**
+   * Merge the chunks of a series page by page. A page overlapping no other page is copied into
+   * the target chunk without being decoded if it is large enough and encoded the same way as the
+   * target, the other pages are decoded and merged point by point.
+   */
+  private static long writeByPageMerge(long maxVersion, String device,
       RateLimiter compactionRateLimiter,
       Entry<String, Map<TsFileSequenceReader, List<ChunkMetadata>>> entry,
-      TsFileResource targetResource, RestorableTsFileIOWriter writer) throws IOException {
-    Map<Long, TimeValuePair> timeValuePairMap = new TreeMap<>();
-    maxVersion = readByDeserializeMerge(entry.getValue(), maxVersion, timeValuePairMap);
-    Iterator<List<ChunkMetadata>> chunkMetadataListIterator = entry.getValue().values()
-        .iterator();
-    if (!chunkMetadataListIterator.hasNext()) {
+      TsFileResource targetResource, RestorableTsFileIOWriter writer,
+      CompressionType targetCompressor) throws IOException {
+    SeriesMergeIterator seriesMergeIterator = new SeriesMergeIterator(entry.getValue());
+    maxVersion = Math.max(seriesMergeIterator.getMaxVersion(), maxVersion);
+    if (!seriesMergeIterator.hasNext()) {
       return maxVersion;
     }
-    List<ChunkMetadata> chunkMetadataList = chunkMetadataListIterator.next();
-    if (chunkMetadataList.isEmpty()) {
-      return maxVersion;
+    MeasurementSchema schema = getTargetSchema(device, entry.getKey(), targetCompressor);
+    IChunkWriter chunkWriter = new ChunkWriterImpl(schema, true);
+    Predicate<Page> copyable = page -> page.getPageHeader().getNumOfValues() >= MERGE_PAGE_POINT_NUM
+        && page.getChunkHeader().getDataType() == schema.getType()
+        && page.getChunkHeader().getEncodingType() == schema.getEncodingType()
+        && page.getChunkHeader().getCompressionType() == schema.getCompressor();
+    // the merged points are written out chunk by chunk instead of being collected at first
+    long pointNumInChunk = 0;
+    long chunkStartTime = Long.MAX_VALUE;
+    long chunkEndTime = Long.MIN_VALUE;
+    while (seriesMergeIterator.hasNext()) {
+      Page page = seriesMergeIterator.pollUnoverlappedPage(copyable);
+      if (page != null) {
+        PageHeader pageHeader = page.getPageHeader();
+        chunkWriter.sealCurrentPage();
+        try {
+          chunkWriter.writePageHeaderAndDataIntoBuff(page.getCompressedPageData(), pageHeader);
+        } catch (PageException e) {
+          throw new IOException(e);
+        }
+        chunkStartTime = Math.min(chunkStartTime, pageHeader.getStartTime());
+        chunkEndTime = pageHeader.getEndTime();
+        pointNumInChunk += pageHeader.getNumOfValues();
+      } else {
+        long time = seriesMergeIterator.writeNextPoint(chunkWriter);
+        chunkStartTime = Math.min(chunkStartTime, time);
+        chunkEndTime = time;
+        pointNumInChunk++;
+      }
+      if (MERGE_CHUNK_POINT_NUM > 0 && pointNumInChunk >= MERGE_CHUNK_POINT_NUM) {
+        writeMergedChunk(device, compactionRateLimiter, chunkWriter, chunkStartTime,
+            chunkEndTime, targetResource, writer);
+        pointNumInChunk = 0;
+        chunkStartTime = Long.MAX_VALUE;
+      }
+    }
+    if (pointNumInChunk > 0) {
+      writeMergedChunk(device, compactionRateLimiter, chunkWriter, chunkStartTime, chunkEndTime,
+          targetResource, writer);
     }
-    IChunkWriter chunkWriter;
+    return maxVersion;
+  }
+
+  private static MeasurementSchema getTargetSchema(String device, String measurement,
+      CompressionType targetCompressor) throws IOException {
+    MeasurementSchema schema;
     try {
-      chunkWriter = new ChunkWriterImpl(
-          IoTDB.metaManager.getSeriesSchema(new PartialPath(device), entry.getKey()), true);
+      schema = IoTDB.metaManager.getSeriesSchema(new PartialPath(device), measurement);
     } catch (MetadataException e) {
       throw new IOException(e);
     }
-    for (TimeValuePair timeValuePair : timeValuePairMap.values()) {
-      writeTVPair(timeValuePair, chunkWriter);
-      targetResource.updateStartTime(device, timeValuePair.getTimestamp());
-      targetResource.updateEndTime(device, timeValuePair.getTimestamp());
+    if (targetCompressor == null || targetCompressor == schema.getCompressor()) {
+      return schema;
+    }
+    return new MeasurementSchema(schema.getMeasurementId(), schema.getType(),
+        schema.getEncodingType(), targetCompressor, schema.getProps());
+  }
+
+  /**
+   * @return the compressor configured for the level of the target file, or null if the chunks
+   * keep the compressors of their series
+   */
+  private static CompressionType getTargetCompressor(TsFileResource targetResource) {
+    int level;
+    try {
+      level = LevelCompactionTsFileManagement.getMergeLevel(targetResource.getTsFile());
+    } catch (NumberFormatException e) {
+      return null;
     }
+    return IoTDBDescriptor.getInstance().getConfig().getCompactionCompressor(level);
+  }
+
+  private static void writeMergedChunk(String device, RateLimiter compactionRateLimiter,
+      IChunkWriter chunkWriter, long startTime, long endTime, TsFileResource targetResource,
+      RestorableTsFileIOWriter writer) throws IOException {
+    targetResource.updateStartTime(device, startTime);
+    targetResource.updateEndTime(device, endTime);
     // wait for limit write
     MergeManager
         .mergeRateLimiterAcquire(compactionRateLimiter, chunkWriter.getCurrentChunkSize());
     chunkWriter.writeToFileWriter(writer);
-    return maxVersion;
   }
 
   private static Set<String> getTsFileDevicesSet(List<TsFileResource> subLevelResources,
@@ -185,24 +254,52 @@ public class CompactionUtils {
    * @param compactionLogger the logger
    * @param devices          the devices to be skipped(used by recover)
    */
-  @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   public static void merge(TsFileResource targetResource,
       List<TsFileResource> tsFileResources, String storageGroup,
       CompactionLogger compactionLogger,
       Set<String> devices, boolean sequence) throws IOException {
+    merge(targetResource, tsFileResources, storageGroup, compactionLogger,
+        device -> !devices.contains(device), sequence);
+  }
+
+  /**
+   * Merge only the given devices of the source files, used by the sub-tasks a compaction is split
+   * into by devices. Each sub-task writes its own target file.
+   *
+   * @param targetResource  the target resource to be merged to
+   * @param tsFileResources the source resource to be merged
+   * @param storageGroup    the storage group name
+   * @param devices         the devices to be merged
+   */
+  public static void mergeDevices(TsFileResource targetResource,
+      List<TsFileResource> tsFileResources, String storageGroup, Set<String> devices,
+      boolean sequence) throws IOException {
+    merge(targetResource, tsFileResources, storageGroup, null, devices::contains, sequence);
+  }
+
+  @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
+  private static void merge(TsFileResource targetResource,
+      List<TsFileResource> tsFileResources, String storageGroup,
+      CompactionLogger compactionLogger,
+      Predicate<String> deviceFilter, boolean sequence) throws IOException {
     RestorableTsFileIOWriter writer = new RestorableTsFileIOWriter(targetResource.getTsFile());
     Map<String, TsFileSequenceReader> tsFileSequenceReaderMap = new HashMap<>();
     RateLimiter compactionWriteRateLimiter = MergeManager.getINSTANCE().getMergeWriteRateLimiter();
+    CompressionType targetCompressor = getTargetCompressor(targetResource);
     Set<String> tsFileDevicesMap = getTsFileDevicesSet(tsFileResources, tsFileSequenceReaderMap,
         storageGroup);
     for (String device : tsFileDevicesMap) {
-      if (devices.contains(device)) {
+      if (!deviceFilter.test(device)) {
         continue;
       }
       writer.startChunkGroup(device);
       // sort chunkMeta by measurement
       Map<String, Map<TsFileSequenceReader, List<ChunkMetadata>>> measurementChunkMetadataMap = new HashMap<>();
       for (TsFileResource levelResource : tsFileResources) {
+        // the chunks of a device completely deleted in a file are skipped without being read
+        if (levelResource.isDeviceDeleted(device)) {
+          continue;
+        }
         TsFileSequenceReader reader = buildReaderFromTsFileResource(levelResource,
             tsFileSequenceReaderMap, storageGroup);
         if (reader == null) {
@@ -211,6 +308,9 @@ public class CompactionUtils {
         Map<String, List<ChunkMetadata>> chunkMetadataMap = reader
             .readChunkMetadataInDevice(device);
         for (Entry<String, List<ChunkMetadata>> entry : chunkMetadataMap.entrySet()) {
+          // the chunks completely deleted are skipped, the others carry their deleted ranges
+          QueryUtils.modifyChunkMetaData(entry.getValue(),
+              getDeletionIndex(levelResource, device, entry.getKey()));
           for (ChunkMetadata chunkMetadata : entry.getValue()) {
             Map<TsFileSequenceReader, List<ChunkMetadata>> readerChunkMetadataMap;
             String measurementUid = chunkMetadata.getMeasurementUid();
@@ -236,37 +336,42 @@ public class CompactionUtils {
         long maxVersion = Long.MIN_VALUE;
         for (Entry<String, Map<TsFileSequenceReader, List<ChunkMetadata>>> entry : measurementChunkMetadataMap
             .entrySet()) {
-          maxVersion = writeByDeserializeMerge(maxVersion, device, compactionWriteRateLimiter,
-              entry,
-              targetResource, writer);
+          maxVersion = writeByPageMerge(maxVersion, device, compactionWriteRateLimiter, entry,
+              targetResource, writer, targetCompressor);
         }
         writer.endChunkGroup();
         writer.writeVersion(maxVersion);
       } else {
         long maxVersion = Long.MIN_VALUE;
+        Map<String, Chunk> mergedTimeChunks = new HashMap<>();
         for (Entry<String, Map<TsFileSequenceReader, List<ChunkMetadata>>> entry : measurementChunkMetadataMap
             .entrySet()) {
           Map<TsFileSequenceReader, List<ChunkMetadata>> readerChunkMetadatasMap = entry.getValue();
-          boolean isPageEnoughLarge = true;
+          // the chunks to be compressed by another compressor are merged page by page, the pages
+          // already compressed by it are still copied without being decoded
+          boolean isPageEnoughLarge = targetCompressor == null;
           for (List<ChunkMetadata> chunkMetadatas : readerChunkMetadatasMap.values()) {
             for (ChunkMetadata chunkMetadata : chunkMetadatas) {
-              if (chunkMetadata.getNumOfPoints() < MERGE_PAGE_POINT_NUM) {
+              // the deleted points can only be removed by deserializing the chunk
+              if (chunkMetadata.getNumOfPoints() < MERGE_PAGE_POINT_NUM
+                  || chunkMetadata.getDeleteIntervalList() != null) {
                 isPageEnoughLarge = false;
                 break;
               }
             }
           }
-          if (isPageEnoughLarge) {
+          Pair<ChunkMetadata, Chunk> appendedChunk = isPageEnoughLarge
+              ? readByAppendMerge(readerChunkMetadatasMap, mergedTimeChunks) : null;
+          if (appendedChunk != null) {
             logger.debug("{} [Compaction] page enough large, use append merge", storageGroup);
             // append page in chunks, so we do not have to deserialize a chunk
             maxVersion = writeByAppendMerge(maxVersion, device, compactionWriteRateLimiter,
-                readerChunkMetadatasMap, targetResource, writer);
+                appendedChunk, targetResource, writer);
           } else {
-            logger
-                .debug("{} [Compaction] page too small, use deserialize merge", storageGroup);
-            // we have to deserialize chunks to merge pages
-            maxVersion = writeByDeserializeMerge(maxVersion, device, compactionWriteRateLimiter,
-                entry, targetResource, writer);
+            logger.debug("{} [Compaction] page too small, use page merge", storageGroup);
+            // we have to deserialize the small pages to merge them
+            maxVersion = writeByPageMerge(maxVersion, device, compactionWriteRateLimiter, entry,
+                targetResource, writer, targetCompressor);
           }
         }
         writer.endChunkGroup();
@@ -284,11 +389,22 @@ public class CompactionUtils {
     for (TsFileResource tsFileResource : tsFileResources) {
       targetResource.updatePlanIndexes(tsFileResource);
     }
+    targetResource.buildIndex(writer.getChunkGroupMetadataList());
     targetResource.serialize();
     writer.endFile();
     targetResource.close();
   }
 
+  private static DeletionIndex getDeletionIndex(TsFileResource tsFileResource, String device,
+      String measurement) throws IOException {
+    try {
+      return tsFileResource.getModFile()
+          .getDeletionIndex(new PartialPath(device, measurement));
+    } catch (IllegalPathException e) {
+      throw new IOException(e);
+    }
+  }
+
   private static TsFileSequenceReader buildReaderFromTsFileResource(TsFileResource levelResource,
       Map<String, TsFileSequenceReader> tsFileSequenceReaderMap, String storageGroup) {
     return tsFileSequenceReaderMap.computeIfAbsent(levelResource.getTsFile().getAbsolutePath(),
@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.compaction.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.compress.IUnCompressor;
+import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.read.reader.chunk.TimeChunkReader;
+import org.apache.iotdb.tsfile.read.reader.page.PageReader;
+import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
+
+/**
+ * Merges the points of one series from the chunks of several files in the order of time. A chunk
+ * is only read when the merge reaches its start time and a page is only decoded when the merge
+ * reaches its start time, so the memory used is bounded by the pages overlapping each other
+ * instead of the whole series. A page overlapping no other page can be taken out without being
+ * decoded by pollUnoverlappedPage(). If several pages have points of the same timestamp, the
+ * point of the chunk with the largest version is kept, and of the chunk read last if the versions
+ * are equal. The deleted ranges of a chunk are removed from its points, and a page completely
+ * deleted is skipped without being decoded. The pages of the value chunks of aligned chunk groups
+ * are decoded with the times of their time chunks, and are never taken out without being decoded
+ * as they have no times of their own.
+ */
+class SeriesMergeIterator {
+
+  private static final Comparator<Page> PAGE_COMPARATOR = Comparator
+      .comparingLong((Page page) -> page.pageData.currentTime())
+      .thenComparing(Comparator.comparingLong((Page page) -> page.chunk.version)
+          .thenComparingInt(page -> page.chunk.order).reversed());
+
+  // the chunks not read yet, in the order of their start times
+  private final PriorityQueue<ChunkPages> unreadChunks = new PriorityQueue<>(
+      Comparator.comparingLong(chunk -> chunk.chunkMetadata.getStartTime()));
+  // the pages of the read chunks not decoded yet, in the order of their start times
+  private final PriorityQueue<Page> unreadPages = new PriorityQueue<>(
+      Comparator.comparingLong(page -> page.pageHeader.getStartTime()));
+  // the decoded pages, in the order of their current points
+  private final PriorityQueue<Page> readingPages = new PriorityQueue<>(PAGE_COMPARATOR);
+  private long maxVersion = Long.MIN_VALUE;
+
+  SeriesMergeIterator(Map<TsFileSequenceReader, List<ChunkMetadata>> readerChunkMetadataMap) {
+    int order = 0;
+    for (Entry<TsFileSequenceReader, List<ChunkMetadata>> entry : readerChunkMetadataMap
+        .entrySet()) {
+      for (ChunkMetadata chunkMetadata : entry.getValue()) {
+        maxVersion = Math.max(chunkMetadata.getVersion(), maxVersion);
+        unreadChunks.add(new ChunkPages(entry.getKey(), chunkMetadata, order++));
+      }
+    }
+  }
+
+  /**
+   * @return the max version of the merged chunks
+   */
+  long getMaxVersion() {
+    return maxVersion;
+  }
+
+  boolean hasNext() throws IOException {
+    while (true) {
+      while (readingPages.isEmpty() && unreadPages.isEmpty() && !unreadChunks.isEmpty()) {
+        unreadChunks.poll().open(unreadPages);
+      }
+      // the pages of a chunk starting before the next page may overlap it
+      readChunksBefore(nextTime());
+      // whether a page with deleted points has any point left is only known after decoding it
+      if (readingPages.isEmpty() && !unreadPages.isEmpty() && unreadPages.peek().isModified()) {
+        decode(unreadPages.poll());
+      } else {
+        return !readingPages.isEmpty() || !unreadPages.isEmpty();
+      }
+    }
+  }
+
+  /**
+   * hasNext() must be called before.
+   *
+   * @param copyable whether the next page can be used without being decoded
+   * @return the next page if it overlaps no other page and is copyable, otherwise null
+   */
+  Page pollUnoverlappedPage(Predicate<Page> copyable) {
+    if (!readingPages.isEmpty() || unreadPages.isEmpty()) {
+      return null;
+    }
+    Page page = unreadPages.poll();
+    long endTime = page.pageHeader.getEndTime();
+    if ((unreadPages.isEmpty() || unreadPages.peek().pageHeader.getStartTime() > endTime)
+        && (unreadChunks.isEmpty() || unreadChunks.peek().chunkMetadata.getStartTime() > endTime)
+        && !page.isModified() && !page.isAligned() && copyable.test(page)) {
+      return page;
+    }
+    unreadPages.add(page);
+    return null;
+  }
+
+  /**
+   * Write the next point into the chunk writer, the points of the same timestamp in older chunks
+   * are skipped. hasNext() must be called before.
+   *
+   * @return the timestamp of the written point
+   */
+  long writeNextPoint(IChunkWriter chunkWriter) throws IOException {
+    decodePagesBefore();
+    Page page = readingPages.poll();
+    BatchData pageData = page.pageData;
+    long time = pageData.currentTime();
+    switch (chunkWriter.getDataType()) {
+      case BOOLEAN:
+        chunkWriter.write(time, pageData.getBoolean());
+        break;
+      case INT32:
+        chunkWriter.write(time, pageData.getInt());
+        break;
+      case INT64:
+        chunkWriter.write(time, pageData.getLong());
+        break;
+      case FLOAT:
+        chunkWriter.write(time, pageData.getFloat());
+        break;
+      case DOUBLE:
+        chunkWriter.write(time, pageData.getDouble());
+        break;
+      case TEXT:
+        chunkWriter.write(time, pageData.getBinary());
+        break;
+      default:
+        throw new UnsupportedOperationException("Unknown data type " + chunkWriter.getDataType());
+    }
+    advance(page);
+    while (!readingPages.isEmpty() && readingPages.peek().pageData.currentTime() == time) {
+      advance(readingPages.poll());
+    }
+    return time;
+  }
+
+  private void decodePagesBefore() throws IOException {
+    // a page starting before the current point may hold an earlier or a newer point
+    while (!unreadPages.isEmpty() && (readingPages.isEmpty()
+        || unreadPages.peek().pageHeader.getStartTime() <= nextTime())) {
+      decode(unreadPages.poll());
+      readChunksBefore(nextTime());
+    }
+  }
+
+  private void decode(Page page) throws IOException {
+    page.decode();
+    if (page.pageData.hasCurrent()) {
+      readingPages.add(page);
+    } else {
+      // all points of the page are deleted
+      page.pageData = null;
+    }
+  }
+
+  private long nextTime() {
+    if (!readingPages.isEmpty()) {
+      return readingPages.peek().pageData.currentTime();
+    }
+    return unreadPages.isEmpty() ? Long.MIN_VALUE : unreadPages.peek().pageHeader.getStartTime();
+  }
+
+  private void readChunksBefore(long time) throws IOException {
+    while (!unreadChunks.isEmpty() && unreadChunks.peek().chunkMetadata.getStartTime() <= time) {
+      unreadChunks.poll().open(unreadPages);
+    }
+  }
+
+  private void advance(Page page) {
+    page.pageData.next();
+    if (page.pageData.hasCurrent()) {
+      readingPages.add(page);
+    } else {
+      // release the decoded page as soon as it is read out
+      page.pageData = null;
+    }
+  }
+
+  private static class ChunkPages {
+
+    private final TsFileSequenceReader reader;
+    private final ChunkMetadata chunkMetadata;
+    private final long version;
+    private final int order;
+    private ChunkHeader chunkHeader;
+    // the reader of the time chunk if this is a value chunk of an aligned chunk group
+    private TimeChunkReader timeChunkReader;
+
+    private ChunkPages(TsFileSequenceReader reader, ChunkMetadata chunkMetadata, int order) {
+      this.reader = reader;
+      this.chunkMetadata = chunkMetadata;
+      this.version = chunkMetadata.getVersion();
+      this.order = order;
+    }
+
+    private void open(PriorityQueue<Page> pages) throws IOException {
+      Chunk chunk = reader.readMemChunk(chunkMetadata);
+      chunkHeader = chunk.getHeader();
+      if (chunk.getTimeChunk() != null) {
+        timeChunkReader = chunk.getTimeChunk().getTimeChunkReader();
+      }
+      ByteBuffer chunkDataBuffer = chunk.getData();
+      int pageIndex = 0;
+      while (chunkDataBuffer.remaining() > 0) {
+        PageHeader pageHeader = PageHeader
+            .deserializeFrom(chunkDataBuffer, chunkHeader.getDataType());
+        ByteBuffer compressedPageData = chunkDataBuffer.slice();
+        compressedPageData.limit(pageHeader.getCompressedSize());
+        chunkDataBuffer.position(chunkDataBuffer.position() + pageHeader.getCompressedSize());
+        if (pageHeader.getNumOfValues() > 0 && !isDeleted(pageHeader)) {
+          pages.add(new Page(this, pageHeader, compressedPageData, pageIndex));
+        }
+        pageIndex++;
+      }
+    }
+
+    private boolean isDeleted(PageHeader pageHeader) {
+      List<TimeRange> deleteIntervals = chunkMetadata.getDeleteIntervalList();
+      if (deleteIntervals != null) {
+        for (TimeRange range : deleteIntervals) {
+          if (range.contains(pageHeader.getStartTime(), pageHeader.getEndTime())) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    private boolean overlapsDeletion(PageHeader pageHeader) {
+      List<TimeRange> deleteIntervals = chunkMetadata.getDeleteIntervalList();
+      if (deleteIntervals != null) {
+        for (TimeRange range : deleteIntervals) {
+          if (range.getMin() <= pageHeader.getEndTime()
+              && range.getMax() >= pageHeader.getStartTime()) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+
+  static class Page {
+
+    private final ChunkPages chunk;
+    private final PageHeader pageHeader;
+    private final ByteBuffer compressedPageData;
+    // the index of the page in its chunk, which is also the index of its time page if aligned
+    private final int pageIndex;
+    private BatchData pageData;
+
+    private Page(ChunkPages chunk, PageHeader pageHeader, ByteBuffer compressedPageData,
+        int pageIndex) {
+      this.chunk = chunk;
+      this.pageHeader = pageHeader;
+      this.compressedPageData = compressedPageData;
+      this.pageIndex = pageIndex;
+    }
+
+    ChunkHeader getChunkHeader() {
+      return chunk.chunkHeader;
+    }
+
+    PageHeader getPageHeader() {
+      return pageHeader;
+    }
+
+    ByteBuffer getCompressedPageData() {
+      return compressedPageData.duplicate();
+    }
+
+    private boolean isAligned() {
+      return chunk.timeChunkReader != null;
+    }
+
+    /**
+     * @return true if some points of the page are deleted
+     */
+    private boolean isModified() {
+      return chunk.overlapsDeletion(pageHeader);
+    }
+
+    private void decode() throws IOException {
+      ChunkHeader chunkHeader = chunk.chunkHeader;
+      byte[] compressedPageBody = new byte[pageHeader.getCompressedSize()];
+      compressedPageData.duplicate().get(compressedPageBody);
+      byte[] uncompressedPageData = new byte[pageHeader.getUncompressedSize()];
+      IUnCompressor.getUnCompressor(chunkHeader.getCompressionType())
+          .uncompress(compressedPageBody, 0, compressedPageBody.length, uncompressedPageData, 0);
+      Decoder valueDecoder = Decoder
+          .getDecoderByType(chunkHeader.getEncodingType(), chunkHeader.getDataType());
+      PageReader pageReader;
+      if (isAligned()) {
+        pageReader = new PageReader(pageHeader, ByteBuffer.wrap(uncompressedPageData),
+            chunkHeader.getDataType(), valueDecoder,
+            chunk.timeChunkReader.getTimes(pageIndex), null);
+      } else {
+        Decoder timeDecoder = Decoder.getDecoderByType(
+            TSEncoding.valueOf(TSFileDescriptor.getInstance().getConfig().getTimeEncoder()),
+            TSDataType.INT64);
+        pageReader = new PageReader(pageHeader, ByteBuffer.wrap(uncompressedPageData),
+            chunkHeader.getDataType(), valueDecoder, timeDecoder, null);
+      }
+      pageReader.setDeleteIntervalList(chunk.chunkMetadata.getDeleteIntervalList());
+      pageData = pageReader.getAllSatisfiedPageData();
+    }
+  }
+}
@@ -19,6 +19,8 @@
 package org.apache.iotdb.db.engine.flush;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -30,6 +32,7 @@ import org.apache.iotdb.db.exception.runtime.FlushRunTimeException;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.write.chunk.AlignedChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
@@ -85,13 +88,23 @@ public class MemTableFlushTask {
 
     for (String deviceId : memTable.getMemTableMap().keySet()) {
       encodingTaskQueue.add(new StartFlushGroupIOTask(deviceId));
+      // the series of an aligned device are encoded together into one aligned chunk group
+      List<Pair<TVList, MeasurementSchema>> alignedSeries = memTable.isAlignedDevice(deviceId)
+          ? new ArrayList<>() : null;
       for (String measurementId : memTable.getMemTableMap().get(deviceId).keySet()) {
         long startTime = System.currentTimeMillis();
         IWritableMemChunk series = memTable.getMemTableMap().get(deviceId).get(measurementId);
         MeasurementSchema desc = series.getSchema();
         TVList tvList = series.getSortedTVListForFlush();
         sortTime += System.currentTimeMillis() - startTime;
-        encodingTaskQueue.add(new Pair<>(tvList, desc));
+        if (alignedSeries != null) {
+          alignedSeries.add(new Pair<>(tvList, desc));
+        } else {
+          encodingTaskQueue.add(new Pair<>(tvList, desc));
+        }
+      }
+      if (alignedSeries != null) {
+        encodingTaskQueue.add(alignedSeries);
       }
       encodingTaskQueue.add(new EndChunkGroupIoTask());
     }
@@ -160,6 +173,71 @@ public class MemTableFlushTask {
       }
     }
 
+    /**
+     * write the sorted series of an aligned device row by row. A row is written for each time of
+     * any series, in which the series without a point at the time are null.
+     */
+    private void writeAlignedSeries(List<Pair<TVList, MeasurementSchema>> series,
+        AlignedChunkWriterImpl alignedChunkWriter) {
+      int[] indexes = new int[series.size()];
+      while (true) {
+        long time = Long.MAX_VALUE;
+        for (int i = 0; i < indexes.length; i++) {
+          TVList tvPairs = series.get(i).left;
+          if (indexes[i] < tvPairs.size()) {
+            time = Math.min(time, tvPairs.getTime(indexes[i]));
+          }
+        }
+        if (time == Long.MAX_VALUE) {
+          break;
+        }
+        for (int i = 0; i < indexes.length; i++) {
+          TVList tvPairs = series.get(i).left;
+          boolean isNull = indexes[i] >= tvPairs.size() || tvPairs.getTime(indexes[i]) != time;
+          if (!isNull) {
+            // skip duplicated data
+            while (indexes[i] + 1 < tvPairs.size() && tvPairs.getTime(indexes[i] + 1) == time) {
+              indexes[i]++;
+            }
+          }
+          writeAlignedValue(alignedChunkWriter, time, tvPairs, indexes[i],
+              series.get(i).right.getType(), isNull);
+          if (!isNull) {
+            indexes[i]++;
+          }
+        }
+        alignedChunkWriter.write(time);
+      }
+    }
+
+    private void writeAlignedValue(AlignedChunkWriterImpl alignedChunkWriter, long time,
+        TVList tvPairs, int index, TSDataType dataType, boolean isNull) {
+      switch (dataType) {
+        case BOOLEAN:
+          alignedChunkWriter.write(time, !isNull && tvPairs.getBoolean(index), isNull);
+          break;
+        case INT32:
+          alignedChunkWriter.write(time, isNull ? 0 : tvPairs.getInt(index), isNull);
+          break;
+        case INT64:
+          alignedChunkWriter.write(time, isNull ? 0L : tvPairs.getLong(index), isNull);
+          break;
+        case FLOAT:
+          alignedChunkWriter.write(time, isNull ? 0f : tvPairs.getFloat(index), isNull);
+          break;
+        case DOUBLE:
+          alignedChunkWriter.write(time, isNull ? 0d : tvPairs.getDouble(index), isNull);
+          break;
+        case TEXT:
+          alignedChunkWriter.write(time, isNull ? null : tvPairs.getBinary(index), isNull);
+          break;
+        default:
+          logger.error("Storage group {} does not support data type: {}", storageGroup,
+              dataType);
+          break;
+      }
+    }
+
     @SuppressWarnings("squid:S135")
     @Override
     public void run() {
@@ -187,6 +265,18 @@ public class MemTableFlushTask {
         } else {
           if (task instanceof StartFlushGroupIOTask || task instanceof EndChunkGroupIoTask) {
             ioTaskQueue.add(task);
+          } else if (task instanceof List) {
+            long starTime = System.currentTimeMillis();
+            List<Pair<TVList, MeasurementSchema>> alignedSeries =
+                (List<Pair<TVList, MeasurementSchema>>) task;
+            List<MeasurementSchema> schemaList = new ArrayList<>();
+            for (Pair<TVList, MeasurementSchema> series : alignedSeries) {
+              schemaList.add(series.right);
+            }
+            AlignedChunkWriterImpl alignedChunkWriter = new AlignedChunkWriterImpl(schemaList);
+            writeAlignedSeries(alignedSeries, alignedChunkWriter);
+            ioTaskQueue.add(alignedChunkWriter);
+            memSerializeTime += System.currentTimeMillis() - starTime;
           } else {
             long starTime = System.currentTimeMillis();
             Pair<TVList, MeasurementSchema> encodingMessage = (Pair<TVList, MeasurementSchema>) task;
@@ -234,6 +324,8 @@ public class MemTableFlushTask {
           } else if (ioMessage instanceof IChunkWriter) {
             ChunkWriterImpl chunkWriter = (ChunkWriterImpl) ioMessage;
             chunkWriter.writeToFileWriter(this.writer);
+          } else if (ioMessage instanceof AlignedChunkWriterImpl) {
+            ((AlignedChunkWriterImpl) ioMessage).writeToFileWriter(this.writer);
           } else {
             this.writer.setMinPlanIndex(memTable.getMinPlanIndex());
             this.writer.setMaxPlanIndex(memTable.getMaxPlanIndex());
@@ -21,10 +21,12 @@ package org.apache.iotdb.db.engine.memtable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
@@ -73,6 +75,11 @@ public abstract class AbstractMemTable implements IMemTable {
 
   private long minPlanIndex = Long.MAX_VALUE;
 
+  /**
+   * the devices inserted by tablets, which are flushed as aligned chunk groups
+   */
+  private final Set<String> alignedDevices = new HashSet<>();
+
   public AbstractMemTable() {
     this.memTableMap = new HashMap<>();
   }
@@ -159,6 +166,9 @@ public abstract class AbstractMemTable implements IMemTable {
   @Override
   public void write(InsertTabletPlan insertTabletPlan, int start, int end) {
     updatePlanIndexes(insertTabletPlan.getIndex());
+    if (IoTDBDescriptor.getInstance().getConfig().isEnableAlignedTabletStorage()) {
+      alignedDevices.add(insertTabletPlan.getDeviceId().getFullPath());
+    }
     for (int i = 0; i < insertTabletPlan.getMeasurements().length; i++) {
       if (insertTabletPlan.getColumns()[i] == null) {
         continue;
@@ -223,6 +233,7 @@ public abstract class AbstractMemTable implements IMemTable {
   @Override
   public void clear() {
     memTableMap.clear();
+    alignedDevices.clear();
     modifications.clear();
     memSize = 0;
     seriesNumber = 0;
@@ -232,6 +243,11 @@ public abstract class AbstractMemTable implements IMemTable {
     maxPlanIndex = 0;
   }
 
+  @Override
+  public boolean isAlignedDevice(String deviceId) {
+    return alignedDevices.contains(deviceId);
+  }
+
   @Override
   public boolean isEmpty() {
     return memTableMap.isEmpty();
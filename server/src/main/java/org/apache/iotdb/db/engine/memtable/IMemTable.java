@@ -48,6 +48,12 @@ public interface IMemTable {
 
   void write(InsertTabletPlan insertTabletPlan, int start, int end);
 
+  /**
+   * @return true if the measurements of the device are flushed as an aligned chunk group, i.e.,
+   * the device is inserted by tablets and enable_aligned_tablet_storage is on
+   */
+  boolean isAlignedDevice(String deviceId);
+
   /**
    * @return the number of points
    */
@@ -41,6 +41,7 @@ import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.compaction.CompactionScheduler;
 import org.apache.iotdb.db.engine.merge.task.MergeMultiChunkTask.MergeChunkHeapTask;
 import org.apache.iotdb.db.engine.merge.task.MergeTask;
 import org.apache.iotdb.db.exception.StorageEngineException;
@@ -76,10 +77,18 @@ public class MergeManager implements IService, MergeManagerMBean {
   }
 
   public RateLimiter getMergeWriteRateLimiter() {
-    setWriteMergeRate(IoTDBDescriptor.getInstance().getConfig().getMergeWriteThroughputMbPerSec());
+    updateMergeWriteRate();
     return mergeWriteRateLimiter;
   }
 
+  /**
+   * apply the write throughput given by the CompactionScheduler, the running merges and compactions
+   * share the limiter so they are affected at once
+   */
+  public void updateMergeWriteRate() {
+    setWriteMergeRate(CompactionScheduler.getInstance().getMergeWriteThroughputMbPerSec());
+  }
+
   /**
    * wait by throughoutMbPerSec limit to avoid continuous Write Or Read
    */
@@ -20,7 +20,9 @@
 package org.apache.iotdb.db.engine.merge.manage;
 
 import static org.apache.iotdb.db.engine.merge.task.MergeTask.MERGE_SUFFIX;
+import static org.apache.iotdb.db.engine.merge.task.MergeTask.SPILL_SUFFIX;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -122,6 +124,15 @@ public class MergeResource {
     return writer;
   }
 
+  /**
+   * Get the temp file where the chunk being merged of the seriesIdx-th series in the current batch
+   * is spilled to. The path of the file will be the seqFile's + ".merge.{seriesIdx}.spill".
+   */
+  public File getSpillFile(TsFileResource resource, int seriesIdx) {
+    return FSFactoryProducer.getFSFactory()
+        .getFile(resource.getTsFilePath() + MERGE_SUFFIX + "." + seriesIdx + SPILL_SUFFIX);
+  }
+
   /**
    * Query ChunkMetadata of a timeseries from the given TsFile (seq or unseq). The ChunkMetadata is
    * not cached since it is usually huge.
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.merge.selector;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.apache.iotdb.db.metadata.PartialPath;
+
+/**
+ * BudgetedPathSelector selects at most maxSeriesNum paths at a time whose total memory cost is
+ * within the budget. A path whose cost alone exceeds the budget is selected by itself.
+ */
+public class BudgetedPathSelector implements IMergePathSelector {
+
+  private List<PartialPath> paths;
+  private long[] costs;
+  private int idx;
+  private int maxSeriesNum;
+  private long memoryBudget;
+
+  /**
+   * @param costs the memory cost of each path in paths
+   */
+  public BudgetedPathSelector(List<PartialPath> paths, long[] costs, int maxSeriesNum,
+      long memoryBudget) {
+    this.paths = paths;
+    this.costs = costs;
+    this.maxSeriesNum = maxSeriesNum;
+    this.memoryBudget = memoryBudget;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return idx < paths.size();
+  }
+
+  @Override
+  public List<PartialPath> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    int start = idx;
+    long totalCost = 0;
+    while (idx < paths.size() && idx - start < maxSeriesNum
+        && (idx == start || totalCost + costs[idx] <= memoryBudget)) {
+      totalCost += costs[idx];
+      idx++;
+    }
+    return paths.subList(start, idx);
+  }
+}
@@ -40,6 +40,9 @@ import org.slf4j.LoggerFactory;
  * MaxFileMergeFileSelector selects the most files from given seqFiles and unseqFiles which can be
  * merged without exceeding given memory budget. It always assume the number of timeseries being
  * queried at the same time is 1 to maximize the number of file merged.
+ * <p>
+ * When enable_merge_memory_spill is set, the merge task reads and writes the series within half of
+ * the budget by itself, so only the metadata of the new files is estimated against the other half.
  */
 public class MaxFileMergeFileSelector implements IMergeFileSelector {
 
@@ -54,6 +57,8 @@ public class MaxFileMergeFileSelector implements IMergeFileSelector {
 
   // the number of timeseries being queried at the same time
   int concurrentMergeNum = 1;
+  // the merge task keeps the memory of querying and writing series within the budget by spilling
+  final boolean spill = IoTDBDescriptor.getInstance().getConfig().isEnableMergeMemorySpill();
 
   /**
    * Total metadata size of each file.
@@ -75,7 +80,7 @@ public class MaxFileMergeFileSelector implements IMergeFileSelector {
 
   public MaxFileMergeFileSelector(MergeResource resource, long memoryBudget) {
     this.resource = resource;
-    this.memoryBudget = memoryBudget;
+    this.memoryBudget = spill ? memoryBudget / 2 : memoryBudget;
   }
 
   /**
@@ -107,7 +112,7 @@ public class MaxFileMergeFileSelector implements IMergeFileSelector {
       logger.info("Selecting merge candidates from {} seqFile, {} unseqFiles",
           resource.getSeqFiles().size(), resource.getUnseqFiles().size());
       select(false);
-      if (selectedUnseqFiles.isEmpty()) {
+      if (selectedUnseqFiles.isEmpty() && !spill) {
         select(true);
       }
       resource.setSeqFiles(selectedSeqFiles);
@@ -273,6 +278,10 @@ public class MaxFileMergeFileSelector implements IMergeFileSelector {
 
   private long calculateLooseMemoryCost(TsFileResource tmpSelectedUnseqFile,
       Collection<Integer> tmpSelectedSeqFiles, long startTime, long timeLimit) throws IOException {
+    if (spill) {
+      return calculateMemoryCost(tmpSelectedUnseqFile, tmpSelectedSeqFiles, file -> 0L,
+          file -> 0L, startTime, timeLimit);
+    }
     return calculateMemoryCost(tmpSelectedUnseqFile, tmpSelectedSeqFiles,
         TsFileResource::getTsFileSize, this::calculateMetadataSize, startTime, timeLimit);
   }
@@ -75,6 +75,12 @@ public class MaxSeriesMergeFileSelector extends MaxFileMergeFileSelector {
   }
 
   private void searchMaxSeriesNum() throws IOException {
+    if (spill) {
+      // the cost does not depend on the number of series, the task merges them in batches
+      concurrentMergeNum = MAX_SERIES_NUM;
+      select(false);
+      return;
+    }
     binSearch();
   }
 
@@ -21,6 +21,7 @@ package org.apache.iotdb.db.engine.merge.task;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -34,12 +35,18 @@ import org.apache.iotdb.db.engine.merge.recover.MergeLogger;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.metadata.PartialPath;
 import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.db.utils.MergeUtils;
+import org.apache.iotdb.tsfile.exception.write.TsFileNotCompleteException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetadata;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.writer.ForceAppendTsFileWriter;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,6 +69,8 @@ class MergeFileTask {
 
   private int currentMergeIndex;
   private String currMergeFile;
+  private boolean incremental = IoTDBDescriptor.getInstance().getConfig()
+      .isEnableIncrementalMerge();
 
   MergeFileTask(String taskName, MergeContext context, MergeLogger mergeLogger,
       MergeResource resource, List<TsFileResource> unmergedSeqFiles) {
@@ -87,12 +96,21 @@ class MergeFileTask {
       int mergedChunkNum = context.getMergedChunkCnt().getOrDefault(seqFile, 0);
       int unmergedChunkNum = context.getUnmergedChunkCnt().getOrDefault(seqFile, 0);
 
-      if (logger.isInfoEnabled()) {
-        logger.info("{} moving unmerged data of {} to the merged file, {} merged chunks, {} "
-                + "unmerged chunks", taskName, seqFile.getTsFile().getName(), mergedChunkNum,
-            unmergedChunkNum);
+      if (incremental && mergedChunkNum < unmergedChunkNum) {
+        if (logger.isInfoEnabled()) {
+          logger.info("{} moving merged data of {} to the old file, {} merged chunks, {} "
+                  + "unmerged chunks", taskName, seqFile.getTsFile().getName(), mergedChunkNum,
+              unmergedChunkNum);
+        }
+        moveMergedToOld(seqFile);
+      } else {
+        if (logger.isInfoEnabled()) {
+          logger.info("{} moving unmerged data of {} to the merged file, {} merged chunks, {} "
+                  + "unmerged chunks", taskName, seqFile.getTsFile().getName(), mergedChunkNum,
+              unmergedChunkNum);
+        }
+        moveUnmergedToNew(seqFile);
       }
-      moveUnmergedToNew(seqFile);
 
       if (Thread.interrupted()) {
         Thread.currentThread().interrupt();
@@ -132,6 +150,148 @@ class MergeFileTask {
     }
   }
 
+  /**
+   * Truncate the metadata of the seqFile, append the merged chunks in the temp file to it and write
+   * a new metadata footer without the chunks replaced by the merged ones, so that the unmerged
+   * chunks are not rewritten. The replaced chunks are left in the seqFile as invalid chunks.
+   */
+  private void moveMergedToOld(TsFileResource seqFile) throws IOException {
+    int mergedChunkNum = context.getMergedChunkCnt().getOrDefault(seqFile, 0);
+    if (mergedChunkNum == 0 && !seqFile.getModFile().exists()) {
+      // nothing changes in the seqFile
+      resource.removeFileAndWriter(seqFile);
+      return;
+    }
+
+    RestorableTsFileIOWriter newFileWriter = resource.getMergeFileWriter(seqFile);
+    seqFile.writeLock();
+    try {
+      resource.removeFileReader(seqFile);
+      ChunkMetadataCache.getInstance().remove(seqFile);
+      FileReaderManager.getInstance().closeFileAndRemoveReader(seqFile.getTsFilePath());
+
+      TsFileIOWriter oldFileWriter = getOldFileWriter(seqFile);
+      // the merged chunks appended after the mark are discarded if the merge fails
+      oldFileWriter.mark();
+      try {
+        if (!appendMergedChunks(seqFile, newFileWriter, oldFileWriter)) {
+          discardMergedChunks(seqFile, oldFileWriter);
+          return;
+        }
+      } catch (IOException | RuntimeException e) {
+        discardMergedChunks(seqFile, oldFileWriter);
+        throw e;
+      }
+
+      updatePlanIndexes(seqFile);
+      seqFile.buildIndex(oldFileWriter.getChunkGroupMetadataList());
+      seqFile.serialize();
+      mergeLogger.logFileMergeEnd();
+      MergeUtils.removeMetadataBackup(seqFile.getTsFile());
+      logger.debug("{} moved merged chunks of {} to the old file", taskName, seqFile);
+      resource.removeFileAndWriter(seqFile);
+    } finally {
+      // clean cache
+      if (IoTDBDescriptor.getInstance().getConfig().isMetaDataCacheEnable()) {
+        ChunkCache.getInstance().clear();
+        ChunkMetadataCache.getInstance().clear();
+        TimeSeriesMetadataCache.getInstance().clear();
+        FileReaderManager.getInstance().closeFileAndRemoveReader(seqFile.getTsFilePath());
+      }
+      seqFile.writeUnlock();
+    }
+  }
+
+  /**
+   * @return false if the merge is aborted
+   */
+  private boolean appendMergedChunks(TsFileResource seqFile,
+      RestorableTsFileIOWriter newFileWriter, TsFileIOWriter oldFileWriter) throws IOException {
+    // the chunks merged or completely deleted are removed from the metadata
+    Map<Path, List<Long>> unmergedChunkStartTimes = new HashMap<>();
+    for (Entry<PartialPath, List<Long>> entry : context.getUnmergedChunkStartTimes().get(seqFile)
+        .entrySet()) {
+      unmergedChunkStartTimes.put(new Path(entry.getKey().getDevice(),
+          entry.getKey().getMeasurement()), entry.getValue());
+    }
+    // the merged chunks must win over the chunks they replace, which remain in the file
+    long maxVersion = 0;
+    for (ChunkGroupMetadata chunkGroupMetadata : oldFileWriter.getChunkGroupMetadataList()) {
+      for (ChunkMetadata chunkMetadata : chunkGroupMetadata.getChunkMetadataList()) {
+        maxVersion = Math.max(maxVersion, chunkMetadata.getVersion());
+      }
+    }
+    oldFileWriter.filterChunks(unmergedChunkStartTimes);
+
+    newFileWriter.close();
+    try (TsFileSequenceReader newFileReader = new TsFileSequenceReader(
+        newFileWriter.getFile().getPath(), false)) {
+      for (ChunkGroupMetadata chunkGroupMetadata : newFileWriter.getChunkGroupMetadataList()) {
+        writeMergedChunkGroup(chunkGroupMetadata, newFileReader, oldFileWriter, maxVersion + 1);
+        if (Thread.interrupted()) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+    }
+    oldFileWriter.sortChunkMetadataByStartTime();
+    oldFileWriter.endFile();
+    return true;
+  }
+
+  /**
+   * truncate the appended chunks and restore the metadata of the seqFile saved before it was
+   * truncated
+   */
+  private void discardMergedChunks(TsFileResource seqFile, TsFileIOWriter oldFileWriter)
+      throws IOException {
+    if (oldFileWriter.canWrite()) {
+      oldFileWriter.reset();
+      oldFileWriter.close();
+    }
+    if (MergeUtils.restoreTruncatedMetadata(seqFile.getTsFile())) {
+      MergeUtils.removeMetadataBackup(seqFile.getTsFile());
+      return;
+    }
+    // the seqFile was already truncated when this merge started, so there is no saved metadata
+    RestorableTsFileIOWriter oldFileRecoverWriter = new RestorableTsFileIOWriter(
+        seqFile.getTsFile());
+    if (oldFileRecoverWriter.hasCrashed() && oldFileRecoverWriter.canWrite()) {
+      oldFileRecoverWriter.endFile();
+    } else {
+      oldFileRecoverWriter.close();
+    }
+  }
+
+  private TsFileIOWriter getOldFileWriter(TsFileResource seqFile) throws IOException {
+    TsFileIOWriter oldFileWriter;
+    try {
+      oldFileWriter = new ForceAppendTsFileWriter(seqFile.getTsFile());
+      long truncatePosition = ((ForceAppendTsFileWriter) oldFileWriter).getTruncatePosition();
+      MergeUtils.backupMetadata(seqFile.getTsFile(), truncatePosition);
+      mergeLogger.logFileMergeStart(seqFile.getTsFile(), truncatePosition);
+      logger.debug("{} moving merged chunks of {} to the old file", taskName, seqFile);
+      ((ForceAppendTsFileWriter) oldFileWriter).doTruncate();
+    } catch (TsFileNotCompleteException e) {
+      // this file may already be truncated if this merge is a system reboot merge
+      oldFileWriter = new RestorableTsFileIOWriter(seqFile.getTsFile());
+      mergeLogger.logFileMergeStart(seqFile.getTsFile(), seqFile.getTsFile().length());
+    }
+    return oldFileWriter;
+  }
+
+  private void writeMergedChunkGroup(ChunkGroupMetadata chunkGroupMetadata,
+      TsFileSequenceReader reader, TsFileIOWriter fileWriter, long version) throws IOException {
+    fileWriter.startChunkGroup(chunkGroupMetadata.getDevice());
+    for (ChunkMetadata chunkMetadata : chunkGroupMetadata.getChunkMetadataList()) {
+      Chunk chunk = reader.readMemChunk(chunkMetadata);
+      fileWriter.writeChunk(chunk, chunkMetadata);
+      context.incTotalPointWritten(chunkMetadata.getNumOfPoints());
+    }
+    fileWriter.writeVersion(version);
+    fileWriter.endChunkGroup();
+  }
+
   private void moveUnmergedToNew(TsFileResource seqFile) throws IOException {
     Map<PartialPath, List<Long>> fileUnmergedChunkStartTimes =
         context.getUnmergedChunkStartTimes().get(seqFile);
@@ -173,6 +333,7 @@ class MergeFileTask {
     fileWriter.endFile();
 
     updatePlanIndexes(seqFile);
+    seqFile.buildIndex(fileWriter.getChunkGroupMetadataList());
     seqFile.serialize();
     mergeLogger.logFileMergeEnd();
     logger.debug("{} moved unmerged chunks of {} to the new file", taskName, seqFile);
@@ -37,6 +37,7 @@ import org.apache.iotdb.db.engine.merge.manage.MergeContext;
 import org.apache.iotdb.db.engine.merge.manage.MergeManager;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
 import org.apache.iotdb.db.engine.merge.recover.MergeLogger;
+import org.apache.iotdb.db.engine.merge.selector.BudgetedPathSelector;
 import org.apache.iotdb.db.engine.merge.selector.IMergePathSelector;
 import org.apache.iotdb.db.engine.merge.selector.NaivePathSelector;
 import org.apache.iotdb.db.engine.modification.Modification;
@@ -45,6 +46,7 @@ import org.apache.iotdb.db.metadata.PartialPath;
 import org.apache.iotdb.db.utils.MergeUtils;
 import org.apache.iotdb.db.utils.MergeUtils.MetaListEntry;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.TimeValuePair;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.BatchData;
@@ -71,6 +73,13 @@ public class MergeMultiChunkTask {
   private MergeResource resource;
   private TimeValuePair[] currTimeValuePairs;
   private boolean fullMerge;
+  // only rewrite the chunks overlapped by unseq data, see MergeFileTask
+  private boolean incremental;
+  // merge the series in batches within seriesMemoryBudget and spill the chunks being merged when
+  // they take more than chunkMemoryBudget each
+  private boolean spill;
+  private long seriesMemoryBudget;
+  private long chunkMemoryBudget;
 
   private MergeContext mergeContext;
 
@@ -92,6 +101,11 @@ public class MergeMultiChunkTask {
     this.mergeLogger = mergeLogger;
     this.resource = mergeResource;
     this.fullMerge = fullMerge;
+    this.incremental = !fullMerge && IoTDBDescriptor.getInstance().getConfig()
+        .isEnableIncrementalMerge();
+    this.spill = IoTDBDescriptor.getInstance().getConfig().isEnableMergeMemorySpill();
+    // the other half is left for the metadata of the new files, see MaxFileMergeFileSelector
+    this.seriesMemoryBudget = IoTDBDescriptor.getInstance().getConfig().getMergeMemoryBudget() / 2;
     this.unmergedSeries = unmergedSeries;
     this.concurrentMergeSeriesNum = concurrentMergeSeriesNum;
     this.storageGroupName = storageGroupName;
@@ -109,9 +123,13 @@ public class MergeMultiChunkTask {
     List<List<PartialPath>> devicePaths = MergeUtils.splitPathsByDevice(unmergedSeries);
     for (List<PartialPath> pathList : devicePaths) {
       // TODO: use statistics of queries to better rearrange series
-      IMergePathSelector pathSelector = new NaivePathSelector(pathList, concurrentMergeSeriesNum);
+      IMergePathSelector pathSelector = spill
+          ? new BudgetedPathSelector(pathList, estimateUnseqMemoryCosts(pathList),
+          concurrentMergeSeriesNum, seriesMemoryBudget / 2)
+          : new NaivePathSelector(pathList, concurrentMergeSeriesNum);
       while (pathSelector.hasNext()) {
         currMergingPaths = pathSelector.next();
+        chunkMemoryBudget = seriesMemoryBudget / 2 / currMergingPaths.size();
         mergePaths();
         resource.clearChunkWriterCache();
         if (Thread.interrupted()) {
@@ -130,6 +148,23 @@ public class MergeMultiChunkTask {
     mergeLogger.logAllTsEnd();
   }
 
+  /**
+   * The unseq reader of a series loads all its unseq chunks, whose memory is estimated by their
+   * points.
+   */
+  private long[] estimateUnseqMemoryCosts(List<PartialPath> paths) throws IOException {
+    long[] costs = new long[paths.size()];
+    for (TsFileResource unseqFile : resource.getUnseqFiles()) {
+      for (int i = 0; i < paths.size(); i++) {
+        TSDataType dataType = resource.getSchema(paths.get(i)).getType();
+        for (ChunkMetadata chunkMetadata : resource.queryChunkMetadata(paths.get(i), unseqFile)) {
+          costs[i] += chunkMetadata.getNumOfPoints() * (Long.BYTES + dataType.getDataTypeSize());
+        }
+      }
+    }
+    return costs;
+  }
+
   private void logMergeProgress() {
     if (logger.isInfoEnabled()) {
       double newProgress = 100 * mergedSeriesCnt / (double) (unmergedSeries.size());
@@ -316,6 +351,12 @@ public class MergeMultiChunkTask {
    * <p>
    * 3. other cases: need to unCompress the chunk and write 3.1 SK isn't overflowed 3.2 SK is
    * overflowed
+   * <p>
+   * In an incremental merge, small chunks are not merged and a rewritten chunk is flushed at once,
+   * so that only the overflowed or modified chunks are rewritten.
+   * <p>
+   * With enable_merge_memory_spill, the sealed pages of an unflushed chunk are spilled to a temp
+   * file once they exceed chunkMemoryBudget, and are copied back when the chunk is flushed.
    */
   @SuppressWarnings("java:S2445") // avoid writing the same writer concurrently
   private int mergeChunkV2(ChunkMetadata currMeta, boolean chunkOverflowed,
@@ -362,16 +403,39 @@ public class MergeMultiChunkTask {
     // update points written statistics
     mergeContext.incTotalPointWritten((long) unclosedChunkPoint - lastUnclosedChunkPoint);
     if (minChunkPointNum > 0 && unclosedChunkPoint >= minChunkPointNum
-        || unclosedChunkPoint > 0 && minChunkPointNum < 0) {
+        || unclosedChunkPoint > 0 && (minChunkPointNum < 0 || incremental)) {
       // the new chunk's size is large enough and it should be flushed
       synchronized (mergeFileWriter) {
         chunkWriter.writeToFileWriter(mergeFileWriter);
       }
       unclosedChunkPoint = 0;
+    } else if (spill && unclosedChunkPoint > 0
+        && chunkWriter.estimateMaxSeriesMemSize() > chunkMemoryBudget) {
+      // the new chunk is still too small to be flushed but too large to be kept in memory
+      chunkWriter.spill(resource.getSpillFile(currFile, pathIdx));
     }
     return unclosedChunkPoint;
   }
 
+  /**
+   * In an incremental merge, the unseq points before a chunk are written into a new chunk instead
+   * of being merged with the chunk, so that the chunk is rewritten only when they overlap.
+   */
+  @SuppressWarnings("java:S2445") // avoid writing the same writer concurrently
+  private void writeUnseqBeforeChunk(ChunkMetadata currMeta, int pathIdx,
+      IPointReader unseqReader, IChunkWriter chunkWriter, TsFileIOWriter mergeFileWriter)
+      throws IOException {
+    int ptWritten = writeRemainingUnseq(chunkWriter, unseqReader, currMeta.getStartTime(),
+        pathIdx);
+    if (ptWritten > 0) {
+      mergeContext.incTotalPointWritten(ptWritten);
+      mergedChunkNum.incrementAndGet();
+      synchronized (mergeFileWriter) {
+        chunkWriter.writeToFileWriter(mergeFileWriter);
+      }
+    }
+  }
+
   private int writeRemainingUnseq(IChunkWriter chunkWriter,
       IPointReader unseqReader, long timeLimit, int pathIdx) throws IOException {
     int ptWritten = 0;
@@ -480,9 +544,18 @@ public class MergeMultiChunkTask {
           MetaListEntry metaListEntry = metaListEntries[pathIdx];
           ChunkMetadata currMeta = metaListEntry.current();
           boolean isLastChunk = !metaListEntry.hasNext();
-          boolean chunkOverflowed = MergeUtils
-              .isChunkOverflowed(currTimeValuePairs[pathIdx], currMeta);
-          boolean chunkTooSmall = MergeUtils
+          boolean chunkOverflowed;
+          if (incremental) {
+            writeUnseqBeforeChunk(currMeta, pathIdx, unseqReaders[pathIdx], chunkWriter,
+                mergeFileWriter);
+            // an unseq point at the end time of the chunk overwrites it, so it cannot be written
+            // into a new chunk
+            chunkOverflowed = currTimeValuePairs[pathIdx] != null
+                && currTimeValuePairs[pathIdx].getTimestamp() <= currMeta.getEndTime();
+          } else {
+            chunkOverflowed = MergeUtils.isChunkOverflowed(currTimeValuePairs[pathIdx], currMeta);
+          }
+          boolean chunkTooSmall = !incremental && MergeUtils
               .isChunkTooSmall(ptWrittens[pathIdx], currMeta, isLastChunk, minChunkPointNum);
 
           Chunk chunk;
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.merge.manage.MergeContext;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
 import org.apache.iotdb.db.engine.merge.recover.MergeLogger;
@@ -53,6 +54,7 @@ import org.slf4j.LoggerFactory;
 public class MergeTask implements Callable<Void> {
 
   public static final String MERGE_SUFFIX = ".merge";
+  public static final String SPILL_SUFFIX = ".spill";
   private static final Logger logger = LoggerFactory.getLogger(MergeTask.class);
 
   MergeResource resource;
@@ -192,6 +194,16 @@ public class MergeTask implements Callable<Void> {
     for (TsFileResource seqFile : resource.getSeqFiles()) {
       File mergeFile = new File(seqFile.getTsFilePath() + MERGE_SUFFIX);
       mergeFile.delete();
+      try {
+        // a seqFile left truncated by an aborted merge gets its metadata back
+        MergeUtils.restoreTruncatedMetadata(seqFile.getTsFile());
+        MergeUtils.removeMetadataBackup(seqFile.getTsFile());
+      } catch (IOException e) {
+        logger.error("{} cannot restore the metadata of {}", taskName, seqFile, e);
+      }
+      if (IoTDBDescriptor.getInstance().getConfig().isEnableMergeMemorySpill()) {
+        deleteSpillFiles(seqFile);
+      }
       seqFile.setMerging(false);
     }
     for (TsFileResource unseqFile : resource.getUnseqFiles()) {
@@ -208,6 +220,20 @@ public class MergeTask implements Callable<Void> {
     }
   }
 
+  /**
+   * delete the spilled chunks left by an aborted or crashed merge, see MergeResource.getSpillFile()
+   */
+  private static void deleteSpillFiles(TsFileResource seqFile) {
+    String prefix = seqFile.getTsFile().getName() + MERGE_SUFFIX;
+    File[] spillFiles = seqFile.getTsFile().getParentFile()
+        .listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(SPILL_SUFFIX));
+    if (spillFiles != null) {
+      for (File spillFile : spillFiles) {
+        spillFile.delete();
+      }
+    }
+  }
+
   public String getStorageGroupName() {
     return storageGroupName;
   }
@@ -20,9 +20,9 @@
 package org.apache.iotdb.db.engine.merge.task;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -123,8 +123,7 @@ public class RecoverMergeTask extends MergeTask {
       analyzer.setUnmergedFiles(null);
       mergeFileTask.mergeFiles();
     } else {
-      // NOTICE: although some of the seqFiles may have been truncated in last merge, we do not
-      // recover them here because later TsFile recovery will recover them
+      // the seqFiles truncated in last merge get back their metadata in truncateFiles()
       truncateFiles();
     }
     cleanUp(continueMerge);
@@ -253,12 +252,11 @@ public class RecoverMergeTask extends MergeTask {
       File file = entry.getKey();
       Long lastPosition = entry.getValue();
       if (file.exists() && file.length() != lastPosition) {
-        try (FileInputStream fileInputStream = new FileInputStream(file)) {
-          FileChannel channel = fileInputStream.getChannel();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
           channel.truncate(lastPosition);
-          channel.close();
         }
       }
+      MergeUtils.restoreTruncatedMetadata(file);
     }
     analyzer.setFileLastPositions(null);
   }
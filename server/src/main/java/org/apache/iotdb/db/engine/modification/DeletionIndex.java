@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.modification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+
+/**
+ * DeletionIndex is the Modifications of one timeseries in a ModificationFile, with the ranges of
+ * its Deletions merged and sorted. A Deletion only applies to the chunks older than it, and a
+ * chunk older than all the Deletions, which is the common case as data is deleted after being
+ * written, finds the ranges deleting it by binary search instead of going through all the
+ * Deletions.
+ */
+public class DeletionIndex {
+
+  public static final DeletionIndex EMPTY = new DeletionIndex(Collections.emptyList());
+
+  private final List<Modification> modifications;
+  private final long minVersion;
+  // the merged ranges of all Deletions, sorted by time
+  private final long[] startTimes;
+  private final long[] endTimes;
+
+  public DeletionIndex(List<Modification> modifications) {
+    this.modifications = modifications;
+    List<long[]> ranges = new ArrayList<>();
+    long minVersionNum = Long.MAX_VALUE;
+    for (Modification modification : modifications) {
+      if (modification instanceof Deletion) {
+        Deletion deletion = (Deletion) modification;
+        ranges.add(new long[]{deletion.getStartTime(), deletion.getEndTime()});
+        minVersionNum = Math.min(minVersionNum, deletion.getVersionNum());
+      }
+    }
+    this.minVersion = minVersionNum;
+
+    ranges.sort(Comparator.comparingLong(range -> range[0]));
+    List<long[]> mergedRanges = new ArrayList<>();
+    for (long[] range : ranges) {
+      long[] last = mergedRanges.isEmpty() ? null : mergedRanges.get(mergedRanges.size() - 1);
+      if (last != null && range[0] <= last[1]) {
+        last[1] = Math.max(last[1], range[1]);
+      } else {
+        mergedRanges.add(range);
+      }
+    }
+    startTimes = new long[mergedRanges.size()];
+    endTimes = new long[mergedRanges.size()];
+    for (int i = 0; i < mergedRanges.size(); i++) {
+      startTimes[i] = mergedRanges.get(i)[0];
+      endTimes[i] = mergedRanges.get(i)[1];
+    }
+  }
+
+  public List<Modification> getModifications() {
+    return modifications;
+  }
+
+  public boolean isEmpty() {
+    return modifications.isEmpty();
+  }
+
+  /**
+   * Add the ranges of the Deletions newer than the chunk and overlapping it to its delete interval
+   * list, and mark it as modified if there is any.
+   *
+   * @return true if the chunk is completely deleted
+   */
+  public boolean apply(ChunkMetadata chunkMetadata) {
+    long startTime = chunkMetadata.getStartTime();
+    long endTime = chunkMetadata.getEndTime();
+    if (chunkMetadata.getVersion() >= minVersion) {
+      return applyNewerDeletions(chunkMetadata);
+    }
+
+    for (int i = firstRangeEndingFrom(startTime);
+        i < startTimes.length && startTimes[i] <= endTime; i++) {
+      if (startTimes[i] <= startTime && endTimes[i] >= endTime) {
+        return true;
+      }
+      chunkMetadata.insertIntoSortedDeletions(startTimes[i], endTimes[i]);
+      chunkMetadata.setModified(true);
+    }
+    return false;
+  }
+
+  /**
+   * @return the index of the first merged range ending at or after the time
+   */
+  private int firstRangeEndingFrom(long time) {
+    int low = 0;
+    int high = endTimes.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (endTimes[mid] < time) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Only some of the Deletions apply to the chunk, e.g., the chunk is flushed after a deletion of
+   * the file, so they are checked one by one.
+   */
+  private boolean applyNewerDeletions(ChunkMetadata chunkMetadata) {
+    for (Modification modification : modifications) {
+      if (modification instanceof Deletion
+          && modification.getVersionNum() > chunkMetadata.getVersion()) {
+        Deletion deletion = (Deletion) modification;
+        chunkMetadata.insertIntoSortedDeletions(deletion.getStartTime(), deletion.getEndTime());
+      }
+    }
+    if (chunkMetadata.getDeleteIntervalList() != null) {
+      for (TimeRange range : chunkMetadata.getDeleteIntervalList()) {
+        if (range.contains(chunkMetadata.getStartTime(), chunkMetadata.getEndTime())) {
+          return true;
+        }
+        if (range.overlaps(
+            new TimeRange(chunkMetadata.getStartTime(), chunkMetadata.getEndTime()))) {
+          chunkMetadata.setModified(true);
+        }
+      }
+    }
+    return false;
+  }
+}
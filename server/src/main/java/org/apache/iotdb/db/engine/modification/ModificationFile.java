@@ -26,11 +26,18 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import org.apache.iotdb.db.engine.modification.io.LocalBinaryModificationAccessor;
 import org.apache.iotdb.db.engine.modification.io.LocalTextModificationAccessor;
 import org.apache.iotdb.db.engine.modification.io.ModificationReader;
 import org.apache.iotdb.db.engine.modification.io.ModificationWriter;
+import org.apache.iotdb.db.metadata.PartialPath;
+import org.apache.iotdb.db.utils.TestOnly;
 import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.slf4j.Logger;
@@ -38,14 +45,27 @@ import org.slf4j.LoggerFactory;
 
 /**
  * ModificationFile stores the Modifications of a TsFile or unseq file in another file in the same
- * directory. Methods in this class are highly synchronized for concurrency safety.
+ * directory. New files are written in binary format, and files written in text format by the
+ * previous versions are still read and appended in text format. The Modifications are cached
+ * once read, together with the DeletionIndex of the recently queried timeseries, and the caches
+ * of the least recently used files are dropped when all files cache too many Modifications.
+ * Methods in this class are highly synchronized for concurrency safety.
  */
 public class ModificationFile implements AutoCloseable {
 
   private static final Logger logger = LoggerFactory.getLogger(ModificationFile.class);
   public static final String FILE_SUFFIX = ".mods";
+  // the DeletionIndexes are dropped all together when there are too many
+  private static final int MAX_CACHED_DELETION_INDEX_NUM = 1024;
+  // each cached file counts as one more Modification, so the number of cached files is bounded too
+  private static int maxCachedModificationNum = 100_000;
+  // the number of cached Modifications of each file in LRU order, guarded by itself
+  private static final Map<ModificationFile, Integer> CACHED_FILES = new LinkedHashMap<>(16,
+      0.75f, true);
+  private static int cachedModificationNum = 0;
 
   private List<Modification> modifications;
+  private Map<String, DeletionIndex> deletionIndexCache = new HashMap<>();
   private ModificationWriter writer;
   private ModificationReader reader;
   private String filePath;
@@ -57,9 +77,17 @@ public class ModificationFile implements AutoCloseable {
    * @param filePath the path of the storage file.
    */
   public ModificationFile(String filePath) {
-    LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(filePath);
-    this.writer = accessor;
-    this.reader = accessor;
+    // an empty file is written in binary format
+    if (FSFactoryProducer.getFSFactory().getFile(filePath).length() == 0
+        || LocalBinaryModificationAccessor.isBinaryFormat(filePath)) {
+      LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(filePath);
+      this.writer = accessor;
+      this.reader = accessor;
+    } else {
+      LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(filePath);
+      this.writer = accessor;
+      this.reader = accessor;
+    }
     this.filePath = filePath;
   }
 
@@ -76,22 +104,26 @@ public class ModificationFile implements AutoCloseable {
   }
 
   /**
-   * Release resources such as streams and caches.
+   * Release resources such as streams, the cached Modifications are kept for the queries until
+   * they are evicted.
    */
   public void close() throws IOException {
     synchronized (this) {
       writer.close();
-      modifications = null;
     }
   }
 
   public void abort() throws IOException {
     synchronized (this) {
+      checkInit();
       if (!modifications.isEmpty()) {
         writer.abort();
         modifications.remove(modifications.size() - 1);
+        deletionIndexCache.clear();
       }
+      updateCacheUsage();
     }
+    evictCaches();
   }
 
   /**
@@ -106,7 +138,10 @@ public class ModificationFile implements AutoCloseable {
       checkInit();
       writer.write(mod);
       modifications.add(mod);
+      deletionIndexCache.clear();
+      updateCacheUsage();
     }
+    evictCaches();
   }
 
   /**
@@ -115,9 +150,122 @@ public class ModificationFile implements AutoCloseable {
    * @return an ArrayList of modifications.
    */
   public Collection<Modification> getModifications() {
+    Collection<Modification> result;
     synchronized (this) {
       checkInit();
-      return new ArrayList<>(modifications);
+      updateCacheUsage();
+      result = new ArrayList<>(modifications);
+    }
+    evictCaches();
+    return result;
+  }
+
+  /**
+   * Get the modifications of a timeseries stored in this file, indexed by the deleted ranges.
+   *
+   * @param path the full path of the timeseries
+   */
+  public DeletionIndex getDeletionIndex(PartialPath path) {
+    DeletionIndex deletionIndex;
+    synchronized (this) {
+      checkInit();
+      updateCacheUsage();
+      deletionIndex = getDeletionIndexFromCache(path);
+    }
+    evictCaches();
+    return deletionIndex;
+  }
+
+  private DeletionIndex getDeletionIndexFromCache(PartialPath path) {
+    if (modifications.isEmpty()) {
+      return DeletionIndex.EMPTY;
+    }
+    DeletionIndex deletionIndex = deletionIndexCache.get(path.getFullPath());
+    if (deletionIndex == null) {
+      List<Modification> pathModifications = new ArrayList<>();
+      for (Modification modification : modifications) {
+        if (modification.getPath().matchFullPath(path)) {
+          pathModifications.add(modification);
+        }
+      }
+      deletionIndex = pathModifications.isEmpty() ? DeletionIndex.EMPTY
+          : new DeletionIndex(pathModifications);
+      if (deletionIndexCache.size() >= MAX_CACHED_DELETION_INDEX_NUM) {
+        deletionIndexCache.clear();
+      }
+      deletionIndexCache.put(path.getFullPath(), deletionIndex);
+    }
+    return deletionIndex;
+  }
+
+  /**
+   * Record the number of the cached Modifications of this file and mark it as the most recently
+   * used. The caller holds the lock of this file.
+   */
+  private void updateCacheUsage() {
+    synchronized (CACHED_FILES) {
+      Integer previous = CACHED_FILES.put(this, modifications.size() + 1);
+      cachedModificationNum += modifications.size() + 1 - (previous == null ? 0 : previous);
+    }
+  }
+
+  private void removeCacheUsage() {
+    synchronized (CACHED_FILES) {
+      Integer previous = CACHED_FILES.remove(this);
+      if (previous != null) {
+        cachedModificationNum -= previous;
+      }
+    }
+  }
+
+  /**
+   * Drop the caches of the least recently used files until the cached Modifications are no more
+   * than the limit, except those of the most recently used file. The caller should not hold the
+   * lock of any ModificationFile.
+   */
+  private static void evictCaches() {
+    List<ModificationFile> evictedFiles = new ArrayList<>();
+    synchronized (CACHED_FILES) {
+      Iterator<Map.Entry<ModificationFile, Integer>> iterator = CACHED_FILES.entrySet().iterator();
+      while (cachedModificationNum > maxCachedModificationNum && CACHED_FILES.size() > 1) {
+        Map.Entry<ModificationFile, Integer> entry = iterator.next();
+        cachedModificationNum -= entry.getValue();
+        evictedFiles.add(entry.getKey());
+        iterator.remove();
+      }
+    }
+    for (ModificationFile file : evictedFiles) {
+      file.dropCache();
+    }
+  }
+
+  private void dropCache() {
+    synchronized (this) {
+      synchronized (CACHED_FILES) {
+        if (CACHED_FILES.containsKey(this)) {
+          // used again after being evicted
+          return;
+        }
+      }
+      modifications = null;
+      deletionIndexCache.clear();
+    }
+  }
+
+  @TestOnly
+  static int getMaxCachedModificationNum() {
+    return maxCachedModificationNum;
+  }
+
+  @TestOnly
+  static void setMaxCachedModificationNum(int maxCachedModificationNum) {
+    ModificationFile.maxCachedModificationNum = maxCachedModificationNum;
+  }
+
+  @TestOnly
+  boolean isCached() {
+    synchronized (this) {
+      return modifications != null;
     }
   }
 
@@ -130,8 +278,13 @@ public class ModificationFile implements AutoCloseable {
   }
 
   public void remove() throws IOException {
-    close();
-    FSFactoryProducer.getFSFactory().getFile(filePath).delete();
+    synchronized (this) {
+      close();
+      FSFactoryProducer.getFSFactory().getFile(filePath).delete();
+      modifications = null;
+      deletionIndexCache.clear();
+      removeCacheUsage();
+    }
   }
 
   public boolean exists() {
@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.modification.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.exception.metadata.IllegalPathException;
+import org.apache.iotdb.db.metadata.PartialPath;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LocalBinaryModificationAccessor uses a file on local file system to store the modifications in
+ * binary format, and writes modifications by appending to the tail of the file. The file starts
+ * with MAGIC_STRING, followed by records of [size(int), type(byte), body]. A record not completely
+ * written, e.g., when the system crashes, is ignored when reading and truncated before appending,
+ * so the records appended after it can still be read.
+ */
+public class LocalBinaryModificationAccessor implements ModificationReader, ModificationWriter,
+    AutoCloseable {
+
+  private static final Logger logger = LoggerFactory
+      .getLogger(LocalBinaryModificationAccessor.class);
+  private static final byte[] MAGIC_STRING = {'M', 'O', 'D', 'S', 1};
+  private static final byte ABORT_MARK = -1;
+
+  private String filePath;
+  private DataOutputStream outputStream;
+
+  /**
+   * Construct a LocalBinaryModificationAccessor using a file specified by filePath.
+   *
+   * @param filePath the path of the file that is used for storing modifications.
+   */
+  public LocalBinaryModificationAccessor(String filePath) {
+    this.filePath = filePath;
+  }
+
+  /**
+   * @return true if the file is in binary format, false if it does not exist, is empty or is in
+   * another format
+   */
+  public static boolean isBinaryFormat(String filePath) {
+    File file = FSFactoryProducer.getFSFactory().getFile(filePath);
+    if (file.length() < MAGIC_STRING.length) {
+      return false;
+    }
+    byte[] magic = new byte[MAGIC_STRING.length];
+    try (InputStream inputStream = new FileInputStream(file)) {
+      return inputStream.read(magic) == magic.length && Arrays.equals(MAGIC_STRING, magic);
+    } catch (IOException e) {
+      logger.warn("Cannot read the format of modification file {}", filePath, e);
+      return false;
+    }
+  }
+
+  @Override
+  public Collection<Modification> read() {
+    File file = FSFactoryProducer.getFSFactory().getFile(filePath);
+    if (!file.exists()) {
+      logger.debug("No modification has been written to this file");
+      return new ArrayList<>();
+    }
+
+    List<Modification> modificationList = new ArrayList<>();
+    try {
+      readRecords(file, modificationList);
+    } catch (IOException e) {
+      logger.error("An error occurred when reading modifications, and the remaining modifications "
+          + "were ignored.", e);
+    }
+    return modificationList;
+  }
+
+  /**
+   * Read the records of the file into modificationList until the first record that is not
+   * completely written or cannot be decoded.
+   *
+   * @return the length of the file up to the end of the last valid record
+   */
+  private static long readRecords(File file, List<Modification> modificationList)
+      throws IOException {
+    long fileLength = file.length();
+    try (DataInputStream inputStream = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(file)))) {
+      byte[] magic = new byte[MAGIC_STRING.length];
+      inputStream.readFully(magic);
+      if (!Arrays.equals(MAGIC_STRING, magic)) {
+        throw new IOException("Not a binary modification file");
+      }
+      long validLength = MAGIC_STRING.length;
+      while (true) {
+        byte[] record;
+        try {
+          int size = inputStream.readInt();
+          if (size <= 0 || validLength + Integer.BYTES + size > fileLength) {
+            return validLength;
+          }
+          record = new byte[size];
+          inputStream.readFully(record);
+        } catch (EOFException e) {
+          return validLength;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        byte type = buffer.get();
+        if (type == ABORT_MARK) {
+          if (!modificationList.isEmpty()) {
+            modificationList.remove(modificationList.size() - 1);
+          }
+        } else {
+          try {
+            modificationList.add(decodeModification(type, buffer));
+          } catch (IOException | BufferUnderflowException e) {
+            logger.warn("Cannot decode the modification at {} of {}, ignore the remaining ones",
+                validLength, file, e);
+            return validLength;
+          }
+        }
+        validLength += Integer.BYTES + record.length;
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (outputStream != null) {
+      outputStream.close();
+      outputStream = null;
+    }
+  }
+
+  @Override
+  public void abort() throws IOException {
+    writeRecord(new byte[]{ABORT_MARK});
+  }
+
+  @Override
+  public void write(Modification mod) throws IOException {
+    writeRecord(encodeModification(mod));
+  }
+
+  private void writeRecord(byte[] record) throws IOException {
+    if (outputStream == null) {
+      File file = FSFactoryProducer.getFSFactory().getFile(filePath);
+      truncateTornRecords(file);
+      boolean isNewFile = file.length() == 0;
+      outputStream = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(file, true)));
+      if (isNewFile) {
+        outputStream.write(MAGIC_STRING);
+      }
+    }
+    outputStream.writeInt(record.length);
+    outputStream.write(record);
+    outputStream.flush();
+  }
+
+  /**
+   * Truncate the file to the end of its last valid record, otherwise the records appended after a
+   * record torn by a crash could never be read.
+   */
+  private static void truncateTornRecords(File file) throws IOException {
+    long fileLength = file.length();
+    if (fileLength == 0) {
+      return;
+    }
+    long validLength;
+    if (fileLength < MAGIC_STRING.length) {
+      // even the magic string is not completely written
+      validLength = 0;
+    } else {
+      validLength = readRecords(file, new ArrayList<>());
+    }
+    if (validLength < fileLength) {
+      logger.warn("Truncate the modification file {} from {} to {} to remove the torn records",
+          file, fileLength, validLength);
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+        channel.truncate(validLength);
+      }
+    }
+  }
+
+  private static byte[] encodeModification(Modification mod) throws IOException {
+    ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+    ReadWriteIOUtils.write((byte) mod.getType().ordinal(), byteStream);
+    if (mod instanceof Deletion) {
+      encodeDeletion((Deletion) mod, byteStream);
+    }
+    return byteStream.toByteArray();
+  }
+
+  private static Modification decodeModification(byte type, ByteBuffer buffer)
+      throws IOException {
+    if (type == Modification.Type.DELETION.ordinal()) {
+      return decodeDeletion(buffer);
+    }
+    throw new IOException("Unknown modification type: " + type);
+  }
+
+  private static void encodeDeletion(Deletion del, ByteArrayOutputStream byteStream)
+      throws IOException {
+    ReadWriteIOUtils.write(del.getPathString(), byteStream);
+    ReadWriteIOUtils.write(del.getVersionNum(), byteStream);
+    ReadWriteIOUtils.write(del.getStartTime(), byteStream);
+    ReadWriteIOUtils.write(del.getEndTime(), byteStream);
+  }
+
+  private static Deletion decodeDeletion(ByteBuffer buffer) throws IOException {
+    String path = ReadWriteIOUtils.readString(buffer);
+    long versionNum = ReadWriteIOUtils.readLong(buffer);
+    long startTimestamp = ReadWriteIOUtils.readLong(buffer);
+    long endTimestamp = ReadWriteIOUtils.readLong(buffer);
+    try {
+      return new Deletion(new PartialPath(path), versionNum, startTimestamp, endTimestamp);
+    } catch (IllegalPathException e) {
+      throw new IOException("Invalid path: " + e.getMessage());
+    }
+  }
+}
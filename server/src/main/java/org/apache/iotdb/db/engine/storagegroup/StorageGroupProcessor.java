@@ -21,6 +21,7 @@ package org.apache.iotdb.db.engine.storagegroup;
 import static org.apache.iotdb.db.conf.IoTDBConstant.FILE_NAME_SEPARATOR;
 import static org.apache.iotdb.db.engine.merge.task.MergeTask.MERGE_SUFFIX;
 import static org.apache.iotdb.db.engine.storagegroup.TsFileResource.TEMP_SUFFIX;
+import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.PATH_SEPARATOR;
 import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.TSFILE_SUFFIX;
 
 import java.io.File;
@@ -38,6 +39,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -48,6 +50,7 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.compaction.CompactionMergeTaskPoolManager;
+import org.apache.iotdb.db.engine.compaction.CompactionScheduler;
 import org.apache.iotdb.db.engine.compaction.TsFileManagement;
 import org.apache.iotdb.db.engine.compaction.level.LevelCompactionTsFileManagement;
 import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
@@ -59,6 +62,7 @@ import org.apache.iotdb.db.engine.merge.task.RecoverMergeTask;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.tier.TierManager;
 import org.apache.iotdb.db.engine.version.SimpleFileVersionController;
 import org.apache.iotdb.db.engine.version.VersionController;
 import org.apache.iotdb.db.exception.BatchProcessException;
@@ -78,6 +82,7 @@ import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertRowPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.control.QueryFileManager;
 import org.apache.iotdb.db.service.IoTDB;
 import org.apache.iotdb.db.service.UpgradeSevice;
@@ -166,9 +171,11 @@ public class StorageGroupProcessor {
    */
   private final TreeMap<Long, TsFileProcessor> workUnsequenceTsFileProcessors = new TreeMap<>();
   /**
-   * compactionMergeWorking is used to wait for last compaction to be done.
+   * the time partitions being compacted, a time partition is compacted by one task at a time while
+   * different time partitions can be compacted concurrently. It is also used to wait for the
+   * compactions to be done.
    */
-  private volatile boolean compactionMergeWorking = false;
+  private final Set<Long> compactingTimePartitions = ConcurrentHashMap.newKeySet();
   // upgrading sequence TsFile resource list
   private List<TsFileResource> upgradeSeqFileList = new LinkedList<>();
 
@@ -507,6 +514,9 @@ public class StorageGroupProcessor {
             // the process was interrupted before the merged files could be named
             continueFailedRenames(partitionFolder, MERGE_SUFFIX);
 
+            // the TsFiles being migrated into this tier when the system crashed
+            removeFiles(partitionFolder, TsFileResource.MIGRATE_SUFFIX);
+
             Collections.addAll(tsFiles,
                 fsFactory.listFilesBySuffix(partitionFolder.getAbsolutePath(), TSFILE_SUFFIX));
           }
@@ -514,6 +524,7 @@ public class StorageGroupProcessor {
       }
 
     }
+    removeMigratedOrigins(tsFiles);
     tsFiles.sort(this::compareFileName);
     List<TsFileResource> ret = new ArrayList<>();
     tsFiles.forEach(f -> ret.add(new TsFileResource(f)));
@@ -529,6 +540,46 @@ public class StorageGroupProcessor {
     return new Pair<>(ret, upgradeRet);
   }
 
+  private void removeFiles(File fileFolder, String suffix) {
+    File[] files = fsFactory.listFilesBySuffix(fileFolder.getAbsolutePath(), suffix);
+    if (files != null) {
+      for (File file : files) {
+        if (!file.delete()) {
+          logger.warn("Cannot remove {}", file);
+        }
+      }
+    }
+  }
+
+  /**
+   * A TsFile found in two tiers was being migrated when the system crashed, after its copy was
+   * complete and before the origin was removed. Keep the copy in the colder tier and remove the
+   * origin.
+   */
+  private void removeMigratedOrigins(List<File> tsFiles) {
+    Map<String, File> partitionFileMap = new HashMap<>();
+    List<File> origins = new ArrayList<>();
+    for (File tsFile : tsFiles) {
+      String key = tsFile.getParentFile().getName() + File.separator + tsFile.getName();
+      File other = partitionFileMap.putIfAbsent(key, tsFile);
+      if (other == null) {
+        continue;
+      }
+      if (DirectoryManager.getInstance().getTier(tsFile) > DirectoryManager.getInstance()
+          .getTier(other)) {
+        partitionFileMap.put(key, tsFile);
+        origins.add(other);
+      } else {
+        origins.add(tsFile);
+      }
+    }
+    for (File origin : origins) {
+      logger.info("{} has been migrated to another tier, remove it", origin);
+      new TsFileResource(origin).remove();
+    }
+    tsFiles.removeAll(origins);
+  }
+
   private void continueFailedRenames(File fileFolder, String suffix) {
     File[] files = fsFactory.listFilesBySuffix(fileFolder.getAbsolutePath(), suffix);
     if (files != null) {
@@ -1210,7 +1261,9 @@ public class StorageGroupProcessor {
   }
 
   /**
-   * Iterate each TsFile and try to lock and remove those out of TTL.
+   * Iterate each TsFile and try to lock and remove those out of TTL. With time partitions enabled,
+   * the partitions out of TTL are removed as a whole and only the TsFiles of the partition
+   * containing the TTL bound are checked one by one.
    */
   public synchronized void checkFilesTTL() {
     if (dataTTL == Long.MAX_VALUE) {
@@ -1222,9 +1275,20 @@ public class StorageGroupProcessor {
       logger.debug("{}: TTL removing files before {}", storageGroupName, new Date(timeLowerBound));
     }
 
-    // copy to avoid concurrent modification of deletion
-    List<TsFileResource> seqFiles = new ArrayList<>(tsFileManagement.getTsFileList(true));
-    List<TsFileResource> unseqFiles = new ArrayList<>(tsFileManagement.getTsFileList(false));
+    List<TsFileResource> seqFiles;
+    List<TsFileResource> unseqFiles;
+    if (StorageEngine.isEnablePartition()) {
+      long boundPartition = StorageEngine.getTimePartition(timeLowerBound);
+      for (long timePartition : tsFileManagement.getTimePartitions().headSet(boundPartition)) {
+        removeExpiredPartition(timePartition, timeLowerBound);
+      }
+      seqFiles = tsFileManagement.getTsFileListByTimePartition(true, boundPartition);
+      unseqFiles = tsFileManagement.getTsFileListByTimePartition(false, boundPartition);
+    } else {
+      // copy to avoid concurrent modification of deletion
+      seqFiles = new ArrayList<>(tsFileManagement.getTsFileList(true));
+      unseqFiles = new ArrayList<>(tsFileManagement.getTsFileList(false));
+    }
 
     for (TsFileResource tsFileResource : seqFiles) {
       checkFileTTL(tsFileResource, timeLowerBound, true);
@@ -1269,6 +1333,203 @@ public class StorageGroupProcessor {
     }
   }
 
+  /**
+   * Remove a time partition whose data are all out of TTL at once, including its TsFiles, data
+   * directories, version controller and latest flushed times. The partition is skipped and checked
+   * again later if it is being written, compacted or merged.
+   */
+  private void removeExpiredPartition(long timePartition, long timeLowerBound) {
+    // prevent compactions from choosing the files of the partition
+    if (!compactingTimePartitions.add(timePartition)) {
+      return;
+    }
+    List<TsFileResource> expiredFiles = new ArrayList<>();
+    try {
+      writeLock();
+      tsFileManagement.writeLock();
+      try {
+        if (!collectExpiredPartitionFiles(timePartition, expiredFiles)) {
+          return;
+        }
+        tsFileManagement.removeTimePartition(timePartition);
+        timePartitionIdVersionControllerMap.remove(timePartition);
+        latestTimeForEachDevice.remove(timePartition);
+        partitionLatestFlushedTimeForEachDevice.remove(timePartition);
+        newlyFlushedPartitionLatestFlushedTimeForEachDevice.remove(timePartition);
+      } finally {
+        tsFileManagement.writeUnlock();
+        writeUnlock();
+      }
+
+      // the files are invisible to new queries, wait for the running ones to finish
+      for (TsFileResource resource : expiredFiles) {
+        resource.writeLock();
+        try {
+          resource.remove();
+        } finally {
+          resource.writeUnlock();
+        }
+      }
+      removeTimePartitionFolders(timePartition);
+    } finally {
+      closeCompactionMergeCallBack(timePartition);
+    }
+    if (logger.isInfoEnabled()) {
+      logger.info("{}: Removed time partition {} with {} files before {} by ttl ({}ms)",
+          storageGroupName, timePartition, expiredFiles.size(), new Date(timeLowerBound), dataTTL);
+    }
+  }
+
+  /**
+   * Collect the TsFiles of an expired time partition and mark them deleted, thread-safety should be
+   * ensured by caller.
+   *
+   * @return false if the partition is still being written or merged
+   */
+  private boolean collectExpiredPartitionFiles(long timePartition,
+      List<TsFileResource> expiredFiles) {
+    TsFileProcessor seqProcessor = workSequenceTsFileProcessors.get(timePartition);
+    TsFileProcessor unseqProcessor = workUnsequenceTsFileProcessors.get(timePartition);
+    if (seqProcessor != null || unseqProcessor != null) {
+      // no more data will come into the partition, close the working files and remove them later
+      if (seqProcessor != null) {
+        asyncCloseOneTsFileProcessor(true, seqProcessor);
+      }
+      if (unseqProcessor != null) {
+        asyncCloseOneTsFileProcessor(false, unseqProcessor);
+      }
+      return false;
+    }
+
+    expiredFiles.addAll(tsFileManagement.getTsFileListByTimePartition(true, timePartition));
+    expiredFiles.addAll(tsFileManagement.getTsFileListByTimePartition(false, timePartition));
+    for (TsFileResource resource : expiredFiles) {
+      if (resource.isMerging() || !resource.isClosed()) {
+        return false;
+      }
+    }
+    // prevent new merges and queries from choosing the files
+    for (TsFileResource resource : expiredFiles) {
+      resource.setDeleted(true);
+    }
+    // a file may be chosen for merge after the last check, double check to ensure it is not used
+    for (TsFileResource resource : expiredFiles) {
+      if (resource.isMerging()) {
+        for (TsFileResource toRestore : expiredFiles) {
+          toRestore.setDeleted(false);
+        }
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void removeTimePartitionFolders(long timePartition) {
+    List<String> folders = new ArrayList<>(
+        DirectoryManager.getInstance().getAllSequenceFileFolders());
+    folders.addAll(DirectoryManager.getInstance().getAllUnSequenceFileFolders());
+    try {
+      for (String folder : folders) {
+        File partitionFolder = fsFactory
+            .getFile(folder + File.separator + storageGroupName, String.valueOf(timePartition));
+        if (partitionFolder.exists()) {
+          org.apache.iotdb.db.utils.FileUtils.deleteDirectory(partitionFolder);
+        }
+      }
+      File versionFolder = SystemFileFactory.INSTANCE
+          .getFile(storageGroupSysDir, String.valueOf(timePartition));
+      if (versionFolder.exists()) {
+        org.apache.iotdb.db.utils.FileUtils.deleteDirectory(versionFolder);
+      }
+    } catch (IOException e) {
+      logger.error("{}: Cannot delete the folders of time partition {}", storageGroupName,
+          timePartition, e);
+    }
+  }
+
+  /**
+   * Migrate the closed TsFiles into the colder tiers they belong to, see TierManager. The data
+   * file is copied while it may be queried, and the resource is switched to the copy only when no
+   * query is reading it, otherwise the migration is retried in the next check.
+   */
+  public void migrateColdFiles() {
+    if (!TierManager.getInstance().isEnabled()) {
+      return;
+    }
+    long currentTime = System.currentTimeMillis();
+    // copy to avoid concurrent modification of deletion
+    List<TsFileResource> seqFiles = new ArrayList<>(tsFileManagement.getTsFileList(true));
+    List<TsFileResource> unseqFiles = new ArrayList<>(tsFileManagement.getTsFileList(false));
+
+    for (TsFileResource tsFileResource : seqFiles) {
+      migrateColdFile(tsFileResource, currentTime, true);
+    }
+    for (TsFileResource tsFileResource : unseqFiles) {
+      migrateColdFile(tsFileResource, currentTime, false);
+    }
+  }
+
+  private void migrateColdFile(TsFileResource resource, long currentTime, boolean isSeq) {
+    if (resource.isMerging() || !resource.isClosed() || resource.isDeleted()) {
+      return;
+    }
+    int targetTier = TierManager.getInstance().getMigrationTier(resource, currentTime);
+    long timePartition = resource.getTimePartition();
+    // no compaction of the partition starts during the migration
+    if (targetTier < 0 || !compactingTimePartitions.add(timePartition)) {
+      return;
+    }
+    // merges skip migrating files and are selected either under the write lock or with the
+    // partition held above, so once marked the file cannot be replaced by a merge during the copy
+    writeLock();
+    try {
+      if (resource.isMerging() || resource.isDeleted()) {
+        closeCompactionMergeCallBack(timePartition);
+        return;
+      }
+      resource.setMigrating(true);
+    } finally {
+      writeUnlock();
+    }
+    File targetDir = null;
+    try {
+      targetDir = fsFactory.getFile(
+          DirectoryManager.getInstance().getNextFolderForTier(targetTier, isSeq),
+          storageGroupName + File.separator + timePartition);
+      resource.copyForMigration(targetDir);
+
+      writeLock();
+      try {
+        // the file may be removed by ttl during the copy, and it must not be used by any queries
+        if (resource.isMerging() || resource.isDeleted() || !resource.tryWriteLock()) {
+          resource.abortMigration(targetDir);
+          return;
+        }
+        try {
+          String originPath = resource.getTsFilePath();
+          resource.finishMigration(targetDir);
+          FileReaderManager.getInstance().closeFileAndRemoveReader(originPath);
+          TierManager.getInstance().recordMigration(targetTier);
+          logger.info("{} is migrated into tier {} as {}", originPath, targetTier,
+              resource.getTsFilePath());
+        } finally {
+          resource.writeUnlock();
+        }
+      } finally {
+        writeUnlock();
+      }
+    } catch (IOException | DiskSpaceInsufficientException e) {
+      logger.error("{}: cannot migrate {} into tier {}", storageGroupName, resource, targetTier,
+          e);
+      if (targetDir != null) {
+        resource.abortMigration(targetDir);
+      }
+    } finally {
+      resource.setMigrating(false);
+      closeCompactionMergeCallBack(timePartition);
+    }
+  }
+
   /**
    * This method will be blocked until all tsfile processors are closed.
    */
@@ -1285,7 +1546,7 @@ public class StorageGroupProcessor {
                 (System.currentTimeMillis() - startTime) / 1000);
           }
         }
-        while (compactionMergeWorking) {
+        while (!compactingTimePartitions.isEmpty()) {
           closeStorageGroupCondition.wait(100);
           if (System.currentTimeMillis() - startTime > 60_000) {
             logger
@@ -1358,6 +1619,7 @@ public class StorageGroupProcessor {
       if (filePathsManager != null) {
         filePathsManager.addUsedFilesForQuery(context.getQueryId(), dataSource);
       }
+      CompactionScheduler.getInstance().recordQuery(storageGroupName, dataSource);
       dataSource.setDataTTL(dataTTL);
       return dataSource;
     } catch (MetadataException e) {
@@ -1398,9 +1660,16 @@ public class StorageGroupProcessor {
     long timeLowerBound = dataTTL != Long.MAX_VALUE ? System.currentTimeMillis() - dataTTL : Long
         .MIN_VALUE;
     context.setQueryTimeLowerBound(timeLowerBound);
+    // the partitions before the one containing the TTL bound are expired as a whole
+    long firstAlivePartition = dataTTL != Long.MAX_VALUE && StorageEngine.isEnablePartition()
+        ? StorageEngine.getTimePartition(timeLowerBound) : Long.MIN_VALUE;
 
     for (TsFileResource tsFileResource : tsFileResources) {
-      if (!isTsFileResourceSatisfied(tsFileResource, deviceId.getFullPath(), timeFilter, isSeq)) {
+      if (tsFileResource.getTimePartition() < firstAlivePartition) {
+        continue;
+      }
+      if (!isTsFileResourceSatisfied(tsFileResource, deviceId.getFullPath(), measurementId,
+          timeFilter, isSeq)) {
         continue;
       }
       closeQueryLock.readLock().lock();
@@ -1421,7 +1690,8 @@ public class StorageGroupProcessor {
     }
     // for upgrade files and old files must be closed
     for (TsFileResource tsFileResource : upgradeTsFileResources) {
-      if (!isTsFileResourceSatisfied(tsFileResource, deviceId.getFullPath(), timeFilter, isSeq)) {
+      if (!isTsFileResourceSatisfied(tsFileResource, deviceId.getFullPath(), measurementId,
+          timeFilter, isSeq)) {
         continue;
       }
       closeQueryLock.readLock().lock();
@@ -1435,10 +1705,11 @@ public class StorageGroupProcessor {
   }
 
   /**
-   * @return true if the device is contained in the TsFile and it lives beyond TTL
+   * @return true if the device is contained in the TsFile, not all deleted and it lives beyond TTL,
+   * and the series may be in the TsFile according to its index
    */
   private boolean isTsFileResourceSatisfied(TsFileResource tsFileResource, String deviceId,
-      Filter timeFilter, boolean isSeq) {
+      String measurementId, Filter timeFilter, boolean isSeq) {
     if (!tsFileResource.containsDevice(deviceId)) {
       if (config.isDebugOn()) {
         DEBUG_LOGGER.info("Path: {} file {} is not satisfied because of no device!", deviceId,
@@ -1447,6 +1718,14 @@ public class StorageGroupProcessor {
       return false;
     }
 
+    if (tsFileResource.isDeviceDeleted(deviceId)) {
+      if (config.isDebugOn()) {
+        DEBUG_LOGGER.info("Path: {} file {} is not satisfied because of deletion!", deviceId,
+            tsFileResource);
+      }
+      return false;
+    }
+
     int deviceIndex = tsFileResource.getDeviceToIndexMap().get(deviceId);
     long startTime = tsFileResource.getStartTime(deviceIndex);
     long endTime = tsFileResource.isClosed() || !isSeq ? tsFileResource.getEndTime(deviceIndex)
@@ -1466,7 +1745,25 @@ public class StorageGroupProcessor {
         DEBUG_LOGGER.info("Path: {} file {} is not satisfied because of time filter!", deviceId,
             tsFileResource);
       }
-      return res;
+      if (!res) {
+        return false;
+      }
+    }
+
+    // the index of a sealed file is checked at last, as it is less likely to filter the file
+    if (!tsFileResource.mayContainSeries(deviceId + PATH_SEPARATOR + measurementId)) {
+      if (config.isDebugOn()) {
+        DEBUG_LOGGER.info("Path: {} file {} is not satisfied because of no series!", deviceId,
+            tsFileResource);
+      }
+      return false;
+    }
+    if (!tsFileResource.mayContainTime(deviceIndex, timeFilter)) {
+      if (config.isDebugOn()) {
+        DEBUG_LOGGER.info("Path: {} file {} is not satisfied because of time buckets!", deviceId,
+            tsFileResource);
+      }
+      return false;
     }
     return true;
   }
@@ -1490,6 +1787,11 @@ public class StorageGroupProcessor {
 
     // record files which are updated so that we can roll back them in case of exception
     List<ModificationFile> updatedModFiles = new ArrayList<>();
+    // the devices completely deleted in each file, marked after all deletions are written
+    Map<TsFileResource, List<String>> deletedDevices = new HashMap<>();
+    // the files completely deleted and locked, removed after all deletions are written
+    List<TsFileResource> deletedSeqFiles = new ArrayList<>();
+    List<TsFileResource> deletedUnseqFiles = new ArrayList<>();
 
     try {
       Set<PartialPath> devicePaths = IoTDB.metaManager.getDevices(path.getDevicePath());
@@ -1520,15 +1822,22 @@ public class StorageGroupProcessor {
       }
 
       deleteDataInFiles(tsFileManagement.getTsFileList(true), deletion, devicePaths,
-          updatedModFiles, planIndex);
+          updatedModFiles, deletedDevices, deletedSeqFiles, planIndex);
       deleteDataInFiles(tsFileManagement.getTsFileList(false), deletion, devicePaths,
-          updatedModFiles, planIndex);
+          updatedModFiles, deletedDevices, deletedUnseqFiles, planIndex);
 
+      for (Entry<TsFileResource, List<String>> entry : deletedDevices.entrySet()) {
+        entry.getValue().forEach(entry.getKey()::markDeviceDeleted);
+      }
+      removeDeletedFiles(deletedSeqFiles, true);
+      removeDeletedFiles(deletedUnseqFiles, false);
     } catch (Exception e) {
       // roll back
       for (ModificationFile modFile : updatedModFiles) {
         modFile.abort();
       }
+      deletedSeqFiles.forEach(TsFileResource::writeUnlock);
+      deletedUnseqFiles.forEach(TsFileResource::writeUnlock);
       throw new IOException(e);
     } finally {
       tsFileManagement.writeUnlock();
@@ -1559,7 +1868,8 @@ public class StorageGroupProcessor {
   private boolean canSkipDelete(TsFileResource tsFileResource, Set<PartialPath> devicePaths,
       long deleteStart, long deleteEnd) {
     for (PartialPath device : devicePaths) {
-      if (tsFileResource.containsDevice(device.getFullPath()) &&
+      if (tsFileResource.containsDevice(device.getFullPath())
+          && !tsFileResource.isDeviceDeleted(device.getFullPath()) &&
           (deleteEnd >= tsFileResource.getStartTime(device.getFullPath()) &&
               deleteStart <= tsFileResource
                   .getOrDefaultEndTime(device.getFullPath(), Long.MAX_VALUE))) {
@@ -1569,15 +1879,54 @@ public class StorageGroupProcessor {
     return true;
   }
 
+  /**
+   * @return the devices whose data in the closed file is completely deleted by the deletion,
+   * excluding those already marked
+   */
+  private List<String> getCompletelyDeletedDevices(TsFileResource tsFileResource,
+      Set<PartialPath> devicePaths, Deletion deletion) {
+    List<String> devices = new ArrayList<>();
+    if (!tsFileResource.isClosed()) {
+      return devices;
+    }
+    for (PartialPath device : devicePaths) {
+      String deviceId = device.getFullPath();
+      // the deletion covers all timeseries of the device and all its data in the file
+      if (tsFileResource.containsDevice(deviceId) && !tsFileResource.isDeviceDeleted(deviceId)
+          && deletion.getPath().matchFullPath(device.concatNode(IoTDBConstant.PATH_WILDCARD))
+          && deletion.getStartTime() <= tsFileResource.getStartTime(deviceId)
+          && deletion.getEndTime() >= tsFileResource.getEndTime(deviceId)) {
+        devices.add(deviceId);
+      }
+    }
+    return devices;
+  }
+
   private void deleteDataInFiles(Collection<TsFileResource> tsFileResourceList, Deletion deletion,
-      Set<PartialPath> devicePaths, List<ModificationFile> updatedModFiles, long planIndex)
-      throws IOException {
+      Set<PartialPath> devicePaths, List<ModificationFile> updatedModFiles,
+      Map<TsFileResource, List<String>> deletedDevices, List<TsFileResource> deletedFiles,
+      long planIndex) throws IOException {
     for (TsFileResource tsFileResource : tsFileResourceList) {
       if (canSkipDelete(tsFileResource, devicePaths, deletion.getStartTime(),
           deletion.getEndTime())) {
         continue;
       }
 
+      List<String> completelyDeletedDevices = getCompletelyDeletedDevices(tsFileResource,
+          devicePaths, deletion);
+      // a file not used by any merge, compaction or query is removed instead of being modified
+      // if all of its data is deleted
+      if (tsFileResource.isAllDevicesDeleted(completelyDeletedDevices)
+          && !tsFileResource.isMerging()
+          && !compactingTimePartitions.contains(tsFileResource.getTimePartition())
+          && tsFileResource.tryWriteLock()) {
+        deletedFiles.add(tsFileResource);
+        continue;
+      }
+      if (!completelyDeletedDevices.isEmpty()) {
+        deletedDevices.put(tsFileResource, completelyDeletedDevices);
+      }
+
       long partitionId = tsFileResource.getTimePartition();
       deletion.setVersionNum(getVersionControllerByTimePartitionId(partitionId).nextVersion());
 
@@ -1599,6 +1948,28 @@ public class StorageGroupProcessor {
     }
   }
 
+  /**
+   * remove the files whose data is all deleted, the files are write locked and are unlocked and
+   * taken out of the list once removed
+   */
+  private void removeDeletedFiles(List<TsFileResource> deletedFiles, boolean isSeq) {
+    Iterator<TsFileResource> iterator = deletedFiles.iterator();
+    while (iterator.hasNext()) {
+      TsFileResource tsFileResource = iterator.next();
+      try {
+        // prevent new merges and queries from choosing this file
+        tsFileResource.setDeleted(true);
+        tsFileResource.remove();
+        tsFileManagement.remove(tsFileResource, isSeq);
+        logger.info("{} removed the file {} whose data is all deleted", storageGroupName,
+            tsFileResource.getTsFilePath());
+      } finally {
+        tsFileResource.writeUnlock();
+        iterator.remove();
+      }
+    }
+  }
+
   private void tryToDeleteLastCache(PartialPath deviceId, PartialPath originalPath,
       long startTime, long endTime) throws WriteProcessException {
     if (!IoTDBDescriptor.getInstance().getConfig().isLastCacheEnabled()) {
@@ -1695,24 +2066,25 @@ public class StorageGroupProcessor {
     } else {
       closingUnSequenceTsFileProcessor.remove(tsFileProcessor);
     }
-    if (!compactionMergeWorking && !CompactionMergeTaskPoolManager.getInstance()
-        .isTerminated()) {
-      compactionMergeWorking = true;
-      logger.info("{} submit a compaction merge task", storageGroupName);
+    long timePartition = tsFileProcessor.getTimeRangeId();
+    if (!CompactionMergeTaskPoolManager.getInstance().isTerminated()
+        && compactingTimePartitions.add(timePartition)) {
+      logger.info("{} submit a compaction merge task of time partition {}", storageGroupName,
+          timePartition);
       try {
         // fork and filter current tsfile, then commit then to compaction merge
-        tsFileManagement.forkCurrentFileList(tsFileProcessor.getTimeRangeId());
+        tsFileManagement.forkCurrentFileList(timePartition);
         CompactionMergeTaskPoolManager.getInstance()
             .submitTask(
-                tsFileManagement.new CompactionMergeTask(this::closeCompactionMergeCallBack,
-                    tsFileProcessor.getTimeRangeId()));
+                tsFileManagement.new CompactionMergeTask(
+                    () -> closeCompactionMergeCallBack(timePartition), timePartition));
       } catch (IOException | RejectedExecutionException e) {
-        this.closeCompactionMergeCallBack();
+        this.closeCompactionMergeCallBack(timePartition);
         logger.error("{} compaction submit task failed", storageGroupName);
       }
     } else {
-      logger.info("{} last compaction merge task is working, skip current merge",
-          storageGroupName);
+      logger.info("{} last compaction merge task of time partition {} is working, skip current "
+          + "merge", storageGroupName, timePartition);
     }
     synchronized (closeStorageGroupCondition) {
       closeStorageGroupCondition.notifyAll();
@@ -1723,8 +2095,8 @@ public class StorageGroupProcessor {
   /**
    * close compaction merge callback, to release some locks
    */
-  private void closeCompactionMergeCallBack() {
-    this.compactionMergeWorking = false;
+  private void closeCompactionMergeCallBack(long timePartition) {
+    this.compactingTimePartitions.remove(timePartition);
     synchronized (closeStorageGroupCondition) {
       closeStorageGroupCondition.notifyAll();
     }
@@ -41,7 +41,7 @@ import org.apache.iotdb.db.engine.flush.NotifyFlushMemTable;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.PrimitiveMemTable;
 import org.apache.iotdb.db.engine.modification.Deletion;
-import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.DeletionIndex;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor.UpdateEndTimeCallBack;
@@ -816,6 +816,7 @@ public class TsFileProcessor {
   private void endFile() throws IOException, TsFileProcessorException {
     logger.info("Start to end file {}", tsFileResource);
     long closeStartTime = System.currentTimeMillis();
+    tsFileResource.buildIndex(writer.getChunkGroupMetadataList());
     tsFileResource.serialize();
     writer.endFile();
     logger.info("Ended file {}", tsFileResource);
@@ -921,13 +922,12 @@ public class TsFileProcessor {
       }
 
       ModificationFile modificationFile = tsFileResource.getModFile();
-      List<Modification> modifications = context.getPathModifications(modificationFile,
+      DeletionIndex deletionIndex = context.getPathDeletionIndex(modificationFile,
           new PartialPath(deviceId + IoTDBConstant.PATH_SEPARATOR + measurementId));
 
       List<ChunkMetadata> chunkMetadataList = writer
           .getVisibleMetadataList(deviceId, measurementId, dataType);
-      QueryUtils.modifyChunkMetaData(chunkMetadataList,
-          modifications);
+      QueryUtils.modifyChunkMetaData(chunkMetadataList, deletionIndex);
       chunkMetadataList.removeIf(context::chunkNotSatisfy);
 
       // get in memory data
@@ -25,15 +25,21 @@ import java.io.OutputStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
@@ -43,14 +49,19 @@ import org.apache.iotdb.db.exception.PartitionViolationException;
 import org.apache.iotdb.db.rescon.CachedStringPool;
 import org.apache.iotdb.db.service.UpgradeSevice;
 import org.apache.iotdb.db.utils.FilePathUtils;
+import org.apache.iotdb.db.utils.MergeUtils;
 import org.apache.iotdb.db.utils.UpgradeUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetadata;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.RamUsageEstimator;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.slf4j.Logger;
@@ -63,12 +74,17 @@ public class TsFileResource {
   private static Map<String, String> cachedDevicePool = CachedStringPool.getInstance()
       .getCachedPool();
 
-  // tsfile
-  private File file;
+  // tsfile, replaced when the file is migrated to another tier
+  private volatile File file;
 
   public static final String RESOURCE_SUFFIX = ".resource";
   static final String TEMP_SUFFIX = ".temp";
+  static final String MIGRATE_SUFFIX = ".migrating";
   protected static final int INIT_ARRAY_SIZE = 64;
+  /**
+   * the number of the time buckets of a device, whose bitmap is a long
+   */
+  private static final int TIME_BUCKET_NUM = Long.SIZE;
 
   /**
    * start times array.
@@ -86,6 +102,19 @@ public class TsFileResource {
    */
   protected Map<String, Integer> deviceToIndex;
 
+  /**
+   * the bitmaps of the time buckets of the devices, indexed as the start times. The time range of a
+   * device is split into TIME_BUCKET_NUM buckets evenly, and a bit is set if a chunk of the device
+   * overlaps the bucket. Null if unknown, e.g., the file is unsealed or the times are changed after
+   * the buckets are built.
+   */
+  private volatile long[] timeBuckets;
+
+  /**
+   * the Bloom filter of the full paths of the series in the file, built with the time buckets
+   */
+  private volatile BloomFilter seriesBloomFilter;
+
   public TsFileProcessor getProcessor() {
     return processor;
   }
@@ -94,9 +123,21 @@ public class TsFileResource {
 
   private ModificationFile modFile;
 
+  /**
+   * the indexes of the devices whose data in this file is all deleted. Only the devices of a closed
+   * file are marked, and the marks are dropped with the modification file when the file is
+   * rewritten.
+   */
+  private volatile BitSet deletedDevices = new BitSet();
+
   private volatile boolean closed = false;
   private volatile boolean deleted = false;
   private volatile boolean isMerging = false;
+  // a file being copied into another tier must not be chosen for merge
+  private volatile boolean isMigrating = false;
+
+  // the last time a query read this file, the files being queried are not migrated to colder tiers
+  private volatile long lastReadTime = 0;
 
   private TsFileLock tsFileLock = new TsFileLock();
 
@@ -162,11 +203,15 @@ public class TsFileResource {
     this.deviceToIndex = other.deviceToIndex;
     this.startTimes = other.startTimes;
     this.endTimes = other.endTimes;
+    this.timeBuckets = other.timeBuckets;
+    this.seriesBloomFilter = other.seriesBloomFilter;
     this.processor = other.processor;
     this.modFile = other.modFile;
+    this.deletedDevices = other.deletedDevices;
     this.closed = other.closed;
     this.deleted = other.deleted;
     this.isMerging = other.isMerging;
+    this.isMigrating = other.isMigrating;
     this.chunkMetadataList = other.chunkMetadataList;
     this.readOnlyMemChunk = other.readOnlyMemChunk;
     generateTimeSeriesMetadata();
@@ -272,9 +317,24 @@ public class TsFileResource {
       ReadWriteIOUtils.write(maxPlanIndex, outputStream);
       ReadWriteIOUtils.write(minPlanIndex, outputStream);
 
+      long[] buckets = timeBuckets;
+      BloomFilter bloomFilter = seriesBloomFilter;
       if (modFile != null && modFile.exists()) {
         String modFileName = new File(modFile.getFilePath()).getName();
         ReadWriteIOUtils.write(modFileName, outputStream);
+      } else if (buckets != null) {
+        // the index follows the name of the modification file
+        ReadWriteIOUtils.write((String) null, outputStream);
+      }
+      if (buckets != null) {
+        for (Entry<String, Integer> entry : this.deviceToIndex.entrySet()) {
+          ReadWriteIOUtils.write(buckets[entry.getValue()], outputStream);
+        }
+        byte[] bytes = bloomFilter.serialize();
+        ReadWriteIOUtils.write(bytes.length, outputStream);
+        outputStream.write(bytes);
+        ReadWriteIOUtils.write(bloomFilter.getSize(), outputStream);
+        ReadWriteIOUtils.write(bloomFilter.getHashFunctionSize(), outputStream);
       }
     }
     File src = fsFactory.getFile(file + RESOURCE_SUFFIX + TEMP_SUFFIX);
@@ -319,9 +379,132 @@ public class TsFileResource {
           modFile = new ModificationFile(modF.getPath());
         }
       }
+      if (inputStream.available() > 0) {
+        deserializeIndex(inputStream, size);
+      }
     }
   }
 
+  private void deserializeIndex(InputStream inputStream, int deviceNum) throws IOException {
+    long[] buckets = new long[deviceNum];
+    for (int i = 0; i < deviceNum; i++) {
+      buckets[i] = ReadWriteIOUtils.readLong(inputStream);
+    }
+    byte[] bytes = ReadWriteIOUtils.readBytesWithSelfDescriptionLength(inputStream);
+    int filterSize = ReadWriteIOUtils.readInt(inputStream);
+    int hashFunctionSize = ReadWriteIOUtils.readInt(inputStream);
+    seriesBloomFilter = BloomFilter.buildBloomFilter(bytes, filterSize, hashFunctionSize);
+    timeBuckets = buckets;
+  }
+
+  /**
+   * Build the time buckets of the devices and the Bloom filter of the series from the chunks of the
+   * file, which must be called after the start and end times of the devices are settled.
+   */
+  public void buildIndex(List<ChunkGroupMetadata> chunkGroupMetadataList) {
+    clearIndex();
+    if (!IoTDBDescriptor.getInstance().getConfig().isEnableResourceIndex()) {
+      return;
+    }
+    long[] buckets = new long[deviceToIndex.size()];
+    Set<String> seriesPaths = new HashSet<>();
+    for (ChunkGroupMetadata chunkGroupMetadata : chunkGroupMetadataList) {
+      String device = chunkGroupMetadata.getDevice();
+      Integer index = deviceToIndex.get(device);
+      for (ChunkMetadata chunkMetadata : chunkGroupMetadata.getChunkMetadataList()) {
+        seriesPaths.add(device + TsFileConstant.PATH_SEPARATOR
+            + chunkMetadata.getMeasurementUid());
+        if (index != null && chunkMetadata.getStartTime() <= chunkMetadata.getEndTime()) {
+          buckets[index] |= getBucketMask(index, chunkMetadata.getStartTime(),
+              chunkMetadata.getEndTime());
+        }
+      }
+    }
+    BloomFilter bloomFilter = BloomFilter.getEmptyBloomFilter(
+        TSFileDescriptor.getInstance().getConfig().getBloomFilterErrorRate(), seriesPaths.size());
+    seriesPaths.forEach(bloomFilter::add);
+    seriesBloomFilter = bloomFilter;
+    timeBuckets = buckets;
+  }
+
+  private void clearIndex() {
+    timeBuckets = null;
+    seriesBloomFilter = null;
+  }
+
+  /**
+   * @return the width of the time buckets of the device, or 0 if its time range is too wide to be
+   * split
+   */
+  private long getBucketWidth(int deviceIndex) {
+    long range = endTimes[deviceIndex] - startTimes[deviceIndex];
+    return range < 0 ? 0 : range / TIME_BUCKET_NUM + 1;
+  }
+
+  /**
+   * @return the bitmap of the time buckets of the device overlapping [startTime, endTime]
+   */
+  private long getBucketMask(int deviceIndex, long startTime, long endTime) {
+    long width = getBucketWidth(deviceIndex);
+    long deviceStartTime = startTimes[deviceIndex];
+    if (width == 0) {
+      return -1L;
+    }
+    if (startTime > endTimes[deviceIndex] || endTime < deviceStartTime) {
+      return 0L;
+    }
+    int first = (int) ((Math.max(startTime, deviceStartTime) - deviceStartTime) / width);
+    int last = (int) ((Math.min(endTime, endTimes[deviceIndex]) - deviceStartTime) / width);
+    long mask = last == TIME_BUCKET_NUM - 1 ? -1L : (1L << (last + 1)) - 1;
+    return mask & (-1L << first);
+  }
+
+  /**
+   * @return false if the series is surely not in the file
+   */
+  public boolean mayContainSeries(String seriesPath) {
+    BloomFilter bloomFilter = seriesBloomFilter;
+    return bloomFilter == null || bloomFilter.contains(seriesPath);
+  }
+
+  /**
+   * @return false if no chunk of the device in the file satisfies the time filter
+   */
+  public boolean mayContainTime(int deviceIndex, Filter timeFilter) {
+    long[] buckets = timeBuckets;
+    if (buckets == null || timeFilter == null) {
+      return true;
+    }
+    if (deviceIndex >= buckets.length) {
+      return true;
+    }
+    long bitmap = buckets[deviceIndex];
+    long width = getBucketWidth(deviceIndex);
+    if (width == 0) {
+      return true;
+    }
+    long deviceStartTime = startTimes[deviceIndex];
+    int bucket = 0;
+    while (bitmap != 0) {
+      // check the consecutive buckets with data as a whole
+      int emptyLength = Long.numberOfTrailingZeros(bitmap);
+      bucket += emptyLength;
+      bitmap >>>= emptyLength;
+      int runLength = Long.numberOfTrailingZeros(~bitmap);
+      long startTime = deviceStartTime + bucket * width;
+      long runEndOffset = (bucket + runLength) * width - 1;
+      long endTime = runEndOffset >= endTimes[deviceIndex] - deviceStartTime
+          ? endTimes[deviceIndex] : deviceStartTime + runEndOffset;
+      if (timeFilter.satisfyStartEndTime(startTime, endTime)) {
+        return true;
+      }
+      bucket += runLength;
+      bitmap = runLength == TIME_BUCKET_NUM ? 0 : bitmap >>> runLength;
+    }
+    // the times may be changed by a merge meanwhile
+    return timeBuckets != buckets;
+  }
+
   public void updateStartTime(String device, long time) {
     long startTime = getStartTime(device);
     if (time < startTime) {
@@ -412,11 +595,14 @@ public class TsFileResource {
   }
 
   public void putStartTime(String deviceId, long startTime) {
+    // the buckets are split by the time ranges, so they are dropped before the times are changed
+    clearIndex();
     int index = getDeviceIndex(deviceId);
     startTimes[index] = startTime;
   }
 
   public void putEndTime(String deviceId, long endTime) {
+    clearIndex();
     int index = getDeviceIndex(deviceId);
     endTimes[index] = endTime;
   }
@@ -458,6 +644,7 @@ public class TsFileResource {
   public void clearEndTimes() {
     endTimes = new long[endTimes.length];
     initTimes(endTimes, Long.MIN_VALUE);
+    clearIndex();
   }
 
   public boolean areEndTimesEmpty() {
@@ -543,10 +730,40 @@ public class TsFileResource {
   public void removeModFile() throws IOException {
     getModFile().remove();
     modFile = null;
+    deletedDevices = new BitSet();
+  }
+
+  /**
+   * Mark all data of the device in this file as deleted, so its chunks are skipped by queries and
+   * compactions without being read. The deletion should also be written into the modification
+   * file, as the marks are not persisted.
+   */
+  public synchronized void markDeviceDeleted(String deviceId) {
+    Integer index = deviceToIndex.get(deviceId);
+    if (index != null) {
+      BitSet newDeletedDevices = (BitSet) deletedDevices.clone();
+      newDeletedDevices.set(index);
+      deletedDevices = newDeletedDevices;
+    }
+  }
+
+  public boolean isDeviceDeleted(String deviceId) {
+    Integer index = deviceToIndex.get(deviceId);
+    return index != null && deletedDevices.get(index);
+  }
+
+  /**
+   * @param moreDeletedDevices the devices to be marked as deleted, not marked yet
+   * @return true if the data of all devices in this file is deleted after marking the devices
+   */
+  public boolean isAllDevicesDeleted(Collection<String> moreDeletedDevices) {
+    return !deviceToIndex.isEmpty()
+        && deletedDevices.cardinality() + moreDeletedDevices.size() == deviceToIndex.size();
   }
 
   /**
-   * Remove the data file, its resource file, and its modification file physically.
+   * Remove the data file, its resource file, its modification file, and the metadata saved by a
+   * merge physically.
    */
   public void remove() {
     try {
@@ -561,6 +778,12 @@ public class TsFileResource {
     } catch (IOException e) {
       logger.error("ModificationFile {} cannot be deleted: {}", file, e.getMessage());
     }
+    try {
+      Files.deleteIfExists(
+          fsFactory.getFile(file.getPath() + MergeUtils.METADATA_BACKUP_SUFFIX).toPath());
+    } catch (IOException e) {
+      logger.error("Metadata backup of {} cannot be deleted: {}", file, e.getMessage());
+    }
   }
 
   public void removeResourceFile() {
@@ -571,6 +794,79 @@ public class TsFileResource {
     }
   }
 
+  public long getLastReadTime() {
+    return lastReadTime;
+  }
+
+  public void updateLastReadTime() {
+    lastReadTime = System.currentTimeMillis();
+  }
+
+  /**
+   * Copy the data file into the target directory with MIGRATE_SUFFIX, which is the most part of a
+   * migration. A closed file never changes, so this can be done without locks while the file is
+   * being queried.
+   */
+  void copyForMigration(File targetDir) throws IOException {
+    if (!targetDir.exists() && !targetDir.mkdirs()) {
+      throw new IOException("Cannot create directory " + targetDir);
+    }
+    File tempFile = fsFactory.getFile(targetDir, file.getName() + MIGRATE_SUFFIX);
+    Files.copy(file.toPath(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Finish the migration started by copyForMigration: copy the resource file and the modification
+   * file, rename the copied data file, which commits the migration, and remove the original files.
+   * The caller should hold the write lock and prevent new modifications.
+   */
+  void finishMigration(File targetDir) throws IOException {
+    File tempFile = fsFactory.getFile(targetDir, file.getName() + MIGRATE_SUFFIX);
+    File targetFile = fsFactory.getFile(targetDir, file.getName());
+    File resourceFile = fsFactory.getFile(file.getPath() + RESOURCE_SUFFIX);
+    if (resourceFile.exists()) {
+      Files.copy(resourceFile.toPath(),
+          fsFactory.getFile(targetFile.getPath() + RESOURCE_SUFFIX).toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+    }
+    File modificationFile = fsFactory.getFile(file.getPath() + ModificationFile.FILE_SUFFIX);
+    if (modFile != null) {
+      modFile.close();
+    }
+    if (modificationFile.exists()) {
+      Files.copy(modificationFile.toPath(),
+          fsFactory.getFile(targetFile.getPath() + ModificationFile.FILE_SUFFIX).toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+    }
+    if (!tempFile.renameTo(targetFile)) {
+      throw new IOException("Cannot rename " + tempFile + " to " + targetFile);
+    }
+
+    File originFile = file;
+    file = targetFile;
+    modFile = null;
+    Files.deleteIfExists(originFile.toPath());
+    Files.deleteIfExists(resourceFile.toPath());
+    Files.deleteIfExists(modificationFile.toPath());
+  }
+
+  /**
+   * Remove the copies made by an unfinished migration into the target directory.
+   */
+  void abortMigration(File targetDir) {
+    File targetFile = fsFactory.getFile(targetDir, file.getName());
+    try {
+      Files.deleteIfExists(fsFactory.getFile(targetFile.getPath() + MIGRATE_SUFFIX).toPath());
+      if (!targetFile.equals(file) && !targetFile.exists()) {
+        Files.deleteIfExists(fsFactory.getFile(targetFile.getPath() + RESOURCE_SUFFIX).toPath());
+        Files.deleteIfExists(
+            fsFactory.getFile(targetFile.getPath() + ModificationFile.FILE_SUFFIX).toPath());
+      }
+    } catch (IOException e) {
+      logger.error("Cannot remove the copies of {} in {}: {}", file, targetDir, e.getMessage());
+    }
+  }
+
   void moveTo(File targetDir) {
     fsFactory.moveFile(file, fsFactory.getFile(targetDir, file.getName()));
     fsFactory.moveFile(fsFactory.getFile(file.getPath() + RESOURCE_SUFFIX),
@@ -621,6 +917,14 @@ public class TsFileResource {
     isMerging = merging;
   }
 
+  public boolean isMigrating() {
+    return isMigrating;
+  }
+
+  public void setMigrating(boolean migrating) {
+    isMigrating = migrating;
+  }
+
   /**
    * check if any of the device lives over the given time bound
    */
@@ -639,10 +943,12 @@ public class TsFileResource {
 
   protected void setStartTimes(long[] startTimes) {
     this.startTimes = startTimes;
+    clearIndex();
   }
 
   protected void setEndTimes(long[] endTimes) {
     this.endTimes = endTimes;
+    clearIndex();
   }
 
   public void setProcessor(TsFileProcessor processor) {
@@ -773,8 +1079,11 @@ public class TsFileResource {
    * @return initial resource map size
    */
   public long calculateRamSize() {
+    long[] buckets = timeBuckets;
+    BloomFilter bloomFilter = seriesBloomFilter;
     return RamUsageEstimator.sizeOf(deviceToIndex) + RamUsageEstimator.sizeOf(startTimes) +
-        RamUsageEstimator.sizeOf(endTimes);
+        RamUsageEstimator.sizeOf(endTimes) + (buckets == null ? 0
+        : RamUsageEstimator.sizeOf(buckets) + bloomFilter.getSize() / Byte.SIZE);
   }
 
   /**
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.tier;
+
+import java.io.File;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.conf.directories.DirectoryManager;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TierManager decides which tier of data directories a closed TsFile belongs to, runs the
+ * background migration of TsFiles into colder tiers and records the read latency of each tier.
+ * <p>
+ * A TsFile belongs to the coldest tier whose tier_data_ages_in_ms has passed since its newest
+ * data, and it is only migrated when it has not been read for tier_min_idle_time_in_ms.
+ */
+public class TierManager implements IService, TierManagerMBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(TierManager.class);
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private static final TierManager INSTANCE = new TierManager();
+
+  private final String mbeanName = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE,
+          getID().getJmxName());
+  private final AtomicLongArray readNums = new AtomicLongArray(DirectoryManager.getInstance()
+      .getTierNum());
+  private final AtomicLongArray readTimeNanos = new AtomicLongArray(readNums.length());
+  private final AtomicLongArray migratedFileNums = new AtomicLongArray(readNums.length());
+  private ScheduledExecutorService migrationThread;
+
+  private TierManager() {
+  }
+
+  public static TierManager getInstance() {
+    return INSTANCE;
+  }
+
+  public boolean isEnabled() {
+    return DirectoryManager.getInstance().getTierNum() > 1;
+  }
+
+  /**
+   * @return the tier the closed TsFile should be migrated into, or -1 if it should stay where it is
+   */
+  public int getMigrationTier(TsFileResource resource, long currentTime) {
+    if (currentTime - resource.getLastReadTime() < config.getTierMinIdleTimeInMs()) {
+      return -1;
+    }
+    long[] tierDataAgesInMs = config.getTierDataAgesInMs();
+    int currentTier = DirectoryManager.getInstance().getTier(resource.getTsFile());
+    int tierNum = Math.min(DirectoryManager.getInstance().getTierNum(),
+        tierDataAgesInMs.length + 1);
+    for (int tier = tierNum - 1; tier > currentTier; tier--) {
+      long age = tierDataAgesInMs[tier - 1];
+      if (age < currentTime && !resource.stillLives(currentTime - age)) {
+        return tier;
+      }
+    }
+    return -1;
+  }
+
+  public void recordRead(String filePath, long timeNanos) {
+    int tier = DirectoryManager.getInstance().getTier(new File(filePath));
+    if (tier < readNums.length()) {
+      readNums.incrementAndGet(tier);
+      readTimeNanos.addAndGet(tier, timeNanos);
+    }
+  }
+
+  public void recordMigration(int tier) {
+    if (tier < migratedFileNums.length()) {
+      migratedFileNums.incrementAndGet(tier);
+    }
+  }
+
+  @Override
+  public long[] getTierReadNums() {
+    return toArray(readNums);
+  }
+
+  @Override
+  public double[] getTierAverageReadLatencyMs() {
+    double[] latencies = new double[readNums.length()];
+    for (int i = 0; i < latencies.length; i++) {
+      long readNum = readNums.get(i);
+      latencies[i] = readNum == 0 ? 0 : readTimeNanos.get(i) / 1_000_000.0 / readNum;
+    }
+    return latencies;
+  }
+
+  @Override
+  public long[] getTierMigratedFileNums() {
+    return toArray(migratedFileNums);
+  }
+
+  private static long[] toArray(AtomicLongArray array) {
+    long[] values = new long[array.length()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = array.get(i);
+    }
+    return values;
+  }
+
+  private void migrateAll() {
+    try {
+      StorageEngine.getInstance().migrateColdFiles();
+    } catch (Exception e) {
+      logger.error("An error occurred when migrating TsFiles between tiers", e);
+    }
+  }
+
+  @Override
+  public void start() {
+    JMXService.registerMBean(this, mbeanName);
+    long interval = config.getTierMigrationCheckIntervalInMs();
+    if (isEnabled() && interval > 0 && migrationThread == null) {
+      migrationThread = IoTDBThreadPoolFactory
+          .newSingleThreadScheduledExecutor("TierMigrationThread");
+      migrationThread.scheduleWithFixedDelay(this::migrateAll, interval, interval,
+          TimeUnit.MILLISECONDS);
+      logger.info("TierManager started with {} tiers", DirectoryManager.getInstance().getTierNum());
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (migrationThread != null) {
+      migrationThread.shutdownNow();
+      try {
+        migrationThread.awaitTermination(60, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        logger.warn("Tier migration thread still doesn't exit after 60s");
+        Thread.currentThread().interrupt();
+      }
+      migrationThread = null;
+    }
+    JMXService.deregisterMBean(mbeanName);
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.TIER_SERVICE;
+  }
+}
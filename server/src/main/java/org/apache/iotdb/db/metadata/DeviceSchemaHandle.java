@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import org.apache.iotdb.db.metadata.mnode.MNode;
+
+/**
+ * A handle of a device that is kept by a client session between inserts. It holds the parsed
+ * device path and the device node resolved by the MManager, so the following inserts of the same
+ * device need neither parse the path nor look up the MTree. The resolved node is stamped with the
+ * schema version of the MManager and is discarded once a schema change may have removed it.
+ */
+public class DeviceSchemaHandle {
+
+  private final PartialPath deviceId;
+  private volatile ResolvedDevice resolved;
+
+  public DeviceSchemaHandle(PartialPath deviceId) {
+    this.deviceId = deviceId;
+  }
+
+  public PartialPath getDeviceId() {
+    return deviceId;
+  }
+
+  /**
+   * @return the resolved device node, or null if it is not resolved under the given schema version
+   */
+  MNode getDeviceMNode(long schemaVersion) {
+    ResolvedDevice device = resolved;
+    return device != null && device.schemaVersion == schemaVersion ? device.node : null;
+  }
+
+  void setDeviceMNode(MNode node, long schemaVersion) {
+    resolved = new ResolvedDevice(node, schemaVersion);
+  }
+
+  private static class ResolvedDevice {
+
+    private final MNode node;
+    private final long schemaVersion;
+
+    private ResolvedDevice(MNode node, long schemaVersion) {
+      this.node = node;
+      this.schemaVersion = schemaVersion;
+    }
+  }
+}
@@ -31,6 +31,7 @@ import java.nio.file.Files;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
+import org.apache.iotdb.db.qp.physical.sys.CreateTemplatePlan;
 import org.apache.iotdb.db.qp.physical.sys.CreateTimeSeriesPlan;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.slf4j.Logger;
@@ -140,6 +141,27 @@ public class MLogWriter {
     lineNumber.incrementAndGet();
   }
 
+  public void createTemplate(CreateTemplatePlan plan) throws IOException {
+    StringBuilder buf = new StringBuilder();
+    buf.append(MetadataOperationType.CREATE_TEMPLATE).append(",").append(plan.getName());
+    for (int i = 0; i < plan.getMeasurements().size(); i++) {
+      buf.append(String.format(",%s,%s,%s,%s", plan.getMeasurements().get(i),
+          plan.getDataTypes().get(i).serialize(), plan.getEncodings().get(i).serialize(),
+          plan.getCompressors().get(i).serialize()));
+    }
+    buf.append(LINE_SEPARATOR);
+    channel.write(ByteBuffer.wrap(buf.toString().getBytes()));
+    lineNumber.incrementAndGet();
+  }
+
+  public void setDeviceTemplate(String templateName, String prefixPath) throws IOException {
+    String outputStr = String
+        .format(STRING_TYPE, MetadataOperationType.SET_DEVICE_TEMPLATE, templateName, prefixPath);
+    ByteBuffer buff = ByteBuffer.wrap(outputStr.getBytes());
+    channel.write(buff);
+    lineNumber.incrementAndGet();
+  }
+
   public static void upgradeMLog(String schemaDir, String logFileName) throws IOException {
     File logFile = SystemFileFactory.INSTANCE.getFile(schemaDir + File.separator + logFileName);
     File tmpLogFile = SystemFileFactory.INSTANCE.getFile(logFile.getAbsolutePath() + ".tmp");
@@ -34,7 +34,7 @@ import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -45,7 +45,9 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
@@ -63,14 +65,18 @@ import org.apache.iotdb.db.exception.metadata.StorageGroupNotSetException;
 import org.apache.iotdb.db.metadata.mnode.MNode;
 import org.apache.iotdb.db.metadata.mnode.MeasurementMNode;
 import org.apache.iotdb.db.metadata.mnode.StorageGroupMNode;
+import org.apache.iotdb.db.metadata.template.Template;
 import org.apache.iotdb.db.monitor.MonitorConstants;
 import org.apache.iotdb.db.qp.constant.SQLConstant;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertRowPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
+import org.apache.iotdb.db.qp.physical.sys.CreateTemplatePlan;
 import org.apache.iotdb.db.qp.physical.sys.CreateTimeSeriesPlan;
+import org.apache.iotdb.db.qp.physical.sys.SetDeviceTemplatePlan;
 import org.apache.iotdb.db.qp.physical.sys.ShowTimeSeriesPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.dataset.ShowTimeSeriesCursor;
 import org.apache.iotdb.db.query.dataset.ShowTimeSeriesResult;
 import org.apache.iotdb.db.rescon.PrimitiveArrayManager;
 import org.apache.iotdb.db.utils.RandomDeleteCache;
@@ -123,8 +129,19 @@ public class MManager {
   private boolean isRecovering;
   // device -> DeviceMNode
   private RandomDeleteCache<PartialPath, MNode> mNodeCache;
+  // path pattern -> matched timeseries
+  private PathPatternCache pathPatternCache;
+  // increased whenever nodes are removed from the MTree, invalidates the DeviceSchemaHandles
+  private final AtomicLong schemaVersion = new AtomicLong();
   // tag key -> tag value -> LeafMNode
   private Map<String, Map<String, Set<MeasurementMNode>>> tagIndex = new ConcurrentHashMap<>();
+  // guards the tag index and the aliases, so that a query resolving the series by them does not
+  // see a half done update
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  // template name -> template
+  private Map<String, Template> templateMap = new ConcurrentHashMap<>();
+  // template name -> paths the template is set to, used to rewrite the mlog after a snapshot
+  private Map<String, Set<PartialPath>> templateUsages = new ConcurrentHashMap<>();
 
   // data type -> number
   private Map<TSDataType, Integer> schemaDataTypeNumMap = new ConcurrentHashMap<>();
@@ -187,6 +204,8 @@ public class MManager {
       }
     };
 
+    pathPatternCache = new PathPatternCache(config.getPathPatternCacheSize());
+
     if (config.isEnableMTreeSnapshot()) {
       timedCreateMTreeSnapshotThread = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r,
           "timedCreateMTreeSnapshotThread"));
@@ -229,6 +248,7 @@ public class MManager {
       mtree = new MTree();
       logger.error("Cannot read MTree from file, using an empty new one", e);
     }
+    schemaVersion.incrementAndGet();
     reportedDataTypeTotalNum = 0L;
     initialized = true;
   }
@@ -287,7 +307,11 @@ public class MManager {
     try {
       this.mtree = new MTree();
       this.mNodeCache.clear();
+      this.schemaVersion.incrementAndGet();
+      this.pathPatternCache.clear();
       this.tagIndex.clear();
+      this.templateMap.clear();
+      this.templateUsages.clear();
       this.totalSeriesNumber.set(0);
       if (logWriter != null) {
         logWriter.close();
@@ -402,6 +426,12 @@ public class MManager {
       case MetadataOperationType.CHANGE_ALIAS:
         changeAlias(new PartialPath(args[1]), args[2]);
         break;
+      case MetadataOperationType.CREATE_TEMPLATE:
+        operateCreateTemplate(args);
+        break;
+      case MetadataOperationType.SET_DEVICE_TEMPLATE:
+        setDeviceTemplate(new SetDeviceTemplatePlan(args[1], new PartialPath(args[2])));
+        break;
       default:
         logger.error("Unrecognizable command {}", cmd);
     }
@@ -411,6 +441,96 @@ public class MManager {
     createTimeseries(plan, -1);
   }
 
+  private void operateCreateTemplate(String[] args) throws MetadataException {
+    // format: create_template,name,measurement,dataType,encoding,compressor,measurement,...
+    List<String> measurements = new ArrayList<>();
+    List<TSDataType> dataTypes = new ArrayList<>();
+    List<TSEncoding> encodings = new ArrayList<>();
+    List<CompressionType> compressors = new ArrayList<>();
+    for (int i = 2; i + 3 < args.length; i += 4) {
+      measurements.add(args[i]);
+      dataTypes.add(TSDataType.deserialize(Short.parseShort(args[i + 1])));
+      encodings.add(TSEncoding.deserialize(Short.parseShort(args[i + 2])));
+      compressors.add(CompressionType.deserialize(Short.parseShort(args[i + 3])));
+    }
+    createDeviceTemplate(
+        new CreateTemplatePlan(args[1], measurements, dataTypes, encodings, compressors));
+  }
+
+  /**
+   * Define a device template. The schemas of a template are shared by all the devices under the
+   * paths it is set to.
+   */
+  public void createDeviceTemplate(CreateTemplatePlan plan) throws MetadataException {
+    if (plan.getMeasurements() == null || plan.getMeasurements().isEmpty()) {
+      throw new MetadataException(
+          String.format("Template %s should contain at least one measurement", plan.getName()));
+    }
+    // every write to a device of the template would fail with an invalid schema
+    for (int i = 0; i < plan.getMeasurements().size(); i++) {
+      SchemaUtils.checkDataTypeWithEncoding(plan.getDataTypes().get(i), plan.getEncodings().get(i));
+    }
+    Template template = new Template(plan);
+    if (templateMap.putIfAbsent(plan.getName(), template) != null) {
+      throw new MetadataException(String.format("Template %s already exists", plan.getName()));
+    }
+    templateUsages.put(plan.getName(), new CopyOnWriteArraySet<>());
+    try {
+      if (!isRecovering) {
+        logWriter.createTemplate(plan);
+      }
+    } catch (IOException e) {
+      templateMap.remove(plan.getName());
+      templateUsages.remove(plan.getName());
+      throw new MetadataException(e.getMessage());
+    }
+  }
+
+  /**
+   * Set a device template to a storage group or a path under a storage group. The measurements of
+   * the template are created on the fly when they are written to a device under the path for the
+   * first time, and they share the schema instances of the template.
+   */
+  public void setDeviceTemplate(SetDeviceTemplatePlan plan) throws MetadataException {
+    Template template = templateMap.get(plan.getTemplateName());
+    if (template == null) {
+      throw new MetadataException(
+          String.format("Template %s does not exist", plan.getTemplateName()));
+    }
+    mtree.setDeviceTemplate(template, plan.getPrefixPath(), !isRecovering);
+    templateUsages.get(plan.getTemplateName()).add(plan.getPrefixPath());
+    try {
+      if (!isRecovering) {
+        logWriter.setDeviceTemplate(plan.getTemplateName(), plan.getPrefixPath().getFullPath());
+      }
+    } catch (IOException e) {
+      throw new MetadataException(e.getMessage());
+    }
+  }
+
+  /**
+   * templates are not kept in the MTree snapshot, so they are written into the new mlog again
+   */
+  private void logTemplates() throws IOException {
+    for (Template template : templateMap.values()) {
+      List<String> measurements = new ArrayList<>();
+      List<TSDataType> dataTypes = new ArrayList<>();
+      List<TSEncoding> encodings = new ArrayList<>();
+      List<CompressionType> compressors = new ArrayList<>();
+      for (MeasurementSchema schema : template.getSchemaMap().values()) {
+        measurements.add(schema.getMeasurementId());
+        dataTypes.add(schema.getType());
+        encodings.add(schema.getEncodingType());
+        compressors.add(schema.getCompressor());
+      }
+      logWriter.createTemplate(new CreateTemplatePlan(template.getName(), measurements, dataTypes,
+          encodings, compressors));
+      for (PartialPath path : templateUsages.get(template.getName())) {
+        logWriter.setDeviceTemplate(template.getName(), path.getFullPath());
+      }
+    }
+  }
+
   private void ensureStorageGroup(PartialPath path) throws MetadataException {
     try {
       mtree.getStorageGroupPath(path);
@@ -441,16 +561,23 @@ public class MManager {
       MeasurementMNode leafMNode = mtree
           .createTimeseries(path, type, plan.getEncoding(), plan.getCompressor(),
               plan.getProps(), plan.getAlias());
+      pathPatternCache.invalidate(path, plan.getAlias());
 
       // update tag index
       if (plan.getTags() != null) {
-        // tag key, tag value
-        for (Entry<String, String> entry : plan.getTags().entrySet()) {
-          if (entry.getKey() == null || entry.getValue() == null) {
-            continue;
+        lock.writeLock().lock();
+        try {
+          // tag key, tag value
+          for (Entry<String, String> entry : plan.getTags().entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+              continue;
+            }
+            tagIndex.computeIfAbsent(entry.getKey(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(entry.getValue(), v -> new CopyOnWriteArraySet<>())
+                .add(leafMNode);
           }
-          tagIndex.computeIfAbsent(entry.getKey(), k -> new ConcurrentHashMap<>())
-              .computeIfAbsent(entry.getValue(), v -> new CopyOnWriteArraySet<>()).add(leafMNode);
+        } finally {
+          lock.writeLock().unlock();
         }
       }
 
@@ -522,6 +649,8 @@ public class MManager {
       return failedNames.isEmpty() ? null : String.join(",", failedNames);
     } catch (IOException e) {
       throw new MetadataException(e.getMessage());
+    } finally {
+      removeDeletedTemplateUsages();
     }
   }
 
@@ -540,39 +669,63 @@ public class MManager {
     }
   }
 
+  /**
+   * Remove the usages of templates whose nodes have been deleted, e.g., with their storage groups
+   * or as the empty ancestors of the deleted timeseries, so that they are not logged again.
+   */
+  private void removeDeletedTemplateUsages() {
+    for (Entry<String, Set<PartialPath>> entry : templateUsages.entrySet()) {
+      entry.getValue().removeIf(path -> !hasDeviceTemplate(path, entry.getKey()));
+    }
+  }
+
+  private boolean hasDeviceTemplate(PartialPath path, String templateName) {
+    try {
+      Template template = mtree.getNodeByPath(path).getDeviceTemplate();
+      return template != null && template.getName().equals(templateName);
+    } catch (MetadataException e) {
+      return false;
+    }
+  }
+
   /**
    * remove the node from the tag inverted index
    */
   @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   private void removeFromTagInvertedIndex(MeasurementMNode node) throws IOException {
-    if (node.getOffset() < 0) {
-      return;
-    }
-    Map<String, String> tagMap =
-        tagLogFile.readTag(config.getTagAttributeTotalSize(), node.getOffset());
-    if (tagMap != null) {
-      for (Entry<String, String> entry : tagMap.entrySet()) {
-        if (tagIndex.containsKey(entry.getKey()) && tagIndex.get(entry.getKey())
-            .containsKey(entry.getValue())) {
-          if (logger.isDebugEnabled()) {
-            logger.debug(String.format(String.format(DEBUG_MSG, "Delete" + TAG_FORMAT,
-                node.getFullPath()), entry.getKey(), entry.getValue(), node.getOffset()));
-          }
-          tagIndex.get(entry.getKey()).get(entry.getValue()).remove(node);
-          if (tagIndex.get(entry.getKey()).get(entry.getValue()).isEmpty()) {
-            tagIndex.get(entry.getKey()).remove(entry.getValue());
-            if (tagIndex.get(entry.getKey()).isEmpty()) {
-              tagIndex.remove(entry.getKey());
+    lock.writeLock().lock();
+    try {
+      if (node.getOffset() < 0) {
+        return;
+      }
+      Map<String, String> tagMap =
+          tagLogFile.readTag(config.getTagAttributeTotalSize(), node.getOffset());
+      if (tagMap != null) {
+        for (Entry<String, String> entry : tagMap.entrySet()) {
+          if (tagIndex.containsKey(entry.getKey()) && tagIndex.get(entry.getKey())
+              .containsKey(entry.getValue())) {
+            if (logger.isDebugEnabled()) {
+              logger.debug(String.format(String.format(DEBUG_MSG, "Delete" + TAG_FORMAT,
+                  node.getFullPath()), entry.getKey(), entry.getValue(), node.getOffset()));
+            }
+            tagIndex.get(entry.getKey()).get(entry.getValue()).remove(node);
+            if (tagIndex.get(entry.getKey()).get(entry.getValue()).isEmpty()) {
+              tagIndex.get(entry.getKey()).remove(entry.getValue());
+              if (tagIndex.get(entry.getKey()).isEmpty()) {
+                tagIndex.remove(entry.getKey());
+              }
+            }
+          } else {
+            if (logger.isDebugEnabled()) {
+              logger.debug(String.format(String.format(DEBUG_MSG_1, "Delete" + PREVIOUS_CONDITION,
+                  node.getFullPath()), entry.getKey(), entry.getValue(), node.getOffset(),
+                  tagIndex.containsKey(entry.getKey())));
             }
-          }
-        } else {
-          if (logger.isDebugEnabled()) {
-            logger.debug(String.format(String.format(DEBUG_MSG_1, "Delete" + PREVIOUS_CONDITION,
-                node.getFullPath()), entry.getKey(), entry.getValue(), node.getOffset(),
-                tagIndex.containsKey(entry.getKey())));
           }
         }
       }
+    } finally {
+      lock.writeLock().unlock();
     }
   }
 
@@ -586,12 +739,14 @@ public class MManager {
         .deleteTimeseriesAndReturnEmptyStorageGroup(path);
     removeFromTagInvertedIndex(pair.right);
     PartialPath storageGroupPath = pair.left;
+    pathPatternCache.invalidate(path, pair.right.getAlias());
 
     // update statistics in schemaDataTypeNumMap
     updateSchemaDataTypeNumMap(pair.right.getSchema().getType(), -1);
 
     // TODO: delete the path node and all its ancestors
     mNodeCache.clear();
+    schemaVersion.incrementAndGet();
     totalSeriesNumber.addAndGet(-1);
     if (!allowToCreateNewSeries && 
         totalSeriesNumber.get() * ESTIMATED_SERIES_SIZE < MTREE_SIZE_THRESHOLD) {
@@ -633,14 +788,17 @@ public class MManager {
           allowToCreateNewSeries = true;
         }
         mNodeCache.clear();
+        pathPatternCache.clear();
 
         // try to delete storage group
         List<MeasurementMNode> leafMNodes = mtree.deleteStorageGroup(storageGroup);
+        schemaVersion.incrementAndGet();
         for (MeasurementMNode leafMNode : leafMNodes) {
           removeFromTagInvertedIndex(leafMNode);
           // update statistics in schemaDataTypeNumMap
           updateSchemaDataTypeNumMap(leafMNode.getSchema().getType(), -1);
         }
+        removeDeletedTemplateUsages();
 
         // if success
         if (!isRecovering) {
@@ -792,7 +950,15 @@ public class MManager {
    *                   wildcard can only match one level, otherwise it can match to the tail.
    */
   public List<PartialPath> getAllTimeseriesPath(PartialPath prefixPath) throws MetadataException {
-    return mtree.getAllTimeseriesPath(prefixPath);
+    List<PartialPath> cachedPaths = getCachedTimeseriesPath(prefixPath);
+    if (cachedPaths == null) {
+      return mtree.getAllTimeseriesPath(prefixPath);
+    }
+    List<PartialPath> res = new ArrayList<>(cachedPaths.size());
+    for (PartialPath path : cachedPaths) {
+      res.add(new PartialPath(path.getNodes()));
+    }
+    return res;
   }
 
   /**
@@ -800,7 +966,104 @@ public class MManager {
    */
   public Pair<List<PartialPath>, Integer> getAllTimeseriesPathWithAlias(PartialPath prefixPath,
       int limit, int offset) throws MetadataException {
-    return mtree.getAllTimeseriesPathWithAlias(prefixPath, limit, offset);
+    List<PartialPath> cachedPaths = getCachedTimeseriesPath(prefixPath);
+    if (cachedPaths == null) {
+      return mtree.getAllTimeseriesPathWithAlias(prefixPath, limit, offset);
+    }
+    boolean hasLimit = limit != 0 || offset != 0;
+    int end = limit == 0 ? cachedPaths.size() : Math.min(cachedPaths.size(), offset + limit);
+    List<PartialPath> res = new ArrayList<>(Math.max(end - offset, 0));
+    for (int i = offset; i < end; i++) {
+      // the paths are handed out as copies because the callers may set their aliases
+      PartialPath cachedPath = cachedPaths.get(i);
+      PartialPath path = new PartialPath(cachedPath.getNodes());
+      path.setMeasurementAlias(cachedPath.getMeasurementAlias());
+      res.add(path);
+    }
+    return new Pair<>(res, hasLimit ? end : 0);
+  }
+
+  /**
+   * Get the timeseries matched by the pattern from pathPatternCache, the pattern is resolved and
+   * cached if it is missed and matches no more than max_deduplicated_path_num + 1 timeseries.
+   *
+   * @return the shared cached paths, or null if the pattern cannot be cached
+   */
+  private List<PartialPath> getCachedTimeseriesPath(PartialPath prefixPath)
+      throws MetadataException {
+    if (!pathPatternCache.isEnabled()) {
+      return null;
+    }
+    List<PartialPath> paths = pathPatternCache.get(prefixPath);
+    if (paths != null) {
+      return paths;
+    }
+    long version = pathPatternCache.getVersion();
+    // a query can select at most max_deduplicated_path_num series, and one more is resolved to
+    // tell that the number is exceeded, so larger results are not worth being cached
+    paths = mtree.getAllTimeseriesPathWithAlias(prefixPath,
+        config.getMaxQueryDeduplicatedPathNum() + 1);
+    if (paths != null) {
+      pathPatternCache.put(prefixPath, paths, version);
+    }
+    return paths;
+  }
+
+  /**
+   * Similar to method getAllTimeseriesPathWithAlias(), but the series are resolved through the tag
+   * inverted index, only series carrying all the given tags and matching the given path are
+   * returned, in the same order.
+   *
+   * @param prefixPath a prefix path or a full path, may contain '*'.
+   * @param tags       tag key -> tag value, all of them must be satisfied
+   * @return Pair.left  contains all the satisfied paths
+   *         Pair.right means the current offset or zero if we don't set offset.
+   */
+  public Pair<List<PartialPath>, Integer> getAllTimeseriesPathWithTags(PartialPath prefixPath,
+      Map<String, String> tags, int limit, int offset) throws MetadataException {
+    String[] nodes = prefixPath.getNodes();
+    if (nodes.length == 0 || !IoTDBConstant.PATH_ROOT.equals(nodes[0])) {
+      throw new IllegalPathException(prefixPath.getFullPath());
+    }
+    lock.readLock().lock();
+    try {
+      // start from the smallest posting set to make the intersection cheap
+      Set<MeasurementMNode> smallest = null;
+      List<Set<MeasurementMNode>> postings = new ArrayList<>(tags.size());
+      for (Entry<String, String> entry : tags.entrySet()) {
+        Map<String, Set<MeasurementMNode>> value2Node = tagIndex.get(entry.getKey());
+        Set<MeasurementMNode> nodeSet = value2Node == null ? null
+            : value2Node.get(entry.getValue());
+        if (nodeSet == null || nodeSet.isEmpty()) {
+          return new Pair<>(Collections.emptyList(), 0);
+        }
+        postings.add(nodeSet);
+        if (smallest == null || nodeSet.size() < smallest.size()) {
+          smallest = nodeSet;
+        }
+      }
+      if (smallest == null) {
+        return getAllTimeseriesPathWithAlias(prefixPath, limit, offset);
+      }
+
+      List<MeasurementMNode> candidates = new ArrayList<>();
+      for (MeasurementMNode node : smallest) {
+        boolean inAll = true;
+        for (Set<MeasurementMNode> nodeSet : postings) {
+          if (nodeSet != smallest && !nodeSet.contains(node)) {
+            inAll = false;
+            break;
+          }
+        }
+        if (inAll) {
+          candidates.add(node);
+        }
+      }
+      // the MTree matches the path, including the aliases, and keeps the order of the non-tag path
+      return mtree.getAllTimeseriesPathWithAlias(prefixPath, candidates, limit, offset);
+    } finally {
+      lock.readLock().unlock();
+    }
   }
 
   /**
@@ -834,159 +1097,160 @@ public class MManager {
     return mtree.getNodesCountInGivenLevel(prefixPath, level);
   }
 
-  @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
-  private List<ShowTimeSeriesResult> showTimeseriesWithIndex(ShowTimeSeriesPlan plan,
-      QueryContext context) throws MetadataException {
-    if (!tagIndex.containsKey(plan.getKey())) {
-      throw new MetadataException("The key " + plan.getKey() + " is not a tag.");
-    }
-    Map<String, Set<MeasurementMNode>> value2Node = tagIndex.get(plan.getKey());
-    if (value2Node.isEmpty()) {
-      throw new MetadataException("The key " + plan.getKey() + " is not a tag.");
-    }
-
-    List<MeasurementMNode> allMatchedNodes = new ArrayList<>();
-    if (plan.isContains()) {
-      for (Entry<String, Set<MeasurementMNode>> entry : value2Node.entrySet()) {
-        if (entry.getKey() == null || entry.getValue() == null) {
-          continue;
-        }
-        String tagValue = entry.getKey();
-        if (tagValue.contains(plan.getValue())) {
-          allMatchedNodes.addAll(entry.getValue());
-        }
+  /**
+   * @return the nodes carrying the tag of the plan and matching its path, sorted by their full
+   * paths
+   */
+  private List<MeasurementMNode> getMatchedNodesWithIndex(ShowTimeSeriesPlan plan)
+      throws MetadataException {
+    lock.readLock().lock();
+    try {
+      if (!tagIndex.containsKey(plan.getKey())) {
+        throw new MetadataException("The key " + plan.getKey() + " is not a tag.");
       }
-    } else {
+      Map<String, Set<MeasurementMNode>> value2Node = tagIndex.get(plan.getKey());
+      if (value2Node.isEmpty()) {
+        throw new MetadataException("The key " + plan.getKey() + " is not a tag.");
+      }
+
+      String[] prefixNodes = plan.getPath().getNodes();
+      List<MeasurementMNode> allMatchedNodes = new ArrayList<>();
       for (Entry<String, Set<MeasurementMNode>> entry : value2Node.entrySet()) {
         if (entry.getKey() == null || entry.getValue() == null) {
           continue;
         }
         String tagValue = entry.getKey();
-        if (plan.getValue().equals(tagValue)) {
-          allMatchedNodes.addAll(entry.getValue());
-        }
-      }
-    }
-
-    // if ordered by heat, we sort all the timeseries by the descending order of the last insert timestamp
-    if (plan.isOrderByHeat()) {
-      List<StorageGroupProcessor> list;
-      try {
-        list = StorageEngine.getInstance()
-            .mergeLock(allMatchedNodes.stream().map(MNode::getPartialPath).collect(toList()));
-        try {
-          allMatchedNodes = allMatchedNodes.stream().sorted(Comparator
-              .comparingLong((MeasurementMNode mNode) -> MTree.getLastTimeStamp(mNode, context))
-              .reversed().thenComparing(MNode::getFullPath)).collect(toList());
-        } finally {
-          StorageEngine.getInstance().mergeUnLock(list);
-        }
-      } catch (StorageEngineException e) {
-        throw new MetadataException(e);
-      }
-    } else {
-      // otherwise, we just sort them by the alphabetical order
-      allMatchedNodes = allMatchedNodes.stream().sorted(Comparator.comparing(MNode::getFullPath))
-          .collect(toList());
-    }
-
-    List<ShowTimeSeriesResult> res = new LinkedList<>();
-    String[] prefixNodes = plan.getPath().getNodes();
-    int curOffset = -1;
-    int count = 0;
-    int limit = plan.getLimit();
-    int offset = plan.getOffset();
-    for (MeasurementMNode leaf : allMatchedNodes) {
-      if (match(leaf.getPartialPath(), prefixNodes)) {
-        if (limit != 0 || offset != 0) {
-          curOffset++;
-          if (curOffset < offset || count == limit) {
-            continue;
-          }
-        }
-        try {
-          Pair<Map<String, String>, Map<String, String>> tagAndAttributePair =
-              tagLogFile.read(config.getTagAttributeTotalSize(), leaf.getOffset());
-          MeasurementSchema measurementSchema = leaf.getSchema();
-          res.add(new ShowTimeSeriesResult(leaf.getFullPath(), leaf.getAlias(),
-              getStorageGroupPath(leaf.getPartialPath()).getFullPath(),
-              measurementSchema.getType(),
-              measurementSchema.getEncodingType(),
-              measurementSchema.getCompressor(), tagAndAttributePair.left,
-              tagAndAttributePair.right));
-          if (limit != 0) {
-            count++;
+        if (plan.isContains() ? tagValue.contains(plan.getValue())
+            : plan.getValue().equals(tagValue)) {
+          for (MeasurementMNode node : entry.getValue()) {
+            if (MetaUtils.isPathMatch(node.getPartialPath().getNodes(), prefixNodes)) {
+              allMatchedNodes.add(node);
+            }
           }
-        } catch (IOException e) {
-          throw new MetadataException(
-              "Something went wrong while deserialize tag info of " + leaf.getFullPath(), e);
         }
       }
+      allMatchedNodes.sort(Comparator.comparing(MNode::getFullPath));
+      return allMatchedNodes;
+    } finally {
+      lock.readLock().unlock();
     }
-    return res;
   }
 
   /**
-   * whether the full path has the prefixNodes
+   * sort the timeseries by the descending order of the last insert timestamp
    */
-  private boolean match(PartialPath fullPath, String[] prefixNodes) {
-    String[] nodes = fullPath.getNodes();
-    if (nodes.length < prefixNodes.length) {
-      return false;
-    }
-    for (int i = 0; i < prefixNodes.length; i++) {
-      if (!"*".equals(prefixNodes[i]) && !prefixNodes[i].equals(nodes[i])) {
-        return false;
+  private List<MeasurementMNode> sortByHeat(List<MeasurementMNode> nodes, QueryContext context)
+      throws MetadataException {
+    try {
+      List<StorageGroupProcessor> list = StorageEngine.getInstance()
+          .mergeLock(nodes.stream().map(MNode::getPartialPath).collect(toList()));
+      try {
+        return nodes.stream().sorted(Comparator
+            .comparingLong((MeasurementMNode mNode) -> MTree.getLastTimeStamp(mNode, context))
+            .reversed().thenComparing(MNode::getFullPath)).collect(toList());
+      } finally {
+        StorageEngine.getInstance().mergeUnLock(list);
       }
+    } catch (StorageEngineException e) {
+      throw new MetadataException(e);
     }
-    return true;
   }
 
-  public List<ShowTimeSeriesResult> showTimeseries(ShowTimeSeriesPlan plan, QueryContext context)
-      throws MetadataException {
-    // show timeseries with index
+  private Iterator<MeasurementMNode> getMatchedNodes(ShowTimeSeriesPlan plan,
+      QueryContext context) throws MetadataException {
     if (plan.getKey() != null && plan.getValue() != null) {
-      return showTimeseriesWithIndex(plan, context);
+      List<MeasurementMNode> nodes = getMatchedNodesWithIndex(plan);
+      return plan.isOrderByHeat() ? sortByHeat(nodes, context).iterator() : nodes.iterator();
+    } else if (plan.isOrderByHeat()) {
+      List<MeasurementMNode> nodes = new ArrayList<>();
+      mtree.getMeasurementMNodeIterator(plan.getPath()).forEachRemaining(nodes::add);
+      return sortByHeat(nodes, context).iterator();
     } else {
-      return showTimeseriesWithoutIndex(plan, context);
+      // without ordering, the MTree is walked lazily as the results are fetched
+      return mtree.getMeasurementMNodeIterator(plan.getPath());
     }
   }
 
   /**
-   * Get the result of ShowTimeseriesPlan
+   * Get the result of ShowTimeseriesPlan, the limit and offset of the plan are applied if they are
+   * not zero.
    *
    * @param plan show time series query plan
    */
-  private List<ShowTimeSeriesResult> showTimeseriesWithoutIndex(ShowTimeSeriesPlan plan,
-      QueryContext context) throws MetadataException {
-    List<Pair<PartialPath, String[]>> ans;
-    if (plan.isOrderByHeat()) {
-      ans = mtree.getAllMeasurementSchemaByHeatOrder(plan, context);
-    } else {
-      ans = mtree.getAllMeasurementSchema(plan);
+  public List<ShowTimeSeriesResult> showTimeseries(ShowTimeSeriesPlan plan, QueryContext context)
+      throws MetadataException {
+    return new LocalShowTimeSeriesCursor(getMatchedNodes(plan, context), plan.getOffset(),
+        plan.getLimit()).next(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Get a cursor over the result of ShowTimeseriesPlan, so that the results can be fetched batch
+   * by batch without matching the returned timeseries again for each batch. The limit of the plan
+   * is only applied if it is set by the user.
+   *
+   * @param plan show time series query plan
+   */
+  public ShowTimeSeriesCursor showTimeseriesCursor(ShowTimeSeriesPlan plan, QueryContext context)
+      throws MetadataException {
+    return new LocalShowTimeSeriesCursor(getMatchedNodes(plan, context), plan.getOffset(),
+        plan.hasLimit() ? plan.getLimit() : 0);
+  }
+
+  private class LocalShowTimeSeriesCursor implements ShowTimeSeriesCursor {
+
+    private final Iterator<MeasurementMNode> nodes;
+    private int offset;
+    // the number of timeseries that can still be returned, negative means unlimited
+    private int remaining;
+
+    private LocalShowTimeSeriesCursor(Iterator<MeasurementMNode> nodes, int offset, int limit) {
+      this.nodes = nodes;
+      this.offset = offset;
+      this.remaining = limit == 0 ? -1 : limit;
     }
-    List<ShowTimeSeriesResult> res = new LinkedList<>();
-    for (Pair<PartialPath, String[]> ansString : ans) {
-      long tagFileOffset = Long.parseLong(ansString.right[5]);
+
+    @Override
+    public List<ShowTimeSeriesResult> next(int batchSize) throws MetadataException {
+      for (; offset > 0 && nodes.hasNext(); offset--) {
+        nodes.next();
+      }
+      List<MeasurementMNode> batch = new ArrayList<>();
+      while (batch.size() < batchSize && remaining != 0 && nodes.hasNext()) {
+        batch.add(nodes.next());
+        remaining--;
+      }
+
+      long[] tagFileOffsets = new long[batch.size()];
+      for (int i = 0; i < tagFileOffsets.length; i++) {
+        tagFileOffsets[i] = batch.get(i).getOffset();
+      }
+      List<Pair<Map<String, String>, Map<String, String>>> tagAndAttributePairs;
       try {
-        Pair<Map<String, String>, Map<String, String>> tagAndAttributePair =
-            new Pair<>(Collections.emptyMap(), Collections.emptyMap());
-        if (tagFileOffset >= 0) {
-          tagAndAttributePair = tagLogFile.read(config.getTagAttributeTotalSize(), tagFileOffset);
-        }
-        res.add(new ShowTimeSeriesResult(ansString.left.getFullPath(), ansString.right[0],
-            ansString.right[1],
-            TSDataType.valueOf(ansString.right[2]), TSEncoding.valueOf(ansString.right[3]),
-            CompressionType.valueOf(ansString.right[4]), tagAndAttributePair.left,
-            tagAndAttributePair.right));
+        tagAndAttributePairs = tagLogFile.read(config.getTagAttributeTotalSize(), tagFileOffsets);
       } catch (IOException e) {
-        throw new MetadataException(
-            "Something went wrong while deserialize tag info of " + ansString.left.getFullPath(),
-            e);
+        throw new MetadataException("Something went wrong while deserialize tag info", e);
+      }
+
+      List<ShowTimeSeriesResult> res = new ArrayList<>(batch.size());
+      for (int i = 0; i < batch.size(); i++) {
+        MeasurementMNode leaf = batch.get(i);
+        MeasurementSchema measurementSchema = leaf.getSchema();
+        res.add(new ShowTimeSeriesResult(leaf.getFullPath(), leaf.getAlias(),
+            getStorageGroupName(leaf), measurementSchema.getType(),
+            measurementSchema.getEncodingType(), measurementSchema.getCompressor(),
+            tagAndAttributePairs.get(i).left, tagAndAttributePairs.get(i).right));
       }
+      return res;
     }
-    return res;
 
+    private String getStorageGroupName(MNode node) throws MetadataException {
+      for (MNode cur = node; cur != null; cur = cur.getParent()) {
+        if (cur instanceof StorageGroupMNode) {
+          return cur.getFullPath();
+        }
+      }
+      throw new StorageGroupNotSetException(node.getFullPath());
+    }
   }
 
   protected MeasurementMNode getMeasurementMNode(MNode deviceMNode, String measurement) {
@@ -1163,12 +1427,18 @@ public class MManager {
   }
 
   public void changeAlias(PartialPath path, String alias) throws MetadataException {
-    MeasurementMNode leafMNode = (MeasurementMNode) mtree.getNodeByPath(path);
-    if (leafMNode.getAlias() != null) {
-      leafMNode.getParent().deleteAliasChild(leafMNode.getAlias());
+    lock.writeLock().lock();
+    try {
+      MeasurementMNode leafMNode = (MeasurementMNode) mtree.getNodeByPath(path);
+      if (leafMNode.getAlias() != null) {
+        leafMNode.getParent().deleteAliasChild(leafMNode.getAlias());
+      }
+      leafMNode.getParent().addAlias(alias, leafMNode);
+      leafMNode.setAlias(alias);
+      pathPatternCache.clear();
+    } finally {
+      lock.writeLock().unlock();
     }
-    leafMNode.getParent().addAlias(alias, leafMNode);
-    leafMNode.setAlias(alias);
   }
 
   /**
@@ -1184,93 +1454,100 @@ public class MManager {
   public void upsertTagsAndAttributes(String alias, Map<String, String> tagsMap,
       Map<String, String> attributesMap, PartialPath fullPath)
       throws MetadataException, IOException {
-    MNode mNode = mtree.getNodeByPath(fullPath);
-    if (!(mNode instanceof MeasurementMNode)) {
-      throw new PathNotExistException(fullPath.getFullPath());
-    }
-    MeasurementMNode leafMNode = (MeasurementMNode) mNode;
-    // upsert alias
-    if (alias != null && !alias.equals(leafMNode.getAlias())) {
-      if (!leafMNode.getParent().addAlias(alias, leafMNode)) {
-        throw new MetadataException("The alias already exists.");
+    lock.writeLock().lock();
+    try {
+      MNode mNode = mtree.getNodeByPath(fullPath);
+      if (!(mNode instanceof MeasurementMNode)) {
+        throw new PathNotExistException(fullPath.getFullPath());
       }
+      MeasurementMNode leafMNode = (MeasurementMNode) mNode;
+      // upsert alias
+      if (alias != null && !alias.equals(leafMNode.getAlias())) {
+        if (!leafMNode.getParent().addAlias(alias, leafMNode)) {
+          throw new MetadataException("The alias already exists.");
+        }
 
-      if (leafMNode.getAlias() != null) {
-        leafMNode.getParent().deleteAliasChild(leafMNode.getAlias());
-      }
+        if (leafMNode.getAlias() != null) {
+          leafMNode.getParent().deleteAliasChild(leafMNode.getAlias());
+        }
 
-      leafMNode.setAlias(alias);
-      // persist to WAL
-      logWriter.changeAlias(fullPath.getFullPath(), alias);
-    }
+        leafMNode.setAlias(alias);
+        pathPatternCache.clear();
+        // persist to WAL
+        logWriter.changeAlias(fullPath.getFullPath(), alias);
+      }
 
-    if (tagsMap == null && attributesMap == null) {
-      return;
-    }
-    // no tag or attribute, we need to add a new record in log
-    if (leafMNode.getOffset() < 0) {
-      long offset = tagLogFile.write(tagsMap, attributesMap);
-      logWriter.changeOffset(fullPath.getFullPath(), offset);
-      leafMNode.setOffset(offset);
-      // update inverted Index map
-      if (tagsMap != null) {
-        for (Entry<String, String> entry : tagsMap.entrySet()) {
-          tagIndex.computeIfAbsent(entry.getKey(), k -> new ConcurrentHashMap<>())
-              .computeIfAbsent(entry.getValue(), v -> new CopyOnWriteArraySet<>()).add(leafMNode);
+      if (tagsMap == null && attributesMap == null) {
+        return;
+      }
+      // no tag or attribute, we need to add a new record in log
+      if (leafMNode.getOffset() < 0) {
+        long offset = tagLogFile.write(tagsMap, attributesMap);
+        logWriter.changeOffset(fullPath.getFullPath(), offset);
+        leafMNode.setOffset(offset);
+        // update inverted Index map
+        if (tagsMap != null) {
+          for (Entry<String, String> entry : tagsMap.entrySet()) {
+            tagIndex.computeIfAbsent(entry.getKey(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(entry.getValue(), v -> new CopyOnWriteArraySet<>()).add(leafMNode);
+          }
         }
+        return;
       }
-      return;
-    }
 
-    Pair<Map<String, String>, Map<String, String>> pair =
-        tagLogFile.read(config.getTagAttributeTotalSize(), leafMNode.getOffset());
+      Pair<Map<String, String>, Map<String, String>> pair =
+          tagLogFile.read(config.getTagAttributeTotalSize(), leafMNode.getOffset());
 
-    if (tagsMap != null) {
-      for (Entry<String, String> entry : tagsMap.entrySet()) {
-        String key = entry.getKey();
-        String value = entry.getValue();
-        String beforeValue = pair.left.get(key);
-        pair.left.put(key, value);
-        // if the key has existed and the value is not equal to the new one
-        // we should remove before key-value from inverted index map
-        if (beforeValue != null && !beforeValue.equals(value)) {
-
-          if (tagIndex.containsKey(key) && tagIndex.get(key).containsKey(beforeValue)) {
-            if (logger.isDebugEnabled()) {
-              logger.debug(String.format(
-                      String.format(DEBUG_MSG, "Upsert" + TAG_FORMAT, leafMNode.getFullPath()),
-                      key, beforeValue, leafMNode.getOffset()));
-            }
-
-            tagIndex.get(key).get(beforeValue).remove(leafMNode);
-            if (tagIndex.get(key).get(beforeValue).isEmpty()) {
-              tagIndex.get(key).remove(beforeValue);
-            }
-          } else {
-            if (logger.isDebugEnabled()) {
-              logger.debug(String.format(
-                      String.format(DEBUG_MSG_1, "Upsert" + PREVIOUS_CONDITION, leafMNode.getFullPath()),
-                      key, beforeValue, leafMNode.getOffset(), tagIndex.containsKey(key)));
+      if (tagsMap != null) {
+        for (Entry<String, String> entry : tagsMap.entrySet()) {
+          String key = entry.getKey();
+          String value = entry.getValue();
+          String beforeValue = pair.left.get(key);
+          pair.left.put(key, value);
+          // if the key has existed and the value is not equal to the new one
+          // we should remove before key-value from inverted index map
+          if (beforeValue != null && !beforeValue.equals(value)) {
+
+            if (tagIndex.containsKey(key) && tagIndex.get(key).containsKey(beforeValue)) {
+              if (logger.isDebugEnabled()) {
+                logger.debug(String.format(
+                        String.format(DEBUG_MSG, "Upsert" + TAG_FORMAT, leafMNode.getFullPath()),
+                        key, beforeValue, leafMNode.getOffset()));
+              }
+
+              tagIndex.get(key).get(beforeValue).remove(leafMNode);
+              if (tagIndex.get(key).get(beforeValue).isEmpty()) {
+                tagIndex.get(key).remove(beforeValue);
+              }
+            } else {
+              if (logger.isDebugEnabled()) {
+                logger.debug(String.format(
+                        String.format(DEBUG_MSG_1, "Upsert" + PREVIOUS_CONDITION,
+                            leafMNode.getFullPath()),
+                        key, beforeValue, leafMNode.getOffset(), tagIndex.containsKey(key)));
+              }
             }
           }
-        }
 
-        // if the key doesn't exist or the value is not equal to the new one
-        // we should add a new key-value to inverted index map
-        if (beforeValue == null || !beforeValue.equals(value)) {
-          tagIndex.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
-              .computeIfAbsent(value, v -> new CopyOnWriteArraySet<>()).add(leafMNode);
+          // if the key doesn't exist or the value is not equal to the new one
+          // we should add a new key-value to inverted index map
+          if (beforeValue == null || !beforeValue.equals(value)) {
+            tagIndex.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(value, v -> new CopyOnWriteArraySet<>()).add(leafMNode);
+          }
         }
       }
-    }
 
-    if (attributesMap != null) {
-      pair.right.putAll(attributesMap);
-    }
+      if (attributesMap != null) {
+        pair.right.putAll(attributesMap);
+      }
 
 
-    // persist the change to disk
-    tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
+      // persist the change to disk
+      tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   /**
@@ -1319,43 +1596,48 @@ public class MManager {
    */
   public void addTags(Map<String, String> tagsMap, PartialPath fullPath)
       throws MetadataException, IOException {
-    MNode mNode = mtree.getNodeByPath(fullPath);
-    if (!(mNode instanceof MeasurementMNode)) {
-      throw new PathNotExistException(fullPath.getFullPath());
-    }
-    MeasurementMNode leafMNode = (MeasurementMNode) mNode;
-    // no tag or attribute, we need to add a new record in log
-    if (leafMNode.getOffset() < 0) {
-      long offset = tagLogFile.write(tagsMap, Collections.emptyMap());
-      logWriter.changeOffset(fullPath.getFullPath(), offset);
-      leafMNode.setOffset(offset);
-      // update inverted Index map
-      for (Entry<String, String> entry : tagsMap.entrySet()) {
-        tagIndex.computeIfAbsent(entry.getKey(), k -> new ConcurrentHashMap<>())
-            .computeIfAbsent(entry.getValue(), v -> new CopyOnWriteArraySet<>()).add(leafMNode);
+    lock.writeLock().lock();
+    try {
+      MNode mNode = mtree.getNodeByPath(fullPath);
+      if (!(mNode instanceof MeasurementMNode)) {
+        throw new PathNotExistException(fullPath.getFullPath());
+      }
+      MeasurementMNode leafMNode = (MeasurementMNode) mNode;
+      // no tag or attribute, we need to add a new record in log
+      if (leafMNode.getOffset() < 0) {
+        long offset = tagLogFile.write(tagsMap, Collections.emptyMap());
+        logWriter.changeOffset(fullPath.getFullPath(), offset);
+        leafMNode.setOffset(offset);
+        // update inverted Index map
+        for (Entry<String, String> entry : tagsMap.entrySet()) {
+          tagIndex.computeIfAbsent(entry.getKey(), k -> new ConcurrentHashMap<>())
+              .computeIfAbsent(entry.getValue(), v -> new CopyOnWriteArraySet<>()).add(leafMNode);
+        }
+        return;
       }
-      return;
-    }
 
-    Pair<Map<String, String>, Map<String, String>> pair =
-        tagLogFile.read(config.getTagAttributeTotalSize(), leafMNode.getOffset());
+      Pair<Map<String, String>, Map<String, String>> pair =
+          tagLogFile.read(config.getTagAttributeTotalSize(), leafMNode.getOffset());
 
-    for (Entry<String, String> entry : tagsMap.entrySet()) {
-      String key = entry.getKey();
-      String value = entry.getValue();
-      if (pair.left.containsKey(key)) {
-        throw new MetadataException(
-            String.format("TimeSeries [%s] already has the tag [%s].", fullPath, key));
+      for (Entry<String, String> entry : tagsMap.entrySet()) {
+        String key = entry.getKey();
+        String value = entry.getValue();
+        if (pair.left.containsKey(key)) {
+          throw new MetadataException(
+              String.format("TimeSeries [%s] already has the tag [%s].", fullPath, key));
+        }
+        pair.left.put(key, value);
       }
-      pair.left.put(key, value);
-    }
 
-    // persist the change to disk
-    tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
+      // persist the change to disk
+      tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
 
-    // update tag inverted map
-    tagsMap.forEach((key, value) -> tagIndex.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
-        .computeIfAbsent(value, v -> new CopyOnWriteArraySet<>()).add(leafMNode));
+      // update tag inverted map
+      tagsMap.forEach((key, value) -> tagIndex.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+          .computeIfAbsent(value, v -> new CopyOnWriteArraySet<>()).add(leafMNode));
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   /**
@@ -1367,58 +1649,64 @@ public class MManager {
   @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   public void dropTagsOrAttributes(Set<String> keySet, PartialPath fullPath)
       throws MetadataException, IOException {
-    MNode mNode = mtree.getNodeByPath(fullPath);
-    if (!(mNode instanceof MeasurementMNode)) {
-      throw new PathNotExistException(fullPath.getFullPath());
-    }
-    MeasurementMNode leafMNode = (MeasurementMNode) mNode;
-    // no tag or attribute, just do nothing.
-    if (leafMNode.getOffset() < 0) {
-      return;
-    }
-    Pair<Map<String, String>, Map<String, String>> pair =
-        tagLogFile.read(config.getTagAttributeTotalSize(), leafMNode.getOffset());
+    lock.writeLock().lock();
+    try {
+      MNode mNode = mtree.getNodeByPath(fullPath);
+      if (!(mNode instanceof MeasurementMNode)) {
+        throw new PathNotExistException(fullPath.getFullPath());
+      }
+      MeasurementMNode leafMNode = (MeasurementMNode) mNode;
+      // no tag or attribute, just do nothing.
+      if (leafMNode.getOffset() < 0) {
+        return;
+      }
+      Pair<Map<String, String>, Map<String, String>> pair =
+          tagLogFile.read(config.getTagAttributeTotalSize(), leafMNode.getOffset());
 
-    Map<String, String> deleteTag = new HashMap<>();
-    for (String key : keySet) {
-      // check tag map
-      // check attribute map
-      if (pair.left.containsKey(key)) {
-        deleteTag.put(key, pair.left.remove(key));
-      } else {
-        pair.right.remove(key);
+      Map<String, String> deleteTag = new HashMap<>();
+      for (String key : keySet) {
+        // check tag map
+        // check attribute map
+        if (pair.left.containsKey(key)) {
+          deleteTag.put(key, pair.left.remove(key));
+        } else {
+          pair.right.remove(key);
+        }
       }
-    }
 
-    // persist the change to disk
-    tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
+      // persist the change to disk
+      tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
 
-    for (Entry<String, String> entry : deleteTag.entrySet()) {
-      String key = entry.getKey();
-      String value = entry.getValue();
-      // change the tag inverted index map
-      if (tagIndex.containsKey(key) && tagIndex.get(key).containsKey(value)) {
-        if (logger.isDebugEnabled()) {
-          logger.debug(String.format(
-                  String.format(DEBUG_MSG, "Drop" + TAG_FORMAT, leafMNode.getFullPath()),
-                  entry.getKey(), entry.getValue(), leafMNode.getOffset()));
-        }
+      for (Entry<String, String> entry : deleteTag.entrySet()) {
+        String key = entry.getKey();
+        String value = entry.getValue();
+        // change the tag inverted index map
+        if (tagIndex.containsKey(key) && tagIndex.get(key).containsKey(value)) {
+          if (logger.isDebugEnabled()) {
+            logger.debug(String.format(
+                    String.format(DEBUG_MSG, "Drop" + TAG_FORMAT, leafMNode.getFullPath()),
+                    entry.getKey(), entry.getValue(), leafMNode.getOffset()));
+          }
 
-        tagIndex.get(key).get(value).remove(leafMNode);
-        if (tagIndex.get(key).get(value).isEmpty()) {
-          tagIndex.get(key).remove(value);
-          if (tagIndex.get(key).isEmpty()) {
-            tagIndex.remove(key);
+          tagIndex.get(key).get(value).remove(leafMNode);
+          if (tagIndex.get(key).get(value).isEmpty()) {
+            tagIndex.get(key).remove(value);
+            if (tagIndex.get(key).isEmpty()) {
+              tagIndex.remove(key);
+            }
+          }
+        } else {
+          if (logger.isDebugEnabled()) {
+            logger.debug(String.format(
+                    String.format(DEBUG_MSG_1, "Drop" + PREVIOUS_CONDITION,
+                        leafMNode.getFullPath()),
+                    key, value, leafMNode.getOffset(), tagIndex.containsKey(key)));
           }
         }
-      } else {
-        if (logger.isDebugEnabled()) {
-          logger.debug(String.format(
-                  String.format(DEBUG_MSG_1, "Drop" + PREVIOUS_CONDITION, leafMNode.getFullPath()),
-                  key, value, leafMNode.getOffset(), tagIndex.containsKey(key)));
-        }
-      }
 
+      }
+    } finally {
+      lock.writeLock().unlock();
     }
   }
 
@@ -1431,65 +1719,70 @@ public class MManager {
   @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   public void setTagsOrAttributesValue(Map<String, String> alterMap, PartialPath fullPath)
       throws MetadataException, IOException {
-    MNode mNode = mtree.getNodeByPath(fullPath);
-    if (!(mNode instanceof MeasurementMNode)) {
-      throw new PathNotExistException(fullPath.getFullPath());
-    }
-    MeasurementMNode leafMNode = (MeasurementMNode) mNode;
-    if (leafMNode.getOffset() < 0) {
-      throw new MetadataException(
-          String.format("TimeSeries [%s] does not have any tag/attribute.", fullPath));
-    }
-
-    // tags, attributes
-    Pair<Map<String, String>, Map<String, String>> pair =
-        tagLogFile.read(config.getTagAttributeTotalSize(), leafMNode.getOffset());
-    Map<String, String> oldTagValue = new HashMap<>();
-    Map<String, String> newTagValue = new HashMap<>();
-
-    for (Entry<String, String> entry : alterMap.entrySet()) {
-      String key = entry.getKey();
-      String value = entry.getValue();
-      // check tag map
-      if (pair.left.containsKey(key)) {
-        oldTagValue.put(key, pair.left.get(key));
-        newTagValue.put(key, value);
-        pair.left.put(key, value);
-      } else if (pair.right.containsKey(key)) {
-        // check attribute map
-        pair.right.put(key, value);
-      } else {
+    lock.writeLock().lock();
+    try {
+      MNode mNode = mtree.getNodeByPath(fullPath);
+      if (!(mNode instanceof MeasurementMNode)) {
+        throw new PathNotExistException(fullPath.getFullPath());
+      }
+      MeasurementMNode leafMNode = (MeasurementMNode) mNode;
+      if (leafMNode.getOffset() < 0) {
         throw new MetadataException(
-            String.format("TimeSeries [%s] does not have tag/attribute [%s].", fullPath, key));
+            String.format("TimeSeries [%s] does not have any tag/attribute.", fullPath));
       }
-    }
 
-    // persist the change to disk
-    tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
+      // tags, attributes
+      Pair<Map<String, String>, Map<String, String>> pair =
+          tagLogFile.read(config.getTagAttributeTotalSize(), leafMNode.getOffset());
+      Map<String, String> oldTagValue = new HashMap<>();
+      Map<String, String> newTagValue = new HashMap<>();
 
-    for (Entry<String, String> entry : oldTagValue.entrySet()) {
-      String key = entry.getKey();
-      String beforeValue = entry.getValue();
-      String currentValue = newTagValue.get(key);
-      // change the tag inverted index map
-      if (tagIndex.containsKey(key) && tagIndex.get(key).containsKey(beforeValue)) {
-
-        if (logger.isDebugEnabled()) {
-          logger.debug(String.format(
-                  String.format(DEBUG_MSG, "Set" + TAG_FORMAT, leafMNode.getFullPath()),
-                  entry.getKey(), beforeValue, leafMNode.getOffset()));
+      for (Entry<String, String> entry : alterMap.entrySet()) {
+        String key = entry.getKey();
+        String value = entry.getValue();
+        // check tag map
+        if (pair.left.containsKey(key)) {
+          oldTagValue.put(key, pair.left.get(key));
+          newTagValue.put(key, value);
+          pair.left.put(key, value);
+        } else if (pair.right.containsKey(key)) {
+          // check attribute map
+          pair.right.put(key, value);
+        } else {
+          throw new MetadataException(
+              String.format("TimeSeries [%s] does not have tag/attribute [%s].", fullPath, key));
         }
+      }
 
-        tagIndex.get(key).get(beforeValue).remove(leafMNode);
-      } else {
-        if (logger.isDebugEnabled()) {
-          logger.debug(String.format(
-                  String.format(DEBUG_MSG_1, "Set" + PREVIOUS_CONDITION, leafMNode.getFullPath()),
-                  key, beforeValue, leafMNode.getOffset(), tagIndex.containsKey(key)));
+      // persist the change to disk
+      tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
+
+      for (Entry<String, String> entry : oldTagValue.entrySet()) {
+        String key = entry.getKey();
+        String beforeValue = entry.getValue();
+        String currentValue = newTagValue.get(key);
+        // change the tag inverted index map
+        if (tagIndex.containsKey(key) && tagIndex.get(key).containsKey(beforeValue)) {
+
+          if (logger.isDebugEnabled()) {
+            logger.debug(String.format(
+                    String.format(DEBUG_MSG, "Set" + TAG_FORMAT, leafMNode.getFullPath()),
+                    entry.getKey(), beforeValue, leafMNode.getOffset()));
+          }
+
+          tagIndex.get(key).get(beforeValue).remove(leafMNode);
+        } else {
+          if (logger.isDebugEnabled()) {
+            logger.debug(String.format(
+                    String.format(DEBUG_MSG_1, "Set" + PREVIOUS_CONDITION, leafMNode.getFullPath()),
+                    key, beforeValue, leafMNode.getOffset(), tagIndex.containsKey(key)));
+          }
         }
+        tagIndex.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(currentValue, k -> new CopyOnWriteArraySet<>()).add(leafMNode);
       }
-      tagIndex.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
-          .computeIfAbsent(currentValue, k -> new CopyOnWriteArraySet<>()).add(leafMNode);
+    } finally {
+      lock.writeLock().unlock();
     }
   }
 
@@ -1503,60 +1796,66 @@ public class MManager {
   @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   public void renameTagOrAttributeKey(String oldKey, String newKey, PartialPath fullPath)
       throws MetadataException, IOException {
-    MNode mNode = mtree.getNodeByPath(fullPath);
-    if (!(mNode instanceof MeasurementMNode)) {
-      throw new PathNotExistException(fullPath.getFullPath());
-    }
-    MeasurementMNode leafMNode = (MeasurementMNode) mNode;
-    if (leafMNode.getOffset() < 0) {
-      throw new MetadataException(
-          String.format("TimeSeries [%s] does not have [%s] tag/attribute.", fullPath, oldKey));
-    }
-    // tags, attributes
-    Pair<Map<String, String>, Map<String, String>> pair =
-        tagLogFile.read(config.getTagAttributeTotalSize(), leafMNode.getOffset());
+    lock.writeLock().lock();
+    try {
+      MNode mNode = mtree.getNodeByPath(fullPath);
+      if (!(mNode instanceof MeasurementMNode)) {
+        throw new PathNotExistException(fullPath.getFullPath());
+      }
+      MeasurementMNode leafMNode = (MeasurementMNode) mNode;
+      if (leafMNode.getOffset() < 0) {
+        throw new MetadataException(
+            String.format("TimeSeries [%s] does not have [%s] tag/attribute.", fullPath, oldKey));
+      }
+      // tags, attributes
+      Pair<Map<String, String>, Map<String, String>> pair =
+          tagLogFile.read(config.getTagAttributeTotalSize(), leafMNode.getOffset());
 
-    // current name has existed
-    if (pair.left.containsKey(newKey) || pair.right.containsKey(newKey)) {
-      throw new MetadataException(
-          String.format(
-              "TimeSeries [%s] already has a tag/attribute named [%s].", fullPath, newKey));
-    }
+      // current name has existed
+      if (pair.left.containsKey(newKey) || pair.right.containsKey(newKey)) {
+        throw new MetadataException(
+            String.format(
+                "TimeSeries [%s] already has a tag/attribute named [%s].", fullPath, newKey));
+      }
 
-    // check tag map
-    if (pair.left.containsKey(oldKey)) {
-      String value = pair.left.remove(oldKey);
-      pair.left.put(newKey, value);
-      // persist the change to disk
-      tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
-      // change the tag inverted index map
-      if (tagIndex.containsKey(oldKey) && tagIndex.get(oldKey).containsKey(value)) {
+      // check tag map
+      if (pair.left.containsKey(oldKey)) {
+        String value = pair.left.remove(oldKey);
+        pair.left.put(newKey, value);
+        // persist the change to disk
+        tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
+        // change the tag inverted index map
+        if (tagIndex.containsKey(oldKey) && tagIndex.get(oldKey).containsKey(value)) {
 
-        if (logger.isDebugEnabled()) {
-          logger.debug(String.format(
-                  String.format(DEBUG_MSG, "Rename" + TAG_FORMAT, leafMNode.getFullPath()),
-                  oldKey, value, leafMNode.getOffset()));
-        }
+          if (logger.isDebugEnabled()) {
+            logger.debug(String.format(
+                    String.format(DEBUG_MSG, "Rename" + TAG_FORMAT, leafMNode.getFullPath()),
+                    oldKey, value, leafMNode.getOffset()));
+          }
 
-        tagIndex.get(oldKey).get(value).remove(leafMNode);
+          tagIndex.get(oldKey).get(value).remove(leafMNode);
 
-      } else {
-        if (logger.isDebugEnabled()) {
-          logger.debug(String.format(
-                  String.format(DEBUG_MSG_1, "Rename" + PREVIOUS_CONDITION, leafMNode.getFullPath()),
-                  oldKey, value, leafMNode.getOffset(), tagIndex.containsKey(oldKey)));
+        } else {
+          if (logger.isDebugEnabled()) {
+            logger.debug(String.format(
+                    String.format(DEBUG_MSG_1, "Rename" + PREVIOUS_CONDITION,
+                        leafMNode.getFullPath()),
+                    oldKey, value, leafMNode.getOffset(), tagIndex.containsKey(oldKey)));
+          }
         }
+        tagIndex.computeIfAbsent(newKey, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(value, k -> new CopyOnWriteArraySet<>()).add(leafMNode);
+      } else if (pair.right.containsKey(oldKey)) {
+        // check attribute map
+        pair.right.put(newKey, pair.right.remove(oldKey));
+        // persist the change to disk
+        tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
+      } else {
+        throw new MetadataException(
+            String.format("TimeSeries [%s] does not have tag/attribute [%s].", fullPath, oldKey));
       }
-      tagIndex.computeIfAbsent(newKey, k -> new ConcurrentHashMap<>())
-          .computeIfAbsent(value, k -> new CopyOnWriteArraySet<>()).add(leafMNode);
-    } else if (pair.right.containsKey(oldKey)) {
-      // check attribute map
-      pair.right.put(newKey, pair.right.remove(oldKey));
-      // persist the change to disk
-      tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
-    } else {
-      throw new MetadataException(
-          String.format("TimeSeries [%s] does not have tag/attribute [%s].", fullPath, oldKey));
+    } finally {
+      lock.writeLock().unlock();
     }
   }
 
@@ -1733,6 +2032,7 @@ public class MManager {
             System.currentTimeMillis() - time);
       }
       logWriter.clear();
+      logTemplates();
     } catch (IOException e) {
       logger.warn("Failed to create MTree snapshot to {}", mtreeSnapshotPath, e);
       if (SystemFileFactory.INSTANCE.getFile(mtreeSnapshotTmpPath).exists()) {
@@ -1757,14 +2057,22 @@ public class MManager {
     MeasurementMNode[] measurementMNodes = plan.getMeasurementMNodes();
 
     // 1. get device node
-    MNode deviceMNode = getDeviceNodeWithAutoCreate(deviceId);
+    MNode deviceMNode = getDeviceNodeWithAutoCreate(plan);
 
     // 2. get schema of each measurement
     for (int i = 0; i < measurementList.length; i++) {
       try {
         // if do not has measurement
         MeasurementMNode measurementMNode;
-        if (!deviceMNode.hasChild(measurementList[i])) {
+        Template upperTemplate;
+        if (!deviceMNode.hasChild(measurementList[i])
+            && (upperTemplate = deviceMNode.getUpperTemplate()) != null
+            && upperTemplate.hasSchema(measurementList[i])) {
+          // the schema is defined by the template, create it from the shared schema
+          internalCreateTimeseries(deviceId.concatNode(measurementList[i]),
+              upperTemplate.getSchema(measurementList[i]));
+          measurementMNode = (MeasurementMNode) deviceMNode.getChild(measurementList[i]);
+        } else if (!deviceMNode.hasChild(measurementList[i])) {
           // could not create it
           if (!config.isAutoCreateSchemaEnabled()) {
             // but measurement not in MTree and cannot auto-create, try the cache
@@ -1831,6 +2139,41 @@ public class MManager {
     return deviceMNode;
   }
 
+  /**
+   * get the device node of the plan, reusing the node resolved by its DeviceSchemaHandle if the
+   * schema has not changed since
+   */
+  private MNode getDeviceNodeWithAutoCreate(InsertPlan plan) throws MetadataException {
+    DeviceSchemaHandle handle = plan.getDeviceSchemaHandle();
+    if (handle == null) {
+      return getDeviceNodeWithAutoCreate(plan.getDeviceId());
+    }
+    // read the version before resolving, so a node removed meanwhile is never considered valid
+    long version = schemaVersion.get();
+    MNode deviceMNode = handle.getDeviceMNode(version);
+    if (deviceMNode == null) {
+      deviceMNode = getDeviceNodeWithAutoCreate(plan.getDeviceId());
+      handle.setDeviceMNode(deviceMNode, version);
+    }
+    return deviceMNode;
+  }
+
+  /**
+   * create timeseries from a template schema with ignore PathAlreadyExistException
+   */
+  private void internalCreateTimeseries(PartialPath path, MeasurementSchema templateSchema)
+      throws MetadataException {
+    try {
+      createTimeseries(path, templateSchema.getType(), templateSchema.getEncodingType(),
+          templateSchema.getCompressor(), Collections.emptyMap());
+    } catch (PathAlreadyExistException | AliasAlreadyExistException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Ignore PathAlreadyExistException and AliasAlreadyExistException when "
+            + "concurrently creating a time series {} from template", path);
+      }
+    }
+  }
+
   /**
    * create timeseries with ignore PathAlreadyExistException
    */
@@ -18,7 +18,6 @@
  */
 package org.apache.iotdb.db.metadata;
 
-import static java.util.stream.Collectors.toList;
 import static org.apache.iotdb.db.conf.IoTDBConstant.PATH_SEPARATOR;
 import static org.apache.iotdb.db.conf.IoTDBConstant.PATH_WILDCARD;
 
@@ -35,20 +34,22 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
@@ -65,7 +66,7 @@ import org.apache.iotdb.db.metadata.MManager.StorageGroupFilter;
 import org.apache.iotdb.db.metadata.mnode.MNode;
 import org.apache.iotdb.db.metadata.mnode.MeasurementMNode;
 import org.apache.iotdb.db.metadata.mnode.StorageGroupMNode;
-import org.apache.iotdb.db.qp.physical.sys.ShowTimeSeriesPlan;
+import org.apache.iotdb.db.metadata.template.Template;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.executor.fill.LastPointReader;
@@ -88,10 +89,6 @@ public class MTree implements Serializable {
   private static final long serialVersionUID = -4200394435237291964L;
   private static final Logger logger = LoggerFactory.getLogger(MTree.class);
   private static final String NO_CHILDNODE_MSG = " does not have the child node ";
-  private static transient ThreadLocal<Integer> limit = new ThreadLocal<>();
-  private static transient ThreadLocal<Integer> offset = new ThreadLocal<>();
-  private static transient ThreadLocal<Integer> count = new ThreadLocal<>();
-  private static transient ThreadLocal<Integer> curOffset = new ThreadLocal<>();
   private MNode root;
 
   MTree() {
@@ -167,11 +164,6 @@ public class MTree implements Serializable {
     } catch (IOException e) {
       logger.warn("Failed to deserialize from {}. Use a new MTree.", mtreeSnapshot.getPath());
       return new MTree();
-    } finally {
-      limit = new ThreadLocal<>();
-      offset = new ThreadLocal<>();
-      count = new ThreadLocal<>();
-      curOffset = new ThreadLocal<>();
     }
   }
 
@@ -271,8 +263,17 @@ public class MTree implements Serializable {
       if (alias != null && cur.hasChild(alias)) {
         throw new AliasAlreadyExistException(path.getFullPath(), alias);
       }
-      MeasurementMNode leaf = new MeasurementMNode(cur, leafName, alias, dataType, encoding,
-          compressor, props);
+      MeasurementSchema schema = new MeasurementSchema(leafName, dataType, encoding, compressor,
+          props);
+      Template upperTemplate = cur.getUpperTemplate();
+      if (upperTemplate != null) {
+        // share the schema instance of the template instead of holding a copy per device
+        MeasurementSchema sharedSchema = upperTemplate.getSharedSchema(schema);
+        if (sharedSchema != null) {
+          schema = sharedSchema;
+        }
+      }
+      MeasurementMNode leaf = new MeasurementMNode(cur, leafName, schema, alias);
 
       cur.addChild(leafName, leaf);
 
@@ -285,6 +286,81 @@ public class MTree implements Serializable {
     }
   }
 
+  /**
+   * Set a device template to the node of the given path, the internal nodes under the storage
+   * group are created if they do not exist.
+   *
+   * @param template     device template
+   * @param prefixPath   a storage group or a path under a storage group, can not contain '*'
+   * @param checkSubtree whether to check the conflicts with the nodes under the path, which is
+   *                     skipped in recovery as the measurements of the template may be restored
+   *                     before it
+   */
+  void setDeviceTemplate(Template template, PartialPath prefixPath, boolean checkSubtree)
+      throws MetadataException {
+    String[] nodeNames = prefixPath.getNodes();
+    if (nodeNames.length <= 1 || !nodeNames[0].equals(root.getName())) {
+      throw new IllegalPathException(prefixPath.getFullPath());
+    }
+    synchronized (this) {
+      // all checks are done before creating the missing nodes, so a rejected set leaves no node
+      MNode cur = root;
+      boolean hasSetStorageGroup = false;
+      int i = 1;
+      for (; i < nodeNames.length && cur.hasChild(nodeNames[i]); i++) {
+        if (cur instanceof StorageGroupMNode) {
+          hasSetStorageGroup = true;
+        }
+        cur = cur.getChild(nodeNames[i]);
+        if (cur instanceof MeasurementMNode) {
+          throw new MetadataException(
+              String.format("Can not set a template to a timeseries %s", cur.getFullPath()));
+        }
+      }
+      if (!hasSetStorageGroup && !(cur instanceof StorageGroupMNode)) {
+        throw new StorageGroupNotSetException(prefixPath.getFullPath());
+      }
+      Template upperTemplate = cur.getUpperTemplate();
+      if (upperTemplate != null) {
+        throw new MetadataException(String.format("Template %s has been set to %s or its ancestor",
+            upperTemplate.getName(), prefixPath.getFullPath()));
+      }
+      // a created node has no descendant to conflict with
+      if (checkSubtree && i == nodeNames.length) {
+        checkTemplateConflictInSubtree(cur, template);
+      }
+      for (; i < nodeNames.length; i++) {
+        cur.addChild(nodeNames[i], new MNode(cur, nodeNames[i]));
+        cur = cur.getChild(nodeNames[i]);
+      }
+      cur.setDeviceTemplate(template);
+    }
+  }
+
+  /**
+   * Any node under the one to set the template to may be a device of the template, so a template
+   * set to a descendant, or a descendant named as a measurement of the template, conflicts with it.
+   */
+  private void checkTemplateConflictInSubtree(MNode node, Template template)
+      throws MetadataException {
+    Deque<MNode> nodes = new ArrayDeque<>(node.getChildren().values());
+    while (!nodes.isEmpty()) {
+      MNode cur = nodes.pop();
+      if (cur.getDeviceTemplate() != null) {
+        throw new MetadataException(String.format("Template %s has been set to %s",
+            cur.getDeviceTemplate().getName(), cur.getFullPath()));
+      }
+      if (template.hasSchema(cur.getName()) || (cur instanceof MeasurementMNode
+          && ((MeasurementMNode) cur).getAlias() != null
+          && template.hasSchema(((MeasurementMNode) cur).getAlias()))) {
+        throw new MetadataException(String.format(
+            "%s conflicts with the measurements of template %s", cur.getFullPath(),
+            template.getName()));
+      }
+      nodes.addAll(cur.getChildren().values());
+    }
+  }
+
   /**
    * Add an interval path to MTree. This is only used for automatically creating schema
    *
@@ -770,13 +846,7 @@ public class MTree implements Serializable {
    * @param prefixPath a prefix path or a full path, may contain '*'.
    */
   List<PartialPath> getAllTimeseriesPath(PartialPath prefixPath) throws MetadataException {
-    ShowTimeSeriesPlan plan = new ShowTimeSeriesPlan(prefixPath);
-    List<Pair<PartialPath, String[]>> res = getAllMeasurementSchema(plan);
-    List<PartialPath> paths = new ArrayList<>();
-    for (Pair<PartialPath, String[]> p : res) {
-      paths.add(p.left);
-    }
-    return paths;
+    return collectTimeseriesPaths(prefixPath, false, 0, 0, Integer.MAX_VALUE, null).left;
   }
 
   /**
@@ -787,26 +857,149 @@ public class MTree implements Serializable {
    * @return Pair.left  contains all the satisfied paths
    *         Pair.right means the current offset or zero if we don't set offset.
    */
-  Pair<List<PartialPath>, Integer> getAllTimeseriesPathWithAlias(PartialPath prefixPath, int limit, int offset) throws MetadataException {
-    PartialPath prePath = new PartialPath(prefixPath.getNodes());
-    ShowTimeSeriesPlan plan = new ShowTimeSeriesPlan(prefixPath);
-    plan.setLimit(limit);
-    plan.setOffset(offset);
-    List<Pair<PartialPath, String[]>> res = getAllMeasurementSchema(plan, false);
-    List<PartialPath> paths = new ArrayList<>();
-    for (Pair<PartialPath, String[]> p : res) {
-      if (prePath.getMeasurement().equals(p.right[0])) {
-        p.left.setMeasurementAlias(p.right[0]);
+  Pair<List<PartialPath>, Integer> getAllTimeseriesPathWithAlias(PartialPath prefixPath, int limit,
+      int offset) throws MetadataException {
+    return collectTimeseriesPaths(prefixPath, true, limit, offset, Integer.MAX_VALUE, null);
+  }
+
+  /**
+   * Similar to getAllTimeseriesPathWithAlias(), but only the given timeseries are collected, and
+   * only the nodes leading to them are walked.
+   *
+   * @param measurementMNodes the candidates, e.g., the timeseries carrying some tags
+   */
+  Pair<List<PartialPath>, Integer> getAllTimeseriesPathWithAlias(PartialPath prefixPath,
+      Collection<MeasurementMNode> measurementMNodes, int limit, int offset)
+      throws MetadataException {
+    Set<MNode> walkedNodes = new HashSet<>();
+    for (MNode node : measurementMNodes) {
+      // stop at the ancestors added by the previous candidates
+      while (node != null && walkedNodes.add(node)) {
+        node = node.getParent();
       }
-      paths.add(p.left);
     }
-    if (curOffset.get() == null) {
-      offset = 0;
-    } else {
-      offset = curOffset.get() + 1;
+    return collectTimeseriesPaths(prefixPath, true, limit, offset, Integer.MAX_VALUE,
+        walkedNodes);
+  }
+
+  /**
+   * Similar to getAllTimeseriesPathWithAlias() without limit and offset, but the traversal stops
+   * as soon as more than maxSize timeseries are matched.
+   *
+   * @return all the satisfied paths, or null if there are more than maxSize of them
+   */
+  List<PartialPath> getAllTimeseriesPathWithAlias(PartialPath prefixPath, int maxSize)
+      throws MetadataException {
+    return collectTimeseriesPaths(prefixPath, true, 0, 0, maxSize, null).left;
+  }
+
+  /**
+   * Walk the MTree without recursion to collect the paths of the timeseries matched by the given
+   * pattern. Unlike findPath(), no schema row is built for the matched series, and each path is
+   * created only once from the node names kept on the traversal stack.
+   *
+   * @param withAlias whether to set the measurement alias of a path matched through its alias
+   * @param maxSize   Pair.left is null if more than maxSize timeseries are matched
+   * @param walkedNodes the nodes to walk, or null to walk all matched nodes
+   * @return Pair.left  contains all the satisfied paths
+   *         Pair.right means the current offset or zero if we don't set offset.
+   */
+  @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
+  private Pair<List<PartialPath>, Integer> collectTimeseriesPaths(PartialPath prefixPath,
+      boolean withAlias, int limit, int offset, int maxSize, Set<MNode> walkedNodes)
+      throws MetadataException {
+    String[] nodes = prefixPath.getNodes();
+    if (nodes.length == 0 || !nodes[0].equals(root.getName())) {
+      throw new IllegalPathException(prefixPath.getFullPath());
     }
-    curOffset.remove();
-    return new Pair<>(paths, offset);
+    boolean hasLimit = limit != 0 || offset != 0;
+    List<PartialPath> res = new ArrayList<>();
+    // the number of visited timeseries, including the skipped ones
+    int visited = 0;
+    String[] names = new String[nodes.length + 1];
+    names[0] = root.getName();
+    Deque<Iterator<MNode>> stack = new ArrayDeque<>();
+    stack.push(matchedChildren(root, nodes, 1));
+    while (!stack.isEmpty()) {
+      Iterator<MNode> iterator = stack.peek();
+      if (!iterator.hasNext()) {
+        stack.pop();
+        continue;
+      }
+      MNode child = iterator.next();
+      if (walkedNodes != null && !walkedNodes.contains(child)) {
+        continue;
+      }
+      // the level of the child, which is also the index of its name in the path
+      int level = stack.size();
+      if (level >= names.length) {
+        names = Arrays.copyOf(names, names.length * 2);
+      }
+      names[level] = child.getName();
+      if (child instanceof MeasurementMNode && level >= nodes.length - 1) {
+        visited++;
+        if (visited > offset) {
+          PartialPath path = new PartialPath(Arrays.copyOf(names, level + 1));
+          if (withAlias && level == nodes.length - 1 && !nodes[level].equals(names[level])
+              && nodes[level].equals(((MeasurementMNode) child).getAlias())) {
+            path.setMeasurementAlias(nodes[level]);
+          }
+          res.add(path);
+          if (res.size() > maxSize) {
+            return new Pair<>(null, 0);
+          }
+          if (limit != 0 && res.size() == limit) {
+            break;
+          }
+        }
+      }
+      stack.push(matchedChildren(child, nodes, level + 1));
+    }
+    return new Pair<>(res, hasLimit ? visited : 0);
+  }
+
+  /**
+   * @return the children of the node matched by the idx-th node of the pattern
+   */
+  private Iterator<MNode> matchedChildren(MNode node, String[] nodes, int idx) {
+    String nodeReg = MetaUtils.getNodeRegByIdx(idx, nodes);
+    if (!nodeReg.contains(PATH_WILDCARD)) {
+      MNode next = node.getChild(nodeReg);
+      return next == null ? Collections.emptyIterator()
+          : Collections.singletonList(next).iterator();
+    }
+    Iterator<MNode> children = node.getChildren().values().iterator();
+    if (PATH_WILDCARD.equals(nodeReg)) {
+      return children;
+    }
+    return new Iterator<MNode>() {
+      private MNode next = advance();
+
+      private MNode advance() {
+        while (children.hasNext()) {
+          MNode child = children.next();
+          if (MetaUtils.isNodeMatch(nodeReg, child.getName())) {
+            return child;
+          }
+        }
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public MNode next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        MNode ret = next;
+        next = advance();
+        return ret;
+      }
+    };
   }
 
   /**
@@ -974,126 +1167,64 @@ public class MTree implements Serializable {
   }
 
   /**
-   * Get all time series schema under the given path order by insert frequency
+   * Get a lazy iterator over the measurement nodes matched by the given path. The MTree is walked
+   * only as far as the iterator is consumed, so that a cursor over a large schema does not walk
+   * the returned timeseries again to fetch the next page.
    *
-   * <p>result: [name, alias, storage group, dataType, encoding, compression, offset]
+   * @param prefixPath a prefix path or a full path, may contain '*'.
    */
-  List<Pair<PartialPath, String[]>> getAllMeasurementSchemaByHeatOrder(ShowTimeSeriesPlan plan,
-      QueryContext queryContext) throws MetadataException {
-    String[] nodes = plan.getPath().getNodes();
+  Iterator<MeasurementMNode> getMeasurementMNodeIterator(PartialPath prefixPath)
+      throws MetadataException {
+    String[] nodes = prefixPath.getNodes();
     if (nodes.length == 0 || !nodes[0].equals(root.getName())) {
-      throw new IllegalPathException(plan.getPath().getFullPath());
-    }
-    List<Pair<PartialPath, String[]>> allMatchedNodes = new ArrayList<>();
-
-    findPath(root, nodes, 1, allMatchedNodes, false, true, queryContext);
-
-    Stream<Pair<PartialPath, String[]>> sortedStream = allMatchedNodes.stream().sorted(
-        Comparator.comparingLong((Pair<PartialPath, String[]> p) -> Long.parseLong(p.right[6]))
-            .reversed()
-            .thenComparing((Pair<PartialPath, String[]> p) -> p.left));
-
-    // no limit
-    if (plan.getLimit() == 0) {
-      return sortedStream.collect(toList());
-    } else {
-      return sortedStream.skip(plan.getOffset()).limit(plan.getLimit()).collect(toList());
+      throw new IllegalPathException(prefixPath.getFullPath());
     }
+    return new MeasurementMNodeIterator(nodes);
   }
 
-  /**
-   * Get all time series schema under the given path
-   *
-   * <p>result: [name, alias, storage group, dataType, encoding, compression, offset]
-   */
-  List<Pair<PartialPath, String[]>> getAllMeasurementSchema(ShowTimeSeriesPlan plan)
-      throws MetadataException {
-    return getAllMeasurementSchema(plan, true);
-  }
+  private class MeasurementMNodeIterator implements Iterator<MeasurementMNode> {
 
+    private final String[] nodes;
+    // the children to be visited of each level on the current path
+    private final Deque<Iterator<MNode>> stack = new ArrayDeque<>();
+    private MeasurementMNode next;
 
-  List<Pair<PartialPath, String[]>> getAllMeasurementSchema(ShowTimeSeriesPlan plan, boolean removeCurrentOffset)
-      throws MetadataException {
-    List<Pair<PartialPath, String[]>> res;
-    String[] nodes = plan.getPath().getNodes();
-    if (nodes.length == 0 || !nodes[0].equals(root.getName())) {
-      throw new IllegalPathException(plan.getPath().getFullPath());
-    }
-    limit.set(plan.getLimit());
-    offset.set(plan.getOffset());
-    curOffset.set(-1);
-    count.set(0);
-    if (offset.get() != 0 || limit.get() != 0) {
-      res = new LinkedList<>();
-      findPath(root, nodes, 1, res, true, false, null);
-    } else {
-      res = new LinkedList<>();
-      findPath(root, nodes, 1, res, false, false, null);
-    }
-    // avoid memory leaks
-    limit.remove();
-    offset.remove();
-    if (removeCurrentOffset) {
-      curOffset.remove();
+    private MeasurementMNodeIterator(String[] nodes) {
+      this.nodes = nodes;
+      stack.push(matchedChildren(root, nodes, 1));
+      next = advance();
     }
-    count.remove();
-    return res;
-  }
 
-  /**
-   * Iterate through MTree to fetch metadata info of all leaf nodes under the given seriesPath
-   *
-   * @param needLast             if false, lastTimeStamp in timeseriesSchemaList will be null
-   * @param timeseriesSchemaList List<timeseriesSchema> result: [name, alias, storage group,
-   *                             dataType, encoding, compression, offset, lastTimeStamp]
-   */
-  @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
-  private void findPath(MNode node, String[] nodes, int idx,
-      List<Pair<PartialPath, String[]>> timeseriesSchemaList,
-      boolean hasLimit, boolean needLast, QueryContext queryContext) throws MetadataException {
-    if (node instanceof MeasurementMNode && nodes.length <= idx) {
-      if (hasLimit) {
-        curOffset.set(curOffset.get() + 1);
-        if (curOffset.get() < offset.get() || count.get().intValue() == limit.get().intValue()) {
-          return;
+    private MeasurementMNode advance() {
+      while (!stack.isEmpty()) {
+        Iterator<MNode> iterator = stack.peek();
+        if (!iterator.hasNext()) {
+          stack.pop();
+          continue;
+        }
+        MNode child = iterator.next();
+        int level = stack.size();
+        stack.push(matchedChildren(child, nodes, level + 1));
+        if (child instanceof MeasurementMNode && level >= nodes.length - 1) {
+          return (MeasurementMNode) child;
         }
       }
+      return null;
+    }
 
-      PartialPath nodePath = node.getPartialPath();
-      String[] tsRow = new String[7];
-      tsRow[0] = ((MeasurementMNode) node).getAlias();
-      MeasurementSchema measurementSchema = ((MeasurementMNode) node).getSchema();
-      tsRow[1] = getStorageGroupPath(nodePath).getFullPath();
-      tsRow[2] = measurementSchema.getType().toString();
-      tsRow[3] = measurementSchema.getEncodingType().toString();
-      tsRow[4] = measurementSchema.getCompressor().toString();
-      tsRow[5] = String.valueOf(((MeasurementMNode) node).getOffset());
-      tsRow[6] =
-          needLast ? String.valueOf(getLastTimeStamp((MeasurementMNode) node, queryContext)) : null;
-      Pair<PartialPath, String[]> temp = new Pair<>(nodePath, tsRow);
-      timeseriesSchemaList.add(temp);
-
-      if (hasLimit) {
-        count.set(count.get() + 1);
-      }
+    @Override
+    public boolean hasNext() {
+      return next != null;
     }
-    String nodeReg = MetaUtils.getNodeRegByIdx(idx, nodes);
-    if (!nodeReg.contains(PATH_WILDCARD)) {
-      MNode next = node.getChild(nodeReg);
-      if (next != null) {
-        findPath(next, nodes, idx + 1, timeseriesSchemaList, hasLimit, needLast,
-            queryContext);
-      }
-    } else {
-      for (MNode child : node.getChildren().values()) {
-        if (!Pattern.matches(nodeReg.replace("*", ".*"), child.getName())) {
-          continue;
-        }
-        findPath(child, nodes, idx + 1, timeseriesSchemaList, hasLimit, needLast, queryContext);
-        if (hasLimit && count.get().intValue() == limit.get().intValue()) {
-          return;
-        }
+
+    @Override
+    public MeasurementMNode next() {
+      if (next == null) {
+        throw new NoSuchElementException();
       }
+      MeasurementMNode ret = next;
+      next = advance();
+      return ret;
     }
   }
 
@@ -1142,7 +1273,7 @@ public class MTree implements Serializable {
     } else {
       if (node.getChildren().size() > 0) {
         for (MNode child : node.getChildren().values()) {
-          if (!Pattern.matches(nodeReg.replace("*", ".*"), child.getName())) {
+          if (!MetaUtils.isNodeMatch(nodeReg, child.getName())) {
             continue;
           }
           if (idx == length) {
@@ -1200,7 +1331,7 @@ public class MTree implements Serializable {
       for (MNode child : node.getChildren().values()) {
         // use '.*' to replace '*' to form a regex to match
         // if the match failed, skip it.
-        if (!Pattern.matches(nodeReg.replace("*", ".*"), child.getName())) {
+        if (!MetaUtils.isNodeMatch(nodeReg, child.getName())) {
           continue;
         }
         if (child instanceof MeasurementMNode && !deviceAdded && idx >= nodes.length) {
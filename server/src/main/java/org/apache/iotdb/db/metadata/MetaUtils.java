@@ -36,6 +36,64 @@ public class MetaUtils {
     return idx >= nodes.length ? PATH_WILDCARD : nodes[idx];
   }
 
+  /**
+   * whether the node name is matched by the node pattern, in which '*' matches any sequence of
+   * characters. Other characters are compared literally, so no regex is compiled per match.
+   *
+   * @param pattern a node of a path pattern, e.g., "d*" or "*"
+   * @param name    the name of a node in the MTree
+   */
+  public static boolean isNodeMatch(String pattern, String name) {
+    int p = 0;
+    int n = 0;
+    // position of the last '*' in the pattern and the name position it is matched up to
+    int star = -1;
+    int mark = 0;
+    while (n < name.length()) {
+      if (p < pattern.length() && pattern.charAt(p) == '*') {
+        star = p++;
+        mark = n;
+      } else if (p < pattern.length() && pattern.charAt(p) == name.charAt(n)) {
+        p++;
+        n++;
+      } else if (star != -1) {
+        // let the last '*' swallow one more character and retry
+        p = star + 1;
+        n = ++mark;
+      } else {
+        return false;
+      }
+    }
+    while (p < pattern.length() && pattern.charAt(p) == '*') {
+      p++;
+    }
+    return p == pattern.length();
+  }
+
+  /**
+   * whether the full path is matched by the pattern, which has the same semantic as the path
+   * patterns of the MTree: each node of the pattern may contain '*' and matches exactly one level,
+   * and the levels after the end of the pattern are all matched.
+   *
+   * @param nodes        nodes of a full path
+   * @param patternNodes nodes of a path pattern
+   */
+  public static boolean isPathMatch(String[] nodes, String[] patternNodes) {
+    if (nodes.length < patternNodes.length) {
+      return false;
+    }
+    for (int i = 0; i < patternNodes.length; i++) {
+      if (patternNodes[i].contains(PATH_WILDCARD)) {
+        if (!isNodeMatch(patternNodes[i], nodes[i])) {
+          return false;
+        }
+      } else if (!patternNodes[i].equals(nodes[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * @param path the path will split. ex, root.ln.
    * @return string array. ex, [root, ln]
@@ -33,4 +33,6 @@ public class MetadataOperationType {
   public static final String DROP_INDEX = "32";
   public static final String CHANGE_OFFSET = "12";
   public static final String CHANGE_ALIAS = "13";
+  public static final String CREATE_TEMPLATE = "20";
+  public static final String SET_DEVICE_TEMPLATE = "21";
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A bounded LRU cache from path patterns (which may contain '*') to the timeseries they are
+ * resolved to, so that the MTree is not walked again when the same pattern is queried repeatedly.
+ *
+ * An entry is invalidated once a timeseries it may match is created or deleted. To avoid caching a
+ * result resolved before a concurrent modification, a result is only put if no invalidation
+ * happened since the version it was resolved at.
+ */
+class PathPatternCache {
+
+  private final int capacity;
+  private final Map<PartialPath, List<PartialPath>> cache;
+  private long version = 0;
+
+  PathPatternCache(int capacity) {
+    this.capacity = capacity;
+    this.cache = new LinkedHashMap<PartialPath, List<PartialPath>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Entry<PartialPath, List<PartialPath>> eldest) {
+        return size() > PathPatternCache.this.capacity;
+      }
+    };
+  }
+
+  boolean isEnabled() {
+    return capacity > 0;
+  }
+
+  synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * @return the cached timeseries of the pattern or null if it is not cached. The returned paths
+   * are shared and must be copied before being modified.
+   */
+  synchronized List<PartialPath> get(PartialPath pattern) {
+    return cache.get(pattern);
+  }
+
+  /**
+   * @param version the version got before the pattern was resolved
+   */
+  synchronized void put(PartialPath pattern, List<PartialPath> paths, long version) {
+    if (version == this.version) {
+      cache.put(pattern, Collections.unmodifiableList(new ArrayList<>(paths)));
+    }
+  }
+
+  /**
+   * Remove the patterns that match the given timeseries.
+   *
+   * @param path  full path of a created or deleted timeseries
+   * @param alias alias of the timeseries, may be null
+   */
+  synchronized void invalidate(PartialPath path, String alias) {
+    version++;
+    if (cache.isEmpty()) {
+      return;
+    }
+    String[] nodes = path.getNodes();
+    String[] aliasNodes = null;
+    if (alias != null) {
+      aliasNodes = nodes.clone();
+      aliasNodes[aliasNodes.length - 1] = alias;
+    }
+    Iterator<PartialPath> iterator = cache.keySet().iterator();
+    while (iterator.hasNext()) {
+      String[] patternNodes = iterator.next().getNodes();
+      if (MetaUtils.isPathMatch(nodes, patternNodes)
+          || (aliasNodes != null && MetaUtils.isPathMatch(aliasNodes, patternNodes))) {
+        iterator.remove();
+      }
+    }
+  }
+
+  synchronized void clear() {
+    version++;
+    cache.clear();
+  }
+}
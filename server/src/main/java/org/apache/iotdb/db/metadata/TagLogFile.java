@@ -23,7 +23,11 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
@@ -44,6 +48,9 @@ public class TagLogFile implements AutoCloseable {
 
   private static final byte FILL_BYTE = 0;
 
+  // the max number of bytes fetched by a single read when reading records in batch
+  private static final int MAX_BATCH_READ_SIZE = 1024 * 1024;
+
   public TagLogFile(String schemaDir, String logFileName) throws IOException {
 
     File metadataDir = SystemFileFactory.INSTANCE.getFile(schemaDir);
@@ -75,6 +82,58 @@ public class TagLogFile implements AutoCloseable {
     return new Pair<>(ReadWriteIOUtils.readMap(byteBuffer), ReadWriteIOUtils.readMap(byteBuffer));
   }
 
+  /**
+   * Read the records at the given positions. The positions are visited in ascending order and the
+   * adjacent records are fetched by a single read, which avoids a random read per timeseries as the
+   * records of the timeseries created together are usually adjacent.
+   *
+   * @return tags map, attributes map of each position, in the order of the given positions
+   */
+  public List<Pair<Map<String, String>, Map<String, String>>> read(int size, long[] positions)
+      throws IOException {
+    List<Pair<Map<String, String>, Map<String, String>>> res =
+        new ArrayList<>(Collections.nCopies(positions.length, null));
+    Integer[] order = new Integer[positions.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingLong(i -> positions[i]));
+
+    int maxRecordsPerRead = Math.max(1, MAX_BATCH_READ_SIZE / size);
+    int start = 0;
+    while (start < order.length) {
+      long startPosition = positions[order[start]];
+      if (startPosition < 0) {
+        res.set(order[start], new Pair<>(Collections.emptyMap(), Collections.emptyMap()));
+        start++;
+        continue;
+      }
+      // extend the run while the records are adjacent
+      int end = start + 1;
+      while (end < order.length && end - start < maxRecordsPerRead
+          && positions[order[end]] == positions[order[end - 1]] + size) {
+        end++;
+      }
+      ByteBuffer byteBuffer = ByteBuffer.allocate((end - start) * size);
+      long readPosition = startPosition;
+      while (byteBuffer.hasRemaining()) {
+        int readSize = fileChannel.read(byteBuffer, readPosition);
+        if (readSize <= 0) {
+          break;
+        }
+        readPosition += readSize;
+      }
+      for (int i = start; i < end; i++) {
+        byteBuffer.limit((i - start + 1) * size);
+        byteBuffer.position((i - start) * size);
+        res.set(order[i],
+            new Pair<>(ReadWriteIOUtils.readMap(byteBuffer), ReadWriteIOUtils.readMap(byteBuffer)));
+      }
+      start = end;
+    }
+    return res;
+  }
+
   public Map<String, String> readTag(int size, long position) throws IOException {
     ByteBuffer byteBuffer = ByteBuffer.allocate(size);
     fileChannel.read(byteBuffer, position);
@@ -31,6 +31,7 @@ import java.util.concurrent.ConcurrentMap;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.metadata.MetadataConstant;
 import org.apache.iotdb.db.metadata.PartialPath;
+import org.apache.iotdb.db.metadata.template.Template;
 import org.apache.iotdb.db.rescon.CachedStringPool;
 
 /**
@@ -67,6 +68,11 @@ public class MNode implements Serializable {
   @SuppressWarnings("squid:S3077")
   private transient volatile ConcurrentMap<String, MNode> aliasChildren = null;
 
+  /**
+   * the device template set to this node, shared by all the devices under it
+   */
+  private transient Template deviceTemplate = null;
+
   /**
    * Constructor of MNode.
    */
@@ -236,6 +242,28 @@ public class MNode implements Serializable {
     this.name = name;
   }
 
+  public Template getDeviceTemplate() {
+    return deviceTemplate;
+  }
+
+  public void setDeviceTemplate(Template deviceTemplate) {
+    this.deviceTemplate = deviceTemplate;
+  }
+
+  /**
+   * get the device template set to this node or its nearest ancestor, null if there is none
+   */
+  public Template getUpperTemplate() {
+    MNode cur = this;
+    while (cur != null) {
+      if (cur.deviceTemplate != null) {
+        return cur.deviceTemplate;
+      }
+      cur = cur.parent;
+    }
+    return null;
+  }
+
   public void serializeTo(BufferedWriter bw) throws IOException {
     serializeChildren(bw);
 
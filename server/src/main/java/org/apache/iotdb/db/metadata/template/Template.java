@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata.template;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.iotdb.db.qp.physical.sys.CreateTemplatePlan;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+/**
+ * A device template is a named group of measurement schemas. The MeasurementSchema instances are
+ * shared by all the devices under the paths the template is set to, so a measurement created from
+ * a template does not hold its own copy of the schema.
+ */
+public class Template {
+
+  private final String name;
+
+  // measurement -> shared schema, in the order of definition
+  private final Map<String, MeasurementSchema> schemaMap;
+
+  public Template(CreateTemplatePlan plan) {
+    this.name = plan.getName();
+    Map<String, MeasurementSchema> schemas = new LinkedHashMap<>();
+    for (int i = 0; i < plan.getMeasurements().size(); i++) {
+      String measurement = plan.getMeasurements().get(i);
+      schemas.put(measurement, new MeasurementSchema(measurement, plan.getDataTypes().get(i),
+          plan.getEncodings().get(i), plan.getCompressors().get(i)));
+    }
+    this.schemaMap = Collections.unmodifiableMap(schemas);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Map<String, MeasurementSchema> getSchemaMap() {
+    return schemaMap;
+  }
+
+  public MeasurementSchema getSchema(String measurement) {
+    return schemaMap.get(measurement);
+  }
+
+  public boolean hasSchema(String measurement) {
+    return schemaMap.containsKey(measurement);
+  }
+
+  /**
+   * @return the shared schema of the measurement if the given definition is exactly the one in
+   * the template, otherwise null
+   */
+  public MeasurementSchema getSharedSchema(MeasurementSchema schema) {
+    MeasurementSchema templateSchema = schemaMap.get(schema.getMeasurementId());
+    if (templateSchema != null && templateSchema.getType() == schema.getType()
+        && templateSchema.getEncodingType() == schema.getEncodingType()
+        && templateSchema.getCompressor() == schema.getCompressor()
+        && (schema.getProps() == null || schema.getProps().isEmpty())) {
+      return templateSchema;
+    }
+    return null;
+  }
+}
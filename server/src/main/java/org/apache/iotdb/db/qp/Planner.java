@@ -174,6 +174,8 @@ public class Planner {
       case SHOW_MERGE_STATUS:
       case DELETE_PARTITION:
       case CREATE_SCHEMA_SNAPSHOT:
+      case CREATE_TEMPLATE:
+      case SET_DEVICE_TEMPLATE:
         return operator;
       case QUERY:
       case UPDATE:
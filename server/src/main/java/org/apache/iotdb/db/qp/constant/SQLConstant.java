@@ -67,6 +67,8 @@ public class SQLConstant {
   public static final String COUNT = "count";
   public static final String AVG = "avg";
   public static final String SUM = "sum";
+  public static final String VARIANCE = "variance";
+  public static final String STDDEV = "stddev";
 
   public static final String ALL = "all";
 
@@ -158,6 +160,9 @@ public class SQLConstant {
   public static final int TOK_COUNT_DEVICES = 92;
   public static final int TOK_COUNT_STORAGE_GROUP = 93;
 
+  public static final int TOK_CREATE_TEMPLATE = 94;
+  public static final int TOK_SET_DEVICE_TEMPLATE = 95;
+
   public static final Map<Integer, String> tokenSymbol = new HashMap<>();
   public static final Map<Integer, String> tokenNames = new HashMap<>();
   public static final Map<Integer, Integer> reverseWords = new HashMap<>();
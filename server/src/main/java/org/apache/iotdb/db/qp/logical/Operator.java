@@ -78,6 +78,6 @@ public abstract class Operator {
     ALTER_TIMESERIES, FLUSH, MERGE, FULL_MERGE, CLEAR_CACHE,
     SHOW_MERGE_STATUS, CREATE_SCHEMA_SNAPSHOT, TRACING, DELETE_PARTITION,
     CREATE_MULTI_TIMESERIES
-    , CREATE_INDEX, DROP_INDEX, QUERY_INDEX,
+    , CREATE_INDEX, DROP_INDEX, QUERY_INDEX, CREATE_TEMPLATE, SET_DEVICE_TEMPLATE,
   }
 }
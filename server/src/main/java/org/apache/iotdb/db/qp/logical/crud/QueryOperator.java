@@ -61,6 +61,9 @@ public class QueryOperator extends SFWOperator {
 
   private IndexType indexType;
 
+  // tag key -> tag value, series selected by the query must carry all of them
+  private Map<String, String> tagConditions;
+
   public QueryOperator(int tokenIntType) {
     super(tokenIntType);
     operatorType = Operator.OperatorType.QUERY;
@@ -82,6 +85,18 @@ public class QueryOperator extends SFWOperator {
     this.indexType = indexType;
   }
 
+  public Map<String, String> getTagConditions() {
+    return tagConditions;
+  }
+
+  public void setTagConditions(Map<String, String> tagConditions) {
+    this.tagConditions = tagConditions;
+  }
+
+  public boolean hasTagConditions() {
+    return tagConditions != null && !tagConditions.isEmpty();
+  }
+
   public boolean isFill() {
     return isFill;
   }
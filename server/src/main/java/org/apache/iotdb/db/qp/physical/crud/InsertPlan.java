@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.metadata.DeviceSchemaHandle;
 import org.apache.iotdb.db.metadata.PartialPath;
 import org.apache.iotdb.db.metadata.mnode.MeasurementMNode;
 import org.apache.iotdb.db.qp.logical.Operator;
@@ -37,6 +38,8 @@ public abstract class InsertPlan extends PhysicalPlan {
   protected TSDataType[] dataTypes;
   // get from MManager
   protected MeasurementMNode[] measurementMNodes;
+  // kept by the client session, not serialized
+  protected DeviceSchemaHandle deviceSchemaHandle;
 
   // record the failed measurements, their reasons, and positions in "measurements"
   List<String> failedMeasurements;
@@ -54,6 +57,20 @@ public abstract class InsertPlan extends PhysicalPlan {
 
   public void setDeviceId(PartialPath deviceId) {
     this.deviceId = deviceId;
+    this.deviceSchemaHandle = null;
+  }
+
+  public DeviceSchemaHandle getDeviceSchemaHandle() {
+    return deviceSchemaHandle;
+  }
+
+  /**
+   * Set the device id of this plan from a handle, so that the device node resolved by previous
+   * plans of the same handle is reused.
+   */
+  public void setDeviceSchemaHandle(DeviceSchemaHandle deviceSchemaHandle) {
+    this.deviceSchemaHandle = deviceSchemaHandle;
+    this.deviceId = deviceSchemaHandle.getDeviceId();
   }
 
   public String[] getMeasurements() {
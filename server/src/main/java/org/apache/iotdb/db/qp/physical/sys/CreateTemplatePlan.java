@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.physical.sys;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.metadata.PartialPath;
+import org.apache.iotdb.db.qp.logical.Operator.OperatorType;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * Define a device template, i.e., a named group of measurement schemas which can be shared by
+ * all the devices under the paths the template is set to.
+ */
+public class CreateTemplatePlan extends PhysicalPlan {
+
+  private String name;
+  private List<String> measurements;
+  private List<TSDataType> dataTypes;
+  private List<TSEncoding> encodings;
+  private List<CompressionType> compressors;
+
+  public CreateTemplatePlan() {
+    super(false, OperatorType.CREATE_TEMPLATE);
+  }
+
+  public CreateTemplatePlan(String name, List<String> measurements, List<TSDataType> dataTypes,
+      List<TSEncoding> encodings, List<CompressionType> compressors) {
+    super(false, OperatorType.CREATE_TEMPLATE);
+    this.name = name;
+    this.measurements = measurements;
+    this.dataTypes = dataTypes;
+    this.encodings = encodings;
+    this.compressors = compressors;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public List<String> getMeasurements() {
+    return measurements;
+  }
+
+  public void setMeasurements(List<String> measurements) {
+    this.measurements = measurements;
+  }
+
+  public List<TSDataType> getDataTypes() {
+    return dataTypes;
+  }
+
+  public void setDataTypes(List<TSDataType> dataTypes) {
+    this.dataTypes = dataTypes;
+  }
+
+  public List<TSEncoding> getEncodings() {
+    return encodings;
+  }
+
+  public void setEncodings(List<TSEncoding> encodings) {
+    this.encodings = encodings;
+  }
+
+  public List<CompressionType> getCompressors() {
+    return compressors;
+  }
+
+  public void setCompressors(List<CompressionType> compressors) {
+    this.compressors = compressors;
+  }
+
+  @Override
+  public List<PartialPath> getPaths() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void serialize(DataOutputStream stream) throws IOException {
+    stream.writeByte((byte) PhysicalPlanType.CREATE_TEMPLATE.ordinal());
+    ReadWriteIOUtils.write(name, stream);
+    stream.writeInt(measurements.size());
+    for (int i = 0; i < measurements.size(); i++) {
+      ReadWriteIOUtils.write(measurements.get(i), stream);
+      stream.write(dataTypes.get(i).ordinal());
+      stream.write(encodings.get(i).ordinal());
+      stream.write(compressors.get(i).ordinal());
+    }
+
+    stream.writeLong(index);
+  }
+
+  @Override
+  public void serialize(ByteBuffer buffer) {
+    buffer.put((byte) PhysicalPlanType.CREATE_TEMPLATE.ordinal());
+    ReadWriteIOUtils.write(name, buffer);
+    buffer.putInt(measurements.size());
+    for (int i = 0; i < measurements.size(); i++) {
+      ReadWriteIOUtils.write(measurements.get(i), buffer);
+      buffer.put((byte) dataTypes.get(i).ordinal());
+      buffer.put((byte) encodings.get(i).ordinal());
+      buffer.put((byte) compressors.get(i).ordinal());
+    }
+
+    buffer.putLong(index);
+  }
+
+  @Override
+  public void deserialize(ByteBuffer buffer) {
+    name = ReadWriteIOUtils.readString(buffer);
+    int size = buffer.getInt();
+    measurements = new ArrayList<>(size);
+    dataTypes = new ArrayList<>(size);
+    encodings = new ArrayList<>(size);
+    compressors = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      measurements.add(ReadWriteIOUtils.readString(buffer));
+      dataTypes.add(TSDataType.values()[buffer.get()]);
+      encodings.add(TSEncoding.values()[buffer.get()]);
+      compressors.add(CompressionType.values()[buffer.get()]);
+    }
+
+    this.index = buffer.getLong();
+  }
+
+  @Override
+  public String toString() {
+    return "CreateTemplatePlan{name=" + name + ", measurements=" + measurements + "}";
+  }
+}
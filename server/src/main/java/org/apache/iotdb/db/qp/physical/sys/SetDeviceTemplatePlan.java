@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.physical.sys;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.exception.metadata.IllegalPathException;
+import org.apache.iotdb.db.metadata.PartialPath;
+import org.apache.iotdb.db.qp.logical.Operator.OperatorType;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * Attach a device template to a path, all the devices under the path share its schemas.
+ */
+public class SetDeviceTemplatePlan extends PhysicalPlan {
+
+  private String templateName;
+  private PartialPath prefixPath;
+
+  public SetDeviceTemplatePlan() {
+    super(false, OperatorType.SET_DEVICE_TEMPLATE);
+  }
+
+  public SetDeviceTemplatePlan(String templateName, PartialPath prefixPath) {
+    super(false, OperatorType.SET_DEVICE_TEMPLATE);
+    this.templateName = templateName;
+    this.prefixPath = prefixPath;
+  }
+
+  public String getTemplateName() {
+    return templateName;
+  }
+
+  public void setTemplateName(String templateName) {
+    this.templateName = templateName;
+  }
+
+  public PartialPath getPrefixPath() {
+    return prefixPath;
+  }
+
+  public void setPrefixPath(PartialPath prefixPath) {
+    this.prefixPath = prefixPath;
+  }
+
+  @Override
+  public List<PartialPath> getPaths() {
+    return Collections.singletonList(prefixPath);
+  }
+
+  @Override
+  public void serialize(DataOutputStream stream) throws IOException {
+    stream.writeByte((byte) PhysicalPlanType.SET_DEVICE_TEMPLATE.ordinal());
+    ReadWriteIOUtils.write(templateName, stream);
+    ReadWriteIOUtils.write(prefixPath.getFullPath(), stream);
+
+    stream.writeLong(index);
+  }
+
+  @Override
+  public void serialize(ByteBuffer buffer) {
+    buffer.put((byte) PhysicalPlanType.SET_DEVICE_TEMPLATE.ordinal());
+    ReadWriteIOUtils.write(templateName, buffer);
+    ReadWriteIOUtils.write(prefixPath.getFullPath(), buffer);
+
+    buffer.putLong(index);
+  }
+
+  @Override
+  public void deserialize(ByteBuffer buffer) throws IllegalPathException {
+    templateName = ReadWriteIOUtils.readString(buffer);
+    prefixPath = new PartialPath(ReadWriteIOUtils.readString(buffer));
+
+    this.index = buffer.getLong();
+  }
+
+  @Override
+  public String toString() {
+    return "SetDeviceTemplatePlan{templateName=" + templateName + ", prefixPath=" + prefixPath
+        + "}";
+  }
+}
@@ -61,6 +61,7 @@ import org.apache.iotdb.db.qp.logical.sys.ClearCacheOperator;
 import org.apache.iotdb.db.qp.logical.sys.CountOperator;
 import org.apache.iotdb.db.qp.logical.sys.CreateIndexOperator;
 import org.apache.iotdb.db.qp.logical.sys.CreateSnapshotOperator;
+import org.apache.iotdb.db.qp.logical.sys.CreateTemplateOperator;
 import org.apache.iotdb.db.qp.logical.sys.CreateTimeSeriesOperator;
 import org.apache.iotdb.db.qp.logical.sys.DataAuthOperator;
 import org.apache.iotdb.db.qp.logical.sys.DeletePartitionOperator;
@@ -75,6 +76,7 @@ import org.apache.iotdb.db.qp.logical.sys.LoadFilesOperator;
 import org.apache.iotdb.db.qp.logical.sys.MergeOperator;
 import org.apache.iotdb.db.qp.logical.sys.MoveFileOperator;
 import org.apache.iotdb.db.qp.logical.sys.RemoveFileOperator;
+import org.apache.iotdb.db.qp.logical.sys.SetDeviceTemplateOperator;
 import org.apache.iotdb.db.qp.logical.sys.SetStorageGroupOperator;
 import org.apache.iotdb.db.qp.logical.sys.SetTTLOperator;
 import org.apache.iotdb.db.qp.logical.sys.ShowChildPathsOperator;
@@ -105,6 +107,7 @@ import org.apache.iotdb.db.qp.sql.SqlBaseParser.CountTimeseriesContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.CreateIndexContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.CreateRoleContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.CreateSnapshotContext;
+import org.apache.iotdb.db.qp.sql.SqlBaseParser.CreateTemplateContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.CreateTimeseriesContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.CreateUserContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.DateExpressionContext;
@@ -179,6 +182,7 @@ import org.apache.iotdb.db.qp.sql.SqlBaseParser.SelectElementContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.SelectStatementContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.SequenceClauseContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.SetColContext;
+import org.apache.iotdb.db.qp.sql.SqlBaseParser.SetDeviceTemplateContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.SetStorageGroupContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.SetTTLStatementContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.ShowAllTTLStatementContext;
@@ -199,6 +203,8 @@ import org.apache.iotdb.db.qp.sql.SqlBaseParser.SpecialLimitStatementContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.StringLiteralContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.SuffixPathContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.TagClauseContext;
+import org.apache.iotdb.db.qp.sql.SqlBaseParser.TagPredicateClauseContext;
+import org.apache.iotdb.db.qp.sql.SqlBaseParser.TemplateMeasurementClauseContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.TimeIntervalContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.TracingOffContext;
 import org.apache.iotdb.db.qp.sql.SqlBaseParser.TracingOnContext;
@@ -861,6 +867,37 @@ public class IoTDBSqlVisitor extends SqlBaseBaseVisitor<Operator> {
     return new CreateSnapshotOperator(SQLConstant.TOK_CREATE_SCHEMA_SNAPSHOT);
   }
 
+  @Override
+  public Operator visitCreateTemplate(CreateTemplateContext ctx) {
+    CreateTemplateOperator createTemplateOperator = new CreateTemplateOperator(
+        SQLConstant.TOK_CREATE_TEMPLATE);
+    createTemplateOperator.setName(ctx.templateName.getText());
+    Set<String> measurements = new HashSet<>();
+    for (TemplateMeasurementClauseContext clause : ctx.templateMeasurementClause()) {
+      String measurement = clause.nodeNameWithoutStar().getText();
+      if (!measurements.add(measurement)) {
+        throw new SQLParserException(
+            String.format("Measurement %s is defined more than once in the template", measurement));
+      }
+      TSDataType dataType = TSDataType.valueOf(clause.dataType().getText().toUpperCase());
+      TSEncoding encoding = TSEncoding.valueOf(clause.encoding().getText().toUpperCase());
+      CompressionType compressor = clause.compressor() == null
+          ? TSFileDescriptor.getInstance().getConfig().getCompressor()
+          : CompressionType.valueOf(clause.compressor().getText().toUpperCase());
+      createTemplateOperator.addMeasurement(measurement, dataType, encoding, compressor);
+    }
+    return createTemplateOperator;
+  }
+
+  @Override
+  public Operator visitSetDeviceTemplate(SetDeviceTemplateContext ctx) {
+    SetDeviceTemplateOperator setDeviceTemplateOperator = new SetDeviceTemplateOperator(
+        SQLConstant.TOK_SET_DEVICE_TEMPLATE);
+    setDeviceTemplateOperator.setTemplateName(ctx.templateName.getText());
+    setDeviceTemplateOperator.setPrefixPath(parsePrefixPath(ctx.prefixPath()));
+    return setDeviceTemplateOperator;
+  }
+
   @Override
   public Operator visitSelectStatement(SelectStatementContext ctx) {
     queryOp = new QueryOperator(SQLConstant.TOK_QUERY);
@@ -1507,11 +1544,39 @@ public class IoTDBSqlVisitor extends SqlBaseBaseVisitor<Operator> {
       parseIndexPredicate(ctx.indexPredicateClause());
       return queryOp;
     }
+    if (ctx.tagPredicateClause() != null) {
+      if (!(ctx.getParent() instanceof SelectStatementContext)) {
+        throw new SQLParserException("TAGS predicate is only supported in SELECT statements.");
+      }
+      parseTagPredicate(ctx.tagPredicateClause());
+      if (ctx.orExpression() == null) {
+        return queryOp;
+      }
+    }
     FilterOperator whereOp = new FilterOperator(SQLConstant.TOK_WHERE);
     whereOp.addChildOperator(parseOrExpression(ctx.orExpression()));
     return whereOp;
   }
 
+  private void parseTagPredicate(TagPredicateClauseContext ctx) {
+    Map<String, String> tagConditions = new HashMap<>();
+    for (PropertyContext property : ctx.property()) {
+      String value;
+      if (property.propertyValue().stringLiteral() != null) {
+        value = removeStringQuote(property.propertyValue().getText());
+      } else {
+        value = property.propertyValue().getText();
+      }
+      String key = property.ID().getText();
+      String previous = tagConditions.put(key, value);
+      if (previous != null && !previous.equals(value)) {
+        throw new SQLParserException(
+            String.format("Tag %s can not be equal to both %s and %s", key, previous, value));
+      }
+    }
+    queryOp.setTagConditions(tagConditions);
+  }
+
   private FilterOperator parseOrExpression(OrExpressionContext ctx) {
     if (ctx.andExpression().size() == 1) {
       return parseAndExpression(ctx.andExpression(0));
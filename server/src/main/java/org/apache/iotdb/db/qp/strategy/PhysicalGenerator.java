@@ -46,6 +46,7 @@ import org.apache.iotdb.db.qp.logical.sys.AlterTimeSeriesOperator;
 import org.apache.iotdb.db.qp.logical.sys.AuthorOperator;
 import org.apache.iotdb.db.qp.logical.sys.CountOperator;
 import org.apache.iotdb.db.qp.logical.sys.CreateIndexOperator;
+import org.apache.iotdb.db.qp.logical.sys.CreateTemplateOperator;
 import org.apache.iotdb.db.qp.logical.sys.CreateTimeSeriesOperator;
 import org.apache.iotdb.db.qp.logical.sys.DataAuthOperator;
 import org.apache.iotdb.db.qp.logical.sys.DeletePartitionOperator;
@@ -59,6 +60,7 @@ import org.apache.iotdb.db.qp.logical.sys.LoadDataOperator;
 import org.apache.iotdb.db.qp.logical.sys.LoadFilesOperator;
 import org.apache.iotdb.db.qp.logical.sys.MoveFileOperator;
 import org.apache.iotdb.db.qp.logical.sys.RemoveFileOperator;
+import org.apache.iotdb.db.qp.logical.sys.SetDeviceTemplateOperator;
 import org.apache.iotdb.db.qp.logical.sys.SetStorageGroupOperator;
 import org.apache.iotdb.db.qp.logical.sys.SetTTLOperator;
 import org.apache.iotdb.db.qp.logical.sys.ShowChildPathsOperator;
@@ -87,6 +89,7 @@ import org.apache.iotdb.db.qp.physical.sys.ClearCachePlan;
 import org.apache.iotdb.db.qp.physical.sys.CountPlan;
 import org.apache.iotdb.db.qp.physical.sys.CreateIndexPlan;
 import org.apache.iotdb.db.qp.physical.sys.CreateSnapshotPlan;
+import org.apache.iotdb.db.qp.physical.sys.CreateTemplatePlan;
 import org.apache.iotdb.db.qp.physical.sys.CreateTimeSeriesPlan;
 import org.apache.iotdb.db.qp.physical.sys.DataAuthPlan;
 import org.apache.iotdb.db.qp.physical.sys.DeleteStorageGroupPlan;
@@ -98,6 +101,7 @@ import org.apache.iotdb.db.qp.physical.sys.LoadConfigurationPlan.LoadConfigurati
 import org.apache.iotdb.db.qp.physical.sys.LoadDataPlan;
 import org.apache.iotdb.db.qp.physical.sys.MergePlan;
 import org.apache.iotdb.db.qp.physical.sys.OperateFilePlan;
+import org.apache.iotdb.db.qp.physical.sys.SetDeviceTemplatePlan;
 import org.apache.iotdb.db.qp.physical.sys.SetStorageGroupPlan;
 import org.apache.iotdb.db.qp.physical.sys.SetTTLPlan;
 import org.apache.iotdb.db.qp.physical.sys.ShowChildPathsPlan;
@@ -293,6 +297,15 @@ public class PhysicalGenerator {
         return new DeletePartitionPlan(op.getStorageGroupName(), op.getPartitionId());
       case CREATE_SCHEMA_SNAPSHOT:
         return new CreateSnapshotPlan();
+      case CREATE_TEMPLATE:
+        CreateTemplateOperator createTemplateOperator = (CreateTemplateOperator) operator;
+        return new CreateTemplatePlan(createTemplateOperator.getName(),
+            createTemplateOperator.getMeasurements(), createTemplateOperator.getDataTypes(),
+            createTemplateOperator.getEncodings(), createTemplateOperator.getCompressors());
+      case SET_DEVICE_TEMPLATE:
+        SetDeviceTemplateOperator setDeviceTemplateOperator = (SetDeviceTemplateOperator) operator;
+        return new SetDeviceTemplatePlan(setDeviceTemplateOperator.getTemplateName(),
+            setDeviceTemplateOperator.getPrefixPath());
       default:
         throw new LogicalOperatorException(operator.getType().toString(), "");
     }
@@ -450,7 +463,9 @@ public class PhysicalGenerator {
           PartialPath fullPath = device.concatPath(suffixPath);
           try {
             // remove stars in SELECT to get actual paths
-            List<PartialPath> actualPaths = getMatchedTimeseries(fullPath);
+            List<PartialPath> actualPaths = queryOperator.hasTagConditions()
+                ? getMatchedTimeseries(fullPath, queryOperator.getTagConditions())
+                : getMatchedTimeseries(fullPath);
             if (suffixPath.isTsAliasExists()) {
               if (actualPaths.size() == 1) {
                 String columnName = actualPaths.get(0).getMeasurement();
@@ -814,6 +829,8 @@ public class PhysicalGenerator {
       case SQLConstant.MAX_VALUE:
       case SQLConstant.AVG:
       case SQLConstant.SUM:
+      case SQLConstant.VARIANCE:
+      case SQLConstant.STDDEV:
         return dataTypes.stream().allMatch(dataTypes.get(0)::equals);
       default:
         return true;
@@ -824,6 +841,11 @@ public class PhysicalGenerator {
     return IoTDB.metaManager.getAllTimeseriesPath(path);
   }
 
+  protected List<PartialPath> getMatchedTimeseries(PartialPath path,
+      Map<String, String> tagConditions) throws MetadataException {
+    return IoTDB.metaManager.getAllTimeseriesPathWithTags(path, tagConditions, 0, 0).left;
+  }
+
   protected Set<PartialPath> getMatchedDevices(PartialPath path) throws MetadataException {
     return IoTDB.metaManager.getDevices(path);
   }
@@ -21,6 +21,7 @@ package org.apache.iotdb.db.qp.strategy.optimizer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.exception.query.LogicalOptimizeException;
@@ -97,7 +98,8 @@ public class ConcatPathOptimizer implements ILogicalOptimizer {
         int seriesLimit = ((QueryOperator) operator).getSeriesLimit();
         int seriesOffset = ((QueryOperator) operator).getSeriesOffset();
         concatSelect(prefixPaths, select, seriesLimit, seriesOffset, maxDeduplicatedPathNum,
-            ((QueryOperator) operator).getIndexType() == null);
+            ((QueryOperator) operator).getIndexType() == null,
+            ((QueryOperator) operator).getTagConditions());
       } else {
         isAlignByDevice = true;
         for (PartialPath path : initialSuffixPaths) {
@@ -167,10 +169,12 @@ public class ConcatPathOptimizer implements ILogicalOptimizer {
 
   /**
    * Extract paths from select&from cql, expand them into complete versions, and reassign them to
-   * selectOperator's suffixPathList. Treat aggregations similarly.
+   * selectOperator's suffixPathList. Treat aggregations similarly. If tag conditions are given, only
+   * the series carrying all of them are kept.
    */
   private void concatSelect(List<PartialPath> fromPaths, SelectOperator selectOperator, int limit,
-      int offset, int maxDeduplicatedPathNum, boolean needRemoveStar)
+      int offset, int maxDeduplicatedPathNum, boolean needRemoveStar,
+      Map<String, String> tagConditions)
       throws LogicalOptimizeException, PathNumOverLimitException {
     List<PartialPath> suffixPaths = judgeSelectOperator(selectOperator);
 
@@ -192,7 +196,7 @@ public class ConcatPathOptimizer implements ILogicalOptimizer {
     }
     if (needRemoveStar)
       removeStarsInPath(allPaths, afterConcatAggregations, selectOperator, limit, offset,
-          maxDeduplicatedPathNum);
+          maxDeduplicatedPathNum, tagConditions);
     else{
       selectOperator.setSuffixPathList(allPaths);
     }
@@ -284,7 +288,8 @@ public class ConcatPathOptimizer implements ILogicalOptimizer {
 
   @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   private void removeStarsInPath(List<PartialPath> paths, List<String> afterConcatAggregations,
-      SelectOperator selectOperator, int finalLimit, int finalOffset, int maxDeduplicatedPathNum)
+      SelectOperator selectOperator, int finalLimit, int finalOffset, int maxDeduplicatedPathNum,
+      Map<String, String> tagConditions)
       throws LogicalOptimizeException, PathNumOverLimitException {
     int offset = finalOffset;
     int limit = finalLimit == 0 || maxDeduplicatedPathNum < finalLimit
@@ -295,7 +300,9 @@ public class ConcatPathOptimizer implements ILogicalOptimizer {
 
     for (int i = 0; i < paths.size(); i++) {
       try {
-        Pair<List<PartialPath>, Integer> pair = removeWildcard(paths.get(i), limit, offset);
+        Pair<List<PartialPath>, Integer> pair = tagConditions == null || tagConditions.isEmpty()
+            ? removeWildcard(paths.get(i), limit, offset)
+            : removeWildcardWithTags(paths.get(i), tagConditions, limit, offset);
 
         List<PartialPath> actualPaths = pair.left;
         if (paths.get(i).isTsAliasExists()) {
@@ -346,4 +353,9 @@ public class ConcatPathOptimizer implements ILogicalOptimizer {
       throws MetadataException {
     return IoTDB.metaManager.getAllTimeseriesPathWithAlias(path, limit, offset);
   }
+
+  protected Pair<List<PartialPath>, Integer> removeWildcardWithTags(PartialPath path,
+      Map<String, String> tagConditions, int limit, int offset) throws MetadataException {
+    return IoTDB.metaManager.getAllTimeseriesPathWithTags(path, tagConditions, limit, offset);
+  }
 }
@@ -59,6 +59,15 @@ public abstract class AggregateResult {
 
   public abstract Object getResult();
 
+  /**
+   * @param statistics chunkStatistics or pageStatistics
+   * @return true if the aggregation can be calculated using the Statistics, e.g., it is not read
+   * from a file written before the Statistics needed are recorded
+   */
+  public boolean canUseStatistics(Statistics statistics) {
+    return true;
+  }
+
   /**
    * Calculate the aggregation using Statistics
    *
@@ -26,7 +26,8 @@ import org.apache.iotdb.tsfile.utils.BytesUtils;
 
 public enum AggregationType {
 
-  COUNT, AVG, SUM, FIRST_VALUE, LAST_VALUE, MAX_TIME, MIN_TIME, MAX_VALUE, MIN_VALUE;
+  COUNT, AVG, SUM, FIRST_VALUE, LAST_VALUE, MAX_TIME, MIN_TIME, MAX_VALUE, MIN_VALUE,
+  VARIANCE, STDDEV;
 
   /**
    * give an integer to return a data type.
@@ -54,6 +55,10 @@ public enum AggregationType {
         return MAX_VALUE;
       case 8:
         return MIN_VALUE;
+      case 9:
+        return VARIANCE;
+      case 10:
+        return STDDEV;
       default:
         throw new IllegalArgumentException("Invalid Aggregation Type: " + i);
     }
@@ -89,6 +94,12 @@ public enum AggregationType {
       case MIN_VALUE:
         i = 8;
         break;
+      case VARIANCE:
+        i = 9;
+        break;
+      case STDDEV:
+        i = 10;
+        break;
       default:
         throw new IllegalArgumentException("Invalid Aggregation Type: " + this.name());
     }
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.query.aggregation.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.db.query.aggregation.AggregateResult;
+import org.apache.iotdb.db.query.aggregation.AggregationType;
+import org.apache.iotdb.db.query.reader.series.IReaderByTimestamp;
+import org.apache.iotdb.tsfile.exception.filter.StatisticsClassException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * The sample variance of the values, which is null if there are less than 2 values. The count,
+ * the mean and the sum of the squared deviations from the mean are kept, so that the values are
+ * added one by one (Welford), and the statistics with the sum of squares and the partial results
+ * are merged (Chan et al.) without losing the precision.
+ */
+public class VarianceAggrResult extends AggregateResult {
+
+  private TSDataType seriesDataType;
+  private long cnt = 0;
+  private double mean = 0.0;
+  private double sumOfSquares = 0.0;
+
+  public VarianceAggrResult(TSDataType seriesDataType) {
+    this(seriesDataType, AggregationType.VARIANCE);
+  }
+
+  protected VarianceAggrResult(TSDataType seriesDataType, AggregationType aggregationType) {
+    super(TSDataType.DOUBLE, aggregationType);
+    this.seriesDataType = seriesDataType;
+    reset();
+  }
+
+  @Override
+  protected boolean hasCandidateResult() {
+    return cnt > 0;
+  }
+
+  @Override
+  public Double getResult() {
+    if (cnt < 2) {
+      return null;
+    }
+    setDoubleValue(calculateResult());
+    return getDoubleValue();
+  }
+
+  protected double calculateResult() {
+    return sumOfSquares / (cnt - 1);
+  }
+
+  @Override
+  public boolean canUseStatistics(Statistics statistics) {
+    return statistics.hasSumOfSquares();
+  }
+
+  @Override
+  public void updateResultFromStatistics(Statistics statistics) {
+    if (statistics.getType().equals(TSDataType.BOOLEAN)) {
+      throw new StatisticsClassException(
+          "Boolean statistics does not support: " + getAggregationType());
+    }
+    if (statistics.getType().equals(TSDataType.TEXT)) {
+      throw new StatisticsClassException(
+          "Binary statistics does not support: " + getAggregationType());
+    }
+    if (!statistics.hasSumOfSquares()) {
+      throw new StatisticsClassException(
+          "Statistics without the sum of squares does not support: " + getAggregationType());
+    }
+    merge(statistics.getCount(), statistics.getSumValue() / statistics.getCount(),
+        statistics.getSumOfSquares());
+  }
+
+  @Override
+  public void updateResultFromPageData(BatchData dataInThisPage) throws IOException {
+    updateResultFromPageData(dataInThisPage, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Override
+  public void updateResultFromPageData(BatchData dataInThisPage, long minBound, long maxBound)
+      throws IOException {
+    while (dataInThisPage.hasCurrent()) {
+      if (dataInThisPage.currentTime() >= maxBound || dataInThisPage.currentTime() < minBound) {
+        break;
+      }
+      updateVariance(dataInThisPage.currentValue());
+      dataInThisPage.next();
+    }
+  }
+
+  @Override
+  public void updateResultUsingTimestamps(long[] timestamps, int length,
+      IReaderByTimestamp dataReader) throws IOException {
+    for (int i = 0; i < length; i++) {
+      Object value = dataReader.getValueInTimestamp(timestamps[i]);
+      if (value != null) {
+        updateVariance(value);
+      }
+    }
+  }
+
+  private void updateVariance(Object value) throws IOException {
+    double val;
+    switch (seriesDataType) {
+      case INT32:
+        val = (int) value;
+        break;
+      case INT64:
+        val = (long) value;
+        break;
+      case FLOAT:
+        val = (float) value;
+        break;
+      case DOUBLE:
+        val = (double) value;
+        break;
+      case TEXT:
+      case BOOLEAN:
+      default:
+        throw new IOException(String.format("Unsupported data type in aggregation %s : %s",
+            getAggregationType(), seriesDataType));
+    }
+    cnt++;
+    double delta = val - mean;
+    mean += delta / cnt;
+    sumOfSquares += delta * (val - mean);
+  }
+
+  private void merge(long anotherCnt, double anotherMean, double anotherSumOfSquares) {
+    if (anotherCnt == 0) {
+      return;
+    }
+    long totalCnt = cnt + anotherCnt;
+    double delta = anotherMean - mean;
+    sumOfSquares += anotherSumOfSquares + delta * delta * cnt / totalCnt * anotherCnt;
+    mean += delta * anotherCnt / totalCnt;
+    cnt = totalCnt;
+  }
+
+  @Override
+  public boolean hasFinalResult() {
+    return false;
+  }
+
+  @Override
+  public void merge(AggregateResult another) {
+    VarianceAggrResult anotherVariance = (VarianceAggrResult) another;
+    merge(anotherVariance.cnt, anotherVariance.mean, anotherVariance.sumOfSquares);
+  }
+
+  @Override
+  protected void deserializeSpecificFields(ByteBuffer buffer) {
+    this.seriesDataType = TSDataType.deserialize(buffer.getShort());
+    this.cnt = buffer.getLong();
+    this.mean = buffer.getDouble();
+    this.sumOfSquares = buffer.getDouble();
+  }
+
+  @Override
+  protected void serializeSpecificFields(OutputStream outputStream) throws IOException {
+    ReadWriteIOUtils.write(seriesDataType, outputStream);
+    ReadWriteIOUtils.write(cnt, outputStream);
+    ReadWriteIOUtils.write(mean, outputStream);
+    ReadWriteIOUtils.write(sumOfSquares, outputStream);
+  }
+
+  public long getCnt() {
+    return cnt;
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    cnt = 0;
+    mean = 0;
+    sumOfSquares = 0;
+  }
+}
@@ -19,11 +19,10 @@
 
 package org.apache.iotdb.db.query.context;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import org.apache.iotdb.db.engine.modification.DeletionIndex;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.metadata.PartialPath;
@@ -36,15 +35,10 @@ public class QueryContext {
 
   /**
    * The outer key is the path of a ModificationFile, the inner key in the name of a timeseries and
-   * the value is the Modifications of a timeseries in this file.
+   * the value is the Modifications of a timeseries in this file. We use this field so a query sees
+   * the same Modifications of a timeseries even if there are deletions during the query.
    */
-  private Map<String, Map<String, List<Modification>>> filePathModCache = new ConcurrentHashMap<>();
-  /**
-   * The key is the path of a ModificationFile and the value is all Modifications in this file. We
-   * use this field because each call of Modification.getModifications() return a copy of the
-   * Modifications, and we do not want it to create multiple copies within a query.
-   */
-  private Map<String, List<Modification>> fileModCache = new HashMap<>();
+  private Map<String, Map<String, DeletionIndex>> filePathModCache = new ConcurrentHashMap<>();
 
   private long queryId;
 
@@ -62,24 +56,18 @@ public class QueryContext {
    * them from 'modFile' and put then into the cache.
    */
   public List<Modification> getPathModifications(ModificationFile modFile, PartialPath path) {
-    Map<String, List<Modification>> fileModifications =
+    return getPathDeletionIndex(modFile, path).getModifications();
+  }
+
+  /**
+   * Find the modifications of timeseries 'path' in 'modFile' indexed by the deleted ranges. If
+   * they are not in the cache, get them from 'modFile' and put then into the cache.
+   */
+  public DeletionIndex getPathDeletionIndex(ModificationFile modFile, PartialPath path) {
+    Map<String, DeletionIndex> fileModifications =
         filePathModCache.computeIfAbsent(modFile.getFilePath(), k -> new ConcurrentHashMap<>());
-    return fileModifications.computeIfAbsent(path.getFullPath(), k -> {
-      List<Modification> allModifications = fileModCache.get(modFile.getFilePath());
-      if (allModifications == null) {
-        allModifications = (List<Modification>) modFile.getModifications();
-        fileModCache.put(modFile.getFilePath(), allModifications);
-      }
-      List<Modification> finalPathModifications = new ArrayList<>();
-      if (!allModifications.isEmpty()) {
-        allModifications.forEach(modification -> {
-          if (modification.getPath().matchFullPath(path)) {
-            finalPathModifications.add(modification);
-          }
-        });
-      }
-      return finalPathModifications;
-    });
+    return fileModifications
+        .computeIfAbsent(path.getFullPath(), k -> modFile.getDeletionIndex(path));
   }
 
   public long getQueryId() {
@@ -192,6 +192,7 @@ public class FileReaderManager implements IService {
    */
   void increaseFileReaderReference(TsFileResource tsFile, boolean isClosed) {
     tsFile.readLock();
+    tsFile.updateLastReadTime();
     synchronized (this) {
       if (!isClosed) {
         unclosedReferenceMap.computeIfAbsent(tsFile.getTsFilePath(), k -> new AtomicInteger()).getAndIncrement();
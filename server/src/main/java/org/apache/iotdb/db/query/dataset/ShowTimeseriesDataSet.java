@@ -51,7 +51,9 @@ public class ShowTimeseriesDataSet extends QueryDataSet {
   private final ShowTimeSeriesPlan plan;
   private List<RowRecord> result = new ArrayList<>();
   private int index = 0;
-  private final QueryContext context;
+  private final ShowTimeSeriesCursor cursor;
+  // the number of timeseries fetched from the cursor each time
+  private final int batchSize;
 
   public boolean hasLimit;
 
@@ -70,13 +72,16 @@ public class ShowTimeseriesDataSet extends QueryDataSet {
       throws MetadataException {
     super(Arrays.asList(resourcePaths), Arrays.asList(resourceTypes));
     this.plan = showTimeSeriesPlan;
-    this.context = context;
     hasLimit = plan.hasLimit();
+    // the cursor keeps its position, so the following batches continue where the previous one
+    // stopped instead of matching and skipping the already returned timeseries again
+    cursor = IoTDB.metaManager.showTimeseriesCursor(plan, context);
+    batchSize = !hasLimit && plan.getLimit() > 0 ? plan.getLimit() : Integer.MAX_VALUE;
     getQueryDataSet();
   }
 
   public List<RowRecord> getQueryDataSet() throws MetadataException {
-    List<ShowTimeSeriesResult> timeseriesList = IoTDB.metaManager.showTimeseries(plan, context);
+    List<ShowTimeSeriesResult> timeseriesList = cursor.next(batchSize);
     List<RowRecord> records = new ArrayList<>();
     for (ShowTimeSeriesResult result : timeseriesList) {
       RowRecord record = new RowRecord(0);
@@ -114,8 +119,7 @@ public class ShowTimeseriesDataSet extends QueryDataSet {
 
   @Override
   protected boolean hasNextWithoutConstraint() throws IOException {
-    if (index == result.size() && !hasLimit && result.size() == plan.getLimit()) {
-      plan.setOffset(plan.getOffset() + plan.getLimit());
+    if (index == result.size() && !hasLimit && result.size() == batchSize) {
       try {
         result = getQueryDataSet();
         index = 0;
@@ -157,6 +157,15 @@ public class LocalGroupByExecutor implements GroupByExecutor {
     return true;
   }
 
+  private boolean canUseStatistics(Statistics statistics) {
+    for (AggregateResult result : results) {
+      if (!result.hasFinalResult() && !result.canUseStatistics(statistics)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void calcFromStatistics(Statistics pageStatistics) throws QueryProcessException {
     for (AggregateResult result : results) {
       // cacl is compile
@@ -198,7 +207,7 @@ public class LocalGroupByExecutor implements GroupByExecutor {
         return results;
       }
       // calc from fileMetaData
-      if (reader.canUseCurrentFileStatistics()
+      if (reader.canUseCurrentFileStatistics() && canUseStatistics(fileStatistics)
           && timeRange.contains(fileStatistics.getStartTime(), fileStatistics.getEndTime())) {
         calcFromStatistics(fileStatistics);
         reader.skipCurrentFile();
@@ -267,7 +276,7 @@ public class LocalGroupByExecutor implements GroupByExecutor {
         }
       }
       // calc from chunkMetaData
-      if (reader.canUseCurrentChunkStatistics()
+      if (reader.canUseCurrentChunkStatistics() && canUseStatistics(chunkStatistics)
           && timeRange.contains(chunkStatistics.getStartTime(), chunkStatistics.getEndTime())) {
         calcFromStatistics(chunkStatistics);
         reader.skipCurrentChunk();
@@ -297,7 +306,7 @@ public class LocalGroupByExecutor implements GroupByExecutor {
           }
         }
         // can use pageHeader
-        if (reader.canUseCurrentPageStatistics()
+        if (reader.canUseCurrentPageStatistics() && canUseStatistics(pageStatistics)
             && timeRange.contains(pageStatistics.getStartTime(), pageStatistics.getEndTime())) {
           calcFromStatistics(pageStatistics);
           reader.skipCurrentPage();
@@ -193,7 +193,8 @@ public class AggregationExecutor {
 
     while (seriesReader.hasNextFile()) {
       // cal by file statistics
-      if (seriesReader.canUseCurrentFileStatistics()) {
+      if (seriesReader.canUseCurrentFileStatistics() && canUseStatistics(aggregateResultList,
+          isCalculatedArray, seriesReader.currentFileStatistics())) {
         Statistics fileStatistics = seriesReader.currentFileStatistics();
         remainingToCalculate = aggregateStatistics(aggregateResultList, isCalculatedArray,
             remainingToCalculate, fileStatistics);
@@ -206,7 +207,8 @@ public class AggregationExecutor {
 
       while (seriesReader.hasNextChunk()) {
         // cal by chunk statistics
-        if (seriesReader.canUseCurrentChunkStatistics()) {
+        if (seriesReader.canUseCurrentChunkStatistics() && canUseStatistics(aggregateResultList,
+            isCalculatedArray, seriesReader.currentChunkStatistics())) {
           Statistics chunkStatistics = seriesReader.currentChunkStatistics();
           remainingToCalculate = aggregateStatistics(aggregateResultList, isCalculatedArray,
               remainingToCalculate, chunkStatistics);
@@ -227,6 +229,20 @@ public class AggregationExecutor {
 
   }
 
+  /**
+   * @return true if each result in the list not calculated yet can be aggregated with the
+   * statistics
+   */
+  private static boolean canUseStatistics(List<AggregateResult> aggregateResultList,
+      boolean[] isCalculatedArray, Statistics statistics) {
+    for (int i = 0; i < aggregateResultList.size(); i++) {
+      if (!isCalculatedArray[i] && !aggregateResultList.get(i).canUseStatistics(statistics)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Aggregate each result in the list with the statistics
    */
@@ -257,7 +273,8 @@ public class AggregationExecutor {
       throws IOException, QueryProcessException {
     while (seriesReader.hasNextPage()) {
       //cal by page statistics
-      if (seriesReader.canUseCurrentPageStatistics()) {
+      if (seriesReader.canUseCurrentPageStatistics() && canUseStatistics(aggregateResultList,
+          isCalculatedArray, seriesReader.currentPageStatistics())) {
         Statistics pageStatistic = seriesReader.currentPageStatistics();
         remainingToCalculate = aggregateStatistics(aggregateResultList, isCalculatedArray,
             remainingToCalculate, pageStatistic);
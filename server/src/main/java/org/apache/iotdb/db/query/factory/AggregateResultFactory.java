@@ -34,7 +34,9 @@ import org.apache.iotdb.db.query.aggregation.impl.MaxValueAggrResult;
 import org.apache.iotdb.db.query.aggregation.impl.MinTimeAggrResult;
 import org.apache.iotdb.db.query.aggregation.impl.MinTimeDescAggrResult;
 import org.apache.iotdb.db.query.aggregation.impl.MinValueAggrResult;
+import org.apache.iotdb.db.query.aggregation.impl.StdDevAggrResult;
 import org.apache.iotdb.db.query.aggregation.impl.SumAggrResult;
+import org.apache.iotdb.db.query.aggregation.impl.VarianceAggrResult;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 
 /**
@@ -75,6 +77,10 @@ public class AggregateResultFactory {
             : new FirstValueAggrResult(dataType);
       case SQLConstant.SUM:
         return new SumAggrResult(dataType);
+      case SQLConstant.VARIANCE:
+        return new VarianceAggrResult(dataType);
+      case SQLConstant.STDDEV:
+        return new StdDevAggrResult(dataType);
       case SQLConstant.LAST_VALUE:
         return !ascending ? new LastValueDescAggrResult(dataType)
             : new LastValueAggrResult(dataType);
@@ -105,6 +111,10 @@ public class AggregateResultFactory {
         return new FirstValueAggrResult(dataType);
       case SQLConstant.SUM:
         return new SumAggrResult(dataType);
+      case SQLConstant.VARIANCE:
+        return new VarianceAggrResult(dataType);
+      case SQLConstant.STDDEV:
+        return new StdDevAggrResult(dataType);
       case SQLConstant.LAST_VALUE:
         return new LastValueDescAggrResult(dataType);
       default:
@@ -135,6 +145,10 @@ public class AggregateResultFactory {
         return new MaxValueAggrResult(dataType);
       case MIN_VALUE:
         return new MinValueAggrResult(dataType);
+      case VARIANCE:
+        return new VarianceAggrResult(dataType);
+      case STDDEV:
+        return new StdDevAggrResult(dataType);
       default:
         throw new IllegalArgumentException("Invalid Aggregation Type: " + aggregationType.name());
     }
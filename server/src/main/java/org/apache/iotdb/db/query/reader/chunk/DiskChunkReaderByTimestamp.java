@@ -39,7 +39,10 @@ public class DiskChunkReaderByTimestamp implements IReaderByTimestamp {
 
   @Override
   public Object getValueInTimestamp(long timestamp) throws IOException {
-
+    // the pages ending before the timestamp are skipped without being read
+    if (chunkReaderByTimestamp != null) {
+      chunkReaderByTimestamp.setCurrentTimestamp(timestamp);
+    }
     if (!hasNext()) {
       return null;
     }
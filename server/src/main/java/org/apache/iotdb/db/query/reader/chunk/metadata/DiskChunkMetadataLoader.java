@@ -21,7 +21,7 @@ package org.apache.iotdb.db.query.reader.chunk.metadata;
 import java.io.IOException;
 import java.util.List;
 import org.apache.iotdb.db.engine.cache.ChunkMetadataCache;
-import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.DeletionIndex;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.metadata.PartialPath;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -79,11 +79,11 @@ public class DiskChunkMetadataLoader implements IChunkMetadataLoader {
 
   public static void setDiskChunkLoader(List<ChunkMetadata> chunkMetadataList,
       TsFileResource resource, PartialPath seriesPath, QueryContext context) {
-    List<Modification> pathModifications =
-        context.getPathModifications(resource.getModFile(), seriesPath);
+    DeletionIndex deletionIndex =
+        context.getPathDeletionIndex(resource.getModFile(), seriesPath);
 
-    if (!pathModifications.isEmpty()) {
-      QueryUtils.modifyChunkMetaData(chunkMetadataList, pathModifications);
+    if (!deletionIndex.isEmpty()) {
+      QueryUtils.modifyChunkMetaData(chunkMetadataList, deletionIndex);
     }
 
     for (ChunkMetadata data : chunkMetadataList) {
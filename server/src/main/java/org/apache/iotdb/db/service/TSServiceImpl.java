@@ -59,6 +59,7 @@ import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.exception.metadata.StorageGroupNotSetException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.exception.runtime.SQLParserException;
+import org.apache.iotdb.db.metadata.DeviceSchemaHandle;
 import org.apache.iotdb.db.metadata.PartialPath;
 import org.apache.iotdb.db.metrics.server.SqlArgument;
 import org.apache.iotdb.db.qp.Planner;
@@ -169,6 +170,9 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
   // Record the username for every rpc connection (session).
   private Map<Long, String> sessionIdUsernameMap = new ConcurrentHashMap<>();
   private Map<Long, ZoneId> sessionIdZoneIdMap = new ConcurrentHashMap<>();
+  // (sessionId -> (device -> handle)), keeps the devices resolved by a session between inserts
+  private Map<Long, Map<String, DeviceSchemaHandle>> sessionIdDeviceHandleMap =
+      new ConcurrentHashMap<>();
 
   // The sessionId is unique in one IoTDB instance.
   private AtomicLong sessionIdGenerator = new AtomicLong();
@@ -283,6 +287,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
 
     sessionIdZoneIdMap.remove(sessionId);
+    sessionIdDeviceHandleMap.remove(sessionId);
     List<Exception> exceptions = new ArrayList<>();
     Set<Long> statementIds = sessionId2StatementId.getOrDefault(sessionId, Collections.emptySet());
     for (long statementId : statementIds) {
@@ -1168,6 +1173,26 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     return sessionIdUsernameMap.get(sessionId) != null;
   }
 
+  /**
+   * Get the handle of a device for the inserts of a session, the device path is only parsed on
+   * the first insert of the device in the session.
+   */
+  private DeviceSchemaHandle getDeviceSchemaHandle(long sessionId, String deviceId)
+      throws IllegalPathException {
+    Map<String, DeviceSchemaHandle> handles = sessionIdDeviceHandleMap
+        .computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>());
+    DeviceSchemaHandle handle = handles.get(deviceId);
+    if (handle == null) {
+      // a session writing to too many devices would gain nothing from keeping all of them
+      if (handles.size() >= config.getmManagerCacheSize()) {
+        handles.clear();
+      }
+      handle = new DeviceSchemaHandle(new PartialPath(deviceId));
+      handles.put(deviceId, handle);
+    }
+    return handle;
+  }
+
   private boolean checkAuthorization(List<PartialPath> paths, PhysicalPlan plan, String username)
       throws AuthException {
     String targetUser = null;
@@ -1255,7 +1280,8 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     for (int i = 0; i < req.deviceIds.size(); i++) {
       try {
         InsertRowPlan plan = new InsertRowPlan();
-        plan.setDeviceId(new PartialPath(req.getDeviceIds().get(i)));
+        plan.setDeviceSchemaHandle(
+            getDeviceSchemaHandle(req.getSessionId(), req.getDeviceIds().get(i)));
         plan.setTime(req.getTimestamps().get(i));
         plan.setMeasurements(req.getMeasurementsList().get(i).toArray(new String[0]));
         plan.setDataTypes(new TSDataType[plan.getMeasurements().length]);
@@ -1305,7 +1331,8 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     boolean isAllSuccessful = true;
     for (int i = 0; i < req.deviceIds.size(); i++) {
       try {
-        plan.setDeviceId(new PartialPath(req.getDeviceIds().get(i)));
+        plan.setDeviceSchemaHandle(
+            getDeviceSchemaHandle(req.getSessionId(), req.getDeviceIds().get(i)));
         plan.setTime(req.getTimestamps().get(i));
         plan.setMeasurements(req.getMeasurementsList().get(i).toArray(new String[0]));
         plan.setDataTypes(new TSDataType[plan.getMeasurements().length]);
@@ -1386,7 +1413,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       }
 
       InsertRowPlan plan = new InsertRowPlan();
-      plan.setDeviceId(new PartialPath(req.getDeviceId()));
+      plan.setDeviceSchemaHandle(getDeviceSchemaHandle(req.getSessionId(), req.getDeviceId()));
       plan.setTime(req.getTimestamp());
       plan.setMeasurements(req.getMeasurements().toArray(new String[0]));
       plan.setDataTypes(new TSDataType[plan.getMeasurements().length]);
@@ -1420,7 +1447,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       }
 
       InsertRowPlan plan = new InsertRowPlan();
-      plan.setDeviceId(new PartialPath(req.getDeviceId()));
+      plan.setDeviceSchemaHandle(getDeviceSchemaHandle(req.getSessionId(), req.getDeviceId()));
       plan.setTime(req.getTimestamp());
       plan.setMeasurements(req.getMeasurements().toArray(new String[0]));
       plan.setDataTypes(new TSDataType[plan.getMeasurements().length]);
@@ -1481,8 +1508,10 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
         return RpcUtils.getStatus(TSStatusCode.NOT_LOGIN_ERROR);
       }
 
-      InsertTabletPlan insertTabletPlan = new InsertTabletPlan(new PartialPath(req.deviceId),
+      DeviceSchemaHandle handle = getDeviceSchemaHandle(req.getSessionId(), req.deviceId);
+      InsertTabletPlan insertTabletPlan = new InsertTabletPlan(handle.getDeviceId(),
           req.measurements);
+      insertTabletPlan.setDeviceSchemaHandle(handle);
       insertTabletPlan.setTimes(QueryDataSetUtils.readTimesFromBuffer(req.timestamps, req.size));
       insertTabletPlan.setColumns(
           QueryDataSetUtils.readValuesFromBuffer(
@@ -1545,9 +1574,10 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     List<TSStatus> statusList = new ArrayList<>();
 
     for (int i = 0; i < req.deviceIds.size(); i++) {
-      InsertTabletPlan insertTabletPlan = new InsertTabletPlan(
-          new PartialPath(req.deviceIds.get(i)),
+      DeviceSchemaHandle handle = getDeviceSchemaHandle(req.getSessionId(), req.deviceIds.get(i));
+      InsertTabletPlan insertTabletPlan = new InsertTabletPlan(handle.getDeviceId(),
           req.measurementsList.get(i));
+      insertTabletPlan.setDeviceSchemaHandle(handle);
       insertTabletPlan.setTimes(
           QueryDataSetUtils.readTimesFromBuffer(req.timestampsList.get(i), req.sizeList.get(i)));
       insertTabletPlan.setColumns(
@@ -19,7 +19,12 @@
 
 package org.apache.iotdb.db.utils;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -44,6 +49,8 @@ public class MergeUtils {
 
   private static final Logger logger = LoggerFactory.getLogger(MergeUtils.class);
 
+  public static final String METADATA_BACKUP_SUFFIX = ".metadata";
+
   private MergeUtils() {
     // util class
   }
@@ -254,6 +261,79 @@ public class MergeUtils {
     return ret;
   }
 
+  /**
+   * Save the metadata of a complete TsFile, which starts at metadataOffset, before the file is
+   * truncated there to append merged chunks, so that the file gets the metadata back if the merge
+   * fails or crashes. Rebuilding the metadata from the chunks instead would bring back the chunks
+   * replaced by earlier merges, which are still in the file.
+   */
+  public static void backupMetadata(File tsFile, long metadataOffset) throws IOException {
+    try (FileChannel source = FileChannel.open(tsFile.toPath(), StandardOpenOption.READ);
+        FileChannel backup = FileChannel.open(getMetadataBackupFile(tsFile).toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer offsetBuffer = ByteBuffer.allocate(Long.BYTES);
+      offsetBuffer.putLong(metadataOffset);
+      offsetBuffer.flip();
+      while (offsetBuffer.hasRemaining()) {
+        backup.write(offsetBuffer);
+      }
+      transferFully(source, metadataOffset, source.size() - metadataOffset, backup);
+      backup.force(true);
+    }
+  }
+
+  /**
+   * Truncate the TsFile to the offset of its saved metadata and append the metadata if the file
+   * is not complete, i.e., a merge has truncated it but not finished appending.
+   *
+   * @return true if the metadata is restored
+   */
+  public static boolean restoreTruncatedMetadata(File tsFile) throws IOException {
+    File backupFile = getMetadataBackupFile(tsFile);
+    if (!backupFile.exists()) {
+      return false;
+    }
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsFile.getPath(), false)) {
+      if (reader.isComplete()) {
+        return false;
+      }
+    }
+    try (FileChannel backup = FileChannel.open(backupFile.toPath(), StandardOpenOption.READ);
+        FileChannel target = FileChannel.open(tsFile.toPath(), StandardOpenOption.WRITE)) {
+      ByteBuffer offsetBuffer = ByteBuffer.allocate(Long.BYTES);
+      while (offsetBuffer.hasRemaining()) {
+        if (backup.read(offsetBuffer) < 0) {
+          throw new IOException("Incomplete metadata backup " + backupFile);
+        }
+      }
+      offsetBuffer.flip();
+      long metadataOffset = offsetBuffer.getLong();
+      target.truncate(metadataOffset);
+      target.position(metadataOffset);
+      transferFully(backup, Long.BYTES, backup.size() - Long.BYTES, target);
+      target.force(true);
+    }
+    logger.info("The metadata of {} is restored after an unfinished merge", tsFile);
+    return true;
+  }
+
+  public static void removeMetadataBackup(File tsFile) throws IOException {
+    Files.deleteIfExists(getMetadataBackupFile(tsFile).toPath());
+  }
+
+  private static File getMetadataBackupFile(File tsFile) {
+    return new File(tsFile.getPath() + METADATA_BACKUP_SUFFIX);
+  }
+
+  private static void transferFully(FileChannel source, long position, long count,
+      FileChannel target) throws IOException {
+    long transferred = 0;
+    while (transferred < count) {
+      transferred += source.transferTo(position + transferred, count - transferred, target);
+    }
+  }
+
   public static class MetaListEntry implements Comparable<MetaListEntry> {
 
     private int pathId;
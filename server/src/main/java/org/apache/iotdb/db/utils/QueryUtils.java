@@ -20,13 +20,12 @@
 package org.apache.iotdb.db.utils;
 
 import java.util.List;
-import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.DeletionIndex;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.filter.TsFileFilter;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
-import org.apache.iotdb.tsfile.read.common.TimeRange;
 
 public class QueryUtils {
 
@@ -42,40 +41,23 @@ public class QueryUtils {
    * @param chunkMetaData the original chunkMetaData.
    * @param modifications all possible modifications.
    */
-  @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   public static void modifyChunkMetaData(List<ChunkMetadata> chunkMetaData,
       List<Modification> modifications) {
-    int modIndex = 0;
-    for (int metaIndex = 0; metaIndex < chunkMetaData.size(); metaIndex++) {
-      ChunkMetadata metaData = chunkMetaData.get(metaIndex);
-      for (Modification modification : modifications) {
-        if (modification.getVersionNum() > metaData.getVersion()) {
-          doModifyChunkMetaData(modification, metaData);
-        }
-      }
-    }
-    // remove chunks that are completely deleted
-    chunkMetaData.removeIf(metaData -> {
-      if (metaData.getDeleteIntervalList() != null) {
-        for (TimeRange range : metaData.getDeleteIntervalList()) {
-          if (range.contains(metaData.getStartTime(), metaData.getEndTime())) {
-            return true;
-          } else {
-            if (range.overlaps(new TimeRange(metaData.getStartTime(), metaData.getEndTime()))) {
-              metaData.setModified(true);
-            }
-            return false;
-          }
-        }
-      }
-      return false;
-    });
+    modifyChunkMetaData(chunkMetaData, new DeletionIndex(modifications));
   }
 
-  private static void doModifyChunkMetaData(Modification modification, ChunkMetadata metaData) {
-    if (modification instanceof Deletion) {
-      Deletion deletion = (Deletion) modification;
-      metaData.insertIntoSortedDeletions(deletion.getStartTime(), deletion.getEndTime());
+  /**
+   * modifyChunkMetaData applies the modifications in the DeletionIndex on each chunkMetaData and
+   * removes the chunks that are completely deleted. <br/> the caller should guarantee that
+   * chunkMetaData and modifications refer to the same time series paths.
+   *
+   * @param chunkMetaData the original chunkMetaData.
+   * @param deletionIndex the modifications of the time series.
+   */
+  public static void modifyChunkMetaData(List<ChunkMetadata> chunkMetaData,
+      DeletionIndex deletionIndex) {
+    if (!deletionIndex.isEmpty()) {
+      chunkMetaData.removeIf(deletionIndex::apply);
     }
   }
 
@@ -66,6 +66,8 @@ public class SchemaUtils {
     intSet.add(TSEncoding.TS_2DIFF);
     intSet.add(TSEncoding.REGULAR);
     intSet.add(TSEncoding.GORILLA);
+    intSet.add(TSEncoding.CHIMP);
+    intSet.add(TSEncoding.BLOCK_DELTA);
     schemaChecker.put(TSDataType.INT32, intSet);
     schemaChecker.put(TSDataType.INT64, intSet);
 
@@ -75,11 +77,14 @@ public class SchemaUtils {
     floatSet.add(TSEncoding.TS_2DIFF);
     floatSet.add(TSEncoding.GORILLA_V1);
     floatSet.add(TSEncoding.GORILLA);
+    floatSet.add(TSEncoding.CHIMP);
+    floatSet.add(TSEncoding.ELF);
     schemaChecker.put(TSDataType.FLOAT, floatSet);
     schemaChecker.put(TSDataType.DOUBLE, floatSet);
 
     Set<TSEncoding> textSet = new HashSet<>();
     textSet.add(TSEncoding.PLAIN);
+    textSet.add(TSEncoding.PLAIN_DICTIONARY);
     schemaChecker.put(TSDataType.TEXT, textSet);
   }
 
@@ -208,6 +213,8 @@ public class SchemaUtils {
         return null;
       case SQLConstant.AVG:
       case SQLConstant.SUM:
+      case SQLConstant.VARIANCE:
+      case SQLConstant.STDDEV:
         return TSDataType.DOUBLE;
       default:
         throw new MetadataException(
@@ -35,6 +35,7 @@ import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.engine.version.VersionController;
 import org.apache.iotdb.db.exception.StorageGroupProcessorException;
 import org.apache.iotdb.db.utils.FileLoaderUtils;
+import org.apache.iotdb.db.utils.MergeUtils;
 import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
 import org.apache.iotdb.tsfile.exception.NotCompatibleTsFileException;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
@@ -93,6 +94,9 @@ public class TsFileRecoverPerformer {
     // remove corrupted part of the TsFile
     RestorableTsFileIOWriter restorableTsFileIOWriter;
     try {
+      // a file truncated by an unfinished merge gets back the metadata saved by the merge, as the
+      // metadata rebuilt from its chunks would bring back the chunks replaced by earlier merges
+      MergeUtils.restoreTruncatedMetadata(file);
       restorableTsFileIOWriter = new RestorableTsFileIOWriter(file);
     } catch (NotCompatibleTsFileException e) {
       boolean result = file.delete();
@@ -215,6 +219,7 @@ public class TsFileRecoverPerformer {
       }
 
       restorableTsFileIOWriter.endFile();
+      tsFileResource.buildIndex(restorableTsFileIOWriter.getChunkGroupMetadataList());
       tsFileResource.serialize();
 
       // otherwise this file is not closed before crush, do nothing so we can continue writing
@@ -73,6 +73,14 @@ public class TestConstant {
         return String.format("avg(%s)", path);
     }
 
+    public static String variance(String path) {
+        return String.format("variance(%s)", path);
+    }
+
+    public static String stddev(String path) {
+        return String.format("stddev(%s)", path);
+    }
+
     public static String count(String path) {
         return String.format("count(%s)", path);
     }
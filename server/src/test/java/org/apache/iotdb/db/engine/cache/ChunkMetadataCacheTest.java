@@ -63,11 +63,15 @@ public class ChunkMetadataCacheTest {
       .concat(File.separator).concat("info");
 
   private int prevUnseqLevelNum = 0;
+  private boolean prevEnableResourceIndex;
 
   @Before
   public void setUp() throws Exception {
     prevUnseqLevelNum = IoTDBDescriptor.getInstance().getConfig().getUnseqLevelNum();
     IoTDBDescriptor.getInstance().getConfig().setUnseqLevelNum(2);
+    // the files are read for the series not in them, which are skipped by the resource index
+    prevEnableResourceIndex = IoTDBDescriptor.getInstance().getConfig().isEnableResourceIndex();
+    IoTDBDescriptor.getInstance().getConfig().setEnableResourceIndex(false);
     EnvironmentUtils.envSetUp();
     MetadataManagerHelper.initMetadata();
     storageGroupProcessor = new StorageGroupProcessor(systemDir, storageGroup,
@@ -82,6 +86,7 @@ public class ChunkMetadataCacheTest {
     EnvironmentUtils.cleanEnv();
     EnvironmentUtils.cleanDir(systemDir);
     IoTDBDescriptor.getInstance().getConfig().setUnseqLevelNum(prevUnseqLevelNum);
+    IoTDBDescriptor.getInstance().getConfig().setEnableResourceIndex(prevEnableResourceIndex);
   }
 
   private void insertOneRecord(long time, int num)
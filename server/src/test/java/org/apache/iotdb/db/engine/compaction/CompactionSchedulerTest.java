@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.compaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.compaction.TsFileManagement.CompactionMergeTask;
+import org.apache.iotdb.db.engine.compaction.no.NoCompactionTsFileManagement;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.metadata.IllegalPathException;
+import org.apache.iotdb.db.metadata.PartialPath;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactionSchedulerTest {
+
+  private static final String STORAGE_GROUP = "root.compactionScheduler";
+
+  private final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private final CompactionScheduler scheduler = CompactionScheduler.getInstance();
+  private int prevThroughput;
+  private long prevLatencyTarget;
+
+  @Before
+  public void setUp() {
+    prevThroughput = config.getMergeWriteThroughputMbPerSec();
+    prevLatencyTarget = config.getMergeIngestLatencyTargetMs();
+    config.setMergeWriteThroughputMbPerSec(16);
+    config.setMergeIngestLatencyTargetMs(10);
+    // drop the latencies recorded before and recover the throughput
+    for (int i = 0; i < 10; i++) {
+      scheduler.adjust();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    config.setMergeWriteThroughputMbPerSec(prevThroughput);
+    config.setMergeIngestLatencyTargetMs(prevLatencyTarget);
+    scheduler.removeStorageGroup(STORAGE_GROUP);
+    scheduler.adjust();
+  }
+
+  @Test
+  public void testReadAmplification() throws IllegalPathException {
+    // 3 files of partition 0 and 1 file of partition 1
+    List<TsFileResource> seqResources = new ArrayList<>();
+    seqResources.add(newResource(0, 1));
+    seqResources.add(newResource(0, 2));
+    seqResources.add(newResource(1, 3));
+    List<TsFileResource> unseqResources = Collections.singletonList(newResource(0, 4));
+    QueryDataSource dataSource = new QueryDataSource(new PartialPath(STORAGE_GROUP + ".d1"),
+        seqResources, unseqResources);
+    for (int i = 0; i < 10; i++) {
+      scheduler.recordQuery(STORAGE_GROUP, dataSource);
+    }
+    // a query reads 2 more files than the best in partition 0
+    assertEquals(20, scheduler.getReadAmplification(STORAGE_GROUP, 0), 0.0);
+    assertEquals(0, scheduler.getReadAmplification(STORAGE_GROUP, 1), 0.0);
+
+    // decays without queries
+    scheduler.adjust();
+    scheduler.adjust();
+    double readAmplification = scheduler.getReadAmplification(STORAGE_GROUP, 0);
+    assertTrue(readAmplification < 20 && readAmplification > 0);
+
+    // the compaction of the partition read more runs first
+    TsFileManagement tsFileManagement = new NoCompactionTsFileManagement(STORAGE_GROUP,
+        TestConstant.BASE_OUTPUT_PATH);
+    CompactionMergeTask coldTask = tsFileManagement.new CompactionMergeTask(
+        () -> {
+        }, 1);
+    CompactionMergeTask hotTask = tsFileManagement.new CompactionMergeTask(
+        () -> {
+        }, 0);
+    assertTrue(hotTask.compareTo(coldTask) < 0);
+  }
+
+  @Test
+  public void testAdjustThroughput() {
+    assertEquals(16, scheduler.getMergeWriteThroughputMbPerSec(), 0.0);
+
+    // insertions slower than the target halve the throughput, but not below 1/16
+    for (int i = 0; i < 6; i++) {
+      recordInsertLatencies(100_000_000L);
+      scheduler.adjust();
+    }
+    assertEquals(1, scheduler.getMergeWriteThroughputMbPerSec(), 0.0);
+
+    // a few slow insertions do not affect the p99 latency, the throughput increases step by step
+    for (int i = 0; i < 5; i++) {
+      recordInsertLatencies(1_000_000L);
+      scheduler.recordInsertLatency(100_000_000L);
+      scheduler.adjust();
+    }
+    assertEquals(9, scheduler.getMergeWriteThroughputMbPerSec(), 1e-6);
+    for (int i = 0; i < 10; i++) {
+      scheduler.adjust();
+    }
+    assertEquals(16, scheduler.getMergeWriteThroughputMbPerSec(), 0.0);
+
+    // the configured throughput is used as it is when not adaptive
+    config.setMergeIngestLatencyTargetMs(0);
+    recordInsertLatencies(100_000_000L);
+    scheduler.adjust();
+    assertEquals(16, scheduler.getMergeWriteThroughputMbPerSec(), 0.0);
+  }
+
+  private void recordInsertLatencies(long latencyNanos) {
+    for (int i = 0; i < 200; i++) {
+      scheduler.recordInsertLatency(latencyNanos);
+    }
+  }
+
+  private TsFileResource newResource(long timePartition, long version) {
+    return new TsFileResource(new File(TestConstant.BASE_OUTPUT_PATH.concat(
+        STORAGE_GROUP + File.separator + timePartition + File.separator + version + "-" + version
+            + "-0.tsfile")));
+  }
+}
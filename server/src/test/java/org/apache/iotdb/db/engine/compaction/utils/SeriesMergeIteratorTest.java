@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.compaction.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.compaction.utils.SeriesMergeIterator.Page;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class SeriesMergeIteratorTest {
+
+  private static final String DEVICE = "root.sg.d1";
+  private static final String MEASUREMENT = "s1";
+
+  private final File oldFile = new File(TestConstant.BASE_OUTPUT_PATH.concat("merge-old.tsfile"));
+  private final File newFile = new File(TestConstant.BASE_OUTPUT_PATH.concat("merge-new.tsfile"));
+  private int prevPointNumberInPage;
+
+  @Before
+  public void setUp() throws IOException, WriteProcessException {
+    // several pages in a chunk
+    prevPointNumberInPage = TSFileDescriptor.getInstance().getConfig()
+        .getMaxNumberOfPointsInPage();
+    TSFileDescriptor.getInstance().getConfig().setMaxNumberOfPointsInPage(10);
+    writeFile(oldFile, 1, 100, 1, 1);
+    writeFile(newFile, 50, 150, 2, -1);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    TSFileDescriptor.getInstance().getConfig().setMaxNumberOfPointsInPage(prevPointNumberInPage);
+    Files.deleteIfExists(oldFile.toPath());
+    Files.deleteIfExists(newFile.toPath());
+  }
+
+  @Test
+  public void testMergeOverlappedChunks() throws IOException {
+    try (TsFileSequenceReader oldReader = new TsFileSequenceReader(oldFile.getPath());
+        TsFileSequenceReader newReader = new TsFileSequenceReader(newFile.getPath())) {
+      SeriesMergeIterator iterator = new SeriesMergeIterator(getChunkMetadata(oldReader,
+          newReader));
+      assertEquals(2, iterator.getMaxVersion());
+      IChunkWriter chunkWriter = mock(IChunkWriter.class);
+      when(chunkWriter.getDataType()).thenReturn(TSDataType.INT64);
+      long lastTime = Long.MIN_VALUE;
+      int pointNum = 0;
+      while (iterator.hasNext()) {
+        long time = iterator.writeNextPoint(chunkWriter);
+        assertTrue(time > lastTime);
+        lastTime = time;
+        pointNum++;
+      }
+      assertFalse(iterator.hasNext());
+      // 1 ~ 100 from the old file and the even timestamps in 102 ~ 150 from the new file
+      assertEquals(125, pointNum);
+
+      ArgumentCaptor<Long> timeCaptor = ArgumentCaptor.forClass(Long.class);
+      ArgumentCaptor<Long> valueCaptor = ArgumentCaptor.forClass(Long.class);
+      verify(chunkWriter, times(125)).write(timeCaptor.capture(), valueCaptor.capture());
+      for (int i = 0; i < pointNum; i++) {
+        long time = timeCaptor.getAllValues().get(i);
+        long expected = time >= 50 && time % 2 == 0 ? -time : time;
+        assertEquals(expected, valueCaptor.getAllValues().get(i).longValue());
+      }
+    }
+  }
+
+  @Test
+  public void testCopyUnoverlappedPages() throws IOException {
+    try (TsFileSequenceReader oldReader = new TsFileSequenceReader(oldFile.getPath());
+        TsFileSequenceReader newReader = new TsFileSequenceReader(newFile.getPath())) {
+      SeriesMergeIterator iterator = new SeriesMergeIterator(getChunkMetadata(oldReader,
+          newReader));
+      IChunkWriter chunkWriter = mock(IChunkWriter.class);
+      when(chunkWriter.getDataType()).thenReturn(TSDataType.INT64);
+      long lastTime = Long.MIN_VALUE;
+      long copiedPointNum = 0;
+      int writtenPointNum = 0;
+      while (iterator.hasNext()) {
+        Page page = iterator.pollUnoverlappedPage(p -> true);
+        if (page != null) {
+          PageHeader pageHeader = page.getPageHeader();
+          // the pages of both files overlap in 50 ~ 100
+          assertTrue(pageHeader.getEndTime() < 50 || pageHeader.getStartTime() > 100);
+          assertTrue(pageHeader.getStartTime() > lastTime);
+          assertEquals(pageHeader.getCompressedSize(), page.getCompressedPageData().remaining());
+          lastTime = pageHeader.getEndTime();
+          copiedPointNum += pageHeader.getNumOfValues();
+        } else {
+          long time = iterator.writeNextPoint(chunkWriter);
+          assertTrue(time > lastTime);
+          lastTime = time;
+          writtenPointNum++;
+        }
+      }
+      assertTrue(copiedPointNum > 0);
+      assertEquals(125, copiedPointNum + writtenPointNum);
+    }
+  }
+
+  @Test
+  public void testSkipDeletedPages() throws IOException {
+    try (TsFileSequenceReader oldReader = new TsFileSequenceReader(oldFile.getPath());
+        TsFileSequenceReader newReader = new TsFileSequenceReader(newFile.getPath())) {
+      Map<TsFileSequenceReader, List<ChunkMetadata>> readerChunkMetadataMap = getChunkMetadata(
+          oldReader, newReader);
+      // 1 ~ 20 deletes whole pages of the old file, 25 and 140 ~ 150 delete points in pages
+      for (ChunkMetadata chunkMetadata : readerChunkMetadataMap.get(oldReader)) {
+        chunkMetadata.insertIntoSortedDeletions(1, 20);
+        chunkMetadata.insertIntoSortedDeletions(25, 25);
+      }
+      for (ChunkMetadata chunkMetadata : readerChunkMetadataMap.get(newReader)) {
+        chunkMetadata.insertIntoSortedDeletions(140, 150);
+      }
+      SeriesMergeIterator iterator = new SeriesMergeIterator(readerChunkMetadataMap);
+      IChunkWriter chunkWriter = mock(IChunkWriter.class);
+      when(chunkWriter.getDataType()).thenReturn(TSDataType.INT64);
+      long lastTime = Long.MIN_VALUE;
+      long copiedPointNum = 0;
+      int writtenPointNum = 0;
+      while (iterator.hasNext()) {
+        Page page = iterator.pollUnoverlappedPage(p -> true);
+        if (page != null) {
+          PageHeader pageHeader = page.getPageHeader();
+          // the pages with deleted points are never copied
+          assertTrue(pageHeader.getStartTime() > 25);
+          assertTrue(pageHeader.getEndTime() < 140);
+          lastTime = pageHeader.getEndTime();
+          copiedPointNum += pageHeader.getNumOfValues();
+        } else {
+          long time = iterator.writeNextPoint(chunkWriter);
+          assertTrue(time > lastTime);
+          assertTrue(time > 20 && time != 25 && time < 140);
+          lastTime = time;
+          writtenPointNum++;
+        }
+      }
+      assertTrue(copiedPointNum > 0);
+      // 21 points of the old file and 6 points of the new file are deleted
+      assertEquals(98, copiedPointNum + writtenPointNum);
+    }
+  }
+
+  private Map<TsFileSequenceReader, List<ChunkMetadata>> getChunkMetadata(
+      TsFileSequenceReader oldReader, TsFileSequenceReader newReader) throws IOException {
+    Map<TsFileSequenceReader, List<ChunkMetadata>> readerChunkMetadataMap = new LinkedHashMap<>();
+    // the chunks of the newer file are listed first, the version decides the kept points
+    List<ChunkMetadata> newChunks = newReader.getChunkMetadataList(new Path(DEVICE, MEASUREMENT));
+    newChunks.forEach(chunkMetadata -> chunkMetadata.setVersion(2));
+    readerChunkMetadataMap.put(newReader, newChunks);
+    List<ChunkMetadata> oldChunks = oldReader.getChunkMetadataList(new Path(DEVICE, MEASUREMENT));
+    oldChunks.forEach(chunkMetadata -> chunkMetadata.setVersion(1));
+    readerChunkMetadataMap.put(oldReader, oldChunks);
+    return readerChunkMetadataMap;
+  }
+
+  private void writeFile(File file, long startTime, long endTime, long step, long sign)
+      throws IOException, WriteProcessException {
+    if (!file.getParentFile().exists()) {
+      file.getParentFile().mkdirs();
+    }
+    Files.deleteIfExists(file.toPath());
+    try (TsFileWriter writer = new TsFileWriter(file)) {
+      writer.registerTimeseries(new Path(DEVICE, MEASUREMENT),
+          new MeasurementSchema(MEASUREMENT, TSDataType.INT64, TSEncoding.RLE));
+      for (long time = startTime; time <= endTime; time += step) {
+        TSRecord record = new TSRecord(time, DEVICE);
+        record.addTuple(new LongDataPoint(MEASUREMENT, sign * time));
+        writer.write(record);
+        if (time % 30 == 0) {
+          // several chunks in a file
+          writer.flushAllChunkGroups();
+        }
+      }
+    }
+  }
+}
@@ -19,16 +19,37 @@
 package org.apache.iotdb.db.engine.memtable;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.ExecutionException;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
 import org.apache.iotdb.db.engine.flush.MemTableFlushTask;
+import org.apache.iotdb.db.exception.metadata.IllegalPathException;
+import org.apache.iotdb.db.metadata.PartialPath;
+import org.apache.iotdb.db.metadata.mnode.MeasurementMNode;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.read.ReadOnlyTsFile;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.expression.QueryExpression;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.junit.After;
 import org.junit.Before;
@@ -82,4 +103,73 @@ public class MemTableFlushTaskTest {
     assertEquals(MemTableTestUtils.dataType0, chunkMetaData.getDataType());
     assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
   }
+
+  @Test
+  public void testFlushAlignedTablet()
+      throws ExecutionException, InterruptedException, IOException, IllegalPathException {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    boolean prevEnableAligned = config.isEnableAlignedTabletStorage();
+    config.setEnableAlignedTabletStorage(true);
+    String deviceId = "root.vehicle.d0";
+    try {
+      MeasurementSchema[] schemas = new MeasurementSchema[]{
+          new MeasurementSchema("s0", TSDataType.INT32, TSEncoding.RLE),
+          new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.PLAIN)};
+      InsertTabletPlan insertTabletPlan = new InsertTabletPlan(new PartialPath(deviceId),
+          new String[]{"s0", "s1"},
+          Arrays.asList(TSDataType.INT32.ordinal(), TSDataType.INT64.ordinal()));
+      insertTabletPlan.setMeasurementMNodes(new MeasurementMNode[]{
+          new MeasurementMNode(null, "s0", schemas[0], null),
+          new MeasurementMNode(null, "s1", schemas[1], null)});
+      long[] times = new long[100];
+      int[] s0Values = new int[100];
+      long[] s1Values = new long[100];
+      for (int r = 0; r < 100; r++) {
+        times[r] = r;
+        s0Values[r] = r;
+        s1Values[r] = r;
+      }
+      insertTabletPlan.setTimes(times);
+      insertTabletPlan.setColumns(new Object[]{s0Values, s1Values});
+      insertTabletPlan.setRowCount(times.length);
+      memTable.write(insertTabletPlan, 0, times.length);
+      // a point overwriting the tablet and a point of only s0
+      memTable.write(deviceId, "s0", schemas[0], 50, -50);
+      memTable.write(deviceId, "s0", schemas[0], 200, 200);
+      assertTrue(memTable.isAlignedDevice(deviceId));
+      assertFalse(memTable.isAlignedDevice(MemTableTestUtils.deviceId0));
+
+      new MemTableFlushTask(memTable, writer, storageGroup).syncFlushMemTable();
+      writer.endFile();
+    } finally {
+      config.setEnableAlignedTabletStorage(prevEnableAligned);
+    }
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(filePath);
+        ReadOnlyTsFile readTsFile = new ReadOnlyTsFile(reader)) {
+      ChunkMetadata s0Metadata = reader.getChunkMetadataList(new Path(deviceId, "s0")).get(0);
+      ChunkMetadata s1Metadata = reader.getChunkMetadataList(new Path(deviceId, "s1")).get(0);
+      assertEquals(101, s0Metadata.getNumOfPoints());
+      assertEquals(100, s1Metadata.getNumOfPoints());
+      Chunk s0Chunk = reader.readMemChunk(s0Metadata);
+      assertNotNull(s0Chunk.getTimeChunk());
+      assertSame(s0Chunk.getTimeChunk(), reader.readMemChunk(s1Metadata).getTimeChunk());
+
+      QueryDataSet dataSet = readTsFile.query(QueryExpression.create(
+          Arrays.asList(new Path(deviceId, "s0"), new Path(deviceId, "s1")), null));
+      int count = 0;
+      while (dataSet.hasNext()) {
+        RowRecord record = dataSet.next();
+        long time = record.getTimestamp();
+        assertEquals(time == 50 ? -50 : time, record.getFields().get(0).getIntV());
+        if (time == 200) {
+          assertNull(record.getFields().get(1));
+        } else {
+          assertEquals(time, record.getFields().get(1).getLongV());
+        }
+        count++;
+      }
+      assertEquals(101, count);
+    }
+  }
 }
\ No newline at end of file
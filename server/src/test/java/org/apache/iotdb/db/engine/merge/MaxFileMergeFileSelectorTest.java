@@ -23,6 +23,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
 import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
 import org.apache.iotdb.db.engine.merge.selector.MaxFileMergeFileSelector;
 import org.apache.iotdb.db.engine.merge.selector.IMergeFileSelector;
@@ -82,4 +83,22 @@ public class MaxFileMergeFileSelectorTest extends MergeTest {
     assertEquals(unseqResources.subList(0, 3), unseqSelected);
     resource.clear();
   }
+
+  @Test
+  public void testSpillSelection() throws MergeException, IOException {
+    IoTDBDescriptor.getInstance().getConfig().setEnableMergeMemorySpill(true);
+    try {
+      // only the metadata of the new files is estimated
+      MergeResource resource = new MergeResource(seqResources, unseqResources);
+      IMergeFileSelector mergeFileSelector = new MaxFileMergeFileSelector(resource, 400000);
+      List[] result = mergeFileSelector.select();
+      List<TsFileResource> seqSelected = result[0];
+      List<TsFileResource> unseqSelected = result[1];
+      assertEquals(seqResources, seqSelected);
+      assertEquals(unseqResources, unseqSelected);
+      resource.clear();
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnableMergeMemorySpill(false);
+    }
+  }
 }
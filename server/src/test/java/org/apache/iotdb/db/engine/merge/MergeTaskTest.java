@@ -20,27 +20,40 @@
 package org.apache.iotdb.db.engine.merge;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
 import org.apache.iotdb.db.engine.merge.task.MergeTask;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.engine.version.SimpleFileVersionController;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.metadata.PartialPath;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.reader.series.SeriesRawDataBatchReader;
+import org.apache.iotdb.db.utils.MergeUtils;
+import org.apache.iotdb.db.writelog.recover.TsFileRecoverPerformer;
 import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.reader.IBatchReader;
+import org.apache.iotdb.tsfile.write.writer.ForceAppendTsFileWriter;
+import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -85,6 +98,49 @@ public class MergeTaskTest extends MergeTest {
     tsFilesReader.close();
   }
 
+  @Test
+  public void testMergeWithMemorySpill() throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    long prevMergeMemoryBudget = config.getMergeMemoryBudget();
+    config.setEnableMergeMemorySpill(true);
+    // the unseq chunks of each series take 320B, so the series are merged one by one
+    config.setMergeMemoryBudget(2000);
+    try {
+      MergeTask mergeTask =
+          new MergeTask(new MergeResource(seqResources, unseqResources), tempSGDir.getPath(),
+              (k, v, l) -> {
+              }, "test", false, 10, MERGE_TEST_SG);
+      mergeTask.call();
+    } finally {
+      config.setEnableMergeMemorySpill(false);
+      config.setMergeMemoryBudget(prevMergeMemoryBudget);
+    }
+
+    QueryContext context = new QueryContext();
+    for (MeasurementSchema measurementSchema : measurementSchemas) {
+      PartialPath path = new PartialPath(
+          deviceIds[0] + TsFileConstant.PATH_SEPARATOR + measurementSchema.getMeasurementId());
+      List<TsFileResource> list = new ArrayList<>();
+      list.add(seqResources.get(0));
+      IBatchReader tsFilesReader = new SeriesRawDataBatchReader(path, measurementSchema.getType(),
+          context, list, new ArrayList<>(), null, null, true);
+      int count = 0;
+      while (tsFilesReader.hasNextBatch()) {
+        BatchData batchData = tsFilesReader.nextBatch();
+        for (int i = 0; i < batchData.length(); i++) {
+          assertEquals(batchData.getTimeByIndex(i) + 20000.0, batchData.getDoubleByIndex(i),
+              0.001);
+          count++;
+        }
+      }
+      assertEquals(ptNum, count);
+      tsFilesReader.close();
+    }
+    File[] spillFiles = seqResources.get(0).getTsFile().getParentFile()
+        .listFiles((dir, name) -> name.endsWith(MergeTask.SPILL_SUFFIX));
+    assertEquals(0, spillFiles.length);
+  }
+
   @Test
   public void testFullMerge() throws Exception {
     MergeTask mergeTask =
@@ -256,4 +312,182 @@ public class MergeTaskTest extends MergeTest {
     assertEquals(70, count);
     tsFilesReader.close();
   }
+
+  @Test
+  public void testIncrementalMerge() throws Exception {
+    long[] checksums = new long[seqResources.size()];
+    for (int i = 0; i < seqResources.size(); i++) {
+      checksums[i] = FileUtils.checksumCRC32(seqResources.get(i).getTsFile());
+    }
+    IoTDBDescriptor.getInstance().getConfig().setEnableIncrementalMerge(true);
+    try {
+      MergeTask mergeTask =
+          new MergeTask(new MergeResource(seqResources, unseqResources.subList(0, 1)),
+              tempSGDir.getPath(),
+              (k, v, l) -> {
+              }, "test", false, 1, MERGE_TEST_SG);
+      mergeTask.call();
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnableIncrementalMerge(false);
+    }
+
+    // the files not overlapped by the unseq file are untouched
+    for (int i = 1; i < seqResources.size(); i++) {
+      assertEquals(checksums[i], FileUtils.checksumCRC32(seqResources.get(i).getTsFile()));
+    }
+    // only the first chunk of each series is rewritten and appended to the file
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(
+        seqResources.get(0).getTsFilePath())) {
+      List<ChunkMetadata> chunkMetadataList = reader.getChunkMetadataList(
+          new Path(deviceIds[0], measurementSchemas[0].getMeasurementId()));
+      assertEquals(5, chunkMetadataList.size());
+      for (int i = 0; i < chunkMetadataList.size(); i++) {
+        assertEquals(i * flushInterval, chunkMetadataList.get(i).getStartTime());
+      }
+      assertTrue(chunkMetadataList.get(0).getOffsetOfChunkHeader()
+          > chunkMetadataList.get(4).getOffsetOfChunkHeader());
+    }
+
+    QueryContext context = new QueryContext();
+    PartialPath path = new PartialPath(deviceIds[0] + TsFileConstant.PATH_SEPARATOR + measurementSchemas[0].getMeasurementId());
+    List<TsFileResource> list = new ArrayList<>();
+    list.add(seqResources.get(0));
+    IBatchReader tsFilesReader = new SeriesRawDataBatchReader(path, measurementSchemas[0].getType(), context,
+        list, new ArrayList<>(), null, null, true);
+    int count = 0;
+    while (tsFilesReader.hasNextBatch()) {
+      BatchData batchData = tsFilesReader.nextBatch();
+      for (int i = 0; i < batchData.length(); i++) {
+        if (batchData.getTimeByIndex(i) < 20) {
+          assertEquals(batchData.getTimeByIndex(i) + 10000.0, batchData.getDoubleByIndex(i), 0.001);
+        } else {
+          assertEquals(batchData.getTimeByIndex(i) + 0.0, batchData.getDoubleByIndex(i), 0.001);
+        }
+        count++;
+      }
+    }
+    assertEquals(ptNum, count);
+    tsFilesReader.close();
+  }
+
+  @Test
+  public void testRecoverAfterIncrementalMerges() throws Exception {
+    File file = new File(TestConstant.BASE_OUTPUT_PATH.concat(
+        "9unseq" + IoTDBConstant.FILE_NAME_SEPARATOR + 9 + IoTDBConstant.FILE_NAME_SEPARATOR
+            + 9 + IoTDBConstant.FILE_NAME_SEPARATOR + 0 + ".tsfile"));
+    TsFileResource laterUnseqResource = new TsFileResource(file);
+    laterUnseqResource.setClosed(true);
+    unseqResources.add(laterUnseqResource);
+    prepareFile(laterUnseqResource, 2 * flushInterval, flushInterval, 30000);
+
+    IoTDBDescriptor.getInstance().getConfig().setEnableIncrementalMerge(true);
+    try {
+      new MergeTask(new MergeResource(seqResources, unseqResources.subList(0, 1)),
+          tempSGDir.getPath(), (k, v, l) -> {
+          }, "test", false, 1, MERGE_TEST_SG).call();
+      new MergeTask(new MergeResource(seqResources,
+          Collections.singletonList(laterUnseqResource)), tempSGDir.getPath(), (k, v, l) -> {
+          }, "test", false, 1, MERGE_TEST_SG).call();
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnableIncrementalMerge(false);
+    }
+
+    // each merge appends chunks newer than all the chunks in the file
+    Path series = new Path(deviceIds[0], measurementSchemas[0].getMeasurementId());
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(
+        seqResources.get(0).getTsFilePath())) {
+      List<ChunkMetadata> chunkMetadataList = reader.getChunkMetadataList(series);
+      assertEquals(5, chunkMetadataList.size());
+      assertTrue(chunkMetadataList.get(0).getVersion() > chunkMetadataList.get(1).getVersion());
+      assertTrue(chunkMetadataList.get(2).getVersion() > chunkMetadataList.get(0).getVersion());
+    }
+
+    // a third merge crashes after truncating the file
+    File seqFile = seqResources.get(0).getTsFile();
+    long checksum = FileUtils.checksumCRC32(seqFile);
+    ForceAppendTsFileWriter writer = new ForceAppendTsFileWriter(seqFile);
+    MergeUtils.backupMetadata(seqFile, writer.getTruncatePosition());
+    writer.doTruncate();
+    writer.close();
+
+    RestorableTsFileIOWriter recoverWriter = new TsFileRecoverPerformer(
+        MERGE_TEST_SG + IoTDBConstant.FILE_NAME_SEPARATOR,
+        new SimpleFileVersionController(tempSGDir.getPath()), seqResources.get(0), true, false)
+        .recover(false);
+    recoverWriter.close();
+    assertEquals(checksum, FileUtils.checksumCRC32(seqFile));
+
+    QueryContext context = new QueryContext();
+    PartialPath path = new PartialPath(deviceIds[0] + TsFileConstant.PATH_SEPARATOR
+        + measurementSchemas[0].getMeasurementId());
+    List<TsFileResource> resources = new ArrayList<>();
+    resources.add(seqResources.get(0));
+    IBatchReader tsFilesReader = new SeriesRawDataBatchReader(path,
+        measurementSchemas[0].getType(), context, resources, new ArrayList<>(), null, null, true);
+    int count = 0;
+    while (tsFilesReader.hasNextBatch()) {
+      BatchData batchData = tsFilesReader.nextBatch();
+      for (int i = 0; i < batchData.length(); i++) {
+        long time = batchData.getTimeByIndex(i);
+        if (time < flushInterval) {
+          assertEquals(time + 10000.0, batchData.getDoubleByIndex(i), 0.001);
+        } else if (time >= 2 * flushInterval && time < 3 * flushInterval) {
+          assertEquals(time + 30000.0, batchData.getDoubleByIndex(i), 0.001);
+        } else {
+          assertEquals(time + 0.0, batchData.getDoubleByIndex(i), 0.001);
+        }
+        count++;
+      }
+    }
+    assertEquals(ptNum, count);
+    tsFilesReader.close();
+  }
+
+  @Test
+  public void incrementalMergeWithDeletionTest() throws Exception {
+    try {
+      PartialPath device = new PartialPath(deviceIds[0]);
+      seqResources.get(0).getModFile().write(new Deletion(device.concatNode(measurementSchemas[0].getMeasurementId()), 10000, 0, 49));
+    } finally {
+      seqResources.get(0).getModFile().close();
+    }
+
+    IoTDBDescriptor.getInstance().getConfig().setEnableIncrementalMerge(true);
+    try {
+      MergeTask mergeTask =
+          new MergeTask(new MergeResource(seqResources, unseqResources.subList(0, 1)),
+              tempSGDir.getPath(),
+              (k, v, l) -> {
+                try {
+                  seqResources.get(0).removeModFile();
+                } catch (IOException e) {
+                  e.printStackTrace();
+                }
+              }, "test", false, 1, MERGE_TEST_SG);
+      mergeTask.call();
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnableIncrementalMerge(false);
+    }
+
+    QueryContext context = new QueryContext();
+    PartialPath path = new PartialPath(deviceIds[0] + TsFileConstant.PATH_SEPARATOR + measurementSchemas[0].getMeasurementId());
+    List<TsFileResource> resources = new ArrayList<>();
+    resources.add(seqResources.get(0));
+    IBatchReader tsFilesReader = new SeriesRawDataBatchReader(path, measurementSchemas[0].getType(), context,
+        resources, new ArrayList<>(), null, null, true);
+    int count = 0;
+    while (tsFilesReader.hasNextBatch()) {
+      BatchData batchData = tsFilesReader.nextBatch();
+      for (int i = 0; i < batchData.length(); i++) {
+        if (batchData.getTimeByIndex(i) < 20) {
+          assertEquals(batchData.getTimeByIndex(i) + 10000.0, batchData.getDoubleByIndex(i), 0.001);
+        } else {
+          assertEquals(batchData.getTimeByIndex(i), batchData.getDoubleByIndex(i), 0.001);
+        }
+        count++;
+      }
+    }
+    assertEquals(70, count);
+    tsFilesReader.close();
+  }
 }
@@ -22,6 +22,7 @@ package org.apache.iotdb.db.engine.modification;
 import static org.apache.iotdb.db.utils.EnvironmentUtils.TEST_QUERY_CONTEXT;
 import static org.apache.iotdb.db.utils.EnvironmentUtils.TEST_QUERY_JOB_ID;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -33,10 +34,11 @@ import java.util.List;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.engine.StorageEngine;
-import org.apache.iotdb.db.engine.modification.io.LocalTextModificationAccessor;
+import org.apache.iotdb.db.engine.modification.io.LocalBinaryModificationAccessor;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.metadata.IllegalPathException;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
@@ -189,8 +191,8 @@ public class DeletionFileNodeTest {
 
     assertEquals(1, modFiles.size());
 
-    LocalTextModificationAccessor accessor =
-        new LocalTextModificationAccessor(modFiles.get(0).getPath());
+    LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(modFiles.get(0).getPath());
     try {
       Collection<Modification> modifications = accessor.read();
       assertEquals(3, modifications.size());
@@ -315,8 +317,8 @@ public class DeletionFileNodeTest {
     }
     assertEquals(1, modFiles.size());
 
-    LocalTextModificationAccessor accessor =
-        new LocalTextModificationAccessor(modFiles.get(0).getPath());
+    LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(modFiles.get(0).getPath());
     Collection<Modification> modifications = accessor.read();
     assertEquals(3, modifications.size());
     int i = 0;
@@ -326,4 +328,39 @@ public class DeletionFileNodeTest {
       i++;
     }
   }
+
+  @Test
+  public void testDeleteWholeFile()
+      throws StorageEngineException, IOException, IllegalPathException {
+    for (int i = 1; i <= 200; i++) {
+      TSRecord record = new TSRecord(i, processorName);
+      for (int j = 0; j < 10; j++) {
+        record.addTuple(new DoubleDataPoint(measurements[j], i * 1.0));
+      }
+      StorageEngine.getInstance().insert(new InsertRowPlan(record));
+      if (i % 100 == 0) {
+        StorageEngine.getInstance().syncCloseAllProcessor();
+      }
+    }
+    StorageGroupProcessor processor = StorageEngine.getInstance()
+        .getProcessor(new PartialPath(processorName));
+    List<TsFileResource> seqResources = new ArrayList<>(processor.getSequenceFileTreeSet());
+    assertEquals(2, seqResources.size());
+
+    // a deletion of some series only is written to the mods file
+    StorageEngine.getInstance().delete(new PartialPath(processorName, measurements[5]), 0, 100, -1);
+    assertEquals(2, processor.getSequenceFileTreeSet().size());
+    assertTrue(seqResources.get(0).getModFile().exists());
+
+    // a deletion covering all the data of the first file removes it
+    StorageEngine.getInstance().delete(new PartialPath(processorName, "*"), 0, 150, -1);
+    assertEquals(1, processor.getSequenceFileTreeSet().size());
+    assertEquals(seqResources.get(1), processor.getSequenceFileTreeSet().get(0));
+    assertTrue(seqResources.get(0).isDeleted());
+    assertFalse(seqResources.get(0).getTsFile().exists());
+    assertFalse(seqResources.get(0).getModFile().exists());
+    assertFalse(seqResources.get(1).isDeviceDeleted(processorName));
+    assertEquals(1,
+        seqResources.get(1).getModFile().getModifications().size());
+  }
 }
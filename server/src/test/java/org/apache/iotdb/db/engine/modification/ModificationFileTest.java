@@ -20,14 +20,26 @@
 package org.apache.iotdb.db.engine.modification;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.modification.io.LocalBinaryModificationAccessor;
+import org.apache.iotdb.db.engine.modification.io.LocalTextModificationAccessor;
+import org.apache.iotdb.db.exception.metadata.IllegalPathException;
 import org.apache.iotdb.db.metadata.PartialPath;
+import org.apache.iotdb.db.utils.QueryUtils;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.junit.Test;
 
 public class ModificationFileTest {
@@ -97,4 +109,126 @@ public class ModificationFileTest {
       new File(tempFileName).delete();
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testReadTextFormat() throws IOException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+    Modification[] modifications = new Modification[]{
+        new Deletion(new PartialPath(new String[]{"d1", "s1"}), 1, 1),
+        new Deletion(new PartialPath(new String[]{"d1", "s2"}), 2, 2, 3),
+    };
+    try {
+      // the files written by the previous versions are still read and appended in text format
+      try (LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(
+          tempFileName)) {
+        accessor.write(modifications[0]);
+      }
+      try (ModificationFile mFile = new ModificationFile(tempFileName)) {
+        assertEquals(modifications[0], mFile.getModifications().iterator().next());
+        mFile.write(modifications[1]);
+      }
+      assertFalse(LocalBinaryModificationAccessor.isBinaryFormat(tempFileName));
+      List<Modification> modificationList = (List<Modification>) new LocalTextModificationAccessor(
+          tempFileName).read();
+      assertEquals(2, modificationList.size());
+      assertEquals(modifications[1], modificationList.get(1));
+    } finally {
+      new File(tempFileName).delete();
+    }
+  }
+
+  @Test
+  public void testDeletionIndex() throws IOException, IllegalPathException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+    PartialPath path = new PartialPath("root.sg.d1.s1");
+    try (ModificationFile mFile = new ModificationFile(tempFileName)) {
+      mFile.write(new Deletion(new PartialPath("root.sg.d1.*"), 10, 150, 200));
+      mFile.write(new Deletion(path, 11, 0, 20));
+      mFile.write(new Deletion(path, 12, 15, 50));
+      mFile.write(new Deletion(new PartialPath("root.sg.d2.s1"), 13, 60, 1000));
+      mFile.write(new Deletion(path, 14, 300, 400));
+      mFile.close();
+
+      DeletionIndex deletionIndex = mFile.getDeletionIndex(path);
+      assertEquals(4, deletionIndex.getModifications().size());
+      assertTrue(mFile.getDeletionIndex(new PartialPath("root.sg.d3.s1")).isEmpty());
+
+      List<ChunkMetadata> chunkMetadataList = new ArrayList<>();
+      // completely deleted
+      chunkMetadataList.add(newChunkMetadata(5, 10, 40));
+      // not deleted
+      chunkMetadataList.add(newChunkMetadata(5, 60, 100));
+      // partially deleted by [150, 200] and [300, 400]
+      chunkMetadataList.add(newChunkMetadata(5, 180, 320));
+      // newer than the deletions except [300, 400]
+      chunkMetadataList.add(newChunkMetadata(12, 10, 40));
+      QueryUtils.modifyChunkMetaData(chunkMetadataList, deletionIndex);
+
+      assertEquals(3, chunkMetadataList.size());
+      assertNull(chunkMetadataList.get(0).getDeleteIntervalList());
+      assertFalse(chunkMetadataList.get(0).isModified());
+      List<TimeRange> deleteIntervals = chunkMetadataList.get(1).getDeleteIntervalList();
+      assertEquals(2, deleteIntervals.size());
+      assertEquals(new TimeRange(150, 200), deleteIntervals.get(0));
+      assertEquals(new TimeRange(300, 400), deleteIntervals.get(1));
+      assertTrue(chunkMetadataList.get(1).isModified());
+      assertFalse(chunkMetadataList.get(2).isModified());
+
+      // the index is rebuilt after a write
+      mFile.write(new Deletion(path, 15, 0, 100));
+      chunkMetadataList.clear();
+      chunkMetadataList.add(newChunkMetadata(12, 10, 40));
+      QueryUtils.modifyChunkMetaData(chunkMetadataList, mFile.getDeletionIndex(path));
+      assertTrue(chunkMetadataList.isEmpty());
+    } finally {
+      new File(tempFileName).delete();
+    }
+  }
+
+  @Test
+  public void testEvictCaches() throws IOException, IllegalPathException {
+    String tempFileName1 = TestConstant.BASE_OUTPUT_PATH.concat("mod1.temp");
+    String tempFileName2 = TestConstant.BASE_OUTPUT_PATH.concat("mod2.temp");
+    PartialPath path = new PartialPath("root.sg.d1.s1");
+    int prevMaxCachedModificationNum = ModificationFile.getMaxCachedModificationNum();
+    // each file with 2 Modifications counts as 3
+    ModificationFile.setMaxCachedModificationNum(5);
+    try (ModificationFile mFile1 = new ModificationFile(tempFileName1);
+        ModificationFile mFile2 = new ModificationFile(tempFileName2)) {
+      mFile1.write(new Deletion(path, 1, 0, 10));
+      mFile1.write(new Deletion(path, 2, 20, 30));
+      assertTrue(mFile1.isCached());
+
+      // the cache of the least recently used file is dropped
+      mFile2.write(new Deletion(path, 3, 40, 50));
+      mFile2.write(new Deletion(path, 4, 60, 70));
+      assertFalse(mFile1.isCached());
+      assertTrue(mFile2.isCached());
+
+      // and read again when used
+      assertEquals(2, mFile1.getDeletionIndex(path).getModifications().size());
+      List<Modification> modificationList = (List<Modification>) mFile1.getModifications();
+      assertEquals(new Deletion(path, 2, 20, 30), modificationList.get(1));
+      assertTrue(mFile1.isCached());
+      assertFalse(mFile2.isCached());
+
+      // a removed file no longer counts
+      mFile1.remove();
+      assertEquals(2, mFile2.getModifications().size());
+      assertTrue(mFile2.isCached());
+    } finally {
+      ModificationFile.setMaxCachedModificationNum(prevMaxCachedModificationNum);
+      new File(tempFileName1).delete();
+      new File(tempFileName2).delete();
+    }
+  }
+
+  private ChunkMetadata newChunkMetadata(long version, long startTime, long endTime) {
+    Statistics<?> statistics = Statistics.getStatsByType(TSDataType.INT64);
+    statistics.update(startTime, startTime);
+    statistics.update(endTime, endTime);
+    ChunkMetadata chunkMetadata = new ChunkMetadata("s1", TSDataType.INT64, 0, statistics);
+    chunkMetadata.setVersion(version);
+    return chunkMetadata;
+  }
+}
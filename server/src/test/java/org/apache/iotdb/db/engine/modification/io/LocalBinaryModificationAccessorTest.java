@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.modification.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.metadata.PartialPath;
+import org.junit.After;
+import org.junit.Test;
+
+public class LocalBinaryModificationAccessorTest {
+
+  private final String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+  private final Modification[] modifications = new Modification[]{
+      new Deletion(new PartialPath(new String[]{"d1", "s1"}), 1, 1),
+      new Deletion(new PartialPath(new String[]{"d1", "s2"}), 2, 2),
+      new Deletion(new PartialPath(new String[]{"d1", "s3"}), 3, 3, 4),
+      new Deletion(new PartialPath(new String[]{"d1", "s4"}), 4, 4, 5),
+  };
+
+  @After
+  public void tearDown() {
+    new File(tempFileName).delete();
+  }
+
+  @Test
+  public void readMyWrite() throws IOException {
+    try (LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+        tempFileName)) {
+      for (int i = 0; i < 2; i++) {
+        accessor.write(modifications[i]);
+      }
+      List<Modification> modificationList = (List<Modification>) accessor.read();
+      assertEquals(2, modificationList.size());
+      for (int i = 0; i < 2; i++) {
+        assertEquals(modifications[i], modificationList.get(i));
+      }
+
+      for (int i = 2; i < 4; i++) {
+        accessor.write(modifications[i]);
+      }
+      modificationList = (List<Modification>) accessor.read();
+      assertEquals(4, modificationList.size());
+      for (int i = 0; i < 4; i++) {
+        assertEquals(modifications[i], modificationList.get(i));
+      }
+    }
+    assertTrue(LocalBinaryModificationAccessor.isBinaryFormat(tempFileName));
+  }
+
+  @Test
+  public void readNull() {
+    LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(tempFileName);
+    new File(tempFileName).delete();
+    Collection<Modification> modifications = accessor.read();
+    assertEquals(new ArrayList<>(), modifications);
+    assertFalse(LocalBinaryModificationAccessor.isBinaryFormat(tempFileName));
+  }
+
+  @Test
+  public void testAbortAndReopen() throws IOException {
+    try (LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+        tempFileName)) {
+      for (int i = 0; i < 3; i++) {
+        accessor.write(modifications[i]);
+      }
+      accessor.abort();
+    }
+    // append to the existing file
+    try (LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+        tempFileName)) {
+      accessor.write(modifications[3]);
+      List<Modification> modificationList = (List<Modification>) accessor.read();
+      assertEquals(3, modificationList.size());
+      assertEquals(modifications[0], modificationList.get(0));
+      assertEquals(modifications[1], modificationList.get(1));
+      assertEquals(modifications[3], modificationList.get(2));
+    }
+  }
+
+  @Test
+  public void testIncompleteRecord() throws IOException {
+    try (LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+        tempFileName)) {
+      for (int i = 0; i < 2; i++) {
+        accessor.write(modifications[i]);
+      }
+    }
+    // a record whose size is written but whose body is not, e.g., when the system crashes
+    try (FileOutputStream outputStream = new FileOutputStream(tempFileName, true)) {
+      outputStream.write(new byte[]{0, 0, 0, 100, 0, 1});
+    }
+    List<Modification> modificationList = (List<Modification>) new LocalBinaryModificationAccessor(
+        tempFileName).read();
+    assertEquals(2, modificationList.size());
+    for (int i = 0; i < 2; i++) {
+      assertEquals(modifications[i], modificationList.get(i));
+    }
+  }
+
+  @Test
+  public void testAppendAfterIncompleteRecord() throws IOException {
+    try (LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+        tempFileName)) {
+      for (int i = 0; i < 2; i++) {
+        accessor.write(modifications[i]);
+      }
+    }
+    long validLength = new File(tempFileName).length();
+    // a torn record left by a crash
+    try (FileOutputStream outputStream = new FileOutputStream(tempFileName, true)) {
+      outputStream.write(new byte[]{0, 0, 0, 100, 0, 1});
+    }
+    // the torn record is truncated before appending, so the new record can be read
+    try (LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+        tempFileName)) {
+      accessor.write(modifications[2]);
+    }
+    assertTrue(new File(tempFileName).length() > validLength);
+    List<Modification> modificationList = (List<Modification>) new LocalBinaryModificationAccessor(
+        tempFileName).read();
+    assertEquals(3, modificationList.size());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(modifications[i], modificationList.get(i));
+    }
+  }
+}
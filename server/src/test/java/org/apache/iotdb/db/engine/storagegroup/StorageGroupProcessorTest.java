@@ -45,6 +45,9 @@ import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.read.reader.IPointReader;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
 import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
@@ -163,6 +166,49 @@ public class StorageGroupProcessorTest {
     }
   }
 
+  @Test
+  public void testResourceIndexPruning()
+      throws WriteProcessException, QueryProcessException, IllegalPathException, IOException {
+    for (int j = 1; j <= 2000; j++) {
+      if (j > 10 && j <= 1990) {
+        // a gap in the middle of the file
+        continue;
+      }
+      TSRecord record = new TSRecord(j, deviceId);
+      record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+      processor.insert(new InsertRowPlan(record));
+      if (j == 10) {
+        // the two parts are in different chunks
+        processor.getWorkSequenceTsFileProcessors().iterator().next().syncFlush();
+      }
+    }
+    processor.syncCloseAllWorkingTsFileProcessors();
+
+    PartialPath device = new PartialPath(deviceId);
+    Filter gapFilter = FilterFactory.and(TimeFilter.gtEq(500L), TimeFilter.ltEq(1500L));
+    Assert.assertTrue(processor.query(device, measurementId, context, null, gapFilter)
+        .getSeqResources().isEmpty());
+    Assert.assertEquals(1, processor.query(device, measurementId, context, null,
+        TimeFilter.gtEq(1500L)).getSeqResources().size());
+    Assert.assertTrue(processor.query(device, "s9", context, null, null)
+        .getSeqResources().isEmpty());
+
+    // the index is recovered from the resource file
+    TsFileResource resource = processor.getSequenceFileTreeSet().get(0);
+    TsFileResource recovered = new TsFileResource(resource.getTsFile());
+    recovered.deserialize();
+    int deviceIndex = recovered.getDeviceToIndexMap().get(deviceId);
+    Assert.assertFalse(recovered.mayContainTime(deviceIndex, gapFilter));
+    Assert.assertTrue(recovered.mayContainTime(deviceIndex, TimeFilter.ltEq(5L)));
+    Assert.assertTrue(recovered.mayContainSeries(deviceId + "." + measurementId));
+    Assert.assertFalse(recovered.mayContainSeries(deviceId + ".s9"));
+
+    // the index is dropped when the times change
+    recovered.putEndTime(deviceId, 3000L);
+    Assert.assertTrue(recovered.mayContainTime(deviceIndex, gapFilter));
+    Assert.assertTrue(recovered.mayContainSeries(deviceId + ".s9"));
+  }
+
   @Test
   public void testIoTDBTabletWriteAndSyncClose()
       throws QueryProcessException, IllegalPathException {
@@ -21,6 +21,7 @@
 package org.apache.iotdb.db.engine.storagegroup;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -36,6 +37,7 @@ import java.util.stream.Collectors;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
+import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.flush.TsFileFlushPolicy.DirectFlushPolicy;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.StartupException;
@@ -388,4 +390,67 @@ public class TTLTest {
     assertEquals(0, storageGroupProcessor.getSequenceFileTreeSet().size());
     assertEquals(0, storageGroupProcessor.getUnSequenceFileList().size());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testTTLRemovePartition()
+      throws WriteProcessException, QueryProcessException, IllegalPathException, StorageEngineException {
+    boolean prevEnablePartition = StorageEngine.isEnablePartition();
+    long prevTimePartitionInterval = StorageEngine.getTimePartitionInterval();
+    StorageEngine.setEnablePartition(true);
+    StorageEngine.setTimePartitionInterval(1000);
+    try {
+      InsertRowPlan plan = new InsertRowPlan();
+      plan.setDeviceId(new PartialPath(sg1));
+      plan.setMeasurements(new String[]{"s1"});
+      plan.setDataTypes(new TSDataType[]{TSDataType.INT64});
+      plan.setValues(new Object[]{1L});
+      plan.setMeasurementMNodes(new MeasurementMNode[]{new MeasurementMNode(null, null,
+          new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.PLAIN), null)});
+      plan.transferType();
+
+      // sequence data of partition 0, 1 and 2
+      for (int i = 0; i < 3000; i++) {
+        plan.setTime(i);
+        storageGroupProcessor.insert(plan);
+        if ((i + 1) % 500 == 0) {
+          storageGroupProcessor.syncCloseAllWorkingTsFileProcessors();
+        }
+      }
+      // unsequence data of partition 1
+      for (int i = 1000; i < 1100; i++) {
+        plan.setTime(i);
+        storageGroupProcessor.insert(plan);
+      }
+      storageGroupProcessor.syncCloseAllWorkingTsFileProcessors();
+      assertEquals(6, storageGroupProcessor.getSequenceFileTreeSet().size());
+      assertEquals(1, storageGroupProcessor.getUnSequenceFileList().size());
+
+      // partition 0 and 1 are expired as a whole
+      storageGroupProcessor.setDataTTL(System.currentTimeMillis() - 2000);
+      assertEquals(2, storageGroupProcessor.getSequenceFileTreeSet().size());
+      assertEquals(0, storageGroupProcessor.getUnSequenceFileList().size());
+      for (TsFileResource resource : storageGroupProcessor.getSequenceFileTreeSet()) {
+        assertEquals(2, resource.getTimePartition());
+      }
+      for (String folder : DirectoryManager.getInstance().getAllSequenceFileFolders()) {
+        assertFalse(new File(folder + File.separator + sg1, "0").exists());
+        assertFalse(new File(folder + File.separator + sg1, "1").exists());
+      }
+      for (String folder : DirectoryManager.getInstance().getAllUnSequenceFileFolders()) {
+        assertFalse(new File(folder + File.separator + sg1, "1").exists());
+      }
+      File systemDir = new File(IoTDBDescriptor.getInstance().getConfig().getSystemDir(), sg1);
+      assertFalse(new File(systemDir, "0").exists());
+      assertFalse(new File(systemDir, "1").exists());
+
+      QueryDataSource dataSource = storageGroupProcessor
+          .query(new PartialPath(sg1), s1, EnvironmentUtils.TEST_QUERY_CONTEXT, null, null);
+      assertEquals(2, dataSource.getSeqResources().size());
+      assertEquals(0, dataSource.getUnseqResources().size());
+      QueryResourceManager.getInstance().endQuery(EnvironmentUtils.TEST_QUERY_JOB_ID);
+    } finally {
+      StorageEngine.setEnablePartition(prevEnablePartition);
+      StorageEngine.setTimePartitionInterval(prevTimePartitionInterval);
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.storagegroup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.conf.directories.DirectoryManager;
+import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.flush.TsFileFlushPolicy.DirectFlushPolicy;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.exception.StorageGroupProcessorException;
+import org.apache.iotdb.db.exception.WriteProcessException;
+import org.apache.iotdb.db.exception.metadata.IllegalPathException;
+import org.apache.iotdb.db.exception.metadata.MetadataException;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.metadata.PartialPath;
+import org.apache.iotdb.db.metadata.mnode.MeasurementMNode;
+import org.apache.iotdb.db.qp.physical.crud.InsertRowPlan;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.reader.series.SeriesRawDataBatchReader;
+import org.apache.iotdb.db.service.IoTDB;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.reader.IBatchReader;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TierMigrationTest {
+
+  private final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private final String sg = "root.tier_sg";
+  private final String s1 = "s1";
+  private final File tierDir = new File(TestConstant.BASE_OUTPUT_PATH.concat("tier1"));
+  private StorageGroupProcessor storageGroupProcessor;
+  private String[][] prevTierDataDirs;
+  private long[] prevTierDataAgesInMs;
+  private long prevTierMinIdleTimeInMs;
+
+  @Before
+  public void setUp() throws MetadataException, StorageGroupProcessorException {
+    prevTierDataDirs = config.getTierDataDirs();
+    prevTierDataAgesInMs = config.getTierDataAgesInMs();
+    prevTierMinIdleTimeInMs = config.getTierMinIdleTimeInMs();
+    config.setTierDataDirs(new String[][]{{tierDir.getAbsolutePath()}});
+    config.setTierDataAgesInMs(new long[]{1000});
+    config.setTierMinIdleTimeInMs(0);
+    DirectoryManager.getInstance().updateTierFolders();
+    EnvironmentUtils.envSetUp();
+
+    IoTDB.metaManager.setStorageGroup(new PartialPath(sg));
+    IoTDB.metaManager.createTimeseries(new PartialPath(sg + IoTDBConstant.PATH_SEPARATOR + s1),
+        TSDataType.INT64, TSEncoding.PLAIN, CompressionType.UNCOMPRESSED, Collections.emptyMap());
+    storageGroupProcessor = new StorageGroupProcessor(config.getSystemDir(), sg,
+        new DirectFlushPolicy());
+  }
+
+  @After
+  public void tearDown() throws IOException, StorageEngineException {
+    storageGroupProcessor.syncCloseAllWorkingTsFileProcessors();
+    EnvironmentUtils.cleanEnv();
+    config.setTierDataDirs(prevTierDataDirs);
+    config.setTierDataAgesInMs(prevTierDataAgesInMs);
+    config.setTierMinIdleTimeInMs(prevTierMinIdleTimeInMs);
+    DirectoryManager.getInstance().updateTierFolders();
+    FileUtils.deleteDirectory(tierDir);
+  }
+
+  /**
+   * 2 files of old data and 1 file of new data
+   */
+  private void prepareData()
+      throws WriteProcessException, IllegalPathException, QueryProcessException {
+    long initTime = System.currentTimeMillis();
+    for (int i = 0; i < 200; i++) {
+      insert(initTime - 100_000 + i);
+      if ((i + 1) % 100 == 0) {
+        storageGroupProcessor.syncCloseAllWorkingTsFileProcessors();
+      }
+    }
+    insert(initTime);
+    storageGroupProcessor.syncCloseAllWorkingTsFileProcessors();
+  }
+
+  private void insert(long time)
+      throws WriteProcessException, IllegalPathException, QueryProcessException {
+    InsertRowPlan plan = new InsertRowPlan();
+    plan.setDeviceId(new PartialPath(sg));
+    plan.setMeasurements(new String[]{s1});
+    plan.setDataTypes(new TSDataType[]{TSDataType.INT64});
+    plan.setValues(new Object[]{1L});
+    plan.setMeasurementMNodes(new MeasurementMNode[]{new MeasurementMNode(null, null,
+        new MeasurementSchema(s1, TSDataType.INT64, TSEncoding.PLAIN), null)});
+    plan.transferType();
+    plan.setTime(time);
+    storageGroupProcessor.insert(plan);
+  }
+
+  @Test
+  public void testMigration()
+      throws WriteProcessException, IllegalPathException, StorageEngineException, IOException, QueryProcessException {
+    prepareData();
+    List<TsFileResource> seqResources = storageGroupProcessor.getSequenceFileTreeSet();
+    assertEquals(3, seqResources.size());
+    // a file being read is not migrated
+    seqResources.get(1).updateLastReadTime();
+    config.setTierMinIdleTimeInMs(3_600_000L);
+    File originFile = seqResources.get(0).getTsFile();
+
+    storageGroupProcessor.migrateColdFiles();
+    assertEquals(1, DirectoryManager.getInstance().getTier(seqResources.get(0).getTsFile()));
+    assertEquals(0, DirectoryManager.getInstance().getTier(seqResources.get(1).getTsFile()));
+    assertEquals(0, DirectoryManager.getInstance().getTier(seqResources.get(2).getTsFile()));
+    assertTrue(seqResources.get(0).getTsFile().exists());
+    assertTrue(new File(seqResources.get(0).getTsFilePath() + TsFileResource.RESOURCE_SUFFIX)
+        .exists());
+    assertFalse(originFile.exists());
+    assertFalse(new File(originFile.getPath() + TsFileResource.RESOURCE_SUFFIX).exists());
+
+    config.setTierMinIdleTimeInMs(0);
+    storageGroupProcessor.migrateColdFiles();
+    assertEquals(1, DirectoryManager.getInstance().getTier(seqResources.get(1).getTsFile()));
+    // the new data stays in the hot tier
+    assertEquals(0, DirectoryManager.getInstance().getTier(seqResources.get(2).getTsFile()));
+    assertEquals(201, countPoints());
+  }
+
+  @Test
+  public void testRecoverInterruptedMigration()
+      throws WriteProcessException, IllegalPathException, StorageGroupProcessorException, IOException, StorageEngineException, QueryProcessException {
+    prepareData();
+    TsFileResource resource = storageGroupProcessor.getSequenceFileTreeSet().get(0);
+    File originFile = resource.getTsFile();
+    storageGroupProcessor.migrateColdFiles();
+    File migratedFile = resource.getTsFile();
+    // crashed before the origin is removed
+    Files.copy(migratedFile.toPath(), originFile.toPath());
+    Files.copy(new File(migratedFile.getPath() + TsFileResource.RESOURCE_SUFFIX).toPath(),
+        new File(originFile.getPath() + TsFileResource.RESOURCE_SUFFIX).toPath());
+    // crashed during the copy of another file
+    File tempFile = new File(migratedFile.getParentFile(),
+        "0-0-0.tsfile" + TsFileResource.MIGRATE_SUFFIX);
+    assertTrue(tempFile.createNewFile());
+
+    storageGroupProcessor = new StorageGroupProcessor(config.getSystemDir(), sg,
+        new DirectFlushPolicy());
+    List<TsFileResource> seqResources = storageGroupProcessor.getSequenceFileTreeSet();
+    assertEquals(3, seqResources.size());
+    assertEquals(migratedFile, seqResources.get(0).getTsFile());
+    assertFalse(originFile.exists());
+    assertFalse(tempFile.exists());
+    assertEquals(201, countPoints());
+  }
+
+  @Test
+  public void testMergeSkipsMigratingFiles()
+      throws WriteProcessException, IllegalPathException, StorageEngineException, IOException,
+      QueryProcessException, StorageGroupProcessorException {
+    boolean prevEnableUnseqCompaction = config.isEnableUnseqCompaction();
+    // the merges are only started by the test
+    config.setEnableUnseqCompaction(false);
+    try {
+      storageGroupProcessor = new StorageGroupProcessor(config.getSystemDir(), sg,
+          new DirectFlushPolicy());
+      prepareData();
+      // an unseq file overlapping the old data
+      insert(1);
+      storageGroupProcessor.syncCloseAllWorkingTsFileProcessors();
+      List<TsFileResource> seqResources = storageGroupProcessor.getSequenceFileTreeSet();
+      List<TsFileResource> unseqResources = storageGroupProcessor.getUnSequenceFileList();
+      assertEquals(1, unseqResources.size());
+
+      // a merge must not replace a file while it is copied into another tier
+      seqResources.get(0).setMigrating(true);
+      storageGroupProcessor.merge(true);
+      assertFalse(storageGroupProcessor.getTsFileManagement().isUnseqMerging);
+      for (TsFileResource resource : seqResources) {
+        assertFalse(resource.isMerging());
+      }
+      assertFalse(unseqResources.get(0).isMerging());
+
+      seqResources.get(0).setMigrating(false);
+      storageGroupProcessor.merge(true);
+      while (storageGroupProcessor.getTsFileManagement().isUnseqMerging) {
+        // wait
+      }
+      assertTrue(storageGroupProcessor.getUnSequenceFileList().isEmpty());
+      assertEquals(202, countPoints());
+    } finally {
+      config.setEnableUnseqCompaction(prevEnableUnseqCompaction);
+    }
+  }
+
+  private int countPoints()
+      throws StorageEngineException, QueryProcessException, IllegalPathException, IOException {
+    QueryDataSource dataSource = storageGroupProcessor
+        .query(new PartialPath(sg), s1, EnvironmentUtils.TEST_QUERY_CONTEXT, null, null);
+    PartialPath path = new PartialPath(sg + IoTDBConstant.PATH_SEPARATOR + s1);
+    Set<String> allSensors = new HashSet<>();
+    allSensors.add(s1);
+    IBatchReader reader = new SeriesRawDataBatchReader(path, allSensors, TSDataType.INT64,
+        EnvironmentUtils.TEST_QUERY_CONTEXT, dataSource, null, null, null, true);
+    int cnt = 0;
+    while (reader.hasNextBatch()) {
+      BatchData batchData = reader.nextBatch();
+      while (batchData.hasCurrent()) {
+        batchData.next();
+        cnt++;
+      }
+    }
+    reader.close();
+    QueryResourceManager.getInstance().endQuery(EnvironmentUtils.TEST_QUERY_JOB_ID);
+    return cnt;
+  }
+}
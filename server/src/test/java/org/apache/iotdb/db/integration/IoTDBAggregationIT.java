@@ -27,7 +27,9 @@ import static org.apache.iotdb.db.constant.TestConstant.max_time;
 import static org.apache.iotdb.db.constant.TestConstant.max_value;
 import static org.apache.iotdb.db.constant.TestConstant.min_time;
 import static org.apache.iotdb.db.constant.TestConstant.min_value;
+import static org.apache.iotdb.db.constant.TestConstant.stddev;
 import static org.apache.iotdb.db.constant.TestConstant.sum;
+import static org.apache.iotdb.db.constant.TestConstant.variance;
 import static org.junit.Assert.fail;
 
 import java.sql.Connection;
@@ -821,6 +823,36 @@ public class IoTDBAggregationIT {
     }
   }
 
+  @Test
+  public void varianceStdDevTest() {
+    try (Connection connection = DriverManager.
+        getConnection("jdbc:iotdb://127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+
+      // the statistics of the sequence files are used, and the overlapped data is read
+      boolean hasResultSet = statement.execute("SELECT variance(s1),stddev(s1) FROM root.sg.d1");
+      Assert.assertTrue(hasResultSet);
+      try (ResultSet resultSet = statement.getResultSet()) {
+        Assert.assertTrue(resultSet.next());
+        Assert.assertEquals(6153.8667, resultSet.getDouble(variance("root.sg.d1.s1")), 0.0001);
+        Assert.assertEquals(78.4466, resultSet.getDouble(stddev("root.sg.d1.s1")), 0.0001);
+        Assert.assertFalse(resultSet.next());
+      }
+
+      hasResultSet = statement.execute(
+          "SELECT variance(s1) FROM root.sg.d1 WHERE time >= 5 AND time < 16 order by time desc");
+      Assert.assertTrue(hasResultSet);
+      try (ResultSet resultSet = statement.getResultSet()) {
+        Assert.assertTrue(resultSet.next());
+        Assert.assertEquals(26.3333, resultSet.getDouble(variance("root.sg.d1.s1")), 0.0001);
+        Assert.assertFalse(resultSet.next());
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail(e.getMessage());
+    }
+  }
+
   private void prepareData() {
     try (Connection connection = DriverManager
         .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root",
@@ -97,6 +97,124 @@ public class IoTDBCompactionIT {
     }
   }
 
+  @Test
+  public void testCompactionSplitByDevices() throws SQLException {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.compactionTest");
+      for (int d = 1; d <= 5; d++) {
+        statement.execute("CREATE TIMESERIES root.compactionTest.d" + d
+            + ".s1 WITH DATATYPE=INT64,ENCODING=PLAIN");
+      }
+      // the compactions into the last level are split into sub-tasks of device ranges
+      for (int i = 0; i < 32; i++) {
+        for (int d = 1; d <= 5; d++) {
+          statement.execute(String.format(
+              "INSERT INTO root.compactionTest.d%d(timestamp,s1) VALUES (%d,%d)", d, i, i * d));
+        }
+        statement.execute("FLUSH");
+      }
+
+      for (int d = 1; d <= 5; d++) {
+        int cnt = 0;
+        try (ResultSet resultSet = statement
+            .executeQuery("SELECT s1 FROM root.compactionTest.d" + d)) {
+          while (resultSet.next()) {
+            long time = resultSet.getLong("Time");
+            assertEquals(cnt, time);
+            assertEquals(time * d, resultSet.getLong("root.compactionTest.d" + d + ".s1"));
+            cnt++;
+          }
+        }
+        assertEquals(32, cnt);
+      }
+    }
+  }
+
+  @Test
+  public void testCompactionLevelCompressors() throws SQLException {
+    // the files compacted into level 1 are compressed by GZIP, and level 2 or higher by ZSTD
+    IoTDBDescriptor.getInstance().getConfig()
+        .setCompactionLevelCompressors(new String[]{"", "GZIP", "ZSTD"});
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.compactionTest");
+      statement.execute("CREATE TIMESERIES root.compactionTest.s1 WITH DATATYPE=INT64,"
+          + "ENCODING=PLAIN,COMPRESSOR=SNAPPY");
+      statement.execute("CREATE TIMESERIES root.compactionTest.s2 WITH DATATYPE=DOUBLE,"
+          + "ENCODING=GORILLA,COMPRESSOR=GZIP,compression_level=9");
+      statement.execute("CREATE TIMESERIES root.compactionTest.s3 WITH DATATYPE=INT32,"
+          + "ENCODING=RLE,COMPRESSOR=ZSTD,compression_level=19");
+      for (int i = 0; i < 32; i++) {
+        statement.execute(String.format(
+            "INSERT INTO root.compactionTest(timestamp,s1,s2,s3) VALUES (%d,%d,%d.5,%d)", i, i + 1,
+            i, i + 2));
+        statement.execute("FLUSH");
+      }
+
+      int cnt = 0;
+      try (ResultSet resultSet = statement.executeQuery("SELECT * FROM root.compactionTest")) {
+        while (resultSet.next()) {
+          long time = resultSet.getLong("Time");
+          assertEquals(time + 1, resultSet.getLong("root.compactionTest.s1"));
+          assertEquals(time + 0.5, resultSet.getDouble("root.compactionTest.s2"), 0.0);
+          assertEquals(time + 2, resultSet.getInt("root.compactionTest.s3"));
+          cnt++;
+        }
+      }
+      assertEquals(32, cnt);
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setCompactionLevelCompressors(new String[]{""});
+    }
+  }
+
+  @Test
+  public void testDeletionBeforeCompaction() throws SQLException {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.compactionTest");
+      for (int i = 1; i <= 2; i++) {
+        statement.execute("CREATE TIMESERIES root.compactionTest.s" + i + " WITH DATATYPE=INT64,"
+            + "ENCODING=PLAIN");
+      }
+      // the deleted points must not come back when the files are compacted
+      for (int i = 0; i < 32; i++) {
+        statement.execute(String.format(
+            "INSERT INTO root.compactionTest(timestamp,s1,s2) VALUES (%d,%d,%d)", i, i + 1, i + 2));
+        statement.execute("FLUSH");
+        if (i == 15) {
+          statement.execute("DELETE FROM root.compactionTest.s1 WHERE time <= 10");
+          // removes the files of 0 ~ 5 that are not compacted yet
+          statement.execute("DELETE FROM root.compactionTest.* WHERE time <= 5");
+        }
+      }
+
+      int cnt = 0;
+      try (ResultSet resultSet = statement.executeQuery("SELECT s1 FROM root.compactionTest")) {
+        while (resultSet.next()) {
+          long time = resultSet.getLong("Time");
+          assertEquals(cnt + 11, time);
+          assertEquals(time + 1, resultSet.getLong("root.compactionTest.s1"));
+          cnt++;
+        }
+      }
+      assertEquals(21, cnt);
+      cnt = 0;
+      try (ResultSet resultSet = statement.executeQuery("SELECT s2 FROM root.compactionTest")) {
+        while (resultSet.next()) {
+          long time = resultSet.getLong("Time");
+          assertEquals(cnt + 6, time);
+          assertEquals(time + 2, resultSet.getLong("root.compactionTest.s2"));
+          cnt++;
+        }
+      }
+      assertEquals(26, cnt);
+    }
+  }
+
   @Test
   public void testAppendMergeAfterDeserializeMerge() throws SQLException {
     boolean prevEnableUnseqCompaction = IoTDBDescriptor.getInstance().getConfig().isEnableUnseqCompaction();
@@ -39,6 +39,8 @@ import org.apache.iotdb.db.metadata.mnode.MeasurementMNode;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.jdbc.Config;
 import org.apache.iotdb.jdbc.IoTDBSQLException;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -1018,6 +1020,110 @@ public class IoTDBSimpleQueryIT {
     }
   }
 
+  @Test
+  public void testDictionaryEncoding() throws ClassNotFoundException, SQLException {
+    Class.forName(Config.JDBC_DRIVER_NAME);
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/",
+            "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.sg1");
+      statement.execute("CREATE TIMESERIES root.sg1.d0.s0 WITH DATATYPE=TEXT,"
+          + "ENCODING=PLAIN_DICTIONARY");
+      String[] states = {"IDLE", "RUNNING", "STOPPED"};
+      for (int i = 0; i < 300; i++) {
+        statement.execute(String.format("INSERT INTO root.sg1.d0(timestamp,s0) VALUES (%d,'%s')",
+            i, states[i % 3]));
+      }
+      statement.execute("FLUSH");
+
+      int count = 0;
+      try (ResultSet resultSet = statement
+          .executeQuery("SELECT s0 FROM root.sg1.d0 WHERE s0 = 'RUNNING'")) {
+        while (resultSet.next()) {
+          Assert.assertEquals(1, resultSet.getLong(1) % 3);
+          Assert.assertEquals("RUNNING", resultSet.getString(2));
+          count++;
+        }
+      }
+      Assert.assertEquals(100, count);
+    }
+  }
+
+  @Test
+  public void testChimpAndElfEncoding() throws ClassNotFoundException, SQLException {
+    Class.forName(Config.JDBC_DRIVER_NAME);
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/",
+            "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.sg1");
+      statement.execute("CREATE TIMESERIES root.sg1.d0.s0 WITH DATATYPE=DOUBLE,ENCODING=ELF");
+      statement.execute("CREATE TIMESERIES root.sg1.d0.s1 WITH DATATYPE=FLOAT,ENCODING=ELF");
+      statement.execute("CREATE TIMESERIES root.sg1.d0.s2 WITH DATATYPE=DOUBLE,ENCODING=CHIMP");
+      statement.execute("CREATE TIMESERIES root.sg1.d0.s3 WITH DATATYPE=INT64,ENCODING=CHIMP");
+      for (int i = 0; i < 300; i++) {
+        statement.execute(String.format(
+            "INSERT INTO root.sg1.d0(timestamp,s0,s1,s2,s3) VALUES (%d,%s,%s,%s,%d)",
+            i, i * 0.01, i * 0.1, Math.sqrt(i), i * 1000L));
+      }
+      statement.execute("FLUSH");
+
+      int count = 0;
+      try (ResultSet resultSet = statement
+          .executeQuery("SELECT s0,s1,s2,s3 FROM root.sg1.d0")) {
+        while (resultSet.next()) {
+          long time = resultSet.getLong(1);
+          Assert.assertEquals(time * 0.01, resultSet.getDouble(2), 0);
+          Assert.assertEquals((float) (time * 0.1), resultSet.getFloat(3), 0);
+          Assert.assertEquals(Math.sqrt(time), resultSet.getDouble(4), 0);
+          Assert.assertEquals(time * 1000L, resultSet.getLong(5));
+          count++;
+        }
+      }
+      Assert.assertEquals(300, count);
+    }
+  }
+
+  @Test
+  public void testBlockDeltaEncoding() throws ClassNotFoundException, SQLException {
+    TSFileConfig tsFileConfig = TSFileDescriptor.getInstance().getConfig();
+    String prevTimeEncoder = tsFileConfig.getTimeEncoder();
+    tsFileConfig.setTimeEncoder("BLOCK_DELTA");
+    Class.forName(Config.JDBC_DRIVER_NAME);
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/",
+            "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.sg1");
+      statement.execute(
+          "CREATE TIMESERIES root.sg1.d0.s0 WITH DATATYPE=INT64,ENCODING=BLOCK_DELTA");
+      statement.execute(
+          "CREATE TIMESERIES root.sg1.d0.s1 WITH DATATYPE=INT32,ENCODING=BLOCK_DELTA");
+      for (int i = 0; i < 300; i++) {
+        statement.execute(String.format(
+            "INSERT INTO root.sg1.d0(timestamp,s0,s1) VALUES (%d,%d,%d)",
+            i * 10 + i % 3, i * (long) i, -i));
+      }
+      statement.execute("FLUSH");
+
+      int count = 0;
+      try (ResultSet resultSet = statement
+          .executeQuery("SELECT s0,s1 FROM root.sg1.d0 WHERE time >= 1000")) {
+        while (resultSet.next()) {
+          int i = count + 100;
+          Assert.assertEquals(i * 10 + i % 3, resultSet.getLong(1));
+          Assert.assertEquals(i * (long) i, resultSet.getLong(2));
+          Assert.assertEquals(-i, resultSet.getInt(3));
+          count++;
+        }
+      }
+      Assert.assertEquals(200, count);
+    } finally {
+      tsFileConfig.setTimeEncoder(prevTimeEncoder);
+    }
+  }
+
   @Test
   public void testInvalidMaxPointNumber() throws ClassNotFoundException {
     Class.forName(Config.JDBC_DRIVER_NAME);
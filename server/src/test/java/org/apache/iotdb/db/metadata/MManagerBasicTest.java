@@ -20,12 +20,15 @@ package org.apache.iotdb.db.metadata;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
@@ -34,12 +37,23 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.metadata.IllegalPathException;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.exception.query.PathException;
+import org.apache.iotdb.db.metadata.mnode.MNode;
+import org.apache.iotdb.db.metadata.mnode.MeasurementMNode;
+import org.apache.iotdb.db.qp.physical.crud.InsertRowPlan;
+import org.apache.iotdb.db.qp.physical.sys.CreateTemplatePlan;
+import org.apache.iotdb.db.qp.physical.sys.CreateTimeSeriesPlan;
+import org.apache.iotdb.db.qp.physical.sys.SetDeviceTemplatePlan;
+import org.apache.iotdb.db.qp.physical.sys.ShowTimeSeriesPlan;
+import org.apache.iotdb.db.query.dataset.ShowTimeSeriesCursor;
+import org.apache.iotdb.db.query.dataset.ShowTimeSeriesResult;
 import org.apache.iotdb.db.service.IoTDB;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -447,4 +461,272 @@ public class MManagerBasicTest {
       fail(e.getMessage());
     }
   }
+
+  @Test
+  public void testDeviceTemplate() throws MetadataException {
+    MManager manager = IoTDB.metaManager;
+    manager.setStorageGroup(new PartialPath("root.sg1"));
+    manager.createDeviceTemplate(new CreateTemplatePlan("template1", Arrays.asList("s1", "s2"),
+        Arrays.asList(TSDataType.INT64, TSDataType.DOUBLE),
+        Arrays.asList(TSEncoding.RLE, TSEncoding.GORILLA),
+        Arrays.asList(CompressionType.SNAPPY, CompressionType.SNAPPY)));
+    manager.setDeviceTemplate(new SetDeviceTemplatePlan("template1", new PartialPath("root.sg1")));
+
+    try {
+      manager.setDeviceTemplate(
+          new SetDeviceTemplatePlan("template1", new PartialPath("root.sg1.a.d1")));
+      fail("a template can not be set under another template");
+    } catch (MetadataException e) {
+      // expected
+    }
+    // the rejected set leaves no node
+    assertFalse(manager.isPathExist(new PartialPath("root.sg1.a")));
+
+    MNode d1 = insertWithTemplate(manager, "root.sg1.d1");
+    MNode d2 = insertWithTemplate(manager, "root.sg1.d2");
+    MeasurementSchema schema = ((MeasurementMNode) d1.getChild("s1")).getSchema();
+    assertEquals(TSDataType.INT64, schema.getType());
+    assertEquals(TSEncoding.RLE, schema.getEncodingType());
+    assertSame(schema, ((MeasurementMNode) d2.getChild("s1")).getSchema());
+    assertSame(((MeasurementMNode) d1.getChild("s2")).getSchema(),
+        ((MeasurementMNode) d2.getChild("s2")).getSchema());
+
+    MManager recoverManager = new MManager();
+    recoverManager.init();
+    MNode d3 = insertWithTemplate(recoverManager, "root.sg1.d3");
+    assertEquals(TSDataType.DOUBLE,
+        ((MeasurementMNode) d3.getChild("s2")).getSchema().getType());
+    assertEquals(6, recoverManager.getAllTimeseriesCount(new PartialPath("root.sg1")));
+    recoverManager.clear();
+  }
+
+  @Test
+  public void testInvalidDeviceTemplate() throws MetadataException {
+    MManager manager = IoTDB.metaManager;
+    try {
+      manager.createDeviceTemplate(new CreateTemplatePlan("template1", Arrays.asList("s1", "s2"),
+          Arrays.asList(TSDataType.INT64, TSDataType.BOOLEAN),
+          Arrays.asList(TSEncoding.RLE, TSEncoding.GORILLA),
+          Arrays.asList(CompressionType.SNAPPY, CompressionType.SNAPPY)));
+      fail("a template with an invalid encoding of the data type can not be created");
+    } catch (MetadataException e) {
+      assertTrue(e.getMessage().contains("GORILLA"));
+    }
+    // and it is not kept
+    manager.createDeviceTemplate(new CreateTemplatePlan("template1", Arrays.asList("s1"),
+        Arrays.asList(TSDataType.INT64), Arrays.asList(TSEncoding.RLE),
+        Arrays.asList(CompressionType.SNAPPY)));
+  }
+
+  @Test
+  public void testDeviceTemplateConflictWithDescendants() throws MetadataException {
+    MManager manager = IoTDB.metaManager;
+    manager.setStorageGroup(new PartialPath("root.sg1"));
+    manager.createDeviceTemplate(new CreateTemplatePlan("template1", Arrays.asList("s1", "s2"),
+        Arrays.asList(TSDataType.INT64, TSDataType.DOUBLE),
+        Arrays.asList(TSEncoding.RLE, TSEncoding.GORILLA),
+        Arrays.asList(CompressionType.SNAPPY, CompressionType.SNAPPY)));
+    manager.createDeviceTemplate(new CreateTemplatePlan("template2", Arrays.asList("s3"),
+        Arrays.asList(TSDataType.INT32), Arrays.asList(TSEncoding.RLE),
+        Arrays.asList(CompressionType.SNAPPY)));
+
+    // a descendant has a template
+    manager.setDeviceTemplate(new SetDeviceTemplatePlan("template2",
+        new PartialPath("root.sg1.a.d1")));
+    try {
+      manager.setDeviceTemplate(new SetDeviceTemplatePlan("template1",
+          new PartialPath("root.sg1.a")));
+      fail("a template can not be set above another template");
+    } catch (MetadataException e) {
+      assertTrue(e.getMessage().contains("root.sg1.a.d1"));
+    }
+
+    // a descendant has a measurement named as one of the template
+    manager.createTimeseries(new PartialPath("root.sg1.b.d2.s1"), TSDataType.INT32,
+        TSEncoding.RLE, compressionType, Collections.emptyMap());
+    try {
+      manager.setDeviceTemplate(new SetDeviceTemplatePlan("template1",
+          new PartialPath("root.sg1.b")));
+      fail("a template can not be set above a conflicting measurement");
+    } catch (MetadataException e) {
+      assertTrue(e.getMessage().contains("root.sg1.b.d2.s1"));
+    }
+
+    // the measurements not in the template do not conflict with it
+    manager.createTimeseries(new PartialPath("root.sg1.c.d3.s4"), TSDataType.INT32,
+        TSEncoding.RLE, compressionType, Collections.emptyMap());
+    manager.setDeviceTemplate(new SetDeviceTemplatePlan("template1",
+        new PartialPath("root.sg1.c")));
+  }
+
+  @Test
+  public void testDeviceTemplateRecoverAfterDeletion() throws MetadataException {
+    MManager manager = IoTDB.metaManager;
+    manager.setStorageGroup(new PartialPath("root.sg1"));
+    manager.setStorageGroup(new PartialPath("root.sg2"));
+    manager.createDeviceTemplate(new CreateTemplatePlan("template1", Arrays.asList("s1", "s2"),
+        Arrays.asList(TSDataType.INT64, TSDataType.DOUBLE),
+        Arrays.asList(TSEncoding.RLE, TSEncoding.GORILLA),
+        Arrays.asList(CompressionType.SNAPPY, CompressionType.SNAPPY)));
+    manager.setDeviceTemplate(new SetDeviceTemplatePlan("template1", new PartialPath("root.sg1")));
+    manager.setDeviceTemplate(
+        new SetDeviceTemplatePlan("template1", new PartialPath("root.sg2.d1")));
+    insertWithTemplate(manager, "root.sg1.d1");
+    insertWithTemplate(manager, "root.sg2.d1");
+    manager.createTimeseries(new PartialPath("root.sg2.d2.s1"), TSDataType.INT32,
+        TSEncoding.RLE, compressionType, Collections.emptyMap());
+
+    // the node carrying the template is deleted with its storage group or its last timeseries
+    manager.deleteStorageGroups(Collections.singletonList(new PartialPath("root.sg1")));
+    manager.deleteTimeseries(new PartialPath("root.sg2.d1"));
+    assertFalse(manager.isPathExist(new PartialPath("root.sg2.d1")));
+    // the templates are logged again after the snapshot
+    manager.createMTreeSnapshot();
+
+    MManager recoverManager = new MManager();
+    recoverManager.init();
+    assertEquals(Collections.singletonList(new PartialPath("root.sg2")),
+        recoverManager.getAllStorageGroupPaths());
+    assertFalse(recoverManager.isPathExist(new PartialPath("root.sg2.d1")));
+    assertEquals(1, recoverManager.getAllTimeseriesCount(new PartialPath("root")));
+    // the template can still be set again
+    recoverManager.setDeviceTemplate(
+        new SetDeviceTemplatePlan("template1", new PartialPath("root.sg2.d1")));
+    recoverManager.clear();
+  }
+
+  @Test
+  public void testPathPatternCache() throws MetadataException {
+    MManager manager = IoTDB.metaManager;
+    manager.setStorageGroup(new PartialPath("root.plant1"));
+    manager.createTimeseries(new PartialPath("root.plant1.line.d1.s1"), TSDataType.INT32,
+        TSEncoding.RLE, compressionType, Collections.emptyMap());
+    manager.createTimeseries(new PartialPath("root.plant1.line.d2.s1"), TSDataType.INT32,
+        TSEncoding.RLE, compressionType, Collections.emptyMap());
+
+    PartialPath pattern = new PartialPath("root.plant*.line.*");
+    assertEquals(2, manager.getAllTimeseriesPath(pattern).size());
+    // served by the cache, with the same limit and offset semantic as the MTree
+    Pair<List<PartialPath>, Integer> pair =
+        manager.getAllTimeseriesPathWithAlias(pattern, 1, 1);
+    assertEquals(1, pair.left.size());
+    assertEquals("root.plant1.line.d2.s1", pair.left.get(0).getFullPath());
+    assertEquals(2, pair.right.intValue());
+
+    // the cached result is invalidated by creating and deleting matched timeseries
+    manager.createTimeseries(new PartialPath("root.plant1.line.d3.s1"), TSDataType.INT32,
+        TSEncoding.RLE, compressionType, Collections.emptyMap());
+    assertEquals(3, manager.getAllTimeseriesPathWithAlias(pattern, 0, 0).left.size());
+    manager.deleteTimeseries(new PartialPath("root.plant1.line.d1.s1"));
+    assertEquals(2, manager.getAllTimeseriesPath(pattern).size());
+
+    // an alias matched by the pattern is kept
+    manager.changeAlias(new PartialPath("root.plant1.line.d2.s1"), "temperature");
+    PartialPath aliasPattern = new PartialPath("root.plant1.line.d2.temperature");
+    for (int i = 0; i < 2; i++) {
+      List<PartialPath> paths = manager.getAllTimeseriesPathWithAlias(aliasPattern, 0, 0).left;
+      assertEquals(1, paths.size());
+      assertEquals("temperature", paths.get(0).getMeasurementAlias());
+    }
+  }
+
+  @Test
+  public void testGetAllTimeseriesPathWithTags() throws MetadataException {
+    MManager manager = IoTDB.metaManager;
+    manager.setStorageGroup(new PartialPath("root.laptop"));
+    for (int i = 0; i < 6; i++) {
+      manager.createTimeseries(new CreateTimeSeriesPlan(new PartialPath("root.laptop.d" + i
+          + ".s1"), TSDataType.INT32, TSEncoding.RLE, compressionType, Collections.emptyMap(),
+          i % 3 == 0 ? null : Collections.singletonMap("unit", "c"), null, "temperature"));
+    }
+    Map<String, String> tags = Collections.singletonMap("unit", "c");
+
+    // the same order as the non-tag path, without the series not carrying the tags
+    PartialPath pattern = new PartialPath("root.laptop.*.s1");
+    List<PartialPath> expected = manager.getAllTimeseriesPathWithAlias(pattern, 0, 0).left;
+    expected.removeIf(path -> path.getDevice().endsWith("0") || path.getDevice().endsWith("3"));
+    assertEquals(expected, manager.getAllTimeseriesPathWithTags(pattern, tags, 0, 0).left);
+    Pair<List<PartialPath>, Integer> pair =
+        manager.getAllTimeseriesPathWithTags(pattern, tags, 2, 1);
+    assertEquals(expected.subList(1, 3), pair.left);
+    assertEquals(3, pair.right.intValue());
+
+    // the series are matched by their aliases too
+    List<PartialPath> paths = manager.getAllTimeseriesPathWithTags(
+        new PartialPath("root.laptop.*.temperature"), tags, 0, 0).left;
+    assertEquals(expected, paths);
+    for (PartialPath path : paths) {
+      assertEquals("temperature", path.getMeasurementAlias());
+    }
+  }
+
+  @Test
+  public void testShowTimeseriesCursor() throws MetadataException {
+    MManager manager = IoTDB.metaManager;
+    manager.setStorageGroup(new PartialPath("root.laptop"));
+    for (int i = 0; i < 5; i++) {
+      // the timeseries without tags are not stored in the tag file
+      manager.createTimeseries(new CreateTimeSeriesPlan(new PartialPath("root.laptop.d1.s" + i),
+          TSDataType.INT32, TSEncoding.RLE, compressionType, Collections.emptyMap(),
+          i % 2 == 0 ? Collections.singletonMap("unit", "c" + i) : null, null, null));
+    }
+
+    ShowTimeSeriesPlan plan = new ShowTimeSeriesPlan(new PartialPath("root.laptop"), false, null,
+        null, 2, 1, false);
+    ShowTimeSeriesCursor cursor = manager.showTimeseriesCursor(plan, null);
+    List<ShowTimeSeriesResult> results = new ArrayList<>(cursor.next(2));
+    assertEquals(2, results.size());
+    results.addAll(cursor.next(2));
+    assertEquals(4, results.size());
+    assertTrue(cursor.next(2).isEmpty());
+    // no timeseries is returned twice
+    assertEquals(4, results.stream().map(ShowTimeSeriesResult::getName).distinct().count());
+    for (ShowTimeSeriesResult result : results) {
+      int i = Integer.parseInt(result.getName().substring("root.laptop.d1.s".length()));
+      assertEquals("root.laptop", result.getSgName());
+      assertEquals(i % 2 == 0 ? Collections.singletonMap("unit", "c" + i)
+          : Collections.emptyMap(), result.getTag());
+    }
+
+    // with a limit set by the user, the limit is applied to the whole result
+    plan.setHasLimit(true);
+    assertEquals(2, manager.showTimeseriesCursor(plan, null).next(Integer.MAX_VALUE).size());
+    assertEquals(2, manager.showTimeseries(plan, null).size());
+  }
+
+  @Test
+  public void testDeviceSchemaHandle() throws MetadataException {
+    MManager manager = IoTDB.metaManager;
+    DeviceSchemaHandle handle = new DeviceSchemaHandle(new PartialPath("root.laptop.d1"));
+    MNode deviceMNode = insertWithHandle(manager, handle);
+    assertEquals("root.laptop.d1", deviceMNode.getFullPath());
+    // the resolved node is reused by the following inserts
+    assertSame(deviceMNode, insertWithHandle(manager, handle));
+
+    // and resolved again once the device is removed
+    manager.deleteStorageGroups(Collections.singletonList(new PartialPath("root.laptop")));
+    MNode newDeviceMNode = insertWithHandle(manager, handle);
+    Assert.assertNotSame(deviceMNode, newDeviceMNode);
+    assertSame(newDeviceMNode, manager.getDeviceNode(new PartialPath("root.laptop.d1")));
+  }
+
+  private MNode insertWithHandle(MManager manager, DeviceSchemaHandle handle)
+      throws MetadataException {
+    InsertRowPlan plan = new InsertRowPlan();
+    plan.setDeviceSchemaHandle(handle);
+    plan.setTime(1L);
+    plan.setMeasurements(new String[]{"s1"});
+    plan.setDataTypes(new TSDataType[1]);
+    plan.setValues(new Object[]{"1"});
+    plan.setNeedInferType(true);
+    plan.setMeasurementMNodes(new MeasurementMNode[1]);
+    return manager.getSeriesSchemasAndReadLockDevice(plan);
+  }
+
+  private MNode insertWithTemplate(MManager manager, String device) throws MetadataException {
+    InsertRowPlan plan = new InsertRowPlan(new PartialPath(device), 1L,
+        new String[]{"s1", "s2"}, new String[]{"1", "1.0"});
+    plan.setMeasurementMNodes(new MeasurementMNode[2]);
+    return manager.getSeriesSchemasAndReadLockDevice(plan);
+  }
 }
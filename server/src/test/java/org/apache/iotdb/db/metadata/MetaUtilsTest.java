@@ -68,4 +68,27 @@ public class MetaUtilsTest {
     }
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testIsNodeMatch() {
+    Assert.assertTrue(MetaUtils.isNodeMatch("*", "d1"));
+    Assert.assertTrue(MetaUtils.isNodeMatch("d*", "d1"));
+    Assert.assertTrue(MetaUtils.isNodeMatch("*1", "d1"));
+    Assert.assertTrue(MetaUtils.isNodeMatch("d*1", "d11"));
+    Assert.assertTrue(MetaUtils.isNodeMatch("plant*line*", "plant1line2"));
+    Assert.assertTrue(MetaUtils.isNodeMatch("d**", "d"));
+    Assert.assertFalse(MetaUtils.isNodeMatch("d*2", "d21"));
+    Assert.assertFalse(MetaUtils.isNodeMatch("d1", "d11"));
+    // characters other than '*' are compared literally
+    Assert.assertFalse(MetaUtils.isNodeMatch("\"d.*\"", "\"dx1\""));
+    Assert.assertTrue(MetaUtils.isNodeMatch("\"d.*\"", "\"d.1\""));
+  }
+
+  @Test
+  public void testIsPathMatch() throws IllegalPathException {
+    String[] nodes = MetaUtils.splitPathToDetachedPath("root.sg.d1.s1");
+    Assert.assertTrue(MetaUtils.isPathMatch(nodes, new String[]{"root", "sg"}));
+    Assert.assertTrue(MetaUtils.isPathMatch(nodes, new String[]{"root", "*", "d*", "s1"}));
+    Assert.assertFalse(MetaUtils.isPathMatch(nodes, new String[]{"root", "*", "d2"}));
+    Assert.assertFalse(MetaUtils.isPathMatch(nodes, new String[]{"root", "sg", "d1", "s1", "*"}));
+  }
+}
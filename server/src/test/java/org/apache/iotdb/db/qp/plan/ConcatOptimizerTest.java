@@ -25,6 +25,7 @@ import org.apache.iotdb.db.metadata.PartialPath;
 import org.apache.iotdb.db.qp.Planner;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.RawDataQueryPlan;
+import org.apache.iotdb.db.qp.physical.sys.CreateTimeSeriesPlan;
 import org.apache.iotdb.db.qp.strategy.optimizer.ConcatPathOptimizer;
 import org.apache.iotdb.db.service.IoTDB;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
@@ -34,13 +35,18 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.expression.IExpression;
 import org.apache.iotdb.tsfile.read.expression.impl.BinaryExpression;
+import org.apache.iotdb.tsfile.read.expression.impl.GlobalTimeExpression;
 import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
 import org.apache.iotdb.tsfile.read.filter.ValueFilter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 
@@ -121,4 +127,31 @@ public class ConcatOptimizerTest {
     );
     assertEquals(expression.toString(), ((RawDataQueryPlan) plan).getExpression().toString());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testConcatWithTags() throws QueryProcessException, MetadataException {
+    Map<String, String> tags = new HashMap<>();
+    tags.put("tenant", "t1");
+    tags.put("unit", "c");
+    IoTDB.metaManager.createTimeseries(new CreateTimeSeriesPlan(
+        new PartialPath("root.laptop.d4.s1"), TSDataType.INT64, TSEncoding.PLAIN,
+        CompressionType.UNCOMPRESSED, null, tags, null, null));
+    IoTDB.metaManager.createTimeseries(new CreateTimeSeriesPlan(
+        new PartialPath("root.laptop.d5.s1"), TSDataType.INT64, TSEncoding.PLAIN,
+        CompressionType.UNCOMPRESSED, null, Collections.singletonMap("tenant", "t1"), null,
+        null));
+
+    PhysicalPlan plan = processor
+        .parseSQLToPhysicalPlan("select * from root.laptop.* where tags(tenant=t1)");
+    assertEquals(2, plan.getPaths().size());
+    assertEquals("root.laptop.d4.s1", plan.getPaths().get(0).getFullPath());
+    assertEquals("root.laptop.d5.s1", plan.getPaths().get(1).getFullPath());
+
+    plan = processor.parseSQLToPhysicalPlan(
+        "select s1 from root.laptop.* where tags(tenant=t1 and unit='c') and time < 10");
+    assertEquals(1, plan.getPaths().size());
+    assertEquals("root.laptop.d4.s1", plan.getPaths().get(0).getFullPath());
+    assertEquals(new GlobalTimeExpression(TimeFilter.lt(10)).toString(),
+        ((RawDataQueryPlan) plan).getExpression().toString());
+  }
+}
@@ -25,9 +25,11 @@ import java.nio.ByteBuffer;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.qp.constant.SQLConstant;
 import org.apache.iotdb.db.query.aggregation.impl.AvgAggrResult;
+import org.apache.iotdb.db.query.aggregation.impl.VarianceAggrResult;
 import org.apache.iotdb.db.query.factory.AggregateResultFactory;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -262,4 +264,44 @@ public class AggregateResultTest {
     Assert.assertEquals(2d, (double) result.getResult(), 0.01);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void varianceAggrResultTest() throws QueryProcessException, IOException {
+    AggregateResult varianceAggrResult1 = AggregateResultFactory
+        .getAggrResultByName(SQLConstant.VARIANCE, TSDataType.DOUBLE, true);
+    AggregateResult varianceAggrResult2 = AggregateResultFactory
+        .getAggrResultByName(SQLConstant.VARIANCE, TSDataType.DOUBLE, true);
+
+    Statistics statistics = Statistics.getStatsByType(TSDataType.DOUBLE);
+    statistics.update(1L, 1d);
+    statistics.update(2L, 1d);
+    Assert.assertTrue(varianceAggrResult1.canUseStatistics(statistics));
+    varianceAggrResult1.updateResultFromStatistics(statistics);
+    BatchData batchData = new BatchData(TSDataType.DOUBLE);
+    batchData.putDouble(3L, 2d);
+    batchData.putDouble(4L, 4d);
+    varianceAggrResult2.updateResultFromPageData(batchData);
+    varianceAggrResult1.merge(varianceAggrResult2);
+    Assert.assertEquals(2d, (double) varianceAggrResult1.getResult(), 0.01);
+    Assert.assertEquals(4, ((VarianceAggrResult) varianceAggrResult1).getCnt());
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    varianceAggrResult1.serializeTo(outputStream);
+    ByteBuffer byteBuffer = ByteBuffer.wrap(outputStream.toByteArray());
+    AggregateResult result = AggregateResult.deserializeFrom(byteBuffer);
+    Assert.assertEquals(2d, (double) result.getResult(), 0.01);
+
+    // the statistics without the sum of squares cannot be used
+    statistics.setSumOfSquares(Double.NaN);
+    Assert.assertFalse(varianceAggrResult1.canUseStatistics(statistics));
+
+    // there is no sample variance of a single value
+    AggregateResult stdDevAggrResult = AggregateResultFactory
+        .getAggrResultByName(SQLConstant.STDDEV, TSDataType.DOUBLE, true);
+    batchData = new BatchData(TSDataType.DOUBLE);
+    batchData.putDouble(1L, 1d);
+    stdDevAggrResult.updateResultFromPageData(batchData);
+    Assert.assertNull(stdDevAggrResult.getResult());
+    stdDevAggrResult.merge(result);
+    Assert.assertEquals(Math.sqrt(1.7d), (double) stdDevAggrResult.getResult(), 0.01);
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.common.conf;
 
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.zip.Deflater;
 
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.fileSystem.FSType;
@@ -86,10 +87,20 @@ public class TSFileConfig implements Serializable {
    * The maximum number of data points in a page, default value is 1024 * 1024.
    */
   private int maxNumberOfPointsInPage = 1024 * 1024;
+  /**
+   * The minimum number of pages of a chunk to store a page index in its metadata, a non-positive
+   * value disables the page index. Default value is 8.
+   */
+  private int pageIndexMinPageNum = 8;
   /**
    * The maximum degree of a metadataIndex node, default value is 1024
    */
   private int maxDegreeOfIndexNode = 1024;
+  /**
+   * The memory size for the internal nodes of the metadata index trees cached by all the opened
+   * readers, a non-positive value disables the cache. Default value is 64MB.
+   */
+  private long metadataIndexNodeCacheSizeInByte = 64L * 1024 * 1024;
   /**
    * Data type for input timestamp, TsFile supports INT32 or INT64.
    */
@@ -139,9 +150,25 @@ public class TSFileConfig implements Serializable {
    */
   private double dftSatisfyRate = 0.1;
   /**
-   * Data compression method, TsFile supports UNCOMPRESSED, SNAPPY or LZ4.
+   * Data compression method, TsFile supports UNCOMPRESSED, SNAPPY, GZIP, LZ4 or ZSTD.
    */
   private CompressionType compressor = CompressionType.SNAPPY;
+  /**
+   * Default level of GZIP, from 1 (fastest) to 9 (smallest), -1 means the default level of zlib.
+   * It can be overridden for a timeseries by its compression_level property.
+   */
+  private int gzipCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+  /**
+   * Default level of ZSTD, from 1 (fastest) to 22 (smallest). It can be overridden for a
+   * timeseries by its compression_level property.
+   */
+  private int zstdCompressionLevel = 3;
+  /**
+   * Directory of the trained ZSTD dictionaries, empty means no dictionaries. The dictionary named
+   * after a data type, e.g., DOUBLE.dict, compresses the series of the type, and each dictionary
+   * in the directory decompresses the data compressed with it.
+   */
+  private String zstdDictionaryDir = "";
   /**
    * Line count threshold for checking page memory occupied size.
    */
@@ -207,6 +234,11 @@ public class TSFileConfig implements Serializable {
    * The amount of data iterate each time
    */
   private int batchSize = 1000;
+  /**
+   * The number of threads of a TsFileWriter to encode and compress the measurements of a tablet in
+   * parallel, a value not greater than 1 encodes them on the writing thread. Default value is 1.
+   */
+  private int encodingThreadNum = 1;
 
   public TSFileConfig() {
 
@@ -236,6 +268,14 @@ public class TSFileConfig implements Serializable {
     this.maxNumberOfPointsInPage = maxNumberOfPointsInPage;
   }
 
+  public int getPageIndexMinPageNum() {
+    return pageIndexMinPageNum;
+  }
+
+  public void setPageIndexMinPageNum(int pageIndexMinPageNum) {
+    this.pageIndexMinPageNum = pageIndexMinPageNum;
+  }
+
   public int getMaxDegreeOfIndexNode() {
     return maxDegreeOfIndexNode;
   }
@@ -244,6 +284,14 @@ public class TSFileConfig implements Serializable {
     this.maxDegreeOfIndexNode = maxDegreeOfIndexNode;
   }
 
+  public long getMetadataIndexNodeCacheSizeInByte() {
+    return metadataIndexNodeCacheSizeInByte;
+  }
+
+  public void setMetadataIndexNodeCacheSizeInByte(long metadataIndexNodeCacheSizeInByte) {
+    this.metadataIndexNodeCacheSizeInByte = metadataIndexNodeCacheSizeInByte;
+  }
+
   public String getTimeSeriesDataType() {
     return timeSeriesDataType;
   }
@@ -348,6 +396,30 @@ public class TSFileConfig implements Serializable {
     this.compressor = CompressionType.valueOf(compressor);
   }
 
+  public int getGzipCompressionLevel() {
+    return gzipCompressionLevel;
+  }
+
+  public void setGzipCompressionLevel(int gzipCompressionLevel) {
+    this.gzipCompressionLevel = gzipCompressionLevel;
+  }
+
+  public int getZstdCompressionLevel() {
+    return zstdCompressionLevel;
+  }
+
+  public void setZstdCompressionLevel(int zstdCompressionLevel) {
+    this.zstdCompressionLevel = zstdCompressionLevel;
+  }
+
+  public String getZstdDictionaryDir() {
+    return zstdDictionaryDir;
+  }
+
+  public void setZstdDictionaryDir(String zstdDictionaryDir) {
+    this.zstdDictionaryDir = zstdDictionaryDir;
+  }
+
   public int getPageCheckSizeThreshold() {
     return pageCheckSizeThreshold;
   }
@@ -475,4 +547,12 @@ public class TSFileConfig implements Serializable {
   public void setBatchSize(int batchSize) {
     this.batchSize = batchSize;
   }
+
+  public int getEncodingThreadNum() {
+    return encodingThreadNum;
+  }
+
+  public void setEncodingThreadNum(int encodingThreadNum) {
+    this.encodingThreadNum = encodingThreadNum;
+  }
 }
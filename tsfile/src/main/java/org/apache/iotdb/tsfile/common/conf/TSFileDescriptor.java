@@ -120,8 +120,13 @@ public class TSFileDescriptor {
       }
       conf.setMaxNumberOfPointsInPage(Integer.parseInt(
           properties.getProperty("max_number_of_points_in_page", Integer.toString(conf.getMaxNumberOfPointsInPage()))));
+      conf.setPageIndexMinPageNum(Integer.parseInt(
+          properties.getProperty("page_index_min_page_num", Integer.toString(conf.getPageIndexMinPageNum()))));
       conf.setMaxDegreeOfIndexNode(Integer.parseInt(
           properties.getProperty("max_degree_of_index_node", Integer.toString(conf.getMaxDegreeOfIndexNode()))));
+      conf.setMetadataIndexNodeCacheSizeInByte(Long.parseLong(properties.getProperty(
+          "metadata_index_node_cache_size_in_byte",
+          Long.toString(conf.getMetadataIndexNodeCacheSizeInByte()))));
       conf.setTimeSeriesDataType(properties.getProperty("time_series_data_type", conf.getTimeSeriesDataType()));
       conf.setMaxStringLength(
           Integer.parseInt(properties.getProperty("max_string_length", Integer.toString(conf.getMaxStringLength()))));
@@ -130,8 +135,16 @@ public class TSFileDescriptor {
       conf.setTimeEncoder(properties.getProperty("time_encoder", conf.getTimeEncoder()));
       conf.setValueEncoder(properties.getProperty("value_encoder", conf.getValueEncoder()));
       conf.setCompressor(properties.getProperty("compressor", conf.getCompressor().toString()));
+      conf.setGzipCompressionLevel(Integer.parseInt(properties.getProperty(
+          "gzip_compression_level", Integer.toString(conf.getGzipCompressionLevel()))));
+      conf.setZstdCompressionLevel(Integer.parseInt(properties.getProperty(
+          "zstd_compression_level", Integer.toString(conf.getZstdCompressionLevel()))));
+      conf.setZstdDictionaryDir(properties.getProperty("zstd_dictionary_dir",
+          conf.getZstdDictionaryDir()));
       conf.setBatchSize(Integer.parseInt(properties.getProperty("batch_size",
           Integer.toString(conf.getBatchSize()))));
+      conf.setEncodingThreadNum(Integer.parseInt(properties.getProperty("encoding_thread_num",
+          Integer.toString(conf.getEncodingThreadNum()))));
     } catch (IOException e) {
       logger.warn("Cannot load config file, use default configuration", e);
     } catch (Exception e) {
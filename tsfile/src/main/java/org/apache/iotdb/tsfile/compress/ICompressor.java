@@ -19,13 +19,21 @@
 
 package org.apache.iotdb.tsfile.compress;
 
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
 import net.jpountz.lz4.LZ4Compressor;
 import net.jpountz.lz4.LZ4Factory;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.compress.CompressionTypeNotSupportedException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.xerial.snappy.Snappy;
 
 /**
@@ -44,6 +52,32 @@ public interface ICompressor extends Serializable {
    * @return the Compressor of specified CompressionType
    */
   static ICompressor getCompressor(CompressionType name) {
+    return getCompressor(name, -1);
+  }
+
+  /**
+   * get Compressor according to CompressionType and compression level.
+   *
+   * @param name  CompressionType
+   * @param level the compression level, a negative one means the default level of the
+   *              compressor. It is ignored by the compressors without levels.
+   * @return the Compressor of specified CompressionType
+   */
+  static ICompressor getCompressor(CompressionType name, int level) {
+    return getCompressor(name, level, null);
+  }
+
+  /**
+   * get Compressor according to CompressionType, compression level and the data type of the
+   * compressed series.
+   *
+   * @param name     CompressionType
+   * @param level    the compression level, a negative one means the default level of the
+   *                 compressor. It is ignored by the compressors without levels.
+   * @param dataType the data type picking the ZSTD dictionary, null means no dictionary
+   * @return the Compressor of specified CompressionType
+   */
+  static ICompressor getCompressor(CompressionType name, int level, TSDataType dataType) {
     if (name == null) {
       throw new CompressionTypeNotSupportedException("NULL");
     }
@@ -54,6 +88,12 @@ public interface ICompressor extends Serializable {
         return new SnappyCompressor();
       case LZ4:
         return new IOTDBLZ4Compressor();
+      case GZIP:
+        return level < 0 ? new GZIPCompressor() : new GZIPCompressor(level);
+      case ZSTD:
+        return new ZSTDCompressor(level < 0
+            ? TSFileDescriptor.getInstance().getConfig().getZstdCompressionLevel() : level,
+            dataType);
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
@@ -181,4 +221,162 @@ public interface ICompressor extends Serializable {
       return CompressionType.LZ4;
     }
   }
+
+  class GZIPCompressor implements ICompressor {
+
+    // the header and the trailer of a GZIP member
+    private static final int GZIP_OVERHEAD = 18;
+
+    private final int level;
+
+    public GZIPCompressor() {
+      this(TSFileDescriptor.getInstance().getConfig().getGzipCompressionLevel());
+    }
+
+    /**
+     * @param level from 1 (fastest) to 9 (smallest), or -1 for the default level of zlib
+     */
+    public GZIPCompressor(int level) {
+      this.level = level;
+    }
+
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+      if (data == null) {
+        return new byte[0];
+      }
+      return compress(data, 0, data.length);
+    }
+
+    @Override
+    public int compress(byte[] data, int offset, int length, byte[] compressed) throws IOException {
+      byte[] result = compress(data, offset, length);
+      if (result.length > compressed.length) {
+        throw new IOException("The compressed data of " + length + " bytes takes " + result.length
+            + " bytes, more than " + compressed.length);
+      }
+      System.arraycopy(result, 0, compressed, 0, result.length);
+      return result.length;
+    }
+
+    @Override
+    public int compress(ByteBuffer data, ByteBuffer compressed) throws IOException {
+      byte[] input = new byte[data.remaining()];
+      data.get(input);
+      byte[] result = compress(input, 0, input.length);
+      compressed.put(result);
+      return result.length;
+    }
+
+    private byte[] compress(byte[] data, int offset, int length) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + GZIP_OVERHEAD);
+      try (GZIPOutputStream gzipOutputStream = new LeveledGZIPOutputStream(out, level)) {
+        gzipOutputStream.write(data, offset, length);
+      }
+      return out.toByteArray();
+    }
+
+    @Override
+    public int getMaxBytesForCompression(int uncompressedDataSize) {
+      // the bound of deflate given by zlib
+      return uncompressedDataSize + (uncompressedDataSize >> 12) + (uncompressedDataSize >> 14)
+          + (uncompressedDataSize >> 25) + 13 + GZIP_OVERHEAD;
+    }
+
+    @Override
+    public CompressionType getType() {
+      return CompressionType.GZIP;
+    }
+
+    public int getLevel() {
+      return level;
+    }
+
+    private static class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+      private LeveledGZIPOutputStream(OutputStream out, int level) throws IOException {
+        super(out);
+        def.setLevel(level);
+      }
+    }
+  }
+
+  class ZSTDCompressor implements ICompressor {
+
+    private final int level;
+
+    /**
+     * the trained dictionary of the data type, null if there is none
+     */
+    private final transient ZstdDictCompress dictionary;
+
+    public ZSTDCompressor() {
+      this(TSFileDescriptor.getInstance().getConfig().getZstdCompressionLevel());
+    }
+
+    /**
+     * @param level from 1 (fastest) to 22 (smallest)
+     */
+    public ZSTDCompressor(int level) {
+      this(level, null);
+    }
+
+    /**
+     * @param level    from 1 (fastest) to 22 (smallest)
+     * @param dataType the data type picking the dictionary, null means no dictionary
+     */
+    public ZSTDCompressor(int level, TSDataType dataType) {
+      this.level = level;
+      this.dictionary = dataType == null ? null
+          : ZSTDDictionaries.getInstance().getCompressDictionary(dataType, level);
+    }
+
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+      if (data == null) {
+        return new byte[0];
+      }
+      byte[] compressed = new byte[getMaxBytesForCompression(data.length)];
+      return Arrays.copyOf(compressed, compress(data, 0, data.length, compressed));
+    }
+
+    @Override
+    public int compress(byte[] data, int offset, int length, byte[] compressed) throws IOException {
+      long size = dictionary == null
+          ? Zstd.compressByteArray(compressed, 0, compressed.length, data, offset, length, level)
+          : Zstd.compressFastDict(compressed, 0, data, offset, length, dictionary);
+      if (Zstd.isError(size)) {
+        throw new IOException("Cannot compress " + length + " bytes by ZSTD: "
+            + Zstd.getErrorName(size));
+      }
+      return (int) size;
+    }
+
+    @Override
+    public int compress(ByteBuffer data, ByteBuffer compressed) throws IOException {
+      byte[] input = new byte[data.remaining()];
+      data.get(input);
+      byte[] result = compress(input);
+      compressed.put(result);
+      return result.length;
+    }
+
+    @Override
+    public int getMaxBytesForCompression(int uncompressedDataSize) {
+      return (int) Zstd.compressBound(uncompressedDataSize);
+    }
+
+    @Override
+    public CompressionType getType() {
+      return CompressionType.ZSTD;
+    }
+
+    public int getLevel() {
+      return level;
+    }
+
+    public boolean hasDictionary() {
+      return dictionary != null;
+    }
+  }
 }
@@ -19,8 +19,14 @@
 
 package org.apache.iotdb.tsfile.compress;
 
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictDecompress;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 import net.jpountz.lz4.LZ4Compressor;
 import net.jpountz.lz4.LZ4Factory;
 import net.jpountz.lz4.LZ4SafeDecompressor;
@@ -53,6 +59,10 @@ public interface IUnCompressor {
         return new SnappyUnCompressor();
       case LZ4:
         return new LZ4UnCompressor();
+      case GZIP:
+        return new GZIPUnCompressor();
+      case ZSTD:
+        return new ZSTDUnCompressor();
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
@@ -267,4 +277,175 @@ public interface IUnCompressor {
       return CompressionType.LZ4;
     }
   }
+
+  class GZIPUnCompressor implements IUnCompressor {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * The trailer of a GZIP member ends with the uncompressed size modulo 2^32 in little endian.
+     */
+    @Override
+    public int getUncompressedLength(byte[] array, int offset, int length) throws IOException {
+      if (length < Integer.BYTES) {
+        throw new IOException("Not GZIP data of " + length + " bytes");
+      }
+      int end = offset + length;
+      return (array[end - 4] & 0xFF) | (array[end - 3] & 0xFF) << 8
+          | (array[end - 2] & 0xFF) << 16 | (array[end - 1] & 0xFF) << 24;
+    }
+
+    @Override
+    public int getUncompressedLength(ByteBuffer buffer) throws IOException {
+      byte[] trailer = new byte[Integer.BYTES];
+      if (buffer.remaining() < trailer.length) {
+        throw new IOException("Not GZIP data of " + buffer.remaining() + " bytes");
+      }
+      for (int i = 0; i < trailer.length; i++) {
+        trailer[i] = buffer.get(buffer.limit() - trailer.length + i);
+      }
+      return getUncompressedLength(trailer, 0, trailer.length);
+    }
+
+    @Override
+    public byte[] uncompress(byte[] byteArray) throws IOException {
+      if (byteArray == null) {
+        return new byte[0];
+      }
+      return uncompress(byteArray, 0, byteArray.length);
+    }
+
+    @Override
+    public int uncompress(byte[] byteArray, int offset, int length, byte[] output, int outOffset)
+        throws IOException {
+      try (GZIPInputStream inputStream = new GZIPInputStream(
+          new ByteArrayInputStream(byteArray, offset, length))) {
+        int total = 0;
+        int read;
+        while (outOffset + total < output.length
+            && (read = inputStream.read(output, outOffset + total, output.length - outOffset - total))
+            > 0) {
+          total += read;
+        }
+        return total;
+      }
+    }
+
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+      if (compressed == null || !compressed.hasRemaining()) {
+        return 0;
+      }
+      byte[] input = new byte[compressed.remaining()];
+      compressed.get(input);
+      byte[] result = uncompress(input, 0, input.length);
+      uncompressed.put(result);
+      return result.length;
+    }
+
+    private byte[] uncompress(byte[] byteArray, int offset, int length) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+      try (GZIPInputStream inputStream = new GZIPInputStream(
+          new ByteArrayInputStream(byteArray, offset, length))) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) > 0) {
+          out.write(buffer, 0, read);
+        }
+      }
+      return out.toByteArray();
+    }
+
+    @Override
+    public CompressionType getCodecName() {
+      return CompressionType.GZIP;
+    }
+  }
+
+  class ZSTDUnCompressor implements IUnCompressor {
+
+    // the maximum size of a ZSTD frame header, which has the dictionary ID
+    private static final int MAX_FRAME_HEADER_SIZE = 18;
+
+    /**
+     * The ZSTD frame header has the uncompressed size.
+     */
+    @Override
+    public int getUncompressedLength(byte[] array, int offset, int length) throws IOException {
+      long size = Zstd.decompressedSize(array, offset, length);
+      if (size <= 0 && length > 0) {
+        throw new IOException("Unknown uncompressed size of ZSTD data of " + length + " bytes");
+      }
+      return (int) size;
+    }
+
+    @Override
+    public int getUncompressedLength(ByteBuffer buffer) throws IOException {
+      byte[] header = new byte[Math.min(buffer.remaining(), MAX_FRAME_HEADER_SIZE)];
+      buffer.duplicate().get(header);
+      return getUncompressedLength(header, 0, header.length);
+    }
+
+    @Override
+    public byte[] uncompress(byte[] byteArray) throws IOException {
+      if (byteArray == null) {
+        return new byte[0];
+      }
+      byte[] output = new byte[getUncompressedLength(byteArray, 0, byteArray.length)];
+      uncompress(byteArray, 0, byteArray.length, output, 0);
+      return output;
+    }
+
+    @Override
+    public int uncompress(byte[] byteArray, int offset, int length, byte[] output, int outOffset)
+        throws IOException {
+      ZstdDictDecompress dictionary = getDictionary(byteArray, offset, length);
+      long size = dictionary == null
+          ? Zstd.decompressByteArray(output, outOffset, output.length - outOffset, byteArray,
+          offset, length)
+          : Zstd.decompressFastDict(output, outOffset, byteArray, offset, length, dictionary);
+      if (Zstd.isError(size)) {
+        throw new IOException("Cannot uncompress " + length + " bytes by ZSTD: "
+            + Zstd.getErrorName(size));
+      }
+      return (int) size;
+    }
+
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+      if (compressed == null || !compressed.hasRemaining()) {
+        return 0;
+      }
+      byte[] input = new byte[compressed.remaining()];
+      compressed.get(input);
+      byte[] result = uncompress(input);
+      uncompressed.put(result);
+      return result.length;
+    }
+
+    /**
+     * @return the dictionary whose ID is in the frame header, or null if the frame has no ID
+     */
+    private static ZstdDictDecompress getDictionary(byte[] byteArray, int offset, int length)
+        throws IOException {
+      byte[] header = Arrays.copyOfRange(byteArray, offset,
+          offset + Math.min(length, MAX_FRAME_HEADER_SIZE));
+      long dictionaryId = Zstd.getDictIdFromFrame(header);
+      if (dictionaryId == 0) {
+        return null;
+      }
+      ZstdDictDecompress dictionary = ZSTDDictionaries.getInstance()
+          .getDecompressDictionary(dictionaryId);
+      if (dictionary == null) {
+        throw new IOException("The ZSTD dictionary " + dictionaryId
+            + " is not found in zstd_dictionary_dir");
+      }
+      return dictionary;
+    }
+
+    @Override
+    public CompressionType getCodecName() {
+      return CompressionType.ZSTD;
+    }
+  }
 }
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.compress;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The trained ZSTD dictionaries in zstd_dictionary_dir. The dictionary named after a data type,
+ * e.g., DOUBLE.dict, compresses the series of the type. Each dictionary in the directory
+ * decompresses the data compressed with it, which is found by the dictionary ID in the ZSTD
+ * frame, so a replaced dictionary must be kept in the directory under another name.
+ */
+public class ZSTDDictionaries {
+
+  public static final String DICTIONARY_SUFFIX = ".dict";
+
+  private static final Logger logger = LoggerFactory.getLogger(ZSTDDictionaries.class);
+
+  private static volatile ZSTDDictionaries instance;
+
+  private final String dir;
+
+  private final Map<TSDataType, byte[]> typeDictionaries = new EnumMap<>(TSDataType.class);
+
+  private final Map<Long, ZstdDictDecompress> decompressDictionaries = new HashMap<>();
+
+  /**
+   * the dictionaries digested for each data type and level, created when first used
+   */
+  private final Map<String, ZstdDictCompress> compressDictionaries = new ConcurrentHashMap<>();
+
+  private ZSTDDictionaries(String dir) {
+    this.dir = dir;
+    if (dir == null || dir.isEmpty()) {
+      return;
+    }
+    File[] files = new File(dir).listFiles((d, name) -> name.endsWith(DICTIONARY_SUFFIX));
+    if (files == null) {
+      logger.warn("The ZSTD dictionary directory {} cannot be read", dir);
+      return;
+    }
+    for (File file : files) {
+      loadDictionary(file);
+    }
+  }
+
+  /**
+   * @return the dictionaries of the current zstd_dictionary_dir, which are reloaded when the
+   * directory is changed
+   */
+  public static ZSTDDictionaries getInstance() {
+    String dir = TSFileDescriptor.getInstance().getConfig().getZstdDictionaryDir();
+    ZSTDDictionaries dictionaries = instance;
+    if (dictionaries == null || !Objects.equals(dictionaries.dir, dir)) {
+      synchronized (ZSTDDictionaries.class) {
+        dictionaries = instance;
+        if (dictionaries == null || !Objects.equals(dictionaries.dir, dir)) {
+          dictionaries = new ZSTDDictionaries(dir);
+          instance = dictionaries;
+        }
+      }
+    }
+    return dictionaries;
+  }
+
+  private void loadDictionary(File file) {
+    byte[] dictionary;
+    try {
+      dictionary = Files.readAllBytes(file.toPath());
+    } catch (IOException e) {
+      logger.error("Cannot read the ZSTD dictionary {}", file, e);
+      return;
+    }
+    // the frames compressed with a dictionary without ID cannot tell which dictionary they need
+    long dictionaryId = Zstd.getDictIdFromDict(dictionary);
+    if (dictionaryId == 0) {
+      logger.warn("{} is not a trained ZSTD dictionary, ignore it", file);
+      return;
+    }
+    decompressDictionaries.put(dictionaryId, new ZstdDictDecompress(dictionary));
+
+    String name = file.getName();
+    name = name.substring(0, name.length() - DICTIONARY_SUFFIX.length());
+    for (TSDataType dataType : TSDataType.values()) {
+      if (dataType.name().equals(name)) {
+        typeDictionaries.put(dataType, dictionary);
+      }
+    }
+    logger.info("Loaded the ZSTD dictionary {} of ID {}", file, dictionaryId);
+  }
+
+  /**
+   * @return the dictionary compressing the series of dataType at the level, or null if there is
+   * none
+   */
+  public ZstdDictCompress getCompressDictionary(TSDataType dataType, int level) {
+    byte[] dictionary = typeDictionaries.get(dataType);
+    if (dictionary == null) {
+      return null;
+    }
+    return compressDictionaries.computeIfAbsent(dataType + ":" + level,
+        key -> new ZstdDictCompress(dictionary, level));
+  }
+
+  /**
+   * @return the dictionary of the ID in a ZSTD frame, or null if it is not in the directory
+   */
+  public ZstdDictDecompress getDecompressDictionary(long dictionaryId) {
+    return decompressDictionaries.get(dictionaryId);
+  }
+
+  /**
+   * Train a dictionary on samples, e.g., the uncompressed pages of the series of a data type.
+   *
+   * @param dictionarySize the maximum size of the dictionary, about 100KB is usually enough
+   */
+  public static byte[] train(List<byte[]> samples, int dictionarySize) {
+    int sampleSize = 0;
+    for (byte[] sample : samples) {
+      sampleSize += sample.length;
+    }
+    ZstdDictTrainer trainer = new ZstdDictTrainer(sampleSize, dictionarySize);
+    for (byte[] sample : samples) {
+      trainer.addSample(sample);
+    }
+    return trainer.trainSamples();
+  }
+}
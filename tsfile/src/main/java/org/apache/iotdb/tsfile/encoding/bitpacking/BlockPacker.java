@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.bitpacking;
+
+/**
+ * This class is used to pack(unpack) a block of at most {@link BlockPacker#BLOCK_SIZE}
+ * non-negative Longs of the same bit-width into 64-bit words. The i-th value takes the bits [i *
+ * width, (i + 1) * width) of the words, counted from the lowest bit of the first word.
+ *
+ * <p>
+ * Unlike {@link IntPacker} and {@link LongPacker}, which pack 8 values at a time bit by bit, a
+ * value is packed and unpacked by at most two word operations without branches. The widths
+ * dividing 64, where no value crosses words, are unpacked by loops of a constant trip count, which
+ * the JIT unrolls.
+ */
+public class BlockPacker {
+
+  public static final int BLOCK_SIZE = 128;
+
+  private BlockPacker() {
+    // util class
+  }
+
+  /**
+   * @return the number of words the values are packed into
+   */
+  public static int getWordNum(int valueNum, int width) {
+    return (valueNum * width + Long.SIZE - 1) >>> 6;
+  }
+
+  /**
+   * Pack the values into the words.
+   *
+   * @param values   - the values to pack, each less than 2^width
+   * @param valueNum - the number of the values
+   * @param width    - bit-width, from 0 to 64
+   * @param words    - the words to pack into, cleared, of at least (getWordNum(valueNum, width) +
+   *                 1) words
+   */
+  public static void pack(long[] values, int valueNum, int width, long[] words) {
+    if (width == 0) {
+      return;
+    }
+    for (int i = 0, bit = 0; i < valueNum; i++, bit += width) {
+      int index = bit >>> 6;
+      int shift = bit & 63;
+      words[index] |= values[i] << shift;
+      // the bits not fitting in the word, shifted twice as a shift of 64 is no shift in Java
+      words[index + 1] |= (values[i] >>> 1) >>> (63 - shift);
+    }
+  }
+
+  /**
+   * Unpack the values from the words.
+   *
+   * @param words    - the words packed by {@link BlockPacker#pack(long[], int, int, long[])}, of at
+   *                 least (getWordNum(valueNum, width) + 1) words
+   * @param valueNum - the number of the values
+   * @param width    - bit-width, from 0 to 64
+   * @param values   - the unpacked values
+   */
+  public static void unpack(long[] words, int valueNum, int width, long[] values) {
+    switch (width) {
+      case 0:
+        for (int i = 0; i < valueNum; i++) {
+          values[i] = 0;
+        }
+        break;
+      case 1:
+        unpackAligned(words, valueNum, 1, 64, values);
+        break;
+      case 2:
+        unpackAligned(words, valueNum, 2, 32, values);
+        break;
+      case 4:
+        unpackAligned(words, valueNum, 4, 16, values);
+        break;
+      case 8:
+        unpackAligned(words, valueNum, 8, 8, values);
+        break;
+      case 16:
+        unpackAligned(words, valueNum, 16, 4, values);
+        break;
+      case 32:
+        unpackAligned(words, valueNum, 32, 2, values);
+        break;
+      case 64:
+        System.arraycopy(words, 0, values, 0, valueNum);
+        break;
+      default:
+        unpackUnaligned(words, valueNum, width, values);
+        break;
+    }
+  }
+
+  private static void unpackAligned(long[] words, int valueNum, int width, int valuesPerWord,
+      long[] values) {
+    long mask = (1L << width) - 1;
+    int fullWordNum = valueNum / valuesPerWord;
+    int i = 0;
+    for (int w = 0; w < fullWordNum; w++) {
+      long word = words[w];
+      for (int j = 0; j < valuesPerWord; j++) {
+        values[i++] = (word >>> (j * width)) & mask;
+      }
+    }
+    for (int j = 0; i < valueNum; j++) {
+      values[i++] = (words[fullWordNum] >>> (j * width)) & mask;
+    }
+  }
+
+  private static void unpackUnaligned(long[] words, int valueNum, int width, long[] values) {
+    long mask = (1L << width) - 1;
+    for (int i = 0, bit = 0; i < valueNum; i++, bit += width) {
+      int index = bit >>> 6;
+      int shift = bit & 63;
+      values[i] = ((words[index] >>> shift) | ((words[index + 1] << 1) << (63 - shift))) & mask;
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import java.nio.ByteBuffer;
+
+import org.apache.iotdb.tsfile.encoding.bitpacking.BlockPacker;
+import org.apache.iotdb.tsfile.encoding.encoder.BlockDeltaEncoder;
+import org.apache.iotdb.tsfile.exception.encoding.TsFileDecodingException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * Decoder for the values encoded by {@link BlockDeltaEncoder}, a whole block is decoded when its
+ * first value is read.
+ *
+ * @see BlockDeltaEncoder
+ */
+public class BlockDeltaDecoder extends Decoder {
+
+  private final long[] values = new long[BlockPacker.BLOCK_SIZE + 1];
+  private final long[] deltas = new long[BlockPacker.BLOCK_SIZE];
+  private final long[] words = new long[BlockPacker.BLOCK_SIZE + 1];
+  private int valueNum;
+  private int readIndex;
+
+  public BlockDeltaDecoder() {
+    super(TSEncoding.BLOCK_DELTA);
+  }
+
+  @Override
+  public boolean hasNext(ByteBuffer buffer) {
+    return readIndex < valueNum || buffer.hasRemaining();
+  }
+
+  @Override
+  public int readInt(ByteBuffer buffer) {
+    return (int) readLong(buffer);
+  }
+
+  @Override
+  public long readLong(ByteBuffer buffer) {
+    if (readIndex == valueNum) {
+      if (!buffer.hasRemaining()) {
+        throw new TsFileDecodingException("No more values to read");
+      }
+      decodeBlock(buffer);
+    }
+    return values[readIndex++];
+  }
+
+  private void decodeBlock(ByteBuffer buffer) {
+    int deltaNum = buffer.get() & 0xFF;
+    int width = buffer.get();
+    long value = ReadWriteForEncodingUtils.readVarLong(buffer);
+    values[0] = value;
+    if (deltaNum > 0) {
+      long minDelta = ReadWriteForEncodingUtils.readVarLong(buffer);
+      if (width == 0) {
+        // regular values, no dependency between the iterations
+        for (int i = 1; i <= deltaNum; i++) {
+          values[i] = value + i * minDelta;
+        }
+      } else {
+        int wordNum = BlockPacker.getWordNum(deltaNum, width);
+        buffer.asLongBuffer().get(words, 0, wordNum);
+        buffer.position(buffer.position() + wordNum * Long.BYTES);
+        BlockPacker.unpack(words, deltaNum, width, deltas);
+        for (int i = 0; i < deltaNum; i++) {
+          value += minDelta + deltas[i];
+          values[i + 1] = value;
+        }
+      }
+    }
+    valueNum = deltaNum + 1;
+    readIndex = 0;
+  }
+
+  @Override
+  public void reset() {
+    valueNum = 0;
+    readIndex = 0;
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.apache.iotdb.tsfile.encoding.encoder.ChimpEncoder.LEADING_ZEROS;
+import static org.apache.iotdb.tsfile.encoding.encoder.ChimpEncoder.PREVIOUS_VALUES;
+import static org.apache.iotdb.tsfile.encoding.encoder.ChimpEncoder.PREVIOUS_VALUES_LOG2;
+
+import java.nio.ByteBuffer;
+
+import org.apache.iotdb.tsfile.encoding.encoder.ChimpEncoder;
+import org.apache.iotdb.tsfile.exception.encoding.TsFileDecodingException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * Decoder for the values encoded by {@link ChimpEncoder}. The values of a page are decoded in a
+ * batch when the first one is read, which saves the per-value overhead of decoding them one by
+ * one.
+ *
+ * @see ChimpEncoder
+ */
+public class ChimpDecoder extends Decoder {
+
+  protected final int valueBits;
+  protected final int significantBitsLength;
+
+  private final long[] storedValues = new long[PREVIOUS_VALUES];
+  private int index;
+  private int storedLeadingZeros;
+
+  private byte buffer;
+  private int bitsLeft;
+
+  // the decoded values of the current page
+  private long[] values = new long[0];
+  private int valueNum;
+  private int readIndex;
+
+  public ChimpDecoder(TSDataType dataType) {
+    this(TSEncoding.CHIMP, dataType);
+  }
+
+  protected ChimpDecoder(TSEncoding encoding, TSDataType dataType) {
+    super(encoding);
+    this.valueBits = ChimpEncoder.getValueBits(dataType);
+    this.significantBitsLength = valueBits == Long.SIZE ? 6 : 5;
+  }
+
+  @Override
+  public boolean hasNext(ByteBuffer in) {
+    if (readIndex < valueNum) {
+      return true;
+    }
+    if (in.hasRemaining()) {
+      decodeBatch(in);
+    }
+    return readIndex < valueNum;
+  }
+
+  @Override
+  public int readInt(ByteBuffer in) {
+    return (int) next(in);
+  }
+
+  @Override
+  public long readLong(ByteBuffer in) {
+    return next(in);
+  }
+
+  @Override
+  public float readFloat(ByteBuffer in) {
+    return Float.intBitsToFloat((int) next(in));
+  }
+
+  @Override
+  public double readDouble(ByteBuffer in) {
+    return Double.longBitsToDouble(next(in));
+  }
+
+  private long next(ByteBuffer in) {
+    if (!hasNext(in)) {
+      throw new TsFileDecodingException("No more values to read");
+    }
+    return values[readIndex++];
+  }
+
+  private void decodeBatch(ByteBuffer in) {
+    valueNum = ReadWriteForEncodingUtils.readUnsignedVarInt(in);
+    if (values.length < valueNum) {
+      values = new long[valueNum];
+    }
+    readIndex = 0;
+    bitsLeft = 0;
+    resetPage();
+    for (int i = 0; i < valueNum; i++) {
+      values[i] = readValue(in);
+    }
+  }
+
+  /**
+   * Resets the values referenced by XOR, as those of the last page are not referenced.
+   */
+  protected void resetPage() {
+    index = -1;
+    storedLeadingZeros = Integer.MAX_VALUE;
+  }
+
+  /**
+   * @return the bits of the next value, the higher 32 bits are 0 for 32-bit values
+   */
+  protected long readValue(ByteBuffer in) {
+    long value;
+    if (index < 0) {
+      value = readBits(valueBits, in);
+    } else {
+      value = readXoredValue(in);
+    }
+    index++;
+    storedValues[index % PREVIOUS_VALUES] = value;
+    return value;
+  }
+
+  private long readXoredValue(ByteBuffer in) {
+    int leadingZeros;
+    long xor;
+    switch ((int) readBits(2, in)) {
+      case 0:
+        // 00 + reference index
+        storedLeadingZeros = Integer.MAX_VALUE;
+        return storedValues[(int) readBits(PREVIOUS_VALUES_LOG2, in)];
+      case 1:
+        // 01 + reference index + leading zeros + significant bit number + significant bits
+        long reference = storedValues[(int) readBits(PREVIOUS_VALUES_LOG2, in)];
+        leadingZeros = LEADING_ZEROS[(int) readBits(3, in)];
+        int significantBits = (int) readBits(significantBitsLength, in);
+        int trailingZeros = valueBits - leadingZeros - significantBits;
+        xor = readBits(significantBits, in) << trailingZeros;
+        storedLeadingZeros = Integer.MAX_VALUE;
+        return reference ^ xor;
+      case 2:
+        // 10 + the bits after the leading zeros
+        leadingZeros = storedLeadingZeros;
+        break;
+      default:
+        // 11 + leading zeros + the bits after the leading zeros
+        leadingZeros = LEADING_ZEROS[(int) readBits(3, in)];
+        storedLeadingZeros = leadingZeros;
+        break;
+    }
+    xor = readBits(valueBits - leadingZeros, in);
+    return storedValues[index % PREVIOUS_VALUES] ^ xor;
+  }
+
+  /**
+   * Reads a value from the given amount of bits, the byte buffer is read only when the bits are
+   * needed, so the next page starts from the next byte.
+   */
+  protected long readBits(int bits, ByteBuffer in) {
+    long value = 0;
+    while (bits > 0) {
+      if (bitsLeft == 0) {
+        buffer = in.get();
+        bitsLeft = Byte.SIZE;
+      }
+      if (bits >= bitsLeft) {
+        value = (value << bitsLeft) | (buffer & ((1 << bitsLeft) - 1));
+        bits -= bitsLeft;
+        bitsLeft = 0;
+      } else {
+        value = (value << bits) | ((buffer >>> (bitsLeft - bits)) & ((1 << bits) - 1));
+        bitsLeft -= bits;
+        bits = 0;
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public void reset() {
+    valueNum = 0;
+    readIndex = 0;
+    bitsLeft = 0;
+  }
+}
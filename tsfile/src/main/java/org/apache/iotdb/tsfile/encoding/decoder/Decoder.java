@@ -107,6 +107,37 @@ public abstract class Decoder {
           default:
             throw new TsFileDecodingException(String.format(ERROR_MSG, encoding, dataType));
         }
+      case PLAIN_DICTIONARY:
+        if (dataType == TSDataType.TEXT) {
+          return new DictionaryDecoder();
+        }
+        throw new TsFileDecodingException(String.format(ERROR_MSG, encoding, dataType));
+      case CHIMP:
+        switch (dataType) {
+          case FLOAT:
+          case DOUBLE:
+          case INT32:
+          case INT64:
+            return new ChimpDecoder(dataType);
+          default:
+            throw new TsFileDecodingException(String.format(ERROR_MSG, encoding, dataType));
+        }
+      case ELF:
+        switch (dataType) {
+          case FLOAT:
+          case DOUBLE:
+            return new ElfDecoder(dataType);
+          default:
+            throw new TsFileDecodingException(String.format(ERROR_MSG, encoding, dataType));
+        }
+      case BLOCK_DELTA:
+        switch (dataType) {
+          case INT32:
+          case INT64:
+            return new BlockDeltaDecoder();
+          default:
+            throw new TsFileDecodingException(String.format(ERROR_MSG, encoding, dataType));
+        }
       default:
         throw new TsFileDecodingException(String.format(ERROR_MSG, encoding, dataType));
     }
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.encoding.encoder.DictionaryEncoder;
+import org.apache.iotdb.tsfile.exception.encoding.TsFileDecodingException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * Decoder for the TEXT values encoded by {@link DictionaryEncoder}. The values of a page in
+ * dictionary mode share the Binaries of the dictionary, and their ids can be read instead of them
+ * to evaluate a filter once for each entry rather than once for each value.
+ *
+ * @see DictionaryEncoder
+ */
+public class DictionaryDecoder extends Decoder {
+
+  private byte mode;
+  private int remaining;
+  private Binary[] dictionary;
+  private final IntRleDecoder idDecoder = new IntRleDecoder(EndianType.BIG_ENDIAN);
+
+  public DictionaryDecoder() {
+    super(TSEncoding.PLAIN_DICTIONARY);
+  }
+
+  @Override
+  public boolean hasNext(ByteBuffer buffer) {
+    if (remaining == 0 && buffer.hasRemaining()) {
+      readHeader(buffer);
+    }
+    return remaining > 0;
+  }
+
+  @Override
+  public Binary readBinary(ByteBuffer buffer) {
+    checkNext(buffer);
+    remaining--;
+    if (mode == DictionaryEncoder.DICTIONARY_MODE) {
+      return dictionary[idDecoder.readInt(buffer)];
+    }
+    return readEntry(buffer);
+  }
+
+  /**
+   * @return the dictionary of the values to be read, or null if they are not stored by a
+   * dictionary
+   */
+  public Binary[] getDictionary(ByteBuffer buffer) {
+    if (remaining == 0 && buffer.hasRemaining()) {
+      readHeader(buffer);
+    }
+    return mode == DictionaryEncoder.DICTIONARY_MODE ? dictionary : null;
+  }
+
+  /**
+   * @return the id of the next value in the dictionary, only for the values stored by a dictionary
+   */
+  public int readId(ByteBuffer buffer) {
+    checkNext(buffer);
+    if (mode != DictionaryEncoder.DICTIONARY_MODE) {
+      throw new TsFileDecodingException("The values are not stored by a dictionary");
+    }
+    remaining--;
+    return idDecoder.readInt(buffer);
+  }
+
+  private void checkNext(ByteBuffer buffer) {
+    if (!hasNext(buffer)) {
+      throw new TsFileDecodingException("No more values to read");
+    }
+  }
+
+  private void readHeader(ByteBuffer buffer) {
+    mode = buffer.get();
+    remaining = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+    if (mode == DictionaryEncoder.DICTIONARY_MODE) {
+      dictionary = new Binary[ReadWriteForEncodingUtils.readUnsignedVarInt(buffer)];
+      for (int i = 0; i < dictionary.length; i++) {
+        dictionary[i] = readEntry(buffer);
+      }
+      idDecoder.reset();
+    } else if (mode == DictionaryEncoder.PLAIN_MODE) {
+      dictionary = null;
+    } else {
+      throw new TsFileDecodingException("Unknown mode of dictionary encoding: " + mode);
+    }
+  }
+
+  private static Binary readEntry(ByteBuffer buffer) {
+    byte[] bytes = new byte[ReadWriteForEncodingUtils.readUnsignedVarInt(buffer)];
+    buffer.get(bytes);
+    return new Binary(bytes);
+  }
+
+  @Override
+  public void reset() {
+    mode = 0;
+    remaining = 0;
+    dictionary = null;
+    idDecoder.reset();
+  }
+}
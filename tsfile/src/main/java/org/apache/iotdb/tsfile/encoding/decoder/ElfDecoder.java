@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.apache.iotdb.tsfile.encoding.encoder.ChimpEncoder.LEADING_ZEROS;
+
+import java.nio.ByteBuffer;
+
+import org.apache.iotdb.tsfile.encoding.encoder.ElfEncoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+
+/**
+ * Decoder for the values encoded by {@link ElfEncoder}.
+ *
+ * @see ElfEncoder
+ */
+public class ElfDecoder extends ChimpDecoder {
+
+  public static final double LOG2_10 = Math.log(10) / Math.log(2);
+  public static final double[] POWERS_OF_TEN = new double[ElfEncoder.MAX_DECIMAL_PLACES + 1];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  private final boolean isDouble;
+  private int lastDecimalPlaces;
+  private long lastErased;
+  private int storedLeadingZeros;
+  private int storedTrailingZeros;
+
+  public ElfDecoder(TSDataType dataType) {
+    super(TSEncoding.ELF, dataType);
+    this.isDouble = dataType == TSDataType.DOUBLE;
+  }
+
+  /**
+   * @return the erased value rounded up at the decimal places
+   */
+  public static double restore(double erased, int decimalPlaces) {
+    double scale = POWERS_OF_TEN[decimalPlaces];
+    double restored = Math.ceil(Math.abs(erased) * scale) / scale;
+    return erased < 0 ? -restored : restored;
+  }
+
+  @Override
+  protected long readValue(ByteBuffer in) {
+    int decimalPlaces;
+    if (readBits(1, in) == 0) {
+      decimalPlaces = lastDecimalPlaces;
+    } else if (readBits(1, in) == 0) {
+      // not erased
+      return super.readValue(in);
+    } else {
+      decimalPlaces = (int) readBits(4, in);
+      lastDecimalPlaces = decimalPlaces;
+    }
+    long erased = readErased(in);
+    if (isDouble) {
+      return Double.doubleToRawLongBits(restore(Double.longBitsToDouble(erased), decimalPlaces));
+    }
+    return Float.floatToRawIntBits((float) restore(Float.intBitsToFloat((int) erased),
+        decimalPlaces)) & 0xFFFFFFFFL;
+  }
+
+  private long readErased(ByteBuffer in) {
+    int leadingZeros;
+    int centerBits;
+    switch ((int) readBits(2, in)) {
+      case 0:
+        return lastErased;
+      case 1:
+        leadingZeros = storedLeadingZeros;
+        centerBits = valueBits - storedLeadingZeros - storedTrailingZeros;
+        break;
+      case 2:
+        leadingZeros = LEADING_ZEROS[(int) readBits(3, in)];
+        centerBits = (int) readBits(4, in) + 1;
+        break;
+      default:
+        leadingZeros = LEADING_ZEROS[(int) readBits(3, in)];
+        centerBits = (int) readBits(significantBitsLength, in);
+        break;
+    }
+    storedLeadingZeros = leadingZeros;
+    storedTrailingZeros = valueBits - leadingZeros - centerBits;
+    lastErased ^= readBits(centerBits, in) << storedTrailingZeros;
+    return lastErased;
+  }
+
+  @Override
+  protected void resetPage() {
+    super.resetPage();
+    lastErased = 0;
+    storedLeadingZeros = Integer.MAX_VALUE;
+    storedTrailingZeros = Integer.MAX_VALUE;
+  }
+}
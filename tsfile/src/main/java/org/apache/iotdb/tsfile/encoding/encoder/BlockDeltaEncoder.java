@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.iotdb.tsfile.encoding.bitpacking.BlockPacker;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * BlockDeltaEncoder encodes INT32 and INT64 values, e.g., timestamps, like {@link
+ * DeltaBinaryEncoder}: a block holds a first value and at most {@link BlockPacker#BLOCK_SIZE}
+ * deltas, and the deltas are stored as their differences to the minimum delta (the frame of
+ * reference) in the bit-width of the largest difference. Unlike DeltaBinaryEncoder, the block is
+ * laid out for decoding a whole block fast:
+ * <ul>
+ * <li>the differences are packed into 64-bit words by {@link BlockPacker} instead of bit by
+ * bit;</li>
+ * <li>the header is [delta number(byte), bit-width(byte), first value(zigzag var long), minimum
+ * delta(zigzag var long)], so the blocks of regular timestamps, whose bit-width is 0, take a few
+ * bytes.</li>
+ * </ul>
+ */
+public class BlockDeltaEncoder extends Encoder {
+
+  // the first value, then the deltas
+  private final long[] values = new long[BlockPacker.BLOCK_SIZE + 1];
+  private final long[] deltas = new long[BlockPacker.BLOCK_SIZE];
+  private final long[] words = new long[BlockPacker.BLOCK_SIZE + 1];
+  private final byte[] wordBytes = new byte[BlockPacker.BLOCK_SIZE * Long.BYTES];
+  private int valueNum = 0;
+
+  public BlockDeltaEncoder() {
+    super(TSEncoding.BLOCK_DELTA);
+  }
+
+  @Override
+  public void encode(int value, ByteArrayOutputStream out) {
+    encode((long) value, out);
+  }
+
+  @Override
+  public void encode(long value, ByteArrayOutputStream out) {
+    values[valueNum++] = value;
+    if (valueNum == values.length) {
+      flushBlock(out);
+    }
+  }
+
+  @Override
+  public void flush(ByteArrayOutputStream out) {
+    if (valueNum > 0) {
+      flushBlock(out);
+    }
+  }
+
+  private void flushBlock(ByteArrayOutputStream out) {
+    int deltaNum = valueNum - 1;
+    long minDelta = Long.MAX_VALUE;
+    for (int i = 0; i < deltaNum; i++) {
+      deltas[i] = values[i + 1] - values[i];
+      minDelta = Math.min(minDelta, deltas[i]);
+    }
+    long bits = 0;
+    for (int i = 0; i < deltaNum; i++) {
+      // may overflow for INT64, but the difference is right as an unsigned value
+      deltas[i] -= minDelta;
+      bits |= deltas[i];
+    }
+    int width = Long.SIZE - Long.numberOfLeadingZeros(bits);
+
+    out.write(deltaNum);
+    out.write(width);
+    ReadWriteForEncodingUtils.writeVarLong(values[0], out);
+    if (deltaNum > 0) {
+      ReadWriteForEncodingUtils.writeVarLong(minDelta, out);
+    }
+    int wordNum = BlockPacker.getWordNum(deltaNum, width);
+    if (wordNum > 0) {
+      Arrays.fill(words, 0);
+      BlockPacker.pack(deltas, deltaNum, width, words);
+      ByteBuffer.wrap(wordBytes).asLongBuffer().put(words, 0, wordNum);
+      out.write(wordBytes, 0, wordNum * Long.BYTES);
+    }
+    valueNum = 0;
+  }
+
+  @Override
+  public int getOneItemMaxSize() {
+    // a value may start a new block: delta number, bit-width, first value and minimum delta
+    return 2 + 10 + 10 + Long.BYTES;
+  }
+
+  @Override
+  public long getMaxByteSize() {
+    if (valueNum == 0) {
+      return 0;
+    }
+    // the header, and the deltas of at most 64 bits
+    return 2 + 10 + 10 + (long) valueNum * Long.BYTES;
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * ChimpEncoder encodes INT32, INT64, FLOAT and DOUBLE values by XORing their bits with a previous
+ * value like GORILLA, as Chimp128 (Liakos et al., VLDB 2022) does:
+ * <ul>
+ * <li>the reference value is the latest one among the previous 128 values with the same lowest
+ * bits if the XOR with it has many trailing zeros, which is common for values repeating in a
+ * period, otherwise it is the previous value;</li>
+ * <li>the leading zeros of the XOR are rounded down to one of 8 values, so they fit in 3 bits and
+ * are more likely the same as the previous ones.</li>
+ * </ul>
+ * Unlike GORILLA, no value is reserved to mark the end of the values, as the values of a page are
+ * buffered and written as [value number(varint), bits] when flushed.
+ * <p>
+ * The bits of a value other than the first one are one of:
+ * <ul>
+ * <li>00 + reference index(7): the value equals the reference value;</li>
+ * <li>01 + reference index(7) + leading zeros(3) + significant bit number(6 or 5) + significant
+ * bits: the XOR with the reference value has more trailing zeros than the threshold;</li>
+ * <li>10 + the bits after the leading zeros: the XOR with the previous value has the same
+ * leading zeros as the last one;</li>
+ * <li>11 + leading zeros(3) + the bits after the leading zeros.</li>
+ * </ul>
+ */
+public class ChimpEncoder extends Encoder {
+
+  public static final int PREVIOUS_VALUES_LOG2 = 7;
+  public static final int PREVIOUS_VALUES = 1 << PREVIOUS_VALUES_LOG2;
+  /**
+   * the leading zeros are rounded down to one of them and stored by the index
+   */
+  public static final int[] LEADING_ZEROS = {0, 8, 12, 16, 18, 20, 22, 24};
+
+  protected final int valueBits;
+  protected final int significantBitsLength;
+  private final int threshold;
+  private final int keyMask;
+  private final int[] leadingZerosIndex;
+
+  // the latest values, the value of index i is at i % PREVIOUS_VALUES
+  private final long[] storedValues = new long[PREVIOUS_VALUES];
+  // the latest index of the values by their lowest (threshold + 1) bits
+  private final int[] indices;
+  private int index = -1;
+  private int storedLeadingZeros = Integer.MAX_VALUE;
+
+  private final ByteArrayOutputStream bitsOut = new ByteArrayOutputStream();
+  private byte buffer = 0;
+  private int bitsLeft = Byte.SIZE;
+  protected int valueNum = 0;
+
+  public ChimpEncoder(TSDataType dataType) {
+    this(TSEncoding.CHIMP, dataType);
+  }
+
+  protected ChimpEncoder(TSEncoding encoding, TSDataType dataType) {
+    super(encoding);
+    this.valueBits = getValueBits(dataType);
+    this.significantBitsLength = valueBits == Long.SIZE ? 6 : 5;
+    this.threshold = significantBitsLength + PREVIOUS_VALUES_LOG2;
+    this.keyMask = (1 << (threshold + 1)) - 1;
+    this.indices = new int[keyMask + 1];
+    this.leadingZerosIndex = new int[valueBits + 1];
+    for (int leadingZeros = 0, i = 0; leadingZeros <= valueBits; leadingZeros++) {
+      if (i + 1 < LEADING_ZEROS.length && LEADING_ZEROS[i + 1] <= leadingZeros) {
+        i++;
+      }
+      leadingZerosIndex[leadingZeros] = i;
+    }
+  }
+
+  /**
+   * @return the number of bits of the values of the data type
+   */
+  public static int getValueBits(TSDataType dataType) {
+    return dataType == TSDataType.INT64 || dataType == TSDataType.DOUBLE ? Long.SIZE : Integer.SIZE;
+  }
+
+  @Override
+  public void encode(int value, ByteArrayOutputStream out) {
+    encodeBits(value & 0xFFFFFFFFL);
+  }
+
+  @Override
+  public void encode(long value, ByteArrayOutputStream out) {
+    encodeBits(value);
+  }
+
+  @Override
+  public void encode(float value, ByteArrayOutputStream out) {
+    encodeBits(Float.floatToRawIntBits(value) & 0xFFFFFFFFL);
+  }
+
+  @Override
+  public void encode(double value, ByteArrayOutputStream out) {
+    encodeBits(Double.doubleToRawLongBits(value));
+  }
+
+  /**
+   * @param value the bits of the value, the higher 32 bits are 0 for 32-bit values
+   */
+  protected void encodeBits(long value) {
+    int key = (int) value & keyMask;
+    if (index < 0) {
+      writeBits(value, valueBits);
+      index = 0;
+      storedValues[0] = value;
+      indices[key] = 0;
+      valueNum++;
+      return;
+    }
+
+    long xor;
+    int previousIndex;
+    int trailingZeros = 0;
+    int currIndex = indices[key];
+    if (index - currIndex < PREVIOUS_VALUES) {
+      long tempXor = value ^ storedValues[currIndex % PREVIOUS_VALUES];
+      trailingZeros = Long.numberOfTrailingZeros(tempXor);
+      if (trailingZeros > threshold) {
+        previousIndex = currIndex % PREVIOUS_VALUES;
+        xor = tempXor;
+      } else {
+        previousIndex = index % PREVIOUS_VALUES;
+        xor = storedValues[previousIndex] ^ value;
+      }
+    } else {
+      previousIndex = index % PREVIOUS_VALUES;
+      xor = storedValues[previousIndex] ^ value;
+    }
+
+    if (xor == 0) {
+      // 00 + reference index
+      writeBits(previousIndex, 2 + PREVIOUS_VALUES_LOG2);
+      storedLeadingZeros = Integer.MAX_VALUE;
+    } else {
+      int leadingIndex = getLeadingZerosIndex(xor);
+      int leadingZeros = LEADING_ZEROS[leadingIndex];
+      if (trailingZeros > threshold) {
+        // 01 + reference index + leading zeros + significant bit number + significant bits
+        int significantBits = valueBits - leadingZeros - trailingZeros;
+        writeBits(1L << PREVIOUS_VALUES_LOG2 | previousIndex, 2 + PREVIOUS_VALUES_LOG2);
+        writeBits(leadingIndex, 3);
+        writeBits(significantBits, significantBitsLength);
+        writeBits(xor >>> trailingZeros, significantBits);
+        storedLeadingZeros = Integer.MAX_VALUE;
+      } else if (leadingZeros == storedLeadingZeros) {
+        // 10 + the bits after the leading zeros
+        writeBits(2, 2);
+        writeBits(xor, valueBits - leadingZeros);
+      } else {
+        // 11 + leading zeros + the bits after the leading zeros
+        storedLeadingZeros = leadingZeros;
+        writeBits(3, 2);
+        writeBits(leadingIndex, 3);
+        writeBits(xor, valueBits - leadingZeros);
+      }
+    }
+    index++;
+    storedValues[index % PREVIOUS_VALUES] = value;
+    indices[key] = index;
+    valueNum++;
+  }
+
+  /**
+   * @return the index in LEADING_ZEROS of the leading zeros of the XOR rounded down
+   */
+  protected int getLeadingZerosIndex(long xor) {
+    return leadingZerosIndex[Long.numberOfLeadingZeros(xor) - Long.SIZE + valueBits];
+  }
+
+  /**
+   * Writes the given amount of the least significant bits of the value.
+   */
+  protected void writeBits(long value, int bits) {
+    while (bits > 0) {
+      int shift = bits - bitsLeft;
+      if (shift >= 0) {
+        buffer |= (byte) ((value >>> shift) & ((1 << bitsLeft) - 1));
+        bits -= bitsLeft;
+        bitsLeft = 0;
+      } else {
+        shift = bitsLeft - bits;
+        buffer |= (byte) ((value & ((1L << bits) - 1)) << shift);
+        bitsLeft -= bits;
+        bits = 0;
+      }
+      if (bitsLeft == 0) {
+        bitsOut.write(buffer);
+        buffer = 0;
+        bitsLeft = Byte.SIZE;
+      }
+    }
+  }
+
+  @Override
+  public void flush(ByteArrayOutputStream out) throws IOException {
+    if (valueNum == 0) {
+      return;
+    }
+    if (bitsLeft < Byte.SIZE) {
+      bitsOut.write(buffer);
+    }
+    ReadWriteForEncodingUtils.writeUnsignedVarInt(valueNum, out);
+    bitsOut.writeTo(out);
+    reset();
+  }
+
+  protected void reset() {
+    // the values of the last page must not be referenced
+    Arrays.fill(indices, 0);
+    index = -1;
+    storedLeadingZeros = Integer.MAX_VALUE;
+    bitsOut.reset();
+    buffer = 0;
+    bitsLeft = Byte.SIZE;
+    valueNum = 0;
+  }
+
+  @Override
+  public int getOneItemMaxSize() {
+    // 11 + leading zeros + all the bits of a value
+    return (2 + 3 + valueBits) / Byte.SIZE + 1;
+  }
+
+  @Override
+  public long getMaxByteSize() {
+    if (valueNum == 0) {
+      return 0;
+    }
+    // the value number, the written bits and the bits in the buffer
+    return 5L + bitsOut.size() + 1;
+  }
+}
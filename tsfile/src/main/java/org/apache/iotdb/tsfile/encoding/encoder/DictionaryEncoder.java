@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * DictionaryEncoder encodes the TEXT values of a page by a dictionary of the distinct values and
+ * the ids of the values in the dictionary, which are encoded by RLE. It falls back to storing the
+ * values as they are when the page has too many distinct values for the dictionary to pay off.
+ * <p>
+ * The encoded page is [mode(byte), value number(varint), data]. The data of DICTIONARY_MODE is
+ * [entry number(varint), entries of (length(varint), bytes), RLE encoded ids], and the data of
+ * PLAIN_MODE is the values of (length(varint), bytes).
+ */
+public class DictionaryEncoder extends Encoder {
+
+  public static final byte PLAIN_MODE = 0;
+  public static final byte DICTIONARY_MODE = 1;
+  public static final String MAX_DICTIONARY_SIZE = "max_dictionary_size";
+  public static final int DEFAULT_MAX_DICTIONARY_SIZE = 1 << 12;
+
+  private final int maxDictionarySize;
+  private final Map<Binary, Integer> entryIndex = new HashMap<>();
+  private final List<Binary> entries = new ArrayList<>();
+  private final List<Binary> values = new ArrayList<>();
+  private int[] ids = new int[16];
+  // the bytes of the values and the entries when stored as (length(varint), bytes)
+  private long valueSize;
+  private long entrySize;
+  private boolean overflowed;
+
+  public DictionaryEncoder() {
+    this(DEFAULT_MAX_DICTIONARY_SIZE);
+  }
+
+  /**
+   * @param maxDictionarySize the page is stored as PLAIN_MODE if it has more distinct values
+   */
+  public DictionaryEncoder(int maxDictionarySize) {
+    super(TSEncoding.PLAIN_DICTIONARY);
+    this.maxDictionarySize = maxDictionarySize;
+  }
+
+  @Override
+  public void encode(Binary value, ByteArrayOutputStream out) {
+    valueSize += sizeOf(value);
+    if (!overflowed) {
+      Integer id = entryIndex.get(value);
+      if (id == null) {
+        if (entries.size() >= maxDictionarySize) {
+          // the ids and the dictionary are not needed any more
+          overflowed = true;
+          entryIndex.clear();
+          entries.clear();
+          ids = new int[0];
+          entrySize = 0;
+        } else {
+          id = entries.size();
+          entryIndex.put(value, id);
+          entries.add(value);
+          entrySize += sizeOf(value);
+        }
+      }
+      if (!overflowed) {
+        if (values.size() == ids.length) {
+          ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[values.size()] = id;
+      }
+    }
+    values.add(value);
+  }
+
+  @Override
+  public void flush(ByteArrayOutputStream out) throws IOException {
+    if (values.isEmpty()) {
+      return;
+    }
+    if (!overflowed && getMaxDictionaryModeSize() < valueSize) {
+      out.write(DICTIONARY_MODE);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(values.size(), out);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(entries.size(), out);
+      for (Binary entry : entries) {
+        write(entry, out);
+      }
+      IntRleEncoder idEncoder = new IntRleEncoder(EndianType.BIG_ENDIAN);
+      for (int i = 0; i < values.size(); i++) {
+        idEncoder.encode(ids[i], out);
+      }
+      idEncoder.flush(out);
+    } else {
+      out.write(PLAIN_MODE);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(values.size(), out);
+      for (Binary value : values) {
+        write(value, out);
+      }
+    }
+    reset();
+  }
+
+  private void reset() {
+    entryIndex.clear();
+    entries.clear();
+    values.clear();
+    ids = new int[16];
+    valueSize = 0;
+    entrySize = 0;
+    overflowed = false;
+  }
+
+  private static void write(Binary value, ByteArrayOutputStream out) throws IOException {
+    ReadWriteForEncodingUtils.writeUnsignedVarInt(value.getLength(), out);
+    out.write(value.getValues());
+  }
+
+  private static int sizeOf(Binary value) {
+    return ReadWriteForEncodingUtils.varIntSize(value.getLength()) + value.getLength();
+  }
+
+  /**
+   * @return the upper bound of the ids bit-packed by RLE plus the dictionary
+   */
+  private long getMaxDictionaryModeSize() {
+    int bitWidth = 32 - Integer.numberOfLeadingZeros(Math.max(entries.size() - 1, 0));
+    int groupNum = (values.size() / 8 + 1) / 63 + 1;
+    return (long) ReadWriteForEncodingUtils.varIntSize(entries.size()) + entrySize
+        + 8 + groupNum * 5 + (values.size() / 8 + 1) * bitWidth;
+  }
+
+  @Override
+  public int getOneItemMaxSize() {
+    // the mode, the value number and the id of a value in the dictionary
+    return 1 + 5 + 5;
+  }
+
+  @Override
+  public long getMaxByteSize() {
+    if (values.isEmpty()) {
+      return 0;
+    }
+    long dataSize = overflowed ? valueSize : Math.min(valueSize, getMaxDictionaryModeSize());
+    return 1 + 5 + dataSize;
+  }
+}
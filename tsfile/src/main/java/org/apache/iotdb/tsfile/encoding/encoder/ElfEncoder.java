@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.encoder;
+
+import java.io.ByteArrayOutputStream;
+
+import org.apache.iotdb.tsfile.encoding.decoder.ElfDecoder;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+
+/**
+ * ElfEncoder encodes FLOAT and DOUBLE values of limited decimal places, e.g., the readings of
+ * sensors of a fixed precision, by erasing the mantissa bits that can be restored from the
+ * decimal places as Elf (Li et al., VLDB 2023) does, so the XORs of the erased values have many
+ * more trailing zeros.
+ * <p>
+ * A value of alpha decimal places differs from its erased value by less than 10^-alpha, and it is
+ * restored by rounding the erased value up at alpha decimal places. A value is erased only if it
+ * is restored exactly, and its bits are prefixed by:
+ * <ul>
+ * <li>0: erased, with the decimal places of the last erased value;</li>
+ * <li>11 + decimal places(4): erased, with new decimal places;</li>
+ * <li>10: not erased, followed by the bits of {@link ChimpEncoder} among the values not
+ * erased.</li>
+ * </ul>
+ * An erased value is XORed with the last erased value, as the erased values share their lowest
+ * bits and the references of CHIMP do not pay off, and the XOR is one of:
+ * <ul>
+ * <li>00: the XOR is 0;</li>
+ * <li>01 + center bits: the XOR has the same leading zeros and no fewer trailing zeros than the
+ * last one, and the bits between them are written;</li>
+ * <li>10 + leading zeros(3) + center bit number - 1(4) + center bits: at most 16 center bits;</li>
+ * <li>11 + leading zeros(3) + center bit number(6 or 5) + center bits.</li>
+ * </ul>
+ */
+public class ElfEncoder extends ChimpEncoder {
+
+  public static final int MAX_DECIMAL_PLACES = 15;
+
+  private final boolean isDouble;
+  private int lastDecimalPlaces = -1;
+  private long lastErased = 0;
+  private int storedLeadingZeros = Integer.MAX_VALUE;
+  private int storedTrailingZeros = Integer.MAX_VALUE;
+
+  public ElfEncoder(TSDataType dataType) {
+    super(TSEncoding.ELF, dataType);
+    if (dataType != TSDataType.FLOAT && dataType != TSDataType.DOUBLE) {
+      throw new UnSupportedDataTypeException("ELF doesn't support data type: " + dataType);
+    }
+    this.isDouble = dataType == TSDataType.DOUBLE;
+  }
+
+  @Override
+  public void encode(double value, ByteArrayOutputStream out) {
+    long bits = Double.doubleToRawLongBits(value);
+    int decimalPlaces = getDecimalPlaces(value);
+    if (decimalPlaces >= 0) {
+      int exponent = (int) (bits >>> 52) & 0x7FF;
+      long erased = erase(bits, exponent - 1023, 52, decimalPlaces);
+      if (erased != bits && Double.doubleToRawLongBits(
+          ElfDecoder.restore(Double.longBitsToDouble(erased), decimalPlaces)) == bits) {
+        writeErasedFlag(decimalPlaces);
+        encodeErased(erased);
+        return;
+      }
+    }
+    writeBits(2, 2);
+    encodeBits(bits);
+  }
+
+  @Override
+  public void encode(float value, ByteArrayOutputStream out) {
+    int bits = Float.floatToRawIntBits(value);
+    int decimalPlaces = getDecimalPlaces(value);
+    if (decimalPlaces >= 0) {
+      int exponent = (bits >>> 23) & 0xFF;
+      int erased = (int) erase(bits, exponent - 127, 23, decimalPlaces);
+      if (erased != bits && Float.floatToRawIntBits(
+          (float) ElfDecoder.restore(Float.intBitsToFloat(erased), decimalPlaces)) == bits) {
+        writeErasedFlag(decimalPlaces);
+        encodeErased(erased & 0xFFFFFFFFL);
+        return;
+      }
+    }
+    writeBits(2, 2);
+    encodeBits(bits & 0xFFFFFFFFL);
+  }
+
+  private void writeErasedFlag(int decimalPlaces) {
+    if (decimalPlaces == lastDecimalPlaces) {
+      writeBits(0, 1);
+    } else {
+      writeBits(3, 2);
+      writeBits(decimalPlaces, 4);
+      lastDecimalPlaces = decimalPlaces;
+    }
+  }
+
+  private void encodeErased(long erased) {
+    long xor = erased ^ lastErased;
+    lastErased = erased;
+    valueNum++;
+    if (xor == 0) {
+      writeBits(0, 2);
+      return;
+    }
+    int leadingIndex = getLeadingZerosIndex(xor);
+    int leadingZeros = LEADING_ZEROS[leadingIndex];
+    int trailingZeros = Long.numberOfTrailingZeros(xor);
+    if (leadingZeros == storedLeadingZeros && trailingZeros >= storedTrailingZeros) {
+      writeBits(1, 2);
+      writeBits(xor >>> storedTrailingZeros, valueBits - storedLeadingZeros - storedTrailingZeros);
+      return;
+    }
+    // the XOR of two erased values has at least 5 trailing zeros, so the center bits fit
+    int centerBits = valueBits - leadingZeros - trailingZeros;
+    if (centerBits <= 16) {
+      writeBits(2, 2);
+      writeBits(leadingIndex, 3);
+      writeBits(centerBits - 1L, 4);
+    } else {
+      writeBits(3, 2);
+      writeBits(leadingIndex, 3);
+      writeBits(centerBits, significantBitsLength);
+    }
+    writeBits(xor >>> trailingZeros, centerBits);
+    storedLeadingZeros = leadingZeros;
+    storedTrailingZeros = trailingZeros;
+  }
+
+  /**
+   * @return the fewest decimal places the value can be written in, or -1 if the value is 0, not
+   * normal or needs more than MAX_DECIMAL_PLACES
+   */
+  private int getDecimalPlaces(double value) {
+    double abs = Math.abs(value);
+    double minNormal = isDouble ? Double.MIN_NORMAL : Float.MIN_NORMAL;
+    if (abs < minNormal || Double.isNaN(abs) || Double.isInfinite(abs)) {
+      return -1;
+    }
+    for (int i = 0; i <= MAX_DECIMAL_PLACES; i++) {
+      double scaled = abs * ElfDecoder.POWERS_OF_TEN[i];
+      if (scaled >= 1L << 53) {
+        return -1;
+      }
+      double rounded = Math.rint(scaled) / ElfDecoder.POWERS_OF_TEN[i];
+      if (isDouble ? rounded == abs : (float) rounded == (float) abs) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Erase the mantissa bits lower than 2^-ceil(decimalPlaces * log2(10)), which are less than
+   * 10^-decimalPlaces.
+   *
+   * @param exponent     the unbiased exponent of the value
+   * @param mantissaBits the number of the mantissa bits
+   */
+  private static long erase(long bits, int exponent, int mantissaBits, int decimalPlaces) {
+    int keptBits = (int) Math.ceil(decimalPlaces * ElfDecoder.LOG2_10) + exponent;
+    int erasedBits = Math.min(mantissaBits - keptBits, mantissaBits);
+    // erasing a few bits does not pay off the flag
+    if (erasedBits <= 4) {
+      return bits;
+    }
+    return bits & (-1L << erasedBits);
+  }
+
+  @Override
+  protected void reset() {
+    super.reset();
+    lastDecimalPlaces = -1;
+    lastErased = 0;
+    storedLeadingZeros = Integer.MAX_VALUE;
+    storedTrailingZeros = Integer.MAX_VALUE;
+  }
+
+  @Override
+  public int getOneItemMaxSize() {
+    // 11 + decimal places + 11 + leading zeros + center bit number + center bits
+    return (2 + 4 + 2 + 3 + significantBitsLength + valueBits) / Byte.SIZE + 1;
+  }
+}
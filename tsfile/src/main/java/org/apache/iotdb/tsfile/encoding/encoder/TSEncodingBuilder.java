@@ -68,6 +68,14 @@ public abstract class TSEncodingBuilder {
         return new Regular();
       case GORILLA:
         return new GorillaV2();
+      case PLAIN_DICTIONARY:
+        return new Dictionary();
+      case CHIMP:
+        return new Chimp();
+      case ELF:
+        return new Elf();
+      case BLOCK_DELTA:
+        return new BlockDelta();
       default:
         throw new UnsupportedOperationException(type.toString());
     }
@@ -304,4 +312,110 @@ public abstract class TSEncodingBuilder {
       // allowed do nothing
     }
   }
+
+  /**
+   * for TEXT.
+   */
+  public static class Dictionary extends TSEncodingBuilder {
+
+    private int maxDictionarySize = DictionaryEncoder.DEFAULT_MAX_DICTIONARY_SIZE;
+
+    @Override
+    public Encoder getEncoder(TSDataType type) {
+      if (type == TSDataType.TEXT) {
+        return new DictionaryEncoder(maxDictionarySize);
+      }
+      throw new UnSupportedDataTypeException("PLAIN_DICTIONARY doesn't support data type: " + type);
+    }
+
+    @Override
+    public void initFromProps(Map<String, String> props) {
+      // set max dictionary size from initialized map or default value if not set
+      if (props == null || !props.containsKey(DictionaryEncoder.MAX_DICTIONARY_SIZE)) {
+        maxDictionarySize = DictionaryEncoder.DEFAULT_MAX_DICTIONARY_SIZE;
+      } else {
+        try {
+          maxDictionarySize = Integer.parseInt(props.get(DictionaryEncoder.MAX_DICTIONARY_SIZE));
+        } catch (NumberFormatException e) {
+          logger.warn("The format of max dictionary size {} is not correct."
+              + " Using default max dictionary size.",
+              props.get(DictionaryEncoder.MAX_DICTIONARY_SIZE));
+        }
+        if (maxDictionarySize < 0) {
+          maxDictionarySize = DictionaryEncoder.DEFAULT_MAX_DICTIONARY_SIZE;
+          logger.warn(
+              "cannot set max dictionary size to negative value, replaced with default value:{}",
+              maxDictionarySize);
+        }
+      }
+    }
+  }
+
+  /**
+   * for FLOAT, DOUBLE, INT32, INT64.
+   */
+  public static class Chimp extends TSEncodingBuilder {
+
+    @Override
+    public Encoder getEncoder(TSDataType type) {
+      switch (type) {
+        case FLOAT:
+        case DOUBLE:
+        case INT32:
+        case INT64:
+          return new ChimpEncoder(type);
+        default:
+          throw new UnSupportedDataTypeException("CHIMP doesn't support data type: " + type);
+      }
+    }
+
+    @Override
+    public void initFromProps(Map<String, String> props) {
+      // allowed do nothing
+    }
+  }
+
+  /**
+   * for FLOAT, DOUBLE.
+   */
+  public static class Elf extends TSEncodingBuilder {
+
+    @Override
+    public Encoder getEncoder(TSDataType type) {
+      switch (type) {
+        case FLOAT:
+        case DOUBLE:
+          return new ElfEncoder(type);
+        default:
+          throw new UnSupportedDataTypeException("ELF doesn't support data type: " + type);
+      }
+    }
+
+    @Override
+    public void initFromProps(Map<String, String> props) {
+      // allowed do nothing
+    }
+  }
+
+  /**
+   * for INT32, INT64.
+   */
+  public static class BlockDelta extends TSEncodingBuilder {
+
+    @Override
+    public Encoder getEncoder(TSDataType type) {
+      switch (type) {
+        case INT32:
+        case INT64:
+          return new BlockDeltaEncoder();
+        default:
+          throw new UnSupportedDataTypeException("BLOCK_DELTA doesn't support data type: " + type);
+      }
+    }
+
+    @Override
+    public void initFromProps(Map<String, String> props) {
+      // allowed do nothing
+    }
+  }
 }
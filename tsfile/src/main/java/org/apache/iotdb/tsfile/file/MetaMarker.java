@@ -30,6 +30,15 @@ public class MetaMarker {
   public static final byte CHUNK_HEADER = 1;
   public static final byte SEPARATOR = 2;
   public static final byte VERSION = 3;
+  /**
+   * the time chunk of an aligned chunk group, whose timestamps are shared by the value chunks of
+   * the group
+   */
+  public static final byte TIME_CHUNK_HEADER = 4;
+  /**
+   * a value chunk of an aligned chunk group, whose header also holds the offset of the time chunk
+   */
+  public static final byte VALUE_CHUNK_HEADER = 5;
 
   private MetaMarker() {
   }
@@ -33,12 +33,23 @@ import java.nio.ByteBuffer;
 
 public class ChunkHeader {
 
+  /**
+   * MetaMarker.CHUNK_HEADER for a chunk of one series, MetaMarker.TIME_CHUNK_HEADER or
+   * MetaMarker.VALUE_CHUNK_HEADER for a chunk of an aligned chunk group
+   */
+  private byte chunkType;
   private String measurementID;
   private int dataSize;
   private TSDataType dataType;
   private CompressionType compressionType;
   private TSEncoding encodingType;
   private int numOfPages;
+  /**
+   * the offset of the time chunk if this is a value chunk. The pages of a value chunk are aligned
+   * with the pages of the time chunk: each page has a bitmap of the rows of the time page holding
+   * a value, followed by the non-null values.
+   */
+  private long timeChunkOffset = -1;
 
   // this field does not need to be serialized.
   private int serializedSize;
@@ -46,12 +57,21 @@ public class ChunkHeader {
   public ChunkHeader(String measurementID, int dataSize, TSDataType dataType,
       CompressionType compressionType,
       TSEncoding encoding, int numOfPages) {
-    this(measurementID, dataSize, getSerializedSize(measurementID), dataType, compressionType,
-        encoding, numOfPages);
+    this(MetaMarker.CHUNK_HEADER, measurementID, dataSize, dataType, compressionType, encoding,
+        numOfPages, -1);
   }
 
-  private ChunkHeader(String measurementID, int dataSize, int headerSize, TSDataType dataType,
-      CompressionType compressionType, TSEncoding encoding, int numOfPages) {
+  public ChunkHeader(byte chunkType, String measurementID, int dataSize, TSDataType dataType,
+      CompressionType compressionType, TSEncoding encoding, int numOfPages, long timeChunkOffset) {
+    this(chunkType, measurementID, dataSize, getSerializedSize(measurementID, chunkType), dataType,
+        compressionType, encoding, numOfPages, timeChunkOffset);
+  }
+
+  private ChunkHeader(byte chunkType, String measurementID, int dataSize, int headerSize,
+      TSDataType dataType, CompressionType compressionType, TSEncoding encoding, int numOfPages,
+      long timeChunkOffset) {
+    this.chunkType = chunkType;
+    this.timeChunkOffset = timeChunkOffset;
     this.measurementID = measurementID;
     this.dataSize = dataSize;
     this.dataType = dataType;
@@ -72,6 +92,11 @@ public class ChunkHeader {
         + Integer.BYTES; // numOfPages
   }
 
+  public static int getSerializedSize(String measurementID, byte chunkType) {
+    int size = getSerializedSize(measurementID);
+    return chunkType == MetaMarker.VALUE_CHUNK_HEADER ? size + Long.BYTES : size;
+  }
+
   /**
    * deserialize from inputStream.
    *
@@ -79,20 +104,44 @@ public class ChunkHeader {
    */
   public static ChunkHeader deserializeFrom(InputStream inputStream, boolean markerRead)
       throws IOException {
+    byte chunkType = MetaMarker.CHUNK_HEADER;
     if (!markerRead) {
-      byte marker = (byte) inputStream.read();
-      if (marker != MetaMarker.CHUNK_HEADER) {
-        MetaMarker.handleUnexpectedMarker(marker);
+      chunkType = (byte) inputStream.read();
+      if (!isChunkHeader(chunkType)) {
+        MetaMarker.handleUnexpectedMarker(chunkType);
       }
     }
+    return deserializeFrom(inputStream, chunkType);
+  }
 
+  /**
+   * deserialize from inputStream whose marker has been read.
+   *
+   * @param chunkType the marker read, which is the type of the chunk
+   */
+  public static ChunkHeader deserializeFrom(InputStream inputStream, byte chunkType)
+      throws IOException {
     String measurementID = ReadWriteIOUtils.readString(inputStream);
+    if (measurementID == null && chunkType == MetaMarker.TIME_CHUNK_HEADER) {
+      // the empty id of a time chunk is read as null
+      measurementID = "";
+    }
     int dataSize = ReadWriteIOUtils.readInt(inputStream);
     TSDataType dataType = TSDataType.deserialize(ReadWriteIOUtils.readShort(inputStream));
     int numOfPages = ReadWriteIOUtils.readInt(inputStream);
     CompressionType type = ReadWriteIOUtils.readCompressionType(inputStream);
     TSEncoding encoding = ReadWriteIOUtils.readEncoding(inputStream);
-    return new ChunkHeader(measurementID, dataSize, dataType, type, encoding, numOfPages);
+    long timeChunkOffset = -1;
+    if (chunkType == MetaMarker.VALUE_CHUNK_HEADER) {
+      timeChunkOffset = ReadWriteIOUtils.readLong(inputStream);
+    }
+    return new ChunkHeader(chunkType, measurementID, dataSize, dataType, type, encoding,
+        numOfPages, timeChunkOffset);
+  }
+
+  public static boolean isChunkHeader(byte marker) {
+    return marker == MetaMarker.CHUNK_HEADER || marker == MetaMarker.TIME_CHUNK_HEADER
+        || marker == MetaMarker.VALUE_CHUNK_HEADER;
   }
 
   /**
@@ -100,24 +149,28 @@ public class ChunkHeader {
    *
    * @param input TsFileInput
    * @param offset offset
-   * @param chunkHeaderSize the size of chunk's header
-   * @param markerRead read marker (boolean type)
+   * @param chunkHeaderSize the size of chunk's header without the offset of the time chunk
+   * @param markerRead true if the offset does not contain the marker, the chunk is then a chunk
+   * of one series
    * @return CHUNK_HEADER object
    * @throws IOException IOException
    */
   public static ChunkHeader deserializeFrom(TsFileInput input, long offset, int chunkHeaderSize,
       boolean markerRead)
       throws IOException {
-    long offsetVar = offset;
+    // read chunk header from input to buffer, the offset of the time chunk is read if there is one
+    ByteBuffer buffer = ByteBuffer.allocate(markerRead ? chunkHeaderSize : chunkHeaderSize
+        + Long.BYTES);
+    input.read(buffer, offset);
+    buffer.flip();
+    byte chunkType = MetaMarker.CHUNK_HEADER;
     if (!markerRead) {
-      offsetVar++;
+      chunkType = buffer.get();
+      if (!isChunkHeader(chunkType)) {
+        MetaMarker.handleUnexpectedMarker(chunkType);
+      }
     }
 
-    // read chunk header from input to buffer
-    ByteBuffer buffer = ByteBuffer.allocate(chunkHeaderSize);
-    input.read(buffer, offsetVar);
-    buffer.flip();
-
     // read measurementID
     int size = buffer.getInt();
     String measurementID = ReadWriteIOUtils.readStringWithLength(buffer, size);
@@ -126,8 +179,13 @@ public class ChunkHeader {
     int numOfPages = ReadWriteIOUtils.readInt(buffer);
     CompressionType type = ReadWriteIOUtils.readCompressionType(buffer);
     TSEncoding encoding = ReadWriteIOUtils.readEncoding(buffer);
-    return new ChunkHeader(measurementID, dataSize, chunkHeaderSize, dataType, type, encoding,
-        numOfPages);
+    long timeChunkOffset = -1;
+    if (chunkType == MetaMarker.VALUE_CHUNK_HEADER) {
+      timeChunkOffset = ReadWriteIOUtils.readLong(buffer);
+    }
+    return new ChunkHeader(chunkType, measurementID, dataSize,
+        getSerializedSize(measurementID, chunkType), dataType, type, encoding, numOfPages,
+        timeChunkOffset);
   }
 
   public int getSerializedSize() {
@@ -155,13 +213,16 @@ public class ChunkHeader {
    */
   public int serializeTo(OutputStream outputStream) throws IOException {
     int length = 0;
-    length += ReadWriteIOUtils.write(MetaMarker.CHUNK_HEADER, outputStream);
+    length += ReadWriteIOUtils.write(chunkType, outputStream);
     length += ReadWriteIOUtils.write(measurementID, outputStream);
     length += ReadWriteIOUtils.write(dataSize, outputStream);
     length += ReadWriteIOUtils.write(dataType, outputStream);
     length += ReadWriteIOUtils.write(numOfPages, outputStream);
     length += ReadWriteIOUtils.write(compressionType, outputStream);
     length += ReadWriteIOUtils.write(encodingType, outputStream);
+    if (chunkType == MetaMarker.VALUE_CHUNK_HEADER) {
+      length += ReadWriteIOUtils.write(timeChunkOffset, outputStream);
+    }
     return length;
   }
 
@@ -173,13 +234,16 @@ public class ChunkHeader {
    */
   public int serializeTo(ByteBuffer buffer) {
     int length = 0;
-    length += ReadWriteIOUtils.write(MetaMarker.CHUNK_HEADER, buffer);
+    length += ReadWriteIOUtils.write(chunkType, buffer);
     length += ReadWriteIOUtils.write(measurementID, buffer);
     length += ReadWriteIOUtils.write(dataSize, buffer);
     length += ReadWriteIOUtils.write(dataType, buffer);
     length += ReadWriteIOUtils.write(numOfPages, buffer);
     length += ReadWriteIOUtils.write(compressionType, buffer);
     length += ReadWriteIOUtils.write(encodingType, buffer);
+    if (chunkType == MetaMarker.VALUE_CHUNK_HEADER) {
+      length += ReadWriteIOUtils.write(timeChunkOffset, buffer);
+    }
     return length;
   }
 
@@ -195,13 +259,22 @@ public class ChunkHeader {
     return encodingType;
   }
 
+  public byte getChunkType() {
+    return chunkType;
+  }
+
+  public long getTimeChunkOffset() {
+    return timeChunkOffset;
+  }
+
   @Override
   public String toString() {
     return "CHUNK_HEADER{" + "measurementID='" + measurementID + '\'' + ", dataSize=" + dataSize
         + ", dataType="
         + dataType + ", compressionType=" + compressionType + ", encodingType=" + encodingType
         + ", numOfPages="
-        + numOfPages + ", serializedSize=" + serializedSize + '}';
+        + numOfPages + ", chunkType=" + chunkType + ", timeChunkOffset=" + timeChunkOffset
+        + ", serializedSize=" + serializedSize + '}';
   }
 
   public void mergeChunkHeader(ChunkHeader chunkHeader) {
@@ -72,6 +72,17 @@ public class ChunkMetadata implements Accountable {
 
   private static final int CHUNK_METADATA_FIXED_RAM_SIZE = 80;
 
+  /**
+   * set in the serialized data type if the ChunkMetadata is followed by a PageIndex, so that the
+   * ChunkMetadata without PageIndex, including those in the files written before, is unchanged
+   */
+  private static final short PAGE_INDEX_FLAG = 0x100;
+
+  /**
+   * the time ranges and offsets of the pages, only for a chunk with many pages
+   */
+  private PageIndex pageIndex;
+
 
   // used for SeriesReader to indicate whether it is a seq/unseq timeseries metadata
   private boolean isSeq = true;
@@ -147,8 +158,15 @@ public class ChunkMetadata implements Accountable {
 
     byteLen += ReadWriteIOUtils.write(measurementUid, outputStream);
     byteLen += ReadWriteIOUtils.write(offsetOfChunkHeader, outputStream);
-    byteLen += ReadWriteIOUtils.write(tsDataType, outputStream);
+    short dataType = tsDataType.serialize();
+    if (pageIndex != null) {
+      dataType |= PAGE_INDEX_FLAG;
+    }
+    byteLen += ReadWriteIOUtils.write(dataType, outputStream);
     byteLen += statistics.serialize(outputStream);
+    if (pageIndex != null) {
+      byteLen += pageIndex.serializeTo(outputStream);
+    }
     return byteLen;
   }
 
@@ -163,13 +181,25 @@ public class ChunkMetadata implements Accountable {
 
     chunkMetaData.measurementUid = ReadWriteIOUtils.readString(buffer);
     chunkMetaData.offsetOfChunkHeader = ReadWriteIOUtils.readLong(buffer);
-    chunkMetaData.tsDataType = ReadWriteIOUtils.readDataType(buffer);
+    short dataType = ReadWriteIOUtils.readShort(buffer);
+    chunkMetaData.tsDataType = TSDataType.deserialize((short) (dataType & ~PAGE_INDEX_FLAG));
 
     chunkMetaData.statistics = Statistics.deserialize(buffer, chunkMetaData.tsDataType);
+    if ((dataType & PAGE_INDEX_FLAG) != 0) {
+      chunkMetaData.pageIndex = PageIndex.deserializeFrom(buffer);
+    }
 
     return chunkMetaData;
   }
 
+  public PageIndex getPageIndex() {
+    return pageIndex;
+  }
+
+  public void setPageIndex(PageIndex pageIndex) {
+    this.pageIndex = pageIndex;
+  }
+
   public long getVersion() {
     return version;
   }
@@ -256,7 +286,7 @@ public class ChunkMetadata implements Accountable {
 
   public long calculateRamSize() {
     return CHUNK_METADATA_FIXED_RAM_SIZE + RamUsageEstimator.sizeOf(measurementUid) + statistics
-        .calculateRamSize();
+        .calculateRamSize() + (pageIndex == null ? 0 : pageIndex.calculateRamSize());
   }
 
   public static long calculateRamSize(String measurementId, TSDataType dataType) {
@@ -278,6 +308,8 @@ public class ChunkMetadata implements Accountable {
 
   public void mergeChunkMetadata(ChunkMetadata chunkMetadata) {
     this.statistics.mergeStatistics(chunkMetadata.getStatistics());
+    // the pages of the merged chunk are indexed again when it is written
+    this.pageIndex = null;
     this.ramSize = calculateRamSize();
   }
 
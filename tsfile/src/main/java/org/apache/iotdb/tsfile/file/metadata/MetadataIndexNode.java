@@ -27,12 +27,17 @@ import java.util.List;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.file.metadata.enums.MetadataIndexNodeType;
 import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.utils.RamUsageEstimator;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
 public class MetadataIndexNode {
 
   private static final int MAX_DEGREE_OF_INDEX_NODE = TSFileDescriptor.getInstance().getConfig()
       .getMaxDegreeOfIndexNode();
+  // the node with its list of children
+  private static final int FIXED_RAM_SIZE = 64;
+  // an entry with its reference in the list and its name String, excluding the chars of the name
+  private static final int ENTRY_FIXED_RAM_SIZE = 64;
   private List<MetadataIndexEntry> children;
   private long endOffset;
 
@@ -108,6 +113,16 @@ public class MetadataIndexNode {
     return new MetadataIndexNode(children, offset, nodeType);
   }
 
+  public long calculateRamSize() {
+    long size = FIXED_RAM_SIZE;
+    for (MetadataIndexEntry entry : children) {
+      size += ENTRY_FIXED_RAM_SIZE + RamUsageEstimator
+          .alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+              + (long) Character.BYTES * entry.getName().length());
+    }
+    return size;
+  }
+
   public Pair<MetadataIndexEntry, Long> getChildIndexEntry(String key, boolean exactSearch) {
     int index = binarySearchInChildren(key, exactSearch);
     if (index == -1) {
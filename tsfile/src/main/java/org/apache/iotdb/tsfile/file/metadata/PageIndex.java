@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.file.metadata;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.RamUsageEstimator;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * PageIndex is the time range and the offset of each page of a chunk, stored in the ChunkMetadata
+ * of a chunk with many pages. With it, a reader jumps to the pages it needs without deserializing
+ * the headers of the pages before them. The offset of a page is the position of its page header
+ * relative to the beginning of the chunk data, i.e., the end of the chunk header.
+ */
+public class PageIndex {
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int FIXED_RAM_SIZE = 40;
+
+  private long[] startTimes;
+  private long[] endTimes;
+  private int[] offsets;
+  private int pageNum;
+  // whether the time ranges of the pages are disjoint and in ascending order
+  private boolean sorted = true;
+
+  public PageIndex() {
+    this(INITIAL_CAPACITY);
+  }
+
+  private PageIndex(int capacity) {
+    startTimes = new long[capacity];
+    endTimes = new long[capacity];
+    offsets = new int[capacity];
+  }
+
+  public void addPage(long startTime, long endTime, int offset) {
+    if (pageNum == startTimes.length) {
+      int newCapacity = Math.max(INITIAL_CAPACITY, pageNum * 2);
+      startTimes = Arrays.copyOf(startTimes, newCapacity);
+      endTimes = Arrays.copyOf(endTimes, newCapacity);
+      offsets = Arrays.copyOf(offsets, newCapacity);
+    }
+    if (pageNum > 0 && startTime <= endTimes[pageNum - 1]) {
+      sorted = false;
+    }
+    startTimes[pageNum] = startTime;
+    endTimes[pageNum] = endTime;
+    offsets[pageNum] = offset;
+    pageNum++;
+  }
+
+  public int getPageNum() {
+    return pageNum;
+  }
+
+  public long getStartTime(int page) {
+    return startTimes[page];
+  }
+
+  public long getEndTime(int page) {
+    return endTimes[page];
+  }
+
+  public int getOffset(int page) {
+    return offsets[page];
+  }
+
+  public boolean isSorted() {
+    return sorted;
+  }
+
+  /**
+   * Only valid when the pages are sorted.
+   *
+   * @return the number of the first page ending at or after the time, or the number of pages if
+   * there is no such page
+   */
+  public int firstPageEndingFrom(long time) {
+    int low = 0;
+    int high = pageNum;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (endTimes[mid] < time) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Build the index of a chunk by going through its page headers, e.g., for a chunk merged from
+   * the chunks of several files.
+   *
+   * @param chunkData the pages of the chunk, whose position is not changed
+   */
+  public static PageIndex build(ByteBuffer chunkData, TSDataType dataType) {
+    ByteBuffer buffer = chunkData.duplicate();
+    int dataStart = buffer.position();
+    PageIndex pageIndex = new PageIndex();
+    while (buffer.hasRemaining()) {
+      int offset = buffer.position() - dataStart;
+      PageHeader pageHeader = PageHeader.deserializeFrom(buffer, dataType);
+      pageIndex.addPage(pageHeader.getStartTime(), pageHeader.getEndTime(), offset);
+      buffer.position(buffer.position() + pageHeader.getCompressedSize());
+    }
+    return pageIndex;
+  }
+
+  public int serializeTo(OutputStream outputStream) throws IOException {
+    int byteLen = ReadWriteIOUtils.write(pageNum, outputStream);
+    for (int i = 0; i < pageNum; i++) {
+      byteLen += ReadWriteIOUtils.write(startTimes[i], outputStream);
+      byteLen += ReadWriteIOUtils.write(endTimes[i], outputStream);
+      byteLen += ReadWriteIOUtils.write(offsets[i], outputStream);
+    }
+    return byteLen;
+  }
+
+  public static PageIndex deserializeFrom(ByteBuffer buffer) {
+    int pageNum = ReadWriteIOUtils.readInt(buffer);
+    PageIndex pageIndex = new PageIndex(pageNum);
+    for (int i = 0; i < pageNum; i++) {
+      long startTime = ReadWriteIOUtils.readLong(buffer);
+      long endTime = ReadWriteIOUtils.readLong(buffer);
+      pageIndex.addPage(startTime, endTime, ReadWriteIOUtils.readInt(buffer));
+    }
+    return pageIndex;
+  }
+
+  public long calculateRamSize() {
+    return FIXED_RAM_SIZE + RamUsageEstimator.sizeOf(startTimes) + RamUsageEstimator
+        .sizeOf(endTimes) + RamUsageEstimator.sizeOf(offsets);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PageIndex that = (PageIndex) o;
+    if (pageNum != that.pageNum) {
+      return false;
+    }
+    for (int i = 0; i < pageNum; i++) {
+      if (startTimes[i] != that.startTimes[i] || endTimes[i] != that.endTimes[i]
+          || offsets[i] != that.offsets[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * pageNum + Arrays.hashCode(Arrays.copyOf(offsets, pageNum));
+  }
+}
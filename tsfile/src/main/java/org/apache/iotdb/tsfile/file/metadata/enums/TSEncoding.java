@@ -20,7 +20,8 @@ package org.apache.iotdb.tsfile.file.metadata.enums;
 
 public enum TSEncoding {
 
-  PLAIN, PLAIN_DICTIONARY, RLE, DIFF, TS_2DIFF, BITMAP, GORILLA_V1, REGULAR, GORILLA;
+  PLAIN, PLAIN_DICTIONARY, RLE, DIFF, TS_2DIFF, BITMAP, GORILLA_V1, REGULAR, GORILLA, CHIMP, ELF,
+  BLOCK_DELTA;
 
   /**
    * judge the encoding deserialize type.
@@ -33,14 +34,14 @@ public enum TSEncoding {
   }
 
   public static byte deserializeToByte(short encoding) {
-    if (encoding < 0 || 8 < encoding) {
+    if (encoding < 0 || 11 < encoding) {
       throw new IllegalArgumentException("Invalid input: " + encoding);
     }
     return (byte) encoding;
   }
 
   private static TSEncoding getTsEncoding(short encoding) {
-    if (encoding < 0 || 8 < encoding) {
+    if (encoding < 0 || 11 < encoding) {
       throw new IllegalArgumentException("Invalid input: " + encoding);
     }
     switch (encoding) {
@@ -60,6 +61,12 @@ public enum TSEncoding {
         return REGULAR;
       case 8:
         return GORILLA;
+      case 9:
+        return CHIMP;
+      case 10:
+        return ELF;
+      case 11:
+        return BLOCK_DELTA;
       default:
         return PLAIN;
     }
@@ -109,6 +116,12 @@ public enum TSEncoding {
         return 7;
       case GORILLA:
         return 8;
+      case CHIMP:
+        return 9;
+      case ELF:
+        return 10;
+      case BLOCK_DELTA:
+        return 11;
       default:
         return 0;
     }
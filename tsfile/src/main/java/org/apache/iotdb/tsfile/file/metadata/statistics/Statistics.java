@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.Objects;
+import java.util.function.IntToDoubleFunction;
 
 import org.apache.iotdb.tsfile.exception.filter.StatisticsClassException;
 import org.apache.iotdb.tsfile.exception.write.UnknownColumnTypeException;
@@ -55,6 +56,19 @@ public abstract class Statistics<T> {
   private long startTime = Long.MAX_VALUE;
   private long endTime = Long.MIN_VALUE;
 
+  /**
+   * set in the serialized count if the sum of squares follows the value statistics, so that the
+   * statistics without it, including those in the files written before, are unchanged
+   */
+  private static final long SUM_OF_SQUARES_FLAG = 1L << 62;
+
+  /**
+   * the sum of the squared deviations of the numeric values from their mean, with which the
+   * variance is calculated without reading the values. NaN if unknown, e.g., the statistics are
+   * read from a file written before it is recorded.
+   */
+  private double sumOfSquares = 0;
+
   /**
    * static method providing statistic instance for respective data type.
    *
@@ -103,18 +117,23 @@ public abstract class Statistics<T> {
 
   public int getSerializedSize() {
     return 24 // count, startTime, endTime
-        + getStatsSize();
+        + getStatsSize() + (hasSumOfSquares() ? 8 : 0);
   }
 
   public abstract int getStatsSize();
 
   public int serialize(OutputStream outputStream) throws IOException {
     int byteLen = 0;
-    byteLen += ReadWriteIOUtils.write(count, outputStream);
+    boolean withSumOfSquares = hasSumOfSquares();
+    byteLen += ReadWriteIOUtils
+        .write(withSumOfSquares ? count | SUM_OF_SQUARES_FLAG : count, outputStream);
     byteLen += ReadWriteIOUtils.write(startTime, outputStream);
     byteLen += ReadWriteIOUtils.write(endTime, outputStream);
     // value statistics of different data type
     byteLen += serializeStats(outputStream);
+    if (withSumOfSquares) {
+      byteLen += ReadWriteIOUtils.write(sumOfSquares, outputStream);
+    }
     return byteLen;
   }
 
@@ -159,6 +178,61 @@ public abstract class Statistics<T> {
 
   public abstract ByteBuffer getSumValueBuffer();
 
+  /**
+   * @return true if the values are numeric and their sum of squares is known
+   */
+  public boolean hasSumOfSquares() {
+    return isNumeric() && !Double.isNaN(sumOfSquares);
+  }
+
+  /**
+   * @return the sum of the squared deviations of the values from their mean, NaN if unknown
+   */
+  public double getSumOfSquares() {
+    return hasSumOfSquares() ? sumOfSquares : Double.NaN;
+  }
+
+  public void setSumOfSquares(double sumOfSquares) {
+    this.sumOfSquares = sumOfSquares;
+  }
+
+  private boolean isNumeric() {
+    TSDataType type = getType();
+    return type == TSDataType.INT32 || type == TSDataType.INT64 || type == TSDataType.FLOAT
+        || type == TSDataType.DOUBLE;
+  }
+
+  /**
+   * Merge the sum of squares of some values into the one of this statistics, whose count and sum
+   * already include the values (Chan et al.).
+   */
+  private void mergeSumOfSquares(long otherCount, double otherSum, double otherSumOfSquares) {
+    if (otherCount == 0 || !isNumeric()) {
+      return;
+    }
+    long thisCount = count - otherCount;
+    if (thisCount == 0) {
+      sumOfSquares = otherSumOfSquares;
+      return;
+    }
+    double delta = otherSum / otherCount - (getSumValue() - otherSum) / thisCount;
+    sumOfSquares += otherSumOfSquares + delta * delta * thisCount / count * otherCount;
+  }
+
+  private void updateSumOfSquares(IntToDoubleFunction values, int batchSize) {
+    double sum = 0;
+    for (int i = 0; i < batchSize; i++) {
+      sum += values.applyAsDouble(i);
+    }
+    double mean = sum / batchSize;
+    double batchSumOfSquares = 0;
+    for (int i = 0; i < batchSize; i++) {
+      double deviation = values.applyAsDouble(i) - mean;
+      batchSumOfSquares += deviation * deviation;
+    }
+    mergeSumOfSquares(batchSize, sum, batchSumOfSquares);
+  }
+
   /**
    * merge parameter to this statistic
    *
@@ -175,6 +249,8 @@ public abstract class Statistics<T> {
       // must be sure no overlap between two statistics
       this.count += stats.count;
       mergeStatisticsValue(stats);
+      mergeSumOfSquares(stats.count, stats.isNumeric() ? stats.getSumValue() : 0,
+          stats.sumOfSquares);
       isEmpty = false;
     } else {
       String thisClass = this.getClass().toString();
@@ -205,6 +281,7 @@ public abstract class Statistics<T> {
     }
     count++;
     updateStats(value);
+    mergeSumOfSquares(1, value, 0);
   }
 
   public void update(long time, long value) {
@@ -216,6 +293,7 @@ public abstract class Statistics<T> {
     }
     count++;
     updateStats(value);
+    mergeSumOfSquares(1, value, 0);
   }
 
   public void update(long time, float value) {
@@ -227,6 +305,7 @@ public abstract class Statistics<T> {
     }
     count++;
     updateStats(value);
+    mergeSumOfSquares(1, value, 0);
   }
 
   public void update(long time, double value) {
@@ -238,6 +317,7 @@ public abstract class Statistics<T> {
     }
     count++;
     updateStats(value);
+    mergeSumOfSquares(1, value, 0);
   }
 
   public void update(long time, Binary value) {
@@ -271,6 +351,7 @@ public abstract class Statistics<T> {
     }
     count += batchSize;
     updateStats(values, batchSize);
+    updateSumOfSquares(i -> values[i], batchSize);
   }
 
   public void update(long[] time, long[] values, int batchSize) {
@@ -282,6 +363,7 @@ public abstract class Statistics<T> {
     }
     count += batchSize;
     updateStats(values, batchSize);
+    updateSumOfSquares(i -> values[i], batchSize);
   }
 
   public void update(long[] time, float[] values, int batchSize) {
@@ -293,6 +375,7 @@ public abstract class Statistics<T> {
     }
     count += batchSize;
     updateStats(values, batchSize);
+    updateSumOfSquares(i -> values[i], batchSize);
   }
 
   public void update(long[] time, double[] values, int batchSize) {
@@ -304,6 +387,7 @@ public abstract class Statistics<T> {
     }
     count += batchSize;
     updateStats(values, batchSize);
+    updateSumOfSquares(i -> values[i], batchSize);
   }
 
   public void update(long[] time, Binary[] values, int batchSize) {
@@ -389,20 +473,26 @@ public abstract class Statistics<T> {
   public static Statistics deserialize(InputStream inputStream, TSDataType dataType)
       throws IOException {
     Statistics statistics = getStatsByType(dataType);
-    statistics.setCount(ReadWriteIOUtils.readLong(inputStream));
+    long count = ReadWriteIOUtils.readLong(inputStream);
+    statistics.setCount(count & ~SUM_OF_SQUARES_FLAG);
     statistics.setStartTime(ReadWriteIOUtils.readLong(inputStream));
     statistics.setEndTime(ReadWriteIOUtils.readLong(inputStream));
     statistics.deserialize(inputStream);
+    statistics.sumOfSquares = (count & SUM_OF_SQUARES_FLAG) != 0 ? ReadWriteIOUtils
+        .readDouble(inputStream) : Double.NaN;
     statistics.isEmpty = false;
     return statistics;
   }
 
   public static Statistics deserialize(ByteBuffer buffer, TSDataType dataType) {
     Statistics statistics = getStatsByType(dataType);
-    statistics.setCount(ReadWriteIOUtils.readLong(buffer));
+    long count = ReadWriteIOUtils.readLong(buffer);
+    statistics.setCount(count & ~SUM_OF_SQUARES_FLAG);
     statistics.setStartTime(ReadWriteIOUtils.readLong(buffer));
     statistics.setEndTime(ReadWriteIOUtils.readLong(buffer));
     statistics.deserialize(buffer);
+    statistics.sumOfSquares = (count & SUM_OF_SQUARES_FLAG) != 0 ? ReadWriteIOUtils
+        .readDouble(buffer) : Double.NaN;
     statistics.isEmpty = false;
     return statistics;
   }
@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.read;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -32,6 +33,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
@@ -46,6 +48,7 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetadata;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.MetadataIndexEntry;
 import org.apache.iotdb.tsfile.file.metadata.MetadataIndexNode;
+import org.apache.iotdb.tsfile.file.metadata.PageIndex;
 import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetadata;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
@@ -83,6 +86,17 @@ public class TsFileSequenceReader implements AutoCloseable {
   private boolean cacheDeviceMetadata;
   private long minPlanIndex = Long.MAX_VALUE;
   private long maxPlanIndex = Long.MIN_VALUE;
+  // offset -> the time chunks of aligned chunk groups referred by the value chunks read, so that a
+  // time chunk is read and decoded once for all the value chunks of its group
+  private final Map<Long, WeakReference<Chunk>> timeChunkCache = new ConcurrentHashMap<>();
+  private static final int TIME_CHUNK_CACHE_CLEAN_THRESHOLD = 64;
+  // offset -> the internal nodes of the metadata index tree read, so that a metadata lookup only
+  // reads the leaf node once the path to it is cached. They are released when the reader is closed
+  private final Map<Long, MetadataIndexNode> metadataIndexNodeCache = new ConcurrentHashMap<>();
+  private long metadataIndexNodeCacheRamSize = 0;
+  private boolean metadataIndexNodeCacheClosed = false;
+  // the memory of the cached internal nodes of all the readers
+  private static final AtomicLong totalMetadataIndexNodeCacheRamSize = new AtomicLong();
 
   /**
    * Create a file reader of the given file. The reader will read the tail of the file to get the
@@ -312,10 +326,10 @@ public class TsFileSequenceReader implements AutoCloseable {
     if (metadataIndexPair == null) {
       return null;
     }
-    ByteBuffer buffer = readData(metadataIndexPair.left.getOffset(), metadataIndexPair.right);
     MetadataIndexNode metadataIndexNode = deviceMetadataIndexNode;
     if (!metadataIndexNode.getNodeType().equals(MetadataIndexNodeType.LEAF_MEASUREMENT)) {
-      metadataIndexNode = MetadataIndexNode.deserializeFrom(buffer);
+      metadataIndexNode = readMetadataIndexNode(metadataIndexPair.left.getOffset(),
+          metadataIndexPair.right);
       metadataIndexPair = getMetadataAndEndOffset(metadataIndexNode,
           path.getMeasurement(), MetadataIndexNodeType.INTERNAL_MEASUREMENT, false);
     }
@@ -323,7 +337,7 @@ public class TsFileSequenceReader implements AutoCloseable {
       return null;
     }
     List<TimeseriesMetadata> timeseriesMetadataList = new ArrayList<>();
-    buffer = readData(metadataIndexPair.left.getOffset(), metadataIndexPair.right);
+    ByteBuffer buffer = readData(metadataIndexPair.left.getOffset(), metadataIndexPair.right);
     while (buffer.hasRemaining()) {
       timeseriesMetadataList.add(TimeseriesMetadata.deserializeFrom(buffer));
     }
@@ -349,19 +363,19 @@ public class TsFileSequenceReader implements AutoCloseable {
       if (measurementsHadFound.contains(measurementList.get(i))) {
         continue;
       }
-      ByteBuffer buffer = readData(metadataIndexPair.left.getOffset(), metadataIndexPair.right);
       Pair<MetadataIndexEntry, Long> measurementMetadataIndexPair = metadataIndexPair;
       List<TimeseriesMetadata> timeseriesMetadataList = new ArrayList<>();
       MetadataIndexNode metadataIndexNode = deviceMetadataIndexNode;
       if (!metadataIndexNode.getNodeType().equals(MetadataIndexNodeType.LEAF_MEASUREMENT)) {
-        metadataIndexNode = MetadataIndexNode.deserializeFrom(buffer);
+        metadataIndexNode = readMetadataIndexNode(metadataIndexPair.left.getOffset(),
+            metadataIndexPair.right);
         measurementMetadataIndexPair = getMetadataAndEndOffset(metadataIndexNode,
             measurementList.get(i), MetadataIndexNodeType.INTERNAL_MEASUREMENT, false);
       }
       if (measurementMetadataIndexPair == null) {
         return Collections.emptyList();
       }
-      buffer = readData(measurementMetadataIndexPair.left.getOffset(),
+      ByteBuffer buffer = readData(measurementMetadataIndexPair.left.getOffset(),
           measurementMetadataIndexPair.right);
       while (buffer.hasRemaining()) {
         timeseriesMetadataList.add(TimeseriesMetadata.deserializeFrom(buffer));
@@ -641,12 +655,62 @@ public class TsFileSequenceReader implements AutoCloseable {
     } else {
       Pair<MetadataIndexEntry, Long> childIndexEntry = metadataIndex
           .getChildIndexEntry(name, false);
-      ByteBuffer buffer = readData(childIndexEntry.left.getOffset(), childIndexEntry.right);
-      return getMetadataAndEndOffset(MetadataIndexNode.deserializeFrom(buffer), name, type,
-          false);
+      return getMetadataAndEndOffset(
+          readMetadataIndexNode(childIndexEntry.left.getOffset(), childIndexEntry.right), name,
+          type, false);
+    }
+  }
+
+  /**
+   * Read an internal node of the metadata index tree, from the cache if it has been read.
+   *
+   * @param offset    the offset of the node
+   * @param endOffset the end offset of the node
+   */
+  private MetadataIndexNode readMetadataIndexNode(long offset, long endOffset)
+      throws IOException {
+    MetadataIndexNode metadataIndexNode = metadataIndexNodeCache.get(offset);
+    if (metadataIndexNode == null) {
+      metadataIndexNode = MetadataIndexNode.deserializeFrom(readData(offset, endOffset));
+      cacheMetadataIndexNode(offset, metadataIndexNode);
+    }
+    return metadataIndexNode;
+  }
+
+  private void cacheMetadataIndexNode(long offset, MetadataIndexNode metadataIndexNode) {
+    long ramSize = metadataIndexNode.calculateRamSize();
+    if (totalMetadataIndexNodeCacheRamSize.addAndGet(ramSize)
+        > config.getMetadataIndexNodeCacheSizeInByte()) {
+      // the node is not cached when the memory is used up
+      totalMetadataIndexNodeCacheRamSize.addAndGet(-ramSize);
+      return;
+    }
+    synchronized (metadataIndexNodeCache) {
+      if (metadataIndexNodeCacheClosed
+          || metadataIndexNodeCache.putIfAbsent(offset, metadataIndexNode) != null) {
+        totalMetadataIndexNodeCacheRamSize.addAndGet(-ramSize);
+      } else {
+        metadataIndexNodeCacheRamSize += ramSize;
+      }
     }
   }
 
+  private void clearMetadataIndexNodeCache() {
+    synchronized (metadataIndexNodeCache) {
+      metadataIndexNodeCacheClosed = true;
+      metadataIndexNodeCache.clear();
+      totalMetadataIndexNodeCacheRamSize.addAndGet(-metadataIndexNodeCacheRamSize);
+      metadataIndexNodeCacheRamSize = 0;
+    }
+  }
+
+  /**
+   * @return the memory of the internal nodes of the metadata index trees cached by all the readers
+   */
+  public static long getTotalMetadataIndexNodeCacheRamSize() {
+    return totalMetadataIndexNodeCacheRamSize.get();
+  }
+
   /**
    * read data from current position of the input, and deserialize it to a CHUNK_GROUP_FOOTER. <br>
    * This method is not threadsafe.
@@ -691,6 +755,17 @@ public class TsFileSequenceReader implements AutoCloseable {
     return ChunkHeader.deserializeFrom(tsFileInput.wrapAsInputStream(), true);
   }
 
+  /**
+   * read data from current position of the input, and deserialize it to a chunk header of the
+   * given type. <br> This method is not threadsafe.
+   *
+   * @param chunkType the marker read, MetaMarker.CHUNK_HEADER, MetaMarker.TIME_CHUNK_HEADER or
+   *                  MetaMarker.VALUE_CHUNK_HEADER
+   */
+  public ChunkHeader readChunkHeader(byte chunkType) throws IOException {
+    return ChunkHeader.deserializeFrom(tsFileInput.wrapAsInputStream(), chunkType);
+  }
+
   /**
    * read the chunk's header.
    *
@@ -725,7 +800,38 @@ public class TsFileSequenceReader implements AutoCloseable {
     ChunkHeader header = readChunkHeader(metaData.getOffsetOfChunkHeader(), chunkHeadSize, false);
     ByteBuffer buffer = readChunk(metaData.getOffsetOfChunkHeader() + header.getSerializedSize(),
         header.getDataSize());
-    return new Chunk(header, buffer, metaData.getDeleteIntervalList());
+    if (header.getChunkType() == MetaMarker.VALUE_CHUNK_HEADER) {
+      return new Chunk(header, buffer, metaData.getDeleteIntervalList(),
+          readTimeChunk(header.getTimeChunkOffset()));
+    }
+    Chunk chunk = new Chunk(header, buffer, metaData.getDeleteIntervalList());
+    chunk.setPageIndex(metaData.getPageIndex());
+    return chunk;
+  }
+
+  /**
+   * read the time chunk of an aligned chunk group. The time chunk is shared by the value chunks
+   * read as long as any of them is in use.
+   *
+   * @param offset the file offset of the header of the time chunk
+   */
+  private Chunk readTimeChunk(long offset) throws IOException {
+    WeakReference<Chunk> reference = timeChunkCache.get(offset);
+    Chunk timeChunk = reference == null ? null : reference.get();
+    if (timeChunk != null) {
+      return timeChunk;
+    }
+    ChunkHeader header = readChunkHeader(offset, ChunkHeader.getSerializedSize(""), false);
+    if (header.getChunkType() != MetaMarker.TIME_CHUNK_HEADER) {
+      throw new IOException("No time chunk at " + offset + " of " + file);
+    }
+    ByteBuffer buffer = readChunk(offset + header.getSerializedSize(), header.getDataSize());
+    timeChunk = new Chunk(header, buffer, null);
+    if (timeChunkCache.size() >= TIME_CHUNK_CACHE_CLEAN_THRESHOLD) {
+      timeChunkCache.values().removeIf(ref -> ref.get() == null);
+    }
+    timeChunkCache.put(offset, new WeakReference<>(timeChunk));
+    return timeChunk;
   }
 
   /**
@@ -811,6 +917,7 @@ public class TsFileSequenceReader implements AutoCloseable {
     if (resourceLogger.isDebugEnabled()) {
       resourceLogger.debug("{} reader is closed.", file);
     }
+    clearMetadataIndexNodeCache();
     this.tsFileInput.close();
   }
 
@@ -931,7 +1038,19 @@ public class TsFileSequenceReader implements AutoCloseable {
     try {
       while ((marker = this.readMarker()) != MetaMarker.SEPARATOR) {
         switch (marker) {
+          case MetaMarker.TIME_CHUNK_HEADER:
+            // the time chunk of an aligned ChunkGroup, which has no ChunkMetadata
+            if (newChunkGroup) {
+              newChunkGroup = false;
+              chunkMetadataList = new ArrayList<>();
+            }
+            ChunkHeader timeChunkHeader = this.readChunkHeader(marker);
+            for (int j = 0; j < timeChunkHeader.getNumOfPages(); j++) {
+              this.skipPageData(this.readPageHeader(timeChunkHeader.getDataType()));
+            }
+            break;
           case MetaMarker.CHUNK_HEADER:
+          case MetaMarker.VALUE_CHUNK_HEADER:
             // this is the first chunk of a new ChunkGroup.
             if (newChunkGroup) {
               newChunkGroup = false;
@@ -941,7 +1060,7 @@ public class TsFileSequenceReader implements AutoCloseable {
             // if there is something wrong with a chunk, we will drop the whole ChunkGroup
             // as different chunks may be created by the same insertions(sqls), and partial
             // insertion is not tolerable
-            ChunkHeader chunkHeader = this.readChunkHeader();
+            ChunkHeader chunkHeader = this.readChunkHeader(marker);
             measurementID = chunkHeader.getMeasurementID();
             MeasurementSchema measurementSchema = new MeasurementSchema(measurementID,
                 chunkHeader.getDataType(),
@@ -949,14 +1068,27 @@ public class TsFileSequenceReader implements AutoCloseable {
             measurementSchemaList.add(measurementSchema);
             dataType = chunkHeader.getDataType();
             Statistics<?> chunkStatistics = Statistics.getStatsByType(dataType);
+            PageIndex pageIndex = new PageIndex();
+            long chunkDataOffset = this.position();
             for (int j = 0; j < chunkHeader.getNumOfPages(); j++) {
               // a new Page
+              int pageOffset = (int) (this.position() - chunkDataOffset);
               PageHeader pageHeader = this.readPageHeader(chunkHeader.getDataType());
-              chunkStatistics.mergeStatistics(pageHeader.getStatistics());
+              pageIndex.addPage(pageHeader.getStartTime(), pageHeader.getEndTime(), pageOffset);
+              // a page of a value chunk may have no values
+              if (pageHeader.getNumOfValues() > 0) {
+                chunkStatistics.mergeStatistics(pageHeader.getStatistics());
+              }
               this.skipPageData(pageHeader);
             }
             currentChunk = new ChunkMetadata(measurementID, dataType, fileOffsetOfChunk,
                 chunkStatistics);
+            int pageIndexMinPageNum = TSFileDescriptor.getInstance().getConfig()
+                .getPageIndexMinPageNum();
+            if (marker == MetaMarker.CHUNK_HEADER && pageIndexMinPageNum > 0
+                && chunkHeader.getNumOfPages() >= pageIndexMinPageNum) {
+              currentChunk.setPageIndex(pageIndex);
+            }
             chunkMetadataList.add(currentChunk);
             chunkCnt++;
             break;
@@ -18,11 +18,14 @@
  */
 package org.apache.iotdb.tsfile.read.common;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import java.util.List;
 import org.apache.iotdb.tsfile.common.cache.Accountable;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.metadata.PageIndex;
+import org.apache.iotdb.tsfile.read.reader.chunk.TimeChunkReader;
 
 /**
  * used in query.
@@ -36,6 +39,23 @@ public class Chunk implements Accountable {
    */
   private List<TimeRange> deleteIntervalList;
 
+  /**
+   * the time chunk of the aligned chunk group if this is a value chunk, shared by all the value
+   * chunks of the group
+   */
+  private Chunk timeChunk;
+
+  /**
+   * the decoded pages if this is a time chunk, so that the timestamps are decoded once for all the
+   * value chunks of the group
+   */
+  private TimeChunkReader timeChunkReader;
+
+  /**
+   * the time ranges and offsets of the pages if the chunk has many pages
+   */
+  private PageIndex pageIndex;
+
   private long ramSize;
 
   public Chunk(ChunkHeader header, ByteBuffer buffer, List<TimeRange> deleteIntervalList) {
@@ -44,6 +64,12 @@ public class Chunk implements Accountable {
     this.deleteIntervalList = deleteIntervalList;
   }
 
+  public Chunk(ChunkHeader header, ByteBuffer buffer, List<TimeRange> deleteIntervalList,
+      Chunk timeChunk) {
+    this(header, buffer, deleteIntervalList);
+    this.timeChunk = timeChunk;
+  }
+
   public ChunkHeader getHeader() {
     return chunkHeader;
   }
@@ -60,13 +86,59 @@ public class Chunk implements Accountable {
     this.deleteIntervalList = list;
   }
 
+  public Chunk getTimeChunk() {
+    return timeChunk;
+  }
+
+  public PageIndex getPageIndex() {
+    return pageIndex;
+  }
+
+  public void setPageIndex(PageIndex pageIndex) {
+    this.pageIndex = pageIndex;
+  }
+
+  public synchronized TimeChunkReader getTimeChunkReader() throws IOException {
+    if (timeChunkReader == null) {
+      timeChunkReader = new TimeChunkReader(this);
+    }
+    return timeChunkReader;
+  }
+
+  /**
+   * Append the pages of another chunk of the same series. The pages of value chunks stay aligned
+   * with their time chunks, whose pages are appended into a new time chunk as the time chunk may
+   * be shared by other value chunks.
+   */
   public void mergeChunk(Chunk chunk) {
+    mergeChunk(chunk, null);
+  }
+
+  /**
+   * @param mergedTimeChunk the time chunk already appended from the same time chunks for another
+   * value chunk of the group, which is shared instead of appending the time chunks again, or null
+   */
+  public void mergeChunk(Chunk chunk, Chunk mergedTimeChunk) {
     chunkHeader.mergeChunkHeader(chunk.chunkHeader);
     ByteBuffer newChunkData = ByteBuffer
         .allocate(chunkData.array().length + chunk.chunkData.array().length);
     newChunkData.put(chunkData.array());
     newChunkData.put(chunk.chunkData.array());
     chunkData = newChunkData;
+    // the pages of the merged chunk are indexed again when it is written
+    pageIndex = null;
+    if (timeChunk != null && mergedTimeChunk != null) {
+      timeChunk = mergedTimeChunk;
+    } else if (timeChunk != null) {
+      ChunkHeader timeChunkHeader = timeChunk.getHeader();
+      Chunk newTimeChunk = new Chunk(new ChunkHeader(timeChunkHeader.getChunkType(),
+          timeChunkHeader.getMeasurementID(), timeChunkHeader.getDataSize(),
+          timeChunkHeader.getDataType(), timeChunkHeader.getCompressionType(),
+          timeChunkHeader.getEncodingType(), timeChunkHeader.getNumOfPages(), -1),
+          timeChunk.chunkData, null);
+      newTimeChunk.mergeChunk(chunk.timeChunk);
+      timeChunk = newTimeChunk;
+    }
   }
 
   @Override
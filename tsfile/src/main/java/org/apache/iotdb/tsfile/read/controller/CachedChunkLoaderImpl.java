@@ -61,7 +61,10 @@ public class CachedChunkLoaderImpl implements IChunkLoader {
   @Override
   public Chunk loadChunk(ChunkMetadata chunkMetaData) throws IOException {
     Chunk chunk = chunkCache.get(chunkMetaData);
-    return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeleteIntervalList());
+    Chunk copiedChunk = new Chunk(chunk.getHeader(), chunk.getData().duplicate(),
+        chunk.getDeleteIntervalList(), chunk.getTimeChunk());
+    copiedChunk.setPageIndex(chunk.getPageIndex());
+    return copiedChunk;
   }
 
   @Override
@@ -24,6 +24,7 @@ import org.apache.iotdb.tsfile.compress.IUnCompressor;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.PageIndex;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.BatchData;
@@ -37,6 +38,7 @@ import org.apache.iotdb.tsfile.v1.file.utils.HeaderUtils;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -55,11 +57,34 @@ public class ChunkReader implements IChunkReader {
   
   private boolean isFromOldTsFile = false;
 
+  /**
+   * the reader of the time chunk if this is a value chunk of an aligned chunk group
+   */
+  private TimeChunkReader timeChunkReader;
+
   /**
    * A list of deleted intervals.
    */
   private List<TimeRange> deleteIntervalList;
 
+  /**
+   * the PageIndex of the chunk, with which only the headers of the pages whose time ranges may
+   * satisfy the filter are deserialized, and the pages are read on demand
+   */
+  private PageIndex pageIndex;
+
+  /**
+   * the position of the first page in chunkDataBuffer
+   */
+  private int chunkDataStart;
+
+  /**
+   * the numbers of the pages satisfying the PageIndex, the ones from nextCandidatePage are not read
+   */
+  private int[] candidatePages;
+  private int candidatePageNum;
+  private int nextCandidatePage;
+
   /**
    * constructor of ChunkReader.
    *
@@ -72,7 +97,11 @@ public class ChunkReader implements IChunkReader {
     this.deleteIntervalList = chunk.getDeleteIntervalList();
     chunkHeader = chunk.getHeader();
     this.unCompressor = IUnCompressor.getUnCompressor(chunkHeader.getCompressionType());
-
+    if (chunk.getTimeChunk() != null) {
+      this.timeChunkReader = chunk.getTimeChunk().getTimeChunkReader();
+    } else {
+      this.pageIndex = chunk.getPageIndex();
+    }
 
     initAllPageReaders();
   }
@@ -89,27 +118,86 @@ public class ChunkReader implements IChunkReader {
   }
 
   private void initAllPageReaders() throws IOException {
+    if (pageIndex != null) {
+      initCandidatePages();
+      return;
+    }
+    int pageIndex = 0;
     // construct next satisfied page header
     while (chunkDataBuffer.remaining() > 0) {
       // deserialize a PageHeader from chunkDataBuffer
       PageHeader pageHeader = isFromOldTsFile ? HeaderUtils.deserializePageHeaderV1(chunkDataBuffer, chunkHeader.getDataType()) :
           PageHeader.deserializeFrom(chunkDataBuffer, chunkHeader.getDataType());
+      // a page of a value chunk without values only keeps the pages aligned with the time chunk
+      boolean isEmpty = timeChunkReader != null && pageHeader.getNumOfValues() == 0;
       // if the current page satisfies
-      if (pageSatisfied(pageHeader)) {
-        pageReaderList.add(constructPageReaderForNextPage(pageHeader));
+      if (!isEmpty && pageSatisfied(pageHeader)) {
+        pageReaderList.add(constructPageReaderForNextPage(pageHeader, pageIndex));
       } else {
         skipBytesInStreamByLength(pageHeader.getCompressedSize());
       }
+      pageIndex++;
     }
   }
 
+  private void initCandidatePages() {
+    chunkDataStart = chunkDataBuffer.position();
+    candidatePages = new int[pageIndex.getPageNum()];
+    for (int i = 0; i < pageIndex.getPageNum(); i++) {
+      if (pageSatisfied(pageIndex.getStartTime(i), pageIndex.getEndTime(i))) {
+        candidatePages[candidatePageNum++] = i;
+      }
+    }
+  }
 
+  /**
+   * read the candidate pages until a page satisfying its page header is read, or all of them if
+   * readAll.
+   */
+  private void readCandidatePages(boolean readAll) throws IOException {
+    while (nextCandidatePage < candidatePageNum && (readAll || pageReaderList.isEmpty())) {
+      int page = candidatePages[nextCandidatePage++];
+      chunkDataBuffer.position(chunkDataStart + pageIndex.getOffset(page));
+      PageHeader pageHeader = PageHeader.deserializeFrom(chunkDataBuffer,
+          chunkHeader.getDataType());
+      if (pageSatisfied(pageHeader)) {
+        pageReaderList.add(constructPageReaderForNextPage(pageHeader, page));
+      }
+    }
+  }
+
+  /**
+   * Skip the pages not read yet that end before the time. With a PageIndex, the pages not read
+   * are skipped without deserializing their headers, by binary search if the pages are sorted.
+   */
+  protected void skipPagesEndingBefore(long time) {
+    while (!pageReaderList.isEmpty()
+        && pageReaderList.get(0).getStatistics().getEndTime() < time) {
+      pageReaderList.remove(0);
+    }
+    if (pageIndex == null || !pageReaderList.isEmpty()) {
+      return;
+    }
+    if (pageIndex.isSorted()) {
+      int position = Arrays.binarySearch(candidatePages, nextCandidatePage, candidatePageNum,
+          pageIndex.firstPageEndingFrom(time));
+      nextCandidatePage = position >= 0 ? position : -position - 1;
+    } else {
+      while (nextCandidatePage < candidatePageNum
+          && pageIndex.getEndTime(candidatePages[nextCandidatePage]) < time) {
+        nextCandidatePage++;
+      }
+    }
+  }
 
   /**
    * judge if has next page whose page header satisfies the filter.
    */
   @Override
-  public boolean hasNextSatisfiedPage() {
+  public boolean hasNextSatisfiedPage() throws IOException {
+    if (pageIndex != null) {
+      readCandidatePages(false);
+    }
     return !pageReaderList.isEmpty();
   }
 
@@ -121,6 +209,9 @@ public class ChunkReader implements IChunkReader {
    */
   @Override
   public BatchData nextPageData() throws IOException {
+    if (pageIndex != null) {
+      readCandidatePages(false);
+    }
     if (pageReaderList.isEmpty()) {
       throw new IOException("No more page");
     }
@@ -145,7 +236,18 @@ public class ChunkReader implements IChunkReader {
     return filter == null || filter.satisfy(pageHeader.getStatistics());
   }
 
-  private PageReader constructPageReaderForNextPage(PageHeader pageHeader)
+  private boolean pageSatisfied(long startTime, long endTime) {
+    if (deleteIntervalList != null) {
+      for (TimeRange range : deleteIntervalList) {
+        if (range.contains(startTime, endTime)) {
+          return false;
+        }
+      }
+    }
+    return filter == null || filter.satisfyStartEndTime(startTime, endTime);
+  }
+
+  private PageReader constructPageReaderForNextPage(PageHeader pageHeader, int pageIndex)
       throws IOException {
     int compressedPageBodyLength = pageHeader.getCompressedSize();
     byte[] compressedPageBody = new byte[compressedPageBodyLength];
@@ -163,8 +265,14 @@ public class ChunkReader implements IChunkReader {
     unCompressor.uncompress(compressedPageBody,0, compressedPageBodyLength,
         uncompressedPageData, 0);
     ByteBuffer pageData = ByteBuffer.wrap(uncompressedPageData);
-    PageReader reader = new PageReader(pageHeader, pageData, chunkHeader.getDataType(),
-        valueDecoder, timeDecoder, filter);
+    PageReader reader;
+    if (timeChunkReader == null) {
+      reader = new PageReader(pageHeader, pageData, chunkHeader.getDataType(), valueDecoder,
+          timeDecoder, filter);
+    } else {
+      reader = new PageReader(pageHeader, pageData, chunkHeader.getDataType(), valueDecoder,
+          timeChunkReader.getTimes(pageIndex), filter);
+    }
     reader.setDeleteIntervalList(deleteIntervalList);
     return reader;
   }
@@ -178,7 +286,10 @@ public class ChunkReader implements IChunkReader {
   }
 
   @Override
-  public List<IPageReader> loadPageReaderList() {
+  public List<IPageReader> loadPageReaderList() throws IOException {
+    if (pageIndex != null) {
+      readCandidatePages(true);
+    }
     return pageReaderList;
   }
 }
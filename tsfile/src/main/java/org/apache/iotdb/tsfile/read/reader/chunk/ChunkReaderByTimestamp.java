@@ -40,6 +40,7 @@ public class ChunkReaderByTimestamp extends ChunkReader {
 
   public void setCurrentTimestamp(long currentTimestamp) {
     this.currentTimestamp = currentTimestamp;
+    skipPagesEndingBefore(currentTimestamp);
   }
 
 }
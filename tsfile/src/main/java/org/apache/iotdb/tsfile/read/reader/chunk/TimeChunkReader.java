@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader.chunk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.iotdb.tsfile.compress.IUnCompressor;
+import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+
+/**
+ * Reads the pages of the time chunk of an aligned chunk group. A page is decoded when it is first
+ * read and the timestamps are kept for the other value chunks of the group, so that the
+ * timestamps are decoded only once for all the measurements read. The i-th page of a value chunk
+ * holds the values of the rows of the i-th page of the time chunk.
+ */
+public class TimeChunkReader {
+
+  private final ChunkHeader chunkHeader;
+  private final List<PageHeader> pageHeaders = new ArrayList<>();
+  private final List<ByteBuffer> compressedPages = new ArrayList<>();
+  private final AtomicReferenceArray<long[]> decodedPages;
+
+  public TimeChunkReader(Chunk timeChunk) throws IOException {
+    this.chunkHeader = timeChunk.getHeader();
+    ByteBuffer chunkDataBuffer = timeChunk.getData().duplicate();
+    while (chunkDataBuffer.hasRemaining()) {
+      PageHeader pageHeader = PageHeader.deserializeFrom(chunkDataBuffer,
+          chunkHeader.getDataType());
+      if (pageHeader.getCompressedSize() > chunkDataBuffer.remaining()) {
+        throw new IOException("do not has a complete page body. Expected:"
+            + pageHeader.getCompressedSize() + ". Actual:" + chunkDataBuffer.remaining());
+      }
+      ByteBuffer compressedPage = chunkDataBuffer.slice();
+      compressedPage.limit(pageHeader.getCompressedSize());
+      chunkDataBuffer.position(chunkDataBuffer.position() + pageHeader.getCompressedSize());
+      pageHeaders.add(pageHeader);
+      compressedPages.add(compressedPage);
+    }
+    this.decodedPages = new AtomicReferenceArray<>(pageHeaders.size());
+  }
+
+  public int getPageNum() {
+    return pageHeaders.size();
+  }
+
+  public PageHeader getPageHeader(int pageIndex) {
+    return pageHeaders.get(pageIndex);
+  }
+
+  /**
+   * @return the timestamps of all the rows in the page, which must not be modified
+   */
+  public long[] getTimes(int pageIndex) throws IOException {
+    if (pageIndex >= pageHeaders.size()) {
+      throw new IOException("The time chunk has " + pageHeaders.size() + " pages, page "
+          + pageIndex + " does not exist");
+    }
+    long[] times = decodedPages.get(pageIndex);
+    if (times == null) {
+      // the page may be decoded more than once by concurrent queries, which is harmless
+      times = decode(pageIndex);
+      decodedPages.set(pageIndex, times);
+    }
+    return times;
+  }
+
+  private long[] decode(int pageIndex) throws IOException {
+    PageHeader pageHeader = pageHeaders.get(pageIndex);
+    byte[] compressedPageBody = new byte[pageHeader.getCompressedSize()];
+    compressedPages.get(pageIndex).duplicate().get(compressedPageBody);
+    byte[] uncompressedPageData = new byte[pageHeader.getUncompressedSize()];
+    IUnCompressor.getUnCompressor(chunkHeader.getCompressionType())
+        .uncompress(compressedPageBody, 0, compressedPageBody.length, uncompressedPageData, 0);
+    ByteBuffer pageData = ByteBuffer.wrap(uncompressedPageData);
+
+    Decoder timeDecoder = Decoder
+        .getDecoderByType(chunkHeader.getEncodingType(), chunkHeader.getDataType());
+    long[] times = new long[(int) pageHeader.getNumOfValues()];
+    for (int i = 0; i < times.length; i++) {
+      times[i] = timeDecoder.readLong(pageData);
+    }
+    return times;
+  }
+}
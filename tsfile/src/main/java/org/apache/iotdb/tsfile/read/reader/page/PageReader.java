@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.read.reader.page;
 
 import java.util.List;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.encoding.decoder.DictionaryDecoder;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -27,9 +28,15 @@ import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.BatchDataFactory;
 import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter.ValueIn;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter.ValueNotFilter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterType;
 import org.apache.iotdb.tsfile.read.filter.operator.AndFilter;
+import org.apache.iotdb.tsfile.read.filter.operator.OrFilter;
 import org.apache.iotdb.tsfile.read.reader.IPageReader;
+import org.apache.iotdb.tsfile.read.filter.basic.BinaryFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.basic.UnaryFilter;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 
@@ -62,6 +69,19 @@ public class PageReader implements IPageReader {
    */
   private ByteBuffer valueBuffer;
 
+  /**
+   * the timestamps of the rows of the page if it is a page of a value chunk, whose time column is
+   * decoded from the time chunk
+   */
+  private long[] times;
+
+  /**
+   * the i-th bit is set if the i-th row of a page of a value chunk has a value
+   */
+  private byte[] bitmap;
+
+  private int rowIndex;
+
   private Filter filter;
 
   /**
@@ -86,6 +106,22 @@ public class PageReader implements IPageReader {
     splitDataToTimeStampAndValue(pageData);
   }
 
+  /**
+   * @param pageData the bitmap of the rows having a value, followed by the non-null values
+   * @param times the timestamps of all the rows of the page, decoded from the time chunk
+   */
+  public PageReader(PageHeader pageHeader, ByteBuffer pageData, TSDataType dataType,
+      Decoder valueDecoder, long[] times, Filter filter) {
+    this.dataType = dataType;
+    this.valueDecoder = valueDecoder;
+    this.filter = filter;
+    this.pageHeader = pageHeader;
+    this.times = times;
+    this.bitmap = new byte[(times.length + 7) / 8];
+    pageData.get(bitmap);
+    this.valueBuffer = pageData.slice();
+  }
+
   /**
    * split pageContent into two stream: time and value
    *
@@ -109,9 +145,15 @@ public class PageReader implements IPageReader {
   public BatchData getAllSatisfiedPageData(boolean ascending) throws IOException {
 
     BatchData pageData = BatchDataFactory.createBatchData(dataType, ascending, false);
+    if (valueDecoder instanceof DictionaryDecoder && isValueFilter(filter)) {
+      Binary[] dictionary = ((DictionaryDecoder) valueDecoder).getDictionary(valueBuffer);
+      if (dictionary != null) {
+        return getSatisfiedDictionaryPageData(pageData, dictionary);
+      }
+    }
 
-    while (timeDecoder.hasNext(timeBuffer)) {
-      long timestamp = timeDecoder.readLong(timeBuffer);
+    while (hasNextTime()) {
+      long timestamp = nextTime();
       switch (dataType) {
         case BOOLEAN:
           boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
@@ -156,6 +198,56 @@ public class PageReader implements IPageReader {
     return pageData.flip();
   }
 
+  /**
+   * The filter only concerns the values, so it is evaluated once for each entry of the dictionary
+   * and the values are selected by their ids.
+   */
+  private BatchData getSatisfiedDictionaryPageData(BatchData pageData, Binary[] dictionary)
+      throws IOException {
+    boolean[] satisfied = new boolean[dictionary.length];
+    for (int i = 0; i < dictionary.length; i++) {
+      satisfied[i] = filter.satisfy(0, dictionary[i]);
+    }
+    DictionaryDecoder dictionaryDecoder = (DictionaryDecoder) valueDecoder;
+    while (hasNextTime()) {
+      long timestamp = nextTime();
+      int id = dictionaryDecoder.readId(valueBuffer);
+      if (satisfied[id] && !isDeleted(timestamp)) {
+        pageData.putBinary(timestamp, dictionary[id]);
+      }
+    }
+    return pageData.flip();
+  }
+
+  /**
+   * @return true if there is another row with a value
+   */
+  private boolean hasNextTime() throws IOException {
+    if (times == null) {
+      return timeDecoder.hasNext(timeBuffer);
+    }
+    while (rowIndex < times.length && (bitmap[rowIndex >>> 3] & (1 << (rowIndex & 7))) == 0) {
+      rowIndex++;
+    }
+    return rowIndex < times.length;
+  }
+
+  private long nextTime() {
+    return times == null ? timeDecoder.readLong(timeBuffer) : times[rowIndex++];
+  }
+
+  private static boolean isValueFilter(Filter filter) {
+    if (filter instanceof UnaryFilter) {
+      return ((UnaryFilter<?>) filter).getFilterType() == FilterType.VALUE_FILTER;
+    } else if (filter instanceof ValueNotFilter) {
+      return isValueFilter(((ValueNotFilter) filter).getFilter());
+    } else if (filter instanceof AndFilter || filter instanceof OrFilter) {
+      return isValueFilter(((BinaryFilter) filter).getLeft())
+          && isValueFilter(((BinaryFilter) filter).getRight());
+    }
+    return filter instanceof ValueIn;
+  }
+
   @Override
   public Statistics getStatistics() {
     return pageHeader.getStatistics();
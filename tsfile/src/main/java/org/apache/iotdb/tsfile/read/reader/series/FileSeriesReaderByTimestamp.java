@@ -94,6 +94,8 @@ public class FileSeriesReaderByTimestamp {
         }
         return null;
       } else {
+        // skip the pages ending before the timestamp
+        ((ChunkReaderByTimestamp) chunkReader).setCurrentTimestamp(timestamp);
         if (chunkReader.hasNextSatisfiedPage()) {
           data = chunkReader.nextPageData();
         } else if (!constructNextSatisfiedChunkReader()) {
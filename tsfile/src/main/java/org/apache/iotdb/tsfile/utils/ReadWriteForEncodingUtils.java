@@ -123,6 +123,18 @@ public class ReadWriteForEncodingUtils {
     return value | (b << i);
   }
 
+  /**
+   * @return the number of bytes the value takes in unsigned var int format
+   */
+  public static int varIntSize(int value) {
+    int size = 1;
+    while ((value & 0xFFFFFF80) != 0L) {
+      size++;
+      value >>>= 7;
+    }
+    return size;
+  }
+
   /**
    * write a value to stream using unsigned var int format. for example, int
    * 123456789 has its binary format 00000111-01011011-11001101-00010101 (if we
@@ -167,6 +179,40 @@ public class ReadWriteForEncodingUtils {
     return position;
   }
 
+  /**
+   * write a long value to stream using zigzag var long format, so a value of small absolute value
+   * takes few bytes whether it is positive or negative.
+   *
+   * @param value value to write into stream
+   * @param out   output stream
+   */
+  public static void writeVarLong(long value, ByteArrayOutputStream out) {
+    long zigzag = (value << 1) ^ (value >> 63);
+    while ((zigzag & 0xFFFFFFFFFFFFFF80L) != 0L) {
+      out.write((int) ((zigzag & 0x7F) | 0x80));
+      zigzag >>>= 7;
+    }
+    out.write((int) (zigzag & 0x7F));
+  }
+
+  /**
+   * read a zigzag var long written by {@link #writeVarLong(long, ByteArrayOutputStream)}.
+   *
+   * @param buffer stream to read a zigzag var long
+   * @return long value
+   */
+  public static long readVarLong(ByteBuffer buffer) {
+    long zigzag = 0;
+    int i = 0;
+    long b;
+    while (((b = buffer.get()) & 0x80) != 0) {
+      zigzag |= (b & 0x7F) << i;
+      i += 7;
+    }
+    zigzag |= b << i;
+    return (zigzag >>> 1) ^ -(zigzag & 1);
+  }
+
   /**
    * write integer value using special bit to output stream.
    *
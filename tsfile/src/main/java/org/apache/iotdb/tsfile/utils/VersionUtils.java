@@ -32,18 +32,23 @@ public class VersionUtils {
       return;
     }
     int versionIndex = 0;
+    long lastOffset = Long.MIN_VALUE;
     for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+      long offset = chunkMetadata.getOffsetOfChunkHeader();
+      if (offset < lastOffset) {
+        // the chunks of a file merged in place are ordered by time instead of offset
+        versionIndex = 0;
+      }
+      lastOffset = offset;
 
-      while (chunkMetadata.getOffsetOfChunkHeader() >= versionInfo.get(versionIndex).left) {
+      while (versionIndex < versionInfo.size() && offset >= versionInfo.get(versionIndex).left) {
         versionIndex++;
-        // When the TsFile is uncompleted,
-        // skip the chunkMetadatas those don't have their version information
-        if (versionIndex >= versionInfo.size()) {
-          return;
-        }
       }
-
-      chunkMetadata.setVersion(versionInfo.get(versionIndex).right);
+      // When the TsFile is uncompleted,
+      // skip the chunkMetadatas those don't have their version information
+      if (versionIndex < versionInfo.size()) {
+        chunkMetadata.setVersion(versionInfo.get(versionIndex).right);
+      }
     }
   }
 }
@@ -94,6 +94,8 @@ public abstract class StatisticsV1<T> {
     statistics.setEndTime(maxTimestamp);
     statistics.setCount(numOfValues);
     statistics.setEmpty(false);
+    // the old statistics have no sum of squares
+    statistics.setSumOfSquares(Double.NaN);
     switch (dataType) {
       case INT32:
         ((IntegerStatistics) statistics)
@@ -153,6 +155,8 @@ public abstract class StatisticsV1<T> {
     statistics.setEndTime(oldChunkMetadata.getEndTime());
     statistics.setCount(oldChunkMetadata.getNumOfPoints());
     statistics.setEmpty(false);
+    // the old statistics have no sum of squares
+    statistics.setSumOfSquares(Double.NaN);
     TsDigestV1 tsDigest = oldChunkMetadata.getDigest();
     ByteBuffer[] buffers = tsDigest.getStatistics();
     switch (statistics.getType()) {
@@ -23,6 +23,7 @@ import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.write.NoMeasurementException;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.chunk.AlignedChunkGroupWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.ChunkGroupWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.IChunkGroupWriter;
 import org.apache.iotdb.tsfile.write.record.Tablet;
@@ -38,7 +39,11 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * TsFileWriter is the entrance for writing processing. It receives a record and send it to
@@ -70,6 +75,13 @@ public class TsFileWriter implements AutoCloseable {
   private long recordCountForNextMemCheck = 100;
   private long chunkGroupSizeThreshold;
 
+  /**
+   * the pool to encode and compress the measurements of a tablet in parallel, while the chunks are
+   * still written to the file in order by the writing thread. Null if encodingThreadNum of the
+   * config is not greater than 1.
+   */
+  private final ExecutorService encodingPool;
+
   /**
    * init this TsFileWriter.
    *
@@ -143,6 +155,8 @@ public class TsFileWriter implements AutoCloseable {
     }
     this.pageSize = conf.getPageSizeInByte();
     this.chunkGroupSizeThreshold = conf.getGroupSizeInByte();
+    this.encodingPool = conf.getEncodingThreadNum() > 1
+        ? createEncodingPool(conf.getEncodingThreadNum()) : null;
     config.setTSFileStorageFs(conf.getTSFileStorageFs());
     if (this.pageSize >= chunkGroupSizeThreshold) {
       LOG.warn(
@@ -152,6 +166,15 @@ public class TsFileWriter implements AutoCloseable {
   }
 
 
+  private static ExecutorService createEncodingPool(int threadNum) {
+    AtomicInteger threadId = new AtomicInteger();
+    return Executors.newFixedThreadPool(threadNum, runnable -> {
+      Thread thread = new Thread(runnable, "TsFileWriter-Encoding-" + threadId.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
   public void registerDeviceTemplate(String templateName, Map<String, MeasurementSchema> template) {
     schema.registerDeviceTemplate(templateName, template);
   }
@@ -168,6 +191,36 @@ public class TsFileWriter implements AutoCloseable {
     schema.registerTimeseries(path, measurementSchema);
   }
 
+  /**
+   * register the measurements of a device sharing one time column. The records and tablets of the
+   * device are written into one time chunk and a value chunk for each measurement, and the
+   * measurements missing in a record or a tablet are null.
+   */
+  public void registerAlignedTimeseries(String deviceId, List<MeasurementSchema> measurementSchemas)
+      throws WriteProcessException {
+    if (schema.getAlignedMeasurements(deviceId) != null) {
+      throw new WriteProcessException("given device has been registered as aligned! " + deviceId);
+    }
+    for (MeasurementSchema measurementSchema : measurementSchemas) {
+      Path path = new Path(deviceId, measurementSchema.getMeasurementId());
+      if (schema.containsTimeseries(path)) {
+        throw new WriteProcessException("given timeseries has exists! " + path.toString());
+      }
+    }
+    schema.registerAlignedTimeseries(deviceId, measurementSchemas);
+  }
+
+  private IChunkGroupWriter getOrCreateGroupWriter(String deviceId) {
+    IChunkGroupWriter groupWriter = groupWriters.get(deviceId);
+    if (groupWriter == null) {
+      List<MeasurementSchema> alignedMeasurements = schema.getAlignedMeasurements(deviceId);
+      groupWriter = alignedMeasurements == null ? new ChunkGroupWriterImpl(deviceId, encodingPool)
+          : new AlignedChunkGroupWriterImpl(deviceId, alignedMeasurements);
+      groupWriters.put(deviceId, groupWriter);
+    }
+    return groupWriter;
+  }
+
   /**
    * Confirm whether the record is legal. If legal, add it into this RecordWriter.
    *
@@ -176,12 +229,10 @@ public class TsFileWriter implements AutoCloseable {
    * @throws WriteProcessException exception
    */
   private boolean checkIsTimeSeriesExist(TSRecord record) throws WriteProcessException {
-    IChunkGroupWriter groupWriter;
-    if (!groupWriters.containsKey(record.deviceId)) {
-      groupWriter = new ChunkGroupWriterImpl(record.deviceId);
-      groupWriters.put(record.deviceId, groupWriter);
-    } else {
-      groupWriter = groupWriters.get(record.deviceId);
+    IChunkGroupWriter groupWriter = getOrCreateGroupWriter(record.deviceId);
+    if (groupWriter instanceof AlignedChunkGroupWriterImpl) {
+      // the measurements of an aligned device are checked when the record is written
+      return true;
     }
 
     // add all SeriesWriter of measurements in this TSRecord to this ChunkGroupWriter
@@ -213,12 +264,10 @@ public class TsFileWriter implements AutoCloseable {
    * @throws WriteProcessException exception
    */
   private void checkIsTimeSeriesExist(Tablet tablet) throws WriteProcessException {
-    IChunkGroupWriter groupWriter;
-    if (!groupWriters.containsKey(tablet.deviceId)) {
-      groupWriter = new ChunkGroupWriterImpl(tablet.deviceId);
-      groupWriters.put(tablet.deviceId, groupWriter);
-    } else {
-      groupWriter = groupWriters.get(tablet.deviceId);
+    IChunkGroupWriter groupWriter = getOrCreateGroupWriter(tablet.deviceId);
+    if (groupWriter instanceof AlignedChunkGroupWriterImpl) {
+      // the measurements of an aligned device are checked when the tablet is written
+      return;
     }
     String deviceId = tablet.deviceId;
 
@@ -252,7 +301,8 @@ public class TsFileWriter implements AutoCloseable {
   }
 
   /**
-   * write a tablet
+   * write a tablet. The measurements of a non-aligned device are encoded in parallel if
+   * encodingThreadNum of the config is greater than 1.
    *
    * @param tablet - multiple time series of one device that share a time column
    * @throws IOException           exception in IO
@@ -346,9 +396,15 @@ public class TsFileWriter implements AutoCloseable {
   @Override
   public void close() throws IOException {
     LOG.info("start close file");
-    flushAllChunkGroups();
-    fileWriter.setDefaultVersionPair();
-    fileWriter.endFile();
+    try {
+      flushAllChunkGroups();
+      fileWriter.setDefaultVersionPair();
+      fileWriter.endFile();
+    } finally {
+      if (encodingPool != null) {
+        encodingPool.shutdownNow();
+      }
+    }
   }
 
   /**
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.chunk;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.tsfile.exception.write.NoMeasurementException;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * a implementation of IChunkGroupWriter for the measurements of a device sharing one time column,
+ * which are written into one time chunk and a value chunk for each measurement. The measurements
+ * missing in a record or a tablet are null in the rows written.
+ */
+public class AlignedChunkGroupWriterImpl implements IChunkGroupWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AlignedChunkGroupWriterImpl.class);
+
+  private final String deviceId;
+
+  private final List<MeasurementSchema> schemaList;
+
+  /**
+   * Map(measurementID, index in schemaList).
+   */
+  private final Map<String, Integer> measurementIndexMap = new HashMap<>();
+
+  private final AlignedChunkWriterImpl chunkWriter;
+
+  public AlignedChunkGroupWriterImpl(String deviceId, List<MeasurementSchema> schemaList) {
+    this.deviceId = deviceId;
+    this.schemaList = schemaList;
+    for (int i = 0; i < schemaList.size(); i++) {
+      measurementIndexMap.put(schemaList.get(i).getMeasurementId(), i);
+    }
+    this.chunkWriter = new AlignedChunkWriterImpl(schemaList);
+  }
+
+  /**
+   * the measurements are fixed when the device is registered, so no writer is added.
+   */
+  @Override
+  public void tryToAddSeriesWriter(MeasurementSchema schema, int pageSizeThreshold) {
+    if (!measurementIndexMap.containsKey(schema.getMeasurementId())) {
+      throw new IllegalArgumentException("measurement " + schema.getMeasurementId()
+          + " is not aligned with the other measurements of " + deviceId);
+    }
+  }
+
+  @Override
+  public void write(long time, List<DataPoint> data) throws WriteProcessException {
+    Object[] row = new Object[schemaList.size()];
+    for (DataPoint point : data) {
+      row[getMeasurementIndex(point.getMeasurementId())] = point.getValue();
+    }
+    for (int i = 0; i < row.length; i++) {
+      writeValue(time, schemaList.get(i).getType(), row[i]);
+    }
+    chunkWriter.write(time);
+  }
+
+  @Override
+  public void write(Tablet tablet) throws WriteProcessException {
+    // the column of each measurement in the tablet, -1 if it is missing
+    int[] columns = new int[schemaList.size()];
+    Arrays.fill(columns, -1);
+    List<MeasurementSchema> timeseries = tablet.getSchemas();
+    for (int i = 0; i < timeseries.size(); i++) {
+      columns[getMeasurementIndex(timeseries.get(i).getMeasurementId())] = i;
+    }
+    for (int row = 0; row < tablet.rowSize; row++) {
+      long time = tablet.timestamps[row];
+      for (int i = 0; i < columns.length; i++) {
+        writeColumnValue(time, schemaList.get(i).getType(),
+            columns[i] < 0 ? null : tablet.values[columns[i]], row);
+      }
+      chunkWriter.write(time);
+    }
+  }
+
+  private int getMeasurementIndex(String measurementId) throws NoMeasurementException {
+    Integer index = measurementIndexMap.get(measurementId);
+    if (index == null) {
+      throw new NoMeasurementException("measurement id " + measurementId + " not found!");
+    }
+    return index;
+  }
+
+  private void writeValue(long time, TSDataType dataType, Object value) {
+    boolean isNull = value == null;
+    switch (dataType) {
+      case BOOLEAN:
+        chunkWriter.write(time, !isNull && (boolean) value, isNull);
+        break;
+      case INT32:
+        chunkWriter.write(time, isNull ? 0 : (int) value, isNull);
+        break;
+      case INT64:
+        chunkWriter.write(time, isNull ? 0L : (long) value, isNull);
+        break;
+      case FLOAT:
+        chunkWriter.write(time, isNull ? 0f : (float) value, isNull);
+        break;
+      case DOUBLE:
+        chunkWriter.write(time, isNull ? 0d : (double) value, isNull);
+        break;
+      case TEXT:
+        chunkWriter.write(time, (Binary) value, isNull);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", dataType));
+    }
+  }
+
+  private void writeColumnValue(long time, TSDataType dataType, Object column, int row) {
+    boolean isNull = column == null;
+    switch (dataType) {
+      case BOOLEAN:
+        chunkWriter.write(time, !isNull && ((boolean[]) column)[row], isNull);
+        break;
+      case INT32:
+        chunkWriter.write(time, isNull ? 0 : ((int[]) column)[row], isNull);
+        break;
+      case INT64:
+        chunkWriter.write(time, isNull ? 0L : ((long[]) column)[row], isNull);
+        break;
+      case FLOAT:
+        chunkWriter.write(time, isNull ? 0f : ((float[]) column)[row], isNull);
+        break;
+      case DOUBLE:
+        chunkWriter.write(time, isNull ? 0d : ((double[]) column)[row], isNull);
+        break;
+      case TEXT:
+        chunkWriter.write(time, isNull ? null : ((Binary[]) column)[row], isNull);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", dataType));
+    }
+  }
+
+  @Override
+  public long flushToFileWriter(TsFileIOWriter fileWriter) throws IOException {
+    LOG.debug("start flush aligned device id:{}", deviceId);
+    chunkWriter.sealCurrentPage();
+    long currentChunkGroupSize = getCurrentChunkGroupSize();
+    chunkWriter.writeToFileWriter(fileWriter);
+    return currentChunkGroupSize;
+  }
+
+  @Override
+  public long updateMaxGroupMemSize() {
+    return chunkWriter.estimateMaxSeriesMemSize();
+  }
+
+  @Override
+  public long getCurrentChunkGroupSize() {
+    return chunkWriter.getCurrentChunkSize();
+  }
+
+  @Override
+  public int getSeriesNumber() {
+    return schemaList.size();
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.chunk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+
+/**
+ * AlignedChunkWriterImpl writes the measurements of a device sharing one time column into one
+ * time chunk and a value chunk for each measurement. The values of a row are written by
+ * write(time, value, isNull) in the order of the measurements, then the row is finished by
+ * write(time). The pages of all the chunks are sealed together, so that the i-th page of a value
+ * chunk holds the values of the rows in the i-th page of the time chunk.
+ */
+public class AlignedChunkWriterImpl {
+
+  private final TimeChunkWriter timeChunkWriter;
+
+  private final List<ValueChunkWriter> valueChunkWriterList;
+
+  // the measurement whose value is written next in current row
+  private int valueIndex;
+
+  /**
+   * page size threshold.
+   */
+  private final long pageSizeThreshold;
+
+  private final int maxNumberOfPointsInPage;
+
+  /**
+   * row count in current page.
+   */
+  private int valueCountInOnePageForNextCheck;
+
+  // initial value for valueCountInOnePageForNextCheck
+  private static final int MINIMUM_RECORD_COUNT_FOR_CHECK = 1500;
+
+  /**
+   * @param schemaList the schemas of the measurements, in the order their values are written
+   */
+  public AlignedChunkWriterImpl(List<MeasurementSchema> schemaList) {
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    this.timeChunkWriter = new TimeChunkWriter(TSEncoding.valueOf(config.getTimeEncoder()),
+        config.getCompressor());
+    this.valueChunkWriterList = new ArrayList<>(schemaList.size());
+    for (MeasurementSchema schema : schemaList) {
+      valueChunkWriterList.add(new ValueChunkWriter(schema));
+    }
+    this.pageSizeThreshold = config.getPageSizeInByte();
+    this.maxNumberOfPointsInPage = config.getMaxNumberOfPointsInPage();
+    this.valueCountInOnePageForNextCheck = MINIMUM_RECORD_COUNT_FOR_CHECK;
+  }
+
+  public void write(long time, boolean value, boolean isNull) {
+    valueChunkWriterList.get(valueIndex++).write(time, value, isNull);
+  }
+
+  public void write(long time, int value, boolean isNull) {
+    valueChunkWriterList.get(valueIndex++).write(time, value, isNull);
+  }
+
+  public void write(long time, long value, boolean isNull) {
+    valueChunkWriterList.get(valueIndex++).write(time, value, isNull);
+  }
+
+  public void write(long time, float value, boolean isNull) {
+    valueChunkWriterList.get(valueIndex++).write(time, value, isNull);
+  }
+
+  public void write(long time, double value, boolean isNull) {
+    valueChunkWriterList.get(valueIndex++).write(time, value, isNull);
+  }
+
+  public void write(long time, Binary value, boolean isNull) {
+    valueChunkWriterList.get(valueIndex++).write(time, value, isNull);
+  }
+
+  /**
+   * finish current row after the values of all the measurements are written.
+   */
+  public void write(long time) {
+    if (valueIndex != valueChunkWriterList.size()) {
+      throw new IllegalStateException("A row of " + valueChunkWriterList.size()
+          + " measurements has " + valueIndex + " values written");
+    }
+    valueIndex = 0;
+    timeChunkWriter.write(time);
+    checkPageSizeAndMayOpenANewPage();
+  }
+
+  /**
+   * check occupied memory size, if it exceeds the PageSize threshold, seal the pages of all the
+   * chunks
+   */
+  private void checkPageSizeAndMayOpenANewPage() {
+    long rowCount = timeChunkWriter.getPointNumberInCurrentPage();
+    if (rowCount == maxNumberOfPointsInPage) {
+      sealCurrentPage();
+    } else if (rowCount >= valueCountInOnePageForNextCheck) {
+      // the largest page decides when to seal, so that no page exceeds the threshold
+      long currentPageSize = 0;
+      for (ValueChunkWriter valueChunkWriter : valueChunkWriterList) {
+        currentPageSize = Math.max(currentPageSize, valueChunkWriter.estimateMaxPageMemSize());
+      }
+      currentPageSize = Math.max(currentPageSize, timeChunkWriter.estimateMaxPageMemSize());
+      if (currentPageSize > pageSizeThreshold) {
+        sealCurrentPage();
+        valueCountInOnePageForNextCheck = MINIMUM_RECORD_COUNT_FOR_CHECK;
+      } else {
+        valueCountInOnePageForNextCheck = (int) (((float) pageSizeThreshold / currentPageSize)
+            * rowCount);
+      }
+    }
+  }
+
+  /**
+   * seal the current pages of all the chunks.
+   */
+  public void sealCurrentPage() {
+    if (timeChunkWriter.getPointNumberInCurrentPage() > 0) {
+      timeChunkWriter.writePageToPageBuffer();
+      for (ValueChunkWriter valueChunkWriter : valueChunkWriterList) {
+        valueChunkWriter.writePageToPageBuffer();
+      }
+    }
+  }
+
+  /**
+   * write the time chunk and the value chunks having values into the file writer, nothing is
+   * written if no measurement has a value.
+   */
+  public void writeToFileWriter(TsFileIOWriter tsfileWriter) throws IOException {
+    sealCurrentPage();
+    boolean hasValue = false;
+    for (ValueChunkWriter valueChunkWriter : valueChunkWriterList) {
+      hasValue |= valueChunkWriter.hasValue();
+    }
+    if (hasValue) {
+      timeChunkWriter.writeToFileWriter(tsfileWriter);
+    } else {
+      // discard the rows without any value
+      timeChunkWriter.reset();
+    }
+    for (ValueChunkWriter valueChunkWriter : valueChunkWriterList) {
+      valueChunkWriter.writeToFileWriter(tsfileWriter);
+    }
+  }
+
+  public long estimateMaxSeriesMemSize() {
+    long size = timeChunkWriter.estimateMaxSeriesMemSize();
+    for (ValueChunkWriter valueChunkWriter : valueChunkWriterList) {
+      size += valueChunkWriter.estimateMaxSeriesMemSize();
+    }
+    return size;
+  }
+
+  /**
+   * @return the serialized size of all the chunks, not including any un-sealed page
+   */
+  public long getCurrentChunkSize() {
+    long size = 0;
+    for (ValueChunkWriter valueChunkWriter : valueChunkWriterList) {
+      size += valueChunkWriter.getCurrentChunkSize();
+    }
+    return size == 0 ? 0 : size + timeChunkWriter.getCurrentChunkSize();
+  }
+
+  public int getMeasurementNum() {
+    return valueChunkWriterList.size();
+  }
+}
@@ -19,9 +19,14 @@
 package org.apache.iotdb.tsfile.write.chunk;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.iotdb.tsfile.exception.write.NoMeasurementException;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
@@ -49,8 +54,19 @@ public class ChunkGroupWriterImpl implements IChunkGroupWriter {
    */
   private Map<String, IChunkWriter> chunkWriters = new HashMap<>();
 
+  /**
+   * the pool to encode and compress the chunks of a tablet in parallel, each chunk writer is used
+   * by one task at a time. Null if the chunks are encoded on the writing thread.
+   */
+  private final ExecutorService encodingPool;
+
   public ChunkGroupWriterImpl(String deviceId) {
+    this(deviceId, null);
+  }
+
+  public ChunkGroupWriterImpl(String deviceId, ExecutorService encodingPool) {
     this.deviceId = deviceId;
+    this.encodingPool = encodingPool;
   }
 
   @Override
@@ -77,6 +93,10 @@ public class ChunkGroupWriterImpl implements IChunkGroupWriter {
   @Override
   public void write(Tablet tablet) throws WriteProcessException, IOException {
     List<MeasurementSchema> timeseries = tablet.getSchemas();
+    if (encodingPool != null && timeseries.size() > 1) {
+      writeInParallel(tablet);
+      return;
+    }
     for (int i = 0; i < timeseries.size(); i++) {
       String measurementId = timeseries.get(i).getMeasurementId();
       TSDataType dataType = timeseries.get(i).getType();
@@ -87,6 +107,57 @@ public class ChunkGroupWriterImpl implements IChunkGroupWriter {
     }
   }
 
+  private void writeInParallel(Tablet tablet) throws WriteProcessException, IOException {
+    List<MeasurementSchema> timeseries = tablet.getSchemas();
+    for (MeasurementSchema measurementSchema : timeseries) {
+      if (!chunkWriters.containsKey(measurementSchema.getMeasurementId())) {
+        throw new NoMeasurementException(
+            "measurement id" + measurementSchema.getMeasurementId() + " not found!");
+      }
+    }
+    List<Callable<Void>> tasks = new ArrayList<>(timeseries.size());
+    for (int i = 0; i < timeseries.size(); i++) {
+      int index = i;
+      tasks.add(() -> {
+        writeByDataType(tablet, timeseries.get(index).getMeasurementId(),
+            timeseries.get(index).getType(), index);
+        return null;
+      });
+    }
+    runInParallel(tasks);
+  }
+
+  /**
+   * run the tasks on the encoding pool and wait for all of them.
+   */
+  private void runInParallel(List<Callable<Void>> tasks) throws IOException {
+    List<Future<Void>> futures = new ArrayList<>(tasks.size());
+    for (Callable<Void> task : tasks) {
+      futures.add(encodingPool.submit(task));
+    }
+    Throwable failure = null;
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        futures.forEach(f -> f.cancel(true));
+        throw new IOException("Interrupted when encoding the chunks of device " + deviceId, e);
+      }
+    }
+    if (failure instanceof IOException) {
+      throw (IOException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure != null) {
+      throw new IOException("Failed to encode the chunks of device " + deviceId, failure);
+    }
+  }
+
   private void writeByDataType(
           Tablet tablet, String measurementId, TSDataType dataType, int index) throws IOException {
     int batchSize = tablet.rowSize;
@@ -149,7 +220,18 @@ public class ChunkGroupWriterImpl implements IChunkGroupWriter {
   /**
    * seal all the chunks which may has un-sealed pages in force.
    */
-  private void sealAllChunks() {
+  private void sealAllChunks() throws IOException {
+    if (encodingPool != null && chunkWriters.size() > 1) {
+      List<Callable<Void>> tasks = new ArrayList<>(chunkWriters.size());
+      for (IChunkWriter writer : chunkWriters.values()) {
+        tasks.add(() -> {
+          writer.sealCurrentPage();
+          return null;
+        });
+      }
+      runInParallel(tasks);
+      return;
+    }
     for (IChunkWriter writer : chunkWriters.values()) {
       writer.sealCurrentPage();
     }
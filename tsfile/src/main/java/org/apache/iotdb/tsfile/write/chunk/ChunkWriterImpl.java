@@ -18,16 +18,21 @@
  */
 package org.apache.iotdb.tsfile.write.chunk;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.compress.ICompressor;
 import org.apache.iotdb.tsfile.encoding.encoder.SDTEncoder;
 import org.apache.iotdb.tsfile.exception.write.PageException;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.PageIndex;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -53,6 +58,16 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   private int numOfPages;
 
+  /**
+   * the file the pages in pageBuffer are moved to by spill(), null if nothing is spilled.
+   */
+  private File spillFile;
+
+  /**
+   * size of the pages in spillFile.
+   */
+  private long spilledSize;
+
   /**
    * write data into current page
    */
@@ -65,6 +80,16 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   private final int maxNumberOfPointsInPage;
 
+  /**
+   * the minimum number of pages for the chunk to be written with its PageIndex
+   */
+  private final int pageIndexMinPageNum;
+
+  /**
+   * the time ranges and offsets of the pages in the pageBuffer and the spill file
+   */
+  private PageIndex pageIndex = new PageIndex();
+
   /**
    * value count in current page.
    */
@@ -98,6 +123,8 @@ public class ChunkWriterImpl implements IChunkWriter {
     this.pageSizeThreshold = TSFileDescriptor.getInstance().getConfig().getPageSizeInByte();
     this.maxNumberOfPointsInPage = TSFileDescriptor.getInstance().getConfig()
         .getMaxNumberOfPointsInPage();
+    this.pageIndexMinPageNum = TSFileDescriptor.getInstance().getConfig()
+        .getPageIndexMinPageNum();
     // initial check of memory usage. So that we have enough data to make an initial prediction
     this.valueCountInOnePageForNextCheck = MINIMUM_RECORD_COUNT_FOR_CHECK;
 
@@ -300,11 +327,14 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   private void writePageToPageBuffer() {
     try {
+      int offset = (int) (spilledSize + pageBuffer.size());
       pageWriter.writePageHeaderAndDataIntoBuff(pageBuffer);
 
       // update statistics of this chunk
       numOfPages++;
       this.statistics.mergeStatistics(pageWriter.getStatistics());
+      pageIndex.addPage(pageWriter.getStatistics().getStartTime(),
+          pageWriter.getStatistics().getEndTime(), offset);
     } catch (IOException e) {
       logger.error("meet error in pageWriter.writePageHeaderAndDataIntoBuff,ignore this page:", e);
     } finally {
@@ -320,6 +350,9 @@ public class ChunkWriterImpl implements IChunkWriter {
 
     // reinit this chunk writer
     pageBuffer.reset();
+    clearSpill();
+    numOfPages = 0;
+    pageIndex = new PageIndex();
     this.statistics = Statistics.getStatsByType(measurementSchema.getType());
   }
 
@@ -330,11 +363,38 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   @Override
   public long getCurrentChunkSize() {
-    if (pageBuffer.size() == 0) {
+    if (pageBuffer.size() == 0 && spilledSize == 0) {
       return 0;
     }
     // return the serialized size of the chunk header + all pages
-    return ChunkHeader.getSerializedSize(measurementSchema.getMeasurementId()) + (long) pageBuffer.size();
+    return ChunkHeader.getSerializedSize(measurementSchema.getMeasurementId()) + spilledSize
+        + pageBuffer.size();
+  }
+
+  @Override
+  public void spill(File file) throws IOException {
+    if (pageBuffer.size() == 0) {
+      return;
+    }
+    if (spillFile != null && !spillFile.equals(file)) {
+      throw new IOException("Pages of " + measurementSchema.getMeasurementId()
+          + " have been spilled to " + spillFile + ", cannot spill to " + file);
+    }
+    // a file left by a previous chunk or a crash is overwritten
+    try (OutputStream outputStream = new FileOutputStream(file, spillFile != null)) {
+      pageBuffer.writeTo(outputStream);
+    }
+    spillFile = file;
+    spilledSize += pageBuffer.size();
+    pageBuffer.reset();
+  }
+
+  private void clearSpill() throws IOException {
+    if (spillFile != null) {
+      Files.deleteIfExists(spillFile.toPath());
+      spillFile = null;
+      spilledSize = 0;
+    }
   }
 
   @Override
@@ -363,6 +423,8 @@ public class ChunkWriterImpl implements IChunkWriter {
   public void writePageHeaderAndDataIntoBuff(ByteBuffer data, PageHeader header)
       throws PageException {
     numOfPages++;
+    pageIndex.addPage(header.getStartTime(), header.getEndTime(),
+        (int) (spilledSize + pageBuffer.size()));
 
     // write the page header to pageBuffer
     try {
@@ -399,20 +461,26 @@ public class ChunkWriterImpl implements IChunkWriter {
       return;
     }
 
+    long expectedDataSize = spilledSize + pageBuffer.size();
     // start to write this column chunk
+    boolean isIndexed = pageIndexMinPageNum > 0 && numOfPages >= pageIndexMinPageNum;
     writer.startFlushChunk(measurementSchema, compressor.getType(), measurementSchema.getType(),
-        measurementSchema.getEncodingType(), statistics, pageBuffer.size(), numOfPages);
+        measurementSchema.getEncodingType(), statistics, (int) expectedDataSize, numOfPages,
+        isIndexed ? pageIndex : null);
 
     long dataOffset = writer.getPos();
 
-    // write all pages of this column
+    // write all pages of this column, the spilled ones are ahead of the ones in memory
+    if (spillFile != null) {
+      Files.copy(spillFile.toPath(), writer.getIOWriterOut().wrapAsStream());
+    }
     writer.writeBytesToStream(pageBuffer);
 
     long dataSize = writer.getPos() - dataOffset;
-    if (dataSize != pageBuffer.size()) {
+    if (dataSize != expectedDataSize) {
       throw new IOException(
           "Bytes written is inconsistent with the size of data: " + dataSize + " !="
-              + " " + pageBuffer.size());
+              + " " + expectedDataSize);
     }
 
     writer.endCurrentChunk();
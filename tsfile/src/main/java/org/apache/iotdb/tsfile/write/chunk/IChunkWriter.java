@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.tsfile.write.chunk;
 
+import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
@@ -111,6 +112,13 @@ public interface IChunkWriter {
    */
   long getCurrentChunkSize();
 
+  /**
+   * move the sealed pages in memory to the end of the given file, they are written ahead of the
+   * pages in memory by writeToFileWriter(), which also deletes the file. All spills of a chunk must
+   * use the same file.
+   */
+  void spill(File file) throws IOException;
+
   /**
    * seal the current page which may has not enough data points in force.
    */
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.chunk;
+
+import java.io.IOException;
+import org.apache.iotdb.tsfile.compress.ICompressor;
+import org.apache.iotdb.tsfile.encoding.encoder.TSEncodingBuilder;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.write.page.TimePageWriter;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TimeChunkWriter writes the time chunk of an aligned chunk group, whose page boundaries are
+ * decided by AlignedChunkWriterImpl.
+ */
+public class TimeChunkWriter {
+
+  private static final Logger logger = LoggerFactory.getLogger(TimeChunkWriter.class);
+
+  private final TSEncoding encodingType;
+
+  private final CompressionType compressionType;
+
+  /**
+   * all pages of this chunk.
+   */
+  private final PublicBAOS pageBuffer = new PublicBAOS();
+
+  private int numOfPages;
+
+  private final TimePageWriter pageWriter;
+
+  public TimeChunkWriter(TSEncoding encodingType, CompressionType compressionType) {
+    this.encodingType = encodingType;
+    this.compressionType = compressionType;
+    this.pageWriter = new TimePageWriter(
+        TSEncodingBuilder.getEncodingBuilder(encodingType).getEncoder(TSDataType.INT64),
+        ICompressor.getCompressor(compressionType));
+  }
+
+  public void write(long time) {
+    pageWriter.write(time);
+  }
+
+  public void writePageToPageBuffer() {
+    try {
+      pageWriter.writePageHeaderAndDataIntoBuff(pageBuffer);
+      numOfPages++;
+    } catch (IOException e) {
+      logger.error("meet error in pageWriter.writePageHeaderAndDataIntoBuff,ignore this page:", e);
+    } finally {
+      pageWriter.reset();
+    }
+  }
+
+  /**
+   * write the chunk into the file writer and reinit this chunk writer.
+   */
+  public void writeToFileWriter(TsFileIOWriter writer) throws IOException {
+    if (numOfPages > 0) {
+      writer.startFlushTimeChunk(compressionType, encodingType, pageBuffer.size(), numOfPages);
+      writer.writeBytesToStream(pageBuffer);
+    }
+    reset();
+  }
+
+  /**
+   * discard the sealed pages.
+   */
+  public void reset() {
+    pageBuffer.reset();
+    numOfPages = 0;
+  }
+
+  public long estimateMaxSeriesMemSize() {
+    return pageWriter.estimateMaxMemSize() + pageBuffer.size();
+  }
+
+  /**
+   * @return the max possible memory size of current page
+   */
+  public long estimateMaxPageMemSize() {
+    return pageWriter.estimateMaxMemSize();
+  }
+
+  /**
+   * @return the serialized size of the chunk header + all sealed pages
+   */
+  public long getCurrentChunkSize() {
+    if (pageBuffer.size() == 0) {
+      return 0;
+    }
+    return ChunkHeader.getSerializedSize("") + pageBuffer.size();
+  }
+
+  public long getPointNumberInCurrentPage() {
+    return pageWriter.getPointNumber();
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.chunk;
+
+import java.io.IOException;
+import org.apache.iotdb.tsfile.compress.ICompressor;
+import org.apache.iotdb.tsfile.file.MetaMarker;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.write.page.ValuePageWriter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ValueChunkWriter writes a value chunk of an aligned chunk group, whose page boundaries are
+ * decided by AlignedChunkWriterImpl so that its pages are aligned with the pages of the time
+ * chunk.
+ */
+public class ValueChunkWriter {
+
+  private static final Logger logger = LoggerFactory.getLogger(ValueChunkWriter.class);
+
+  private final MeasurementSchema measurementSchema;
+
+  private final ICompressor compressor;
+
+  /**
+   * all pages of this chunk.
+   */
+  private final PublicBAOS pageBuffer = new PublicBAOS();
+
+  private int numOfPages;
+
+  private final ValuePageWriter pageWriter;
+
+  /**
+   * statistic of the non-null values of this chunk.
+   */
+  private Statistics<?> statistics;
+
+  public ValueChunkWriter(MeasurementSchema measurementSchema) {
+    this.measurementSchema = measurementSchema;
+    this.compressor = ICompressor.getCompressor(measurementSchema.getCompressor(),
+        measurementSchema.getCompressionLevel(), measurementSchema.getType());
+    this.pageWriter = new ValuePageWriter(measurementSchema.getValueEncoder(), compressor,
+        measurementSchema.getType());
+    this.statistics = Statistics.getStatsByType(measurementSchema.getType());
+  }
+
+  public void write(long time, boolean value, boolean isNull) {
+    pageWriter.write(time, value, isNull);
+  }
+
+  public void write(long time, int value, boolean isNull) {
+    pageWriter.write(time, value, isNull);
+  }
+
+  public void write(long time, long value, boolean isNull) {
+    pageWriter.write(time, value, isNull);
+  }
+
+  public void write(long time, float value, boolean isNull) {
+    pageWriter.write(time, value, isNull);
+  }
+
+  public void write(long time, double value, boolean isNull) {
+    pageWriter.write(time, value, isNull);
+  }
+
+  public void write(long time, Binary value, boolean isNull) {
+    pageWriter.write(time, value, isNull);
+  }
+
+  public void writePageToPageBuffer() {
+    try {
+      pageWriter.writePageHeaderAndDataIntoBuff(pageBuffer);
+      numOfPages++;
+      // an empty page has no statistics to merge
+      if (pageWriter.getStatistics().getCount() > 0) {
+        statistics.mergeStatistics(pageWriter.getStatistics());
+      }
+    } catch (IOException e) {
+      logger.error("meet error in pageWriter.writePageHeaderAndDataIntoBuff,ignore this page:", e);
+    } finally {
+      pageWriter.reset(measurementSchema.getType());
+    }
+  }
+
+  /**
+   * write the chunk into the file writer after the time chunk, and reinit this chunk writer. A
+   * chunk without any value is not written.
+   */
+  public void writeToFileWriter(TsFileIOWriter writer) throws IOException {
+    if (statistics.getCount() > 0) {
+      writer.startFlushValueChunk(measurementSchema, compressor.getType(),
+          measurementSchema.getType(), measurementSchema.getEncodingType(), statistics,
+          pageBuffer.size(), numOfPages);
+      writer.writeBytesToStream(pageBuffer);
+      writer.endCurrentChunk();
+    }
+    pageBuffer.reset();
+    numOfPages = 0;
+    statistics = Statistics.getStatsByType(measurementSchema.getType());
+  }
+
+  public long estimateMaxSeriesMemSize() {
+    return pageWriter.estimateMaxMemSize() + pageBuffer.size();
+  }
+
+  /**
+   * @return the max possible memory size of current page
+   */
+  public long estimateMaxPageMemSize() {
+    return pageWriter.estimateMaxMemSize();
+  }
+
+  /**
+   * @return the serialized size of the chunk header + all sealed pages, 0 if there is no value
+   */
+  public long getCurrentChunkSize() {
+    if (statistics.getCount() == 0) {
+      return 0;
+    }
+    return ChunkHeader
+        .getSerializedSize(measurementSchema.getMeasurementId(), MetaMarker.VALUE_CHUNK_HEADER)
+        + pageBuffer.size();
+  }
+
+  /**
+   * @return true if there is any value in the sealed pages
+   */
+  public boolean hasValue() {
+    return statistics.getCount() > 0;
+  }
+
+  public MeasurementSchema getMeasurementSchema() {
+    return measurementSchema;
+  }
+}
@@ -67,7 +67,8 @@ public class PageWriter {
   public PageWriter(MeasurementSchema measurementSchema) {
     this(measurementSchema.getTimeEncoder(), measurementSchema.getValueEncoder());
     this.statistics = Statistics.getStatsByType(measurementSchema.getType());
-    this.compressor = ICompressor.getCompressor(measurementSchema.getCompressor());
+    this.compressor = ICompressor.getCompressor(measurementSchema.getCompressor(),
+        measurementSchema.getCompressionLevel(), measurementSchema.getType());
   }
 
   private PageWriter(Encoder timeEncoder, Encoder valueEncoder) {
@@ -238,7 +239,16 @@ public class PageWriter {
       return;
     }
 
-    ByteBuffer pageData = getUncompressedBytes();
+    writePageHeaderAndDataIntoBuff(getUncompressedBytes(), statistics, compressor, pageBuffer);
+  }
+
+  /**
+   * compress the page data and write it with the page header into the output stream.
+   *
+   * @param pageData the uncompressed page data, whose array() is used
+   */
+  static void writePageHeaderAndDataIntoBuff(ByteBuffer pageData, Statistics<?> statistics,
+      ICompressor compressor, PublicBAOS pageBuffer) throws IOException {
     int uncompressedSize = pageData.remaining();
     int compressedSize;
     int compressedPosition = 0;
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.page;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.compress.ICompressor;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+
+/**
+ * This writer is used to write the values of one measurement of an aligned chunk group into a
+ * page of its value chunk. Each row of the time page takes a row in the value page, which may be
+ * null. The page data is a bitmap of the rows having a value, whose i-th bit is the (i % 8)-th
+ * lowest bit of the (i / 8)-th byte, followed by the encoded non-null values.
+ */
+public class ValuePageWriter {
+
+  private final ICompressor compressor;
+
+  private final Encoder valueEncoder;
+  private final PublicBAOS valueOut = new PublicBAOS();
+  private final PublicBAOS bitmapOut = new PublicBAOS();
+  // the bits of the rows not written into bitmapOut yet
+  private int currentBitmapByte;
+  private int rowCount;
+
+  /**
+   * statistic of the non-null values in current page. It will be reset after calling
+   * {@code writePageHeaderAndDataIntoBuff()}
+   */
+  private Statistics<?> statistics;
+
+  public ValuePageWriter(Encoder valueEncoder, ICompressor compressor, TSDataType dataType) {
+    this.valueEncoder = valueEncoder;
+    this.compressor = compressor;
+    this.statistics = Statistics.getStatsByType(dataType);
+  }
+
+  /**
+   * write a row into encoder
+   */
+  public void write(long time, boolean value, boolean isNull) {
+    if (!isNull) {
+      valueEncoder.encode(value, valueOut);
+      statistics.update(time, value);
+    }
+    nextRow(isNull);
+  }
+
+  /**
+   * write a row into encoder
+   */
+  public void write(long time, int value, boolean isNull) {
+    if (!isNull) {
+      valueEncoder.encode(value, valueOut);
+      statistics.update(time, value);
+    }
+    nextRow(isNull);
+  }
+
+  /**
+   * write a row into encoder
+   */
+  public void write(long time, long value, boolean isNull) {
+    if (!isNull) {
+      valueEncoder.encode(value, valueOut);
+      statistics.update(time, value);
+    }
+    nextRow(isNull);
+  }
+
+  /**
+   * write a row into encoder
+   */
+  public void write(long time, float value, boolean isNull) {
+    if (!isNull) {
+      valueEncoder.encode(value, valueOut);
+      statistics.update(time, value);
+    }
+    nextRow(isNull);
+  }
+
+  /**
+   * write a row into encoder
+   */
+  public void write(long time, double value, boolean isNull) {
+    if (!isNull) {
+      valueEncoder.encode(value, valueOut);
+      statistics.update(time, value);
+    }
+    nextRow(isNull);
+  }
+
+  /**
+   * write a row into encoder
+   */
+  public void write(long time, Binary value, boolean isNull) {
+    if (!isNull) {
+      valueEncoder.encode(value, valueOut);
+      statistics.update(time, value);
+    }
+    nextRow(isNull);
+  }
+
+  private void nextRow(boolean isNull) {
+    if (!isNull) {
+      currentBitmapByte |= 1 << (rowCount & 7);
+    }
+    rowCount++;
+    if ((rowCount & 7) == 0) {
+      bitmapOut.write(currentBitmapByte);
+      currentBitmapByte = 0;
+    }
+  }
+
+  /**
+   * write the page header and data into the output stream. The page is written even if all its
+   * rows are null, so that the pages of the value chunk stay aligned with the pages of the time
+   * chunk.
+   */
+  public void writePageHeaderAndDataIntoBuff(PublicBAOS pageBuffer) throws IOException {
+    if (rowCount == 0) {
+      return;
+    }
+    if ((rowCount & 7) != 0) {
+      bitmapOut.write(currentBitmapByte);
+    }
+    valueEncoder.flush(valueOut);
+    ByteBuffer pageData = ByteBuffer.allocate(bitmapOut.size() + valueOut.size());
+    pageData.put(bitmapOut.getBuf(), 0, bitmapOut.size());
+    pageData.put(valueOut.getBuf(), 0, valueOut.size());
+    pageData.flip();
+    PageWriter.writePageHeaderAndDataIntoBuff(pageData, statistics, compressor, pageBuffer);
+  }
+
+  /**
+   * @return allocated size in the bitmap, the value outputStream and encoder
+   */
+  public long estimateMaxMemSize() {
+    return bitmapOut.size() + 1L + valueOut.size() + valueEncoder.getMaxByteSize();
+  }
+
+  /**
+   * reset this page
+   */
+  public void reset(TSDataType dataType) {
+    valueOut.reset();
+    bitmapOut.reset();
+    currentBitmapByte = 0;
+    rowCount = 0;
+    statistics = Statistics.getStatsByType(dataType);
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public Statistics<?> getStatistics() {
+    return statistics;
+  }
+}
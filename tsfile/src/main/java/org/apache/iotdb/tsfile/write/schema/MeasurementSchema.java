@@ -48,6 +48,12 @@ public class MeasurementSchema implements Comparable<MeasurementSchema>, Seriali
       TSEncoding.valueOf(TSFileDescriptor.getInstance().getConfig().getTimeEncoder()),
       TSFileDescriptor.getInstance().getConfig().getCompressor());
 
+  /**
+   * the property giving the level of the compressor, e.g., from 1 to 9 for GZIP and from 1 to 22
+   * for ZSTD
+   */
+  public static final String COMPRESSION_LEVEL = "compression_level";
+
   private String measurementId;
   private byte type;
   private byte encoding;
@@ -173,6 +179,21 @@ public class MeasurementSchema implements Comparable<MeasurementSchema>, Seriali
     return props;
   }
 
+  /**
+   * @return the level given by the COMPRESSION_LEVEL property, or -1 to use the default level of
+   * the compressor
+   */
+  public int getCompressionLevel() {
+    if (props == null || !props.containsKey(COMPRESSION_LEVEL)) {
+      return -1;
+    }
+    try {
+      return Integer.parseInt(props.get(COMPRESSION_LEVEL));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
   public TSEncoding getEncodingType() {
     return TSEncoding.byteToEnum(encoding);
   }
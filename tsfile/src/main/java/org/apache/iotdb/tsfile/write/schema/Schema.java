@@ -24,6 +24,7 @@ import org.apache.iotdb.tsfile.read.common.Path;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -43,6 +44,12 @@ public class Schema implements Serializable {
    */
   private Map<String, Map<String, MeasurementSchema>> deviceTemplates;
 
+  /**
+   * device -> the measurements of the device written as an aligned chunk group, which share one
+   * time column
+   */
+  private Map<String, List<MeasurementSchema>> alignedDevices;
+
   public Schema() {
     this.registeredTimeseries = new LinkedHashMap<>();
   }
@@ -55,6 +62,27 @@ public class Schema implements Serializable {
     this.registeredTimeseries.put(path, descriptor);
   }
 
+  /**
+   * register the measurements of a device sharing one time column, whose values are written in
+   * aligned chunk groups.
+   */
+  public void registerAlignedTimeseries(String deviceId, List<MeasurementSchema> schemas) {
+    if (alignedDevices == null) {
+      alignedDevices = new HashMap<>();
+    }
+    alignedDevices.put(deviceId, schemas);
+    for (MeasurementSchema schema : schemas) {
+      registerTimeseries(new Path(deviceId, schema.getMeasurementId()), schema);
+    }
+  }
+
+  /**
+   * @return the measurements of the device if it is registered as aligned, otherwise null
+   */
+  public List<MeasurementSchema> getAlignedMeasurements(String deviceId) {
+    return alignedDevices == null ? null : alignedDevices.get(deviceId);
+  }
+
   public void registerDeviceTemplate(String templateName, Map<String, MeasurementSchema> template) {
     if (deviceTemplates == null) {
       deviceTemplates = new HashMap<>();
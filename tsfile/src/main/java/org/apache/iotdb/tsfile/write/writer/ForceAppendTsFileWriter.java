@@ -29,6 +29,7 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetadata;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.utils.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,6 +67,12 @@ public class ForceAppendTsFileWriter extends TsFileIOWriter {
 
       canWrite = true;
       versionInfo = tsFileMetadata.getVersionInfo();
+      // the default version pair of a file written without versions covers all offsets, so it
+      // must end at the truncate position to leave the appended chunks their own versions
+      int lastIndex = versionInfo.size() - 1;
+      if (lastIndex >= 0 && versionInfo.get(lastIndex).left == Long.MAX_VALUE) {
+        versionInfo.set(lastIndex, new Pair<>(truncatePosition, versionInfo.get(lastIndex).right));
+      }
       totalChunkNum = tsFileMetadata.getTotalChunkNum();
       invalidChunkNum = tsFileMetadata.getInvalidChunkNum();
       
@@ -20,7 +20,10 @@ package org.apache.iotdb.tsfile.write.writer;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -36,6 +39,7 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetadata;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.MetadataIndexConstructor;
 import org.apache.iotdb.tsfile.file.metadata.MetadataIndexNode;
+import org.apache.iotdb.tsfile.file.metadata.PageIndex;
 import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetadata;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
@@ -86,6 +90,10 @@ public class TsFileIOWriter {
   private long markedPosition;
   private String currentChunkGroupDeviceId;
   private long currentChunkGroupStartOffset;
+  // the offset of the time chunk of current aligned ChunkGroup, -1 if there is none
+  private long currentTimeChunkOffset = -1;
+  // the time chunks copied by writeChunk() into current ChunkGroup and their offsets
+  private List<Pair<Chunk, Long>> copiedTimeChunks = new ArrayList<>();
   protected List<Pair<Long, Long>> versionInfo = new ArrayList<>();
   
   // for upgrade tool
@@ -145,6 +153,8 @@ public class TsFileIOWriter {
   public void startChunkGroup(String deviceId) throws IOException {
     this.currentChunkGroupDeviceId = deviceId;
     currentChunkGroupStartOffset = out.getPosition();
+    currentTimeChunkOffset = -1;
+    copiedTimeChunks.clear();
     if (logger.isDebugEnabled()) {
       logger.debug("start chunk group:{}, file position {}", deviceId, out.getPosition());
     }
@@ -182,9 +192,24 @@ public class TsFileIOWriter {
   public void startFlushChunk(MeasurementSchema measurementSchema,
       CompressionType compressionCodecName, TSDataType tsDataType, TSEncoding encodingType,
       Statistics<?> statistics, int dataSize, int numOfPages) throws IOException {
+    startFlushChunk(measurementSchema, compressionCodecName, tsDataType, encodingType, statistics,
+        dataSize, numOfPages, null);
+  }
+
+  /**
+   * start a {@linkplain ChunkMetadata ChunkMetaData} with the PageIndex of the chunk.
+   *
+   * @param pageIndex - the time ranges and offsets of the pages, null if not indexed
+   * @throws IOException if I/O error occurs
+   */
+  public void startFlushChunk(MeasurementSchema measurementSchema,
+      CompressionType compressionCodecName, TSDataType tsDataType, TSEncoding encodingType,
+      Statistics<?> statistics, int dataSize, int numOfPages, PageIndex pageIndex)
+      throws IOException {
 
     currentChunkMetadata = new ChunkMetadata(measurementSchema.getMeasurementId(), tsDataType,
         out.getPosition(), statistics);
+    currentChunkMetadata.setPageIndex(pageIndex);
 
     ChunkHeader header = new ChunkHeader(measurementSchema.getMeasurementId(), dataSize, tsDataType,
         compressionCodecName, encodingType, numOfPages);
@@ -193,13 +218,64 @@ public class TsFileIOWriter {
   }
 
   /**
-   * Write a whole chunk in another file into this file. Providing fast merge for IoTDB.
+   * start the time chunk of an aligned ChunkGroup, which has no ChunkMetadata. The value chunks
+   * written after it in current ChunkGroup refer to it.
+   *
+   * @param dataSize - the serialized size of all pages
+   * @throws IOException if I/O error occurs
+   */
+  public void startFlushTimeChunk(CompressionType compressionCodecName, TSEncoding encodingType,
+      int dataSize, int numOfPages) throws IOException {
+    currentTimeChunkOffset = out.getPosition();
+    ChunkHeader header = new ChunkHeader(MetaMarker.TIME_CHUNK_HEADER, "", dataSize,
+        TSDataType.INT64, compressionCodecName, encodingType, numOfPages, -1);
+    header.serializeTo(out.wrapAsStream());
+  }
+
+  /**
+   * start a {@linkplain ChunkMetadata ChunkMetaData} of a value chunk of an aligned ChunkGroup,
+   * whose time chunk is the one started last in current ChunkGroup.
+   *
+   * @param statistics - Chunk statistics of the non-null values
+   * @param dataSize - the serialized size of all pages
+   * @throws IOException if I/O error occurs or there is no time chunk
+   */
+  public void startFlushValueChunk(MeasurementSchema measurementSchema,
+      CompressionType compressionCodecName, TSDataType tsDataType, TSEncoding encodingType,
+      Statistics<?> statistics, int dataSize, int numOfPages) throws IOException {
+    if (currentTimeChunkOffset < 0) {
+      throw new IOException("No time chunk is written before the value chunk of "
+          + measurementSchema.getMeasurementId());
+    }
+    currentChunkMetadata = new ChunkMetadata(measurementSchema.getMeasurementId(), tsDataType,
+        out.getPosition(), statistics);
+
+    ChunkHeader header = new ChunkHeader(MetaMarker.VALUE_CHUNK_HEADER,
+        measurementSchema.getMeasurementId(), dataSize, tsDataType, compressionCodecName,
+        encodingType, numOfPages, currentTimeChunkOffset);
+    header.serializeTo(out.wrapAsStream());
+  }
+
+  /**
+   * Write a whole chunk in another file into this file. Providing fast merge for IoTDB. The time
+   * chunk of a value chunk is also copied unless the same time chunk, or one with the same pages,
+   * has been copied for another value chunk of current ChunkGroup.
    */
   public void writeChunk(Chunk chunk, ChunkMetadata chunkMetadata) throws IOException {
     ChunkHeader chunkHeader = chunk.getHeader();
+    if (chunk.getTimeChunk() != null) {
+      currentTimeChunkOffset = copyTimeChunk(chunk.getTimeChunk());
+      chunkHeader = new ChunkHeader(MetaMarker.VALUE_CHUNK_HEADER,
+          chunkHeader.getMeasurementID(), chunkHeader.getDataSize(), chunkHeader.getDataType(),
+          chunkHeader.getCompressionType(), chunkHeader.getEncodingType(),
+          chunkHeader.getNumOfPages(), currentTimeChunkOffset);
+    }
     currentChunkMetadata = new ChunkMetadata(chunkHeader.getMeasurementID(),
         chunkHeader.getDataType(),
         out.getPosition(), chunkMetadata.getStatistics());
+    if (chunk.getTimeChunk() == null) {
+      currentChunkMetadata.setPageIndex(getPageIndex(chunk));
+    }
     chunkHeader.serializeTo(out.wrapAsStream());
     out.write(chunk.getData());
     endCurrentChunk();
@@ -209,6 +285,49 @@ public class TsFileIOWriter {
     }
   }
 
+  /**
+   * The value chunks of a group may carry different Chunk objects of the same time chunk, e.g.,
+   * they are appended from the same chunks separately or read again after being evicted, so the
+   * copied time chunks are also matched by their pages.
+   *
+   * @return the offset of the time chunk in this file
+   */
+  private long copyTimeChunk(Chunk timeChunk) throws IOException {
+    ChunkHeader header = timeChunk.getHeader();
+    for (Pair<Chunk, Long> copied : copiedTimeChunks) {
+      ChunkHeader copiedHeader = copied.left.getHeader();
+      if (copied.left == timeChunk
+          || (copiedHeader.getNumOfPages() == header.getNumOfPages()
+          && copiedHeader.getCompressionType() == header.getCompressionType()
+          && copiedHeader.getEncodingType() == header.getEncodingType()
+          && Arrays.equals(copied.left.getData().array(), timeChunk.getData().array()))) {
+        return copied.right;
+      }
+    }
+    long offset = out.getPosition();
+    header.serializeTo(out.wrapAsStream());
+    out.write(timeChunk.getData().duplicate());
+    copiedTimeChunks.add(new Pair<>(timeChunk, offset));
+    return offset;
+  }
+
+  /**
+   * @return the PageIndex of the chunk, which is built from the page headers if the chunk has
+   * enough pages but no PageIndex, e.g., it is merged from several chunks
+   */
+  private PageIndex getPageIndex(Chunk chunk) {
+    if (chunk.getPageIndex() != null) {
+      return chunk.getPageIndex();
+    }
+    int pageIndexMinPageNum = TSFileDescriptor.getInstance().getConfig().getPageIndexMinPageNum();
+    if (pageIndexMinPageNum <= 0 || chunk.getHeader().getNumOfPages() < pageIndexMinPageNum) {
+      return null;
+    }
+    // the whole array of the chunk data is written, whatever its position is
+    return PageIndex.build(ByteBuffer.wrap(chunk.getData().array()),
+        chunk.getHeader().getDataType());
+  }
+
   /**
    * end chunk and write some log.
    */
@@ -384,7 +503,8 @@ public class TsFileIOWriter {
   }
 
   /**
-   * Remove such ChunkMetadata that its startTime is not in chunkStartTimes
+   * Remove such ChunkMetadata that its startTime is not in chunkStartTimes, the chunks of the
+   * series not in chunkStartTimes are kept
    */
   public void filterChunks(Map<Path, List<Long>> chunkStartTimes) {
     Map<Path, Integer> startTimeIdxes = new HashMap<>();
@@ -400,9 +520,11 @@ public class TsFileIOWriter {
       while (chunkMetaDataIterator.hasNext()) {
         ChunkMetadata chunkMetaData = chunkMetaDataIterator.next();
         Path path = new Path(deviceId, chunkMetaData.getMeasurementUid());
-        int startTimeIdx = startTimeIdxes.get(path);
-
         List<Long> pathChunkStartTimes = chunkStartTimes.get(path);
+        if (pathChunkStartTimes == null) {
+          continue;
+        }
+        int startTimeIdx = startTimeIdxes.get(path);
         boolean chunkValid = startTimeIdx < pathChunkStartTimes.size()
             && pathChunkStartTimes.get(startTimeIdx) == chunkMetaData.getStartTime();
         if (!chunkValid) {
@@ -419,6 +541,29 @@ public class TsFileIOWriter {
     }
   }
 
+  /**
+   * Merge the ChunkGroupMetadata of each device and sort the ChunkMetadata by start time, so that
+   * the chunks of each series are in time order after chunks are appended out of order, e.g., when
+   * the merged chunks of a sequence file are appended to it.
+   */
+  public void sortChunkMetadataByStartTime() {
+    Map<String, List<ChunkMetadata>> deviceChunkMetadataMap = new LinkedHashMap<>();
+    for (ChunkGroupMetadata chunkGroupMetadata : chunkGroupMetadataList) {
+      deviceChunkMetadataMap
+          .computeIfAbsent(chunkGroupMetadata.getDevice(), k -> new ArrayList<>())
+          .addAll(chunkGroupMetadata.getChunkMetadataList());
+    }
+    chunkGroupMetadataList = new ArrayList<>();
+    for (Map.Entry<String, List<ChunkMetadata>> entry : deviceChunkMetadataMap.entrySet()) {
+      entry.getValue().sort(Comparator.comparingLong(ChunkMetadata::getStartTime));
+      chunkGroupMetadataList.add(new ChunkGroupMetadata(entry.getKey(), entry.getValue()));
+    }
+  }
+
+  public List<ChunkGroupMetadata> getChunkGroupMetadataList() {
+    return chunkGroupMetadataList;
+  }
+
   /**
    * write MetaMarker.VERSION with version Then, cache offset-version in versionInfo
    */
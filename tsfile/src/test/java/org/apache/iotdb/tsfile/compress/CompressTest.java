@@ -19,10 +19,26 @@
 package org.apache.iotdb.tsfile.compress;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import com.github.luben.zstd.Zstd;
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
 import org.junit.After;
 import org.junit.Before;
@@ -103,4 +119,132 @@ public class CompressTest {
     String result = new String(uncompressed, StandardCharsets.UTF_8);
     assertEquals(inputString, result);
   }
+
+  @Test
+  public void gzipCompressorTest1() throws IOException {
+    byte[] input = inputString.getBytes(StandardCharsets.UTF_8);
+    ICompressor compressor = new ICompressor.GZIPCompressor(9);
+    IUnCompressor unCompressor = new IUnCompressor.GZIPUnCompressor();
+    byte[] compressed = compressor.compress(input);
+    assertEquals(input.length, unCompressor.getUncompressedLength(compressed, 0, compressed.length));
+    byte[] uncompressed = unCompressor.uncompress(compressed);
+    String result = new String(uncompressed, StandardCharsets.UTF_8);
+    assertEquals(inputString, result);
+  }
+
+  @Test
+  public void gzipCompressorTest2() throws IOException {
+    PublicBAOS out = new PublicBAOS();
+    out.write(inputString.getBytes(StandardCharsets.UTF_8));
+    ICompressor compressor = ICompressor.getCompressor(CompressionType.GZIP, 1);
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(CompressionType.GZIP);
+    byte[] compressed = new byte[compressor.getMaxBytesForCompression(out.size())];
+    int size = compressor.compress(out.getBuf(), 0, out.size(), compressed);
+    byte[] uncompressed = new byte[unCompressor.getUncompressedLength(compressed, 0, size)];
+    assertEquals(out.size(), unCompressor.uncompress(compressed, 0, size, uncompressed, 0));
+    String result = new String(uncompressed, StandardCharsets.UTF_8);
+    assertEquals(inputString, result);
+  }
+
+  @Test
+  public void gzipCompressorTest3() throws IOException {
+    byte[] input = inputString.getBytes(StandardCharsets.UTF_8);
+    ICompressor compressor = new ICompressor.GZIPCompressor();
+    IUnCompressor unCompressor = new IUnCompressor.GZIPUnCompressor();
+    ByteBuffer compressed = ByteBuffer
+        .allocateDirect(compressor.getMaxBytesForCompression(input.length));
+    compressor.compress(ByteBuffer.wrap(input), compressed);
+    compressed.flip();
+    assertEquals(input.length, unCompressor.getUncompressedLength(compressed));
+    ByteBuffer uncompressed = ByteBuffer.allocate(input.length);
+    assertEquals(input.length, unCompressor.uncompress(compressed, uncompressed));
+    assertEquals(inputString, new String(uncompressed.array(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void zstdCompressorTest1() throws IOException {
+    byte[] input = inputString.getBytes(StandardCharsets.UTF_8);
+    ICompressor compressor = new ICompressor.ZSTDCompressor(19);
+    IUnCompressor unCompressor = new IUnCompressor.ZSTDUnCompressor();
+    byte[] compressed = compressor.compress(input);
+    assertEquals(input.length, unCompressor.getUncompressedLength(compressed, 0, compressed.length));
+    byte[] uncompressed = unCompressor.uncompress(compressed);
+    String result = new String(uncompressed, StandardCharsets.UTF_8);
+    assertEquals(inputString, result);
+  }
+
+  @Test
+  public void zstdCompressorTest2() throws IOException {
+    PublicBAOS out = new PublicBAOS();
+    out.write(inputString.getBytes(StandardCharsets.UTF_8));
+    ICompressor compressor = ICompressor.getCompressor(CompressionType.ZSTD, -1);
+    assertEquals(TSFileDescriptor.getInstance().getConfig().getZstdCompressionLevel(),
+        ((ICompressor.ZSTDCompressor) compressor).getLevel());
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(CompressionType.ZSTD);
+    byte[] compressed = new byte[compressor.getMaxBytesForCompression(out.size())];
+    int size = compressor.compress(out.getBuf(), 0, out.size(), compressed);
+    byte[] uncompressed = new byte[unCompressor.getUncompressedLength(compressed, 0, size)];
+    assertEquals(out.size(), unCompressor.uncompress(compressed, 0, size, uncompressed, 0));
+    String result = new String(uncompressed, StandardCharsets.UTF_8);
+    assertEquals(inputString, result);
+  }
+
+  @Test
+  public void zstdCompressorTest3() throws IOException {
+    byte[] input = inputString.getBytes(StandardCharsets.UTF_8);
+    ICompressor compressor = new ICompressor.ZSTDCompressor();
+    IUnCompressor unCompressor = new IUnCompressor.ZSTDUnCompressor();
+    ByteBuffer compressed = ByteBuffer
+        .allocateDirect(compressor.getMaxBytesForCompression(input.length));
+    compressor.compress(ByteBuffer.wrap(input), compressed);
+    compressed.flip();
+    assertEquals(input.length, unCompressor.getUncompressedLength(compressed));
+    ByteBuffer uncompressed = ByteBuffer.allocate(input.length);
+    assertEquals(input.length, unCompressor.uncompress(compressed, uncompressed));
+    assertEquals(inputString, new String(uncompressed.array(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void zstdDictionaryTest() throws IOException {
+    Random random = new Random(0);
+    List<byte[]> samples = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      samples.add(String.format("root.sg.d%d.temperature,%d,%.2f", random.nextInt(10),
+          1600000000000L + i * 1000L, 20 + random.nextGaussian()).getBytes(StandardCharsets.UTF_8));
+    }
+    File dir = Files.createTempDirectory("zstd").toFile();
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    String prevDictionaryDir = config.getZstdDictionaryDir();
+    try {
+      byte[] dictionary = ZSTDDictionaries.train(samples, 4096);
+      Files.write(new File(dir, TSDataType.DOUBLE + ZSTDDictionaries.DICTIONARY_SUFFIX).toPath(),
+          dictionary);
+      config.setZstdDictionaryDir(dir.getPath());
+
+      byte[] input = samples.get(0);
+      ICompressor compressor = ICompressor.getCompressor(CompressionType.ZSTD, 3,
+          TSDataType.DOUBLE);
+      assertTrue(((ICompressor.ZSTDCompressor) compressor).hasDictionary());
+      assertFalse(((ICompressor.ZSTDCompressor) ICompressor.getCompressor(CompressionType.ZSTD, 3,
+          TSDataType.INT64)).hasDictionary());
+      byte[] compressed = compressor.compress(input);
+      assertEquals(Zstd.getDictIdFromDict(dictionary), Zstd.getDictIdFromFrame(compressed));
+      assertTrue(compressed.length < new ICompressor.ZSTDCompressor(3).compress(input).length);
+
+      IUnCompressor unCompressor = IUnCompressor.getUnCompressor(CompressionType.ZSTD);
+      assertTrue(Arrays.equals(input, unCompressor.uncompress(compressed)));
+
+      // the data cannot be decompressed once its dictionary is gone
+      config.setZstdDictionaryDir("");
+      try {
+        unCompressor.uncompress(compressed);
+        fail();
+      } catch (IOException e) {
+        assertNotEquals(-1, e.getMessage().indexOf("not found"));
+      }
+    } finally {
+      config.setZstdDictionaryDir(prevDictionaryDir);
+      FileUtils.deleteDirectory(dir);
+    }
+  }
 }
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.compress;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.page.PageWriter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+/**
+ * This is used for comparing the compression ratio and the throughput of the compressors on
+ * encoded pages, no asserting. The values are read from a file of one value per line if given,
+ * e.g., exported from a real sensor, otherwise a noisy periodic signal like a temperature sensor
+ * is generated. ZSTD is also run with a dictionary trained on the pages.
+ */
+public class CompressionBenchmark {
+
+  private static final int POINT_NUM_PER_PAGE = 10000;
+  private static final int SYNTHETIC_POINT_NUM = 1000000;
+  private static final int ROUND_NUM = 5;
+  private static final int DICTIONARY_SIZE = 100 * 1024;
+
+  public static void main(String[] args) throws IOException {
+    double[] values = args.length > 0 ? readValues(args[0]) : generateValues();
+    for (TSEncoding encoding : new TSEncoding[]{TSEncoding.GORILLA, TSEncoding.RLE}) {
+      List<byte[]> pages = encodePages(values, encoding);
+      long uncompressedSize = 0;
+      for (byte[] page : pages) {
+        uncompressedSize += page.length;
+      }
+      System.out.printf("%d points of DOUBLE encoded by %s into %d pages of %d bytes%n",
+          values.length, encoding, pages.size(), uncompressedSize);
+      benchmark(pages, uncompressedSize, CompressionType.SNAPPY, -1, null);
+      benchmark(pages, uncompressedSize, CompressionType.LZ4, -1, null);
+      for (int level : new int[]{1, 6, 9}) {
+        benchmark(pages, uncompressedSize, CompressionType.GZIP, level, null);
+      }
+      for (int level : new int[]{1, 3, 9, 19}) {
+        benchmark(pages, uncompressedSize, CompressionType.ZSTD, level, null);
+      }
+      benchmarkZstdDictionary(pages, uncompressedSize);
+    }
+  }
+
+  private static void benchmarkZstdDictionary(List<byte[]> pages, long uncompressedSize)
+      throws IOException {
+    File dir = Files.createTempDirectory("zstd").toFile();
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    String prevDictionaryDir = config.getZstdDictionaryDir();
+    try {
+      Files.write(new File(dir, TSDataType.DOUBLE + ZSTDDictionaries.DICTIONARY_SUFFIX).toPath(),
+          ZSTDDictionaries.train(pages, DICTIONARY_SIZE));
+      config.setZstdDictionaryDir(dir.getPath());
+      for (int level : new int[]{1, 3, 9, 19}) {
+        benchmark(pages, uncompressedSize, CompressionType.ZSTD, level, TSDataType.DOUBLE);
+      }
+    } finally {
+      config.setZstdDictionaryDir(prevDictionaryDir);
+      FileUtils.deleteDirectory(dir);
+    }
+  }
+
+  /**
+   * @param dataType the data type picking the ZSTD dictionary, null means no dictionary
+   */
+  private static void benchmark(List<byte[]> pages, long uncompressedSize,
+      CompressionType type, int level, TSDataType dataType) throws IOException {
+    ICompressor compressor = ICompressor.getCompressor(type, level, dataType);
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(type);
+    long compressedSize = 0;
+    long compressTime = 0;
+    long uncompressTime = 0;
+    for (int round = 0; round < ROUND_NUM; round++) {
+      compressedSize = 0;
+      for (byte[] page : pages) {
+        long startTime = System.nanoTime();
+        byte[] compressed = compressor.compress(page);
+        compressTime += System.nanoTime() - startTime;
+        compressedSize += compressed.length;
+
+        byte[] uncompressed = new byte[page.length];
+        startTime = System.nanoTime();
+        unCompressor.uncompress(compressed, 0, compressed.length, uncompressed, 0);
+        uncompressTime += System.nanoTime() - startTime;
+      }
+    }
+    double totalMb = (double) uncompressedSize * ROUND_NUM / 1024 / 1024;
+    System.out.printf("%-9s level %2d: ratio %.3f, compress %.1f MB/s, uncompress %.1f MB/s%n",
+        dataType == null ? type.toString() : type + "+dict", level,
+        (double) uncompressedSize / compressedSize, totalMb / (compressTime / 1e9),
+        totalMb / (uncompressTime / 1e9));
+  }
+
+  private static List<byte[]> encodePages(double[] values, TSEncoding encoding)
+      throws IOException {
+    MeasurementSchema schema = new MeasurementSchema("s1", TSDataType.DOUBLE, encoding);
+    PageWriter pageWriter = new PageWriter(schema);
+    List<byte[]> pages = new ArrayList<>();
+    for (int i = 0; i < values.length; i++) {
+      pageWriter.write(i * 1000L, values[i]);
+      if ((i + 1) % POINT_NUM_PER_PAGE == 0 || i == values.length - 1) {
+        ByteBuffer buffer = pageWriter.getUncompressedBytes();
+        byte[] page = new byte[buffer.remaining()];
+        buffer.get(page);
+        pages.add(page);
+        pageWriter.reset(schema);
+      }
+    }
+    return pages;
+  }
+
+  private static double[] readValues(String filePath) throws IOException {
+    List<Double> valueList = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.trim().isEmpty()) {
+          valueList.add(Double.parseDouble(line.trim()));
+        }
+      }
+    }
+    double[] values = new double[valueList.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = valueList.get(i);
+    }
+    return values;
+  }
+
+  private static double[] generateValues() {
+    Random random = new Random(0);
+    double[] values = new double[SYNTHETIC_POINT_NUM];
+    for (int i = 0; i < values.length; i++) {
+      // a daily cycle sampled every second, with the sensor precision of 0.01
+      double value = 20 + 5 * Math.sin(2 * Math.PI * i / 86400) + random.nextGaussian() * 0.1;
+      values[i] = Math.round(value * 100) / 100.0;
+    }
+    return values;
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.TSEncodingBuilder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+
+/**
+ * This is used for comparing the bits per value and the throughput of the encodings of DOUBLE
+ * values and of timestamps, no asserting. The values are read from a file of one value per line
+ * if given, e.g., exported from a real sensor, otherwise a noisy periodic signal of 2 decimal
+ * places and random walks of 2 decimal places and of full precision are generated, as well as
+ * regular and jittered timestamps.
+ */
+public class EncodingBenchmark {
+
+  private static final int POINT_NUM_PER_PAGE = 10000;
+  private static final int SYNTHETIC_POINT_NUM = 1000000;
+  // enough rounds for the JIT to compile the decoders, or the first round dominates
+  private static final int ROUND_NUM = 20;
+  private static final TSEncoding[] ENCODINGS = {TSEncoding.GORILLA, TSEncoding.CHIMP,
+      TSEncoding.ELF};
+  private static final TSEncoding[] TIME_ENCODINGS = {TSEncoding.TS_2DIFF, TSEncoding.RLE,
+      TSEncoding.BLOCK_DELTA};
+
+  public static void main(String[] args) throws IOException {
+    if (args.length > 0) {
+      benchmark(args[0], readValues(args[0]));
+      return;
+    }
+    Random random = new Random(0);
+    double[] decimalValues = new double[SYNTHETIC_POINT_NUM];
+    double[] decimalRandomWalk = new double[SYNTHETIC_POINT_NUM];
+    double[] randomWalk = new double[SYNTHETIC_POINT_NUM];
+    double value = 0;
+    for (int i = 0; i < SYNTHETIC_POINT_NUM; i++) {
+      // a daily cycle sampled every second, with the sensor precision of 0.01
+      double reading = 20 + 5 * Math.sin(2 * Math.PI * i / 86400) + random.nextGaussian() * 0.1;
+      decimalValues[i] = Math.round(reading * 100) / 100.0;
+      value += random.nextGaussian();
+      decimalRandomWalk[i] = Math.round(value * 100) / 100.0;
+      randomWalk[i] = value;
+    }
+    benchmark("periodic, 2 decimal places", decimalValues);
+    benchmark("random walk, 2 decimal places", decimalRandomWalk);
+    benchmark("random walk", randomWalk);
+
+    long[] regularTimes = new long[SYNTHETIC_POINT_NUM];
+    long[] jitteredTimes = new long[SYNTHETIC_POINT_NUM];
+    long time = 1600000000000L;
+    for (int i = 0; i < SYNTHETIC_POINT_NUM; i++) {
+      regularTimes[i] = 1600000000000L + i * 1000L;
+      // sampled every second by a clock of 10ms jitter, with a gap every 10000 points
+      time += i % 10000 == 0 ? random.nextInt(3600000) : 990 + random.nextInt(20);
+      jitteredTimes[i] = time;
+    }
+    benchmarkTimes("regular timestamps", regularTimes);
+    benchmarkTimes("jittered timestamps", jitteredTimes);
+  }
+
+  private static void benchmark(String name, double[] values) throws IOException {
+    System.out.printf("%d points of DOUBLE, %s%n", values.length, name);
+    for (TSEncoding encoding : ENCODINGS) {
+      long encodedSize = 0;
+      long encodeTime = 0;
+      long decodeTime = 0;
+      for (int round = 0; round < ROUND_NUM; round++) {
+        Encoder encoder = TSEncodingBuilder.getEncodingBuilder(encoding)
+            .getEncoder(TSDataType.DOUBLE);
+        long startTime = System.nanoTime();
+        List<ByteBuffer> pages = encodePages(values, encoder);
+        encodeTime += System.nanoTime() - startTime;
+
+        encodedSize = 0;
+        double sum = 0;
+        startTime = System.nanoTime();
+        for (ByteBuffer page : pages) {
+          encodedSize += page.remaining();
+          Decoder decoder = Decoder.getDecoderByType(encoding, TSDataType.DOUBLE);
+          while (decoder.hasNext(page)) {
+            sum += decoder.readDouble(page);
+          }
+        }
+        decodeTime += System.nanoTime() - startTime;
+        if (Double.isNaN(sum)) {
+          System.out.println("NaN is read");
+        }
+      }
+      double totalMPoints = (double) values.length * ROUND_NUM / 1e6;
+      System.out.printf("%-7s: %.2f bits per value, encode %.1f Mpoints/s, decode %.1f Mpoints/s%n",
+          encoding, encodedSize * 8.0 / values.length, totalMPoints / (encodeTime / 1e9),
+          totalMPoints / (decodeTime / 1e9));
+    }
+  }
+
+  private static void benchmarkTimes(String name, long[] times) throws IOException {
+    System.out.printf("%d points of INT64, %s%n", times.length, name);
+    for (TSEncoding encoding : TIME_ENCODINGS) {
+      long encodedSize = 0;
+      long encodeTime = 0;
+      long decodeTime = 0;
+      for (int round = 0; round < ROUND_NUM; round++) {
+        Encoder encoder = TSEncodingBuilder.getEncodingBuilder(encoding)
+            .getEncoder(TSDataType.INT64);
+        long startTime = System.nanoTime();
+        List<ByteBuffer> pages = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < times.length; i++) {
+          encoder.encode(times[i], out);
+          if ((i + 1) % POINT_NUM_PER_PAGE == 0 || i == times.length - 1) {
+            encoder.flush(out);
+            pages.add(ByteBuffer.wrap(out.toByteArray()));
+            out.reset();
+          }
+        }
+        encodeTime += System.nanoTime() - startTime;
+
+        encodedSize = 0;
+        long sum = 0;
+        startTime = System.nanoTime();
+        for (ByteBuffer page : pages) {
+          encodedSize += page.remaining();
+          Decoder decoder = Decoder.getDecoderByType(encoding, TSDataType.INT64);
+          while (decoder.hasNext(page)) {
+            sum += decoder.readLong(page);
+          }
+        }
+        decodeTime += System.nanoTime() - startTime;
+        if (sum == 0) {
+          System.out.println("0 is read");
+        }
+      }
+      double totalMPoints = (double) times.length * ROUND_NUM / 1e6;
+      System.out.printf("%-11s: %.2f bits per value, encode %.1f Mpoints/s, "
+              + "decode %.1f Mpoints/s%n", encoding, encodedSize * 8.0 / times.length,
+          totalMPoints / (encodeTime / 1e9), totalMPoints / (decodeTime / 1e9));
+    }
+  }
+
+  private static List<ByteBuffer> encodePages(double[] values, Encoder encoder)
+      throws IOException {
+    List<ByteBuffer> pages = new ArrayList<>();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int i = 0; i < values.length; i++) {
+      encoder.encode(values[i], out);
+      if ((i + 1) % POINT_NUM_PER_PAGE == 0 || i == values.length - 1) {
+        encoder.flush(out);
+        pages.add(ByteBuffer.wrap(out.toByteArray()));
+        out.reset();
+      }
+    }
+    return pages;
+  }
+
+  private static double[] readValues(String filePath) throws IOException {
+    List<Double> valueList = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.trim().isEmpty()) {
+          valueList.add(Double.parseDouble(line.trim()));
+        }
+      }
+    }
+    double[] values = new double[valueList.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = valueList.get(i);
+    }
+    return values;
+  }
+}
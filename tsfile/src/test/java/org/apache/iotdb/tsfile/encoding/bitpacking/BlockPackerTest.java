@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.bitpacking;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BlockPackerTest {
+
+  @Test
+  public void testAllWidths() {
+    Random random = new Random(0);
+    long[] values = new long[BlockPacker.BLOCK_SIZE];
+    long[] unpacked = new long[BlockPacker.BLOCK_SIZE];
+    for (int width = 0; width <= Long.SIZE; width++) {
+      // full blocks and partial blocks, which end in the middle of a word
+      for (int valueNum : new int[]{BlockPacker.BLOCK_SIZE, 1, 7, 100}) {
+        for (int i = 0; i < valueNum; i++) {
+          long value = random.nextLong();
+          values[i] = width == Long.SIZE ? value : value & ((1L << width) - 1);
+        }
+        // the largest value of the width
+        values[valueNum - 1] = width == Long.SIZE ? -1L : (1L << width) - 1;
+        long[] words = new long[BlockPacker.getWordNum(valueNum, width) + 1];
+        BlockPacker.pack(values, valueNum, width, words);
+        BlockPacker.unpack(words, valueNum, width, unpacked);
+        for (int i = 0; i < valueNum; i++) {
+          assertEquals("width " + width + ", value " + i, values[i], unpacked[i]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testLayout() {
+    long[] values = {1, 2, 3, 4, 5};
+    long[] words = new long[BlockPacker.getWordNum(values.length, 20) + 1];
+    assertEquals(3, words.length);
+    BlockPacker.pack(values, values.length, 20, words);
+    // the 4th value crosses the first two words
+    assertArrayEquals(new long[]{1L | 2L << 20 | 3L << 40 | 4L << 60, 4L >>> 4 | 5L << 16, 0},
+        words);
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.apache.iotdb.tsfile.encoding.encoder.BlockDeltaEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+
+public class BlockDeltaDecoderTest {
+
+  private static final int ROW_NUM = 10000;
+
+  @Test
+  public void testRegularTimestamps() throws IOException {
+    long[] data = new long[ROW_NUM];
+    for (int i = 0; i < ROW_NUM; i++) {
+      data[i] = 1600000000000L + i * 1000L;
+    }
+    ByteBuffer buffer = encodeLongs(new BlockDeltaEncoder(), data);
+    // a few bytes for each block of 129 values
+    assertTrue(buffer.remaining() < ROW_NUM / 129 * 12);
+    assertLongs(data, buffer);
+  }
+
+  @Test
+  public void testIrregularTimestamps() throws IOException {
+    Random random = new Random(0);
+    long[] data = new long[ROW_NUM];
+    long time = 1600000000000L;
+    for (int i = 0; i < ROW_NUM; i++) {
+      time += i % 100 == 0 ? random.nextInt(100000) : 1000 + random.nextInt(20) - 10;
+      data[i] = time;
+    }
+    ByteBuffer blockDelta = encodeLongs(new BlockDeltaEncoder(), data);
+    ByteBuffer ts2Diff = encodeLongs(new DeltaBinaryEncoder.LongDeltaEncoder(), data);
+    assertTrue(blockDelta.remaining() <= ts2Diff.remaining());
+    assertLongs(data, blockDelta);
+  }
+
+  @Test
+  public void testExtremeLongs() throws IOException {
+    Random random = new Random(0);
+    long[] data = new long[ROW_NUM];
+    for (int i = 0; i < ROW_NUM; i++) {
+      switch (i % 4) {
+        case 0:
+          data[i] = Long.MIN_VALUE;
+          break;
+        case 1:
+          data[i] = Long.MAX_VALUE;
+          break;
+        default:
+          data[i] = random.nextLong();
+          break;
+      }
+    }
+    assertLongs(data, encodeLongs(new BlockDeltaEncoder(), data));
+    // decreasing values and a single value
+    for (int i = 0; i < ROW_NUM; i++) {
+      data[i] = -i * 3L;
+    }
+    assertLongs(data, encodeLongs(new BlockDeltaEncoder(), data));
+    assertLongs(new long[]{-1L}, encodeLongs(new BlockDeltaEncoder(), new long[]{-1L}));
+  }
+
+  @Test
+  public void testInts() throws IOException {
+    Random random = new Random(0);
+    int[] data = new int[ROW_NUM];
+    for (int i = 0; i < ROW_NUM; i++) {
+      data[i] = i % 10 == 0 ? random.nextInt() : random.nextInt(1 << (i % 31));
+    }
+    Encoder encoder = new BlockDeltaEncoder();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int value : data) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    Decoder decoder = new BlockDeltaDecoder();
+    for (int value : data) {
+      assertTrue(decoder.hasNext(buffer));
+      assertEquals(value, decoder.readInt(buffer));
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+
+  @Test
+  public void testMultiplePages() throws IOException {
+    // the encoder is reused after being flushed, and the pages are read one after another
+    Encoder encoder = new BlockDeltaEncoder();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int page = 0; page < 3; page++) {
+      for (int i = 0; i < 129 * page + 1; i++) {
+        encoder.encode(page * 1000L + i * i, out);
+      }
+      encoder.flush(out);
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    Decoder decoder = new BlockDeltaDecoder();
+    for (int page = 0; page < 3; page++) {
+      for (int i = 0; i < 129 * page + 1; i++) {
+        assertTrue(decoder.hasNext(buffer));
+        assertEquals(page * 1000L + i * i, decoder.readLong(buffer));
+      }
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+
+  private static ByteBuffer encodeLongs(Encoder encoder, long[] data) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (long value : data) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+
+  private static void assertLongs(long[] data, ByteBuffer buffer) throws IOException {
+    Decoder decoder = new BlockDeltaDecoder();
+    for (long value : data) {
+      assertTrue(decoder.hasNext(buffer));
+      assertEquals(value, decoder.readLong(buffer));
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.apache.iotdb.tsfile.encoding.encoder.ChimpEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DoublePrecisionEncoderV2;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+public class ChimpDecoderTest {
+
+  private static final double[] SPECIAL_DOUBLES = {0.0, -0.0, Double.NaN, Double.MAX_VALUE,
+      Double.MIN_VALUE, Double.MIN_NORMAL, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+      -1.5, 1.5};
+
+  @Test
+  public void testDouble() throws IOException {
+    Random random = new Random(0);
+    double[] values = new double[10000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i % 3 == 0 ? random.nextDouble() : i % 100 / 10.0;
+    }
+    assertDoubles(values, encodeDoubles(new ChimpEncoder(TSDataType.DOUBLE), values),
+        new ChimpDecoder(TSDataType.DOUBLE));
+    assertDoubles(SPECIAL_DOUBLES,
+        encodeDoubles(new ChimpEncoder(TSDataType.DOUBLE), SPECIAL_DOUBLES),
+        new ChimpDecoder(TSDataType.DOUBLE));
+  }
+
+  @Test
+  public void testFloat() throws IOException {
+    Random random = new Random(0);
+    float[] values = new float[10000];
+    for (int i = 0; i < values.length - 4; i++) {
+      values[i] = i % 3 == 0 ? random.nextFloat() : i % 100 / 10.0f;
+    }
+    values[values.length - 4] = Float.NaN;
+    values[values.length - 3] = Float.MAX_VALUE;
+    values[values.length - 2] = -Float.MIN_VALUE;
+    values[values.length - 1] = Float.NEGATIVE_INFINITY;
+
+    Encoder encoder = new ChimpEncoder(TSDataType.FLOAT);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (float value : values) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    Decoder decoder = new ChimpDecoder(TSDataType.FLOAT);
+    for (float value : values) {
+      assertTrue(decoder.hasNext(buffer));
+      assertEquals(Float.floatToRawIntBits(value), Float.floatToRawIntBits(decoder.readFloat(buffer)));
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+
+  @Test
+  public void testIntAndLong() throws IOException {
+    Random random = new Random(0);
+    Encoder intEncoder = new ChimpEncoder(TSDataType.INT32);
+    Encoder longEncoder = new ChimpEncoder(TSDataType.INT64);
+    ByteArrayOutputStream intOut = new ByteArrayOutputStream();
+    ByteArrayOutputStream longOut = new ByteArrayOutputStream();
+    int[] ints = new int[5000];
+    long[] longs = new long[5000];
+    for (int i = 0; i < ints.length; i++) {
+      ints[i] = i % 2 == 0 ? random.nextInt() : i % 50;
+      longs[i] = i % 2 == 0 ? random.nextLong() : Long.MIN_VALUE + i % 50;
+      intEncoder.encode(ints[i], intOut);
+      longEncoder.encode(longs[i], longOut);
+    }
+    intEncoder.flush(intOut);
+    longEncoder.flush(longOut);
+
+    ByteBuffer intBuffer = ByteBuffer.wrap(intOut.toByteArray());
+    ByteBuffer longBuffer = ByteBuffer.wrap(longOut.toByteArray());
+    Decoder intDecoder = new ChimpDecoder(TSDataType.INT32);
+    Decoder longDecoder = new ChimpDecoder(TSDataType.INT64);
+    for (int i = 0; i < ints.length; i++) {
+      assertEquals(ints[i], intDecoder.readInt(intBuffer));
+      assertEquals(longs[i], longDecoder.readLong(longBuffer));
+    }
+    assertFalse(intDecoder.hasNext(intBuffer));
+    assertFalse(longDecoder.hasNext(longBuffer));
+  }
+
+  @Test
+  public void testMultiplePages() throws IOException {
+    // the encoder is reused after being flushed, and the pages are read one after another
+    Encoder encoder = new ChimpEncoder(TSDataType.DOUBLE);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int page = 0; page < 3; page++) {
+      for (int i = 0; i < 300 + page; i++) {
+        encoder.encode(page * 1000 + i % 130 * 0.5, out);
+      }
+      encoder.flush(out);
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    Decoder decoder = new ChimpDecoder(TSDataType.DOUBLE);
+    for (int page = 0; page < 3; page++) {
+      for (int i = 0; i < 300 + page; i++) {
+        assertTrue(decoder.hasNext(buffer));
+        assertEquals(page * 1000 + i % 130 * 0.5, decoder.readDouble(buffer), 0);
+      }
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+
+  @Test
+  public void testPeriodicValues() throws IOException {
+    // the values repeating in a period are XORed with their last occurrences
+    double[] values = new double[12800];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = Math.sin(i % 100 * 0.1);
+    }
+    ByteBuffer chimp = encodeDoubles(new ChimpEncoder(TSDataType.DOUBLE), values);
+    ByteBuffer gorilla = encodeDoubles(new DoublePrecisionEncoderV2(), values);
+    assertTrue(chimp.remaining() * 5 < gorilla.remaining());
+    assertDoubles(values, chimp, new ChimpDecoder(TSDataType.DOUBLE));
+  }
+
+  static ByteBuffer encodeDoubles(Encoder encoder, double[] values) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (double value : values) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+
+  static void assertDoubles(double[] values, ByteBuffer buffer, Decoder decoder)
+      throws IOException {
+    for (double value : values) {
+      assertTrue(decoder.hasNext(buffer));
+      assertEquals(Double.doubleToRawLongBits(value),
+          Double.doubleToRawLongBits(decoder.readDouble(buffer)));
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+}
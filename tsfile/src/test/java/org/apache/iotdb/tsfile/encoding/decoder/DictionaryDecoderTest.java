@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.encoding.encoder.DictionaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+public class DictionaryDecoderTest {
+
+  private static final String[] STATES = {"IDLE", "RUNNING", "STOPPED", "ALARM", ""};
+
+  @Test
+  public void testDictionaryMode() throws IOException {
+    List<Binary> values = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      values.add(new Binary(STATES[i / 7 % STATES.length]));
+    }
+    ByteBuffer buffer = encode(new DictionaryEncoder(), values);
+    assertEquals(DictionaryEncoder.DICTIONARY_MODE, buffer.get(0));
+    assertTrue(buffer.remaining() < encodePlain(values).remaining() / 10);
+
+    DictionaryDecoder decoder = new DictionaryDecoder();
+    Binary[] dictionary = decoder.getDictionary(buffer);
+    assertNotNull(dictionary);
+    assertEquals(STATES.length, dictionary.length);
+    for (int i = 0; i < values.size(); i++) {
+      assertTrue(decoder.hasNext(buffer));
+      if (i % 2 == 0) {
+        assertEquals(values.get(i), decoder.readBinary(buffer));
+      } else {
+        assertEquals(values.get(i), dictionary[decoder.readId(buffer)]);
+      }
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+
+  @Test
+  public void testSingleEntry() throws IOException {
+    List<Binary> values = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      values.add(new Binary("OK"));
+    }
+    assertDecoded(encode(new DictionaryEncoder(), values), values);
+  }
+
+  @Test
+  public void testPlainModeForDistinctValues() throws IOException {
+    // the dictionary is as large as the values themselves
+    List<Binary> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      values.add(new Binary("value" + i));
+    }
+    ByteBuffer buffer = encode(new DictionaryEncoder(), values);
+    assertEquals(DictionaryEncoder.PLAIN_MODE, buffer.get(0));
+    assertNull(new DictionaryDecoder().getDictionary(buffer.duplicate()));
+    assertDecoded(buffer, values);
+  }
+
+  @Test
+  public void testPlainModeForLargeDictionary() throws IOException {
+    List<Binary> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      values.add(new Binary("value" + i % 20));
+    }
+    ByteBuffer buffer = encode(new DictionaryEncoder(10), values);
+    assertEquals(DictionaryEncoder.PLAIN_MODE, buffer.get(0));
+    assertDecoded(buffer, values);
+
+    buffer = encode(new DictionaryEncoder(20), values);
+    assertEquals(DictionaryEncoder.DICTIONARY_MODE, buffer.get(0));
+    assertDecoded(buffer, values);
+  }
+
+  @Test
+  public void testMultiplePages() throws IOException {
+    DictionaryEncoder encoder = new DictionaryEncoder(10);
+    List<Binary> firstPage = new ArrayList<>();
+    List<Binary> secondPage = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      firstPage.add(new Binary(STATES[i % STATES.length]));
+      secondPage.add(new Binary("value" + i));
+    }
+    ByteBuffer firstBuffer = encode(encoder, firstPage);
+    ByteBuffer secondBuffer = encode(encoder, secondPage);
+    assertEquals(DictionaryEncoder.DICTIONARY_MODE, firstBuffer.get(0));
+    assertEquals(DictionaryEncoder.PLAIN_MODE, secondBuffer.get(0));
+
+    DictionaryDecoder decoder = new DictionaryDecoder();
+    assertDecoded(decoder, firstBuffer, firstPage);
+    decoder.reset();
+    assertDecoded(decoder, secondBuffer, secondPage);
+  }
+
+  @Test
+  public void testMaxByteSize() throws IOException {
+    DictionaryEncoder encoder = new DictionaryEncoder();
+    for (int i = 0; i < 1000; i++) {
+      encoder.encode(new Binary(STATES[i % STATES.length] + i % 30), null);
+      if (i % 100 == 99) {
+        long maxByteSize = encoder.getMaxByteSize();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.flush(out);
+        assertTrue(out.size() <= maxByteSize);
+      }
+    }
+  }
+
+  private void assertDecoded(ByteBuffer buffer, List<Binary> values) {
+    assertDecoded(new DictionaryDecoder(), buffer, values);
+  }
+
+  private void assertDecoded(DictionaryDecoder decoder, ByteBuffer buffer, List<Binary> values) {
+    for (Binary value : values) {
+      assertTrue(decoder.hasNext(buffer));
+      assertEquals(value, decoder.readBinary(buffer));
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+
+  private ByteBuffer encode(DictionaryEncoder encoder, List<Binary> values) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (Binary value : values) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+
+  private ByteBuffer encodePlain(List<Binary> values) {
+    PlainEncoder encoder = new PlainEncoder(EndianType.BIG_ENDIAN, TSDataType.TEXT, 1000);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (Binary value : values) {
+      encoder.encode(value, out);
+    }
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+}
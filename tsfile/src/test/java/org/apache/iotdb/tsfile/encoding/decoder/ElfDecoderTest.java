@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.apache.iotdb.tsfile.encoding.decoder.ChimpDecoderTest.assertDoubles;
+import static org.apache.iotdb.tsfile.encoding.decoder.ChimpDecoderTest.encodeDoubles;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.apache.iotdb.tsfile.encoding.encoder.ChimpEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DoublePrecisionEncoderV2;
+import org.apache.iotdb.tsfile.encoding.encoder.ElfEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+public class ElfDecoderTest {
+
+  @Test
+  public void testDecimalDoubles() throws IOException {
+    Random random = new Random(0);
+    double[] values = new double[10000];
+    double value = 20;
+    for (int i = 0; i < values.length; i++) {
+      // a sensor reading of 2 decimal places
+      value += random.nextGaussian();
+      values[i] = Math.round(value * 100) / 100.0;
+    }
+    ByteBuffer elf = encodeDoubles(new ElfEncoder(TSDataType.DOUBLE), values);
+    ByteBuffer chimp = encodeDoubles(new ChimpEncoder(TSDataType.DOUBLE), values);
+    ByteBuffer gorilla = encodeDoubles(new DoublePrecisionEncoderV2(), values);
+    assertTrue(elf.remaining() < chimp.remaining());
+    assertTrue(chimp.remaining() < gorilla.remaining());
+    assertDoubles(values, elf, new ElfDecoder(TSDataType.DOUBLE));
+  }
+
+  @Test
+  public void testMixedDoubles() throws IOException {
+    Random random = new Random(0);
+    double[] values = new double[10000];
+    for (int i = 0; i < values.length; i++) {
+      switch (i % 6) {
+        case 0:
+          values[i] = random.nextDouble();
+          break;
+        case 1:
+          values[i] = -Math.round(random.nextDouble() * 1e6) / 1e3;
+          break;
+        case 2:
+          values[i] = random.nextInt(1000) * 1e-12;
+          break;
+        case 3:
+          values[i] = random.nextInt() * 1e10;
+          break;
+        case 4:
+          values[i] = i % 4 == 0 ? Double.NaN : Double.MIN_VALUE;
+          break;
+        default:
+          values[i] = i % 4 == 1 ? 0.0 : Double.NEGATIVE_INFINITY;
+          break;
+      }
+    }
+    assertDoubles(values, encodeDoubles(new ElfEncoder(TSDataType.DOUBLE), values),
+        new ElfDecoder(TSDataType.DOUBLE));
+  }
+
+  @Test
+  public void testAllDecimalPlaces() throws IOException {
+    Random random = new Random(0);
+    double[] values = new double[16 * 100];
+    for (int i = 0; i < values.length; i++) {
+      int decimalPlaces = i / 100;
+      values[i] = Math.rint(random.nextDouble() * 1e5 * ElfDecoder.POWERS_OF_TEN[decimalPlaces])
+          / ElfDecoder.POWERS_OF_TEN[decimalPlaces];
+    }
+    assertDoubles(values, encodeDoubles(new ElfEncoder(TSDataType.DOUBLE), values),
+        new ElfDecoder(TSDataType.DOUBLE));
+  }
+
+  @Test
+  public void testFloat() throws IOException {
+    Random random = new Random(0);
+    float[] values = new float[10000];
+    for (int i = 0; i < values.length; i++) {
+      if (i % 10 == 0) {
+        values[i] = random.nextFloat();
+      } else if (i % 10 == 1) {
+        values[i] = i % 4 == 1 ? Float.NaN : Float.MIN_VALUE;
+      } else {
+        values[i] = Math.round(random.nextGaussian() * 10000) / 100.0f;
+      }
+    }
+    Encoder encoder = new ElfEncoder(TSDataType.FLOAT);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int page = 0; page < 2; page++) {
+      for (float value : values) {
+        encoder.encode(value, out);
+      }
+      encoder.flush(out);
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    Decoder decoder = new ElfDecoder(TSDataType.FLOAT);
+    for (int page = 0; page < 2; page++) {
+      for (float value : values) {
+        assertTrue(decoder.hasNext(buffer));
+        assertEquals(Float.floatToRawIntBits(value),
+            Float.floatToRawIntBits(decoder.readFloat(buffer)));
+      }
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+}
@@ -18,10 +18,18 @@
  */
 package org.apache.iotdb.tsfile.file.metadata.statistics;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+import org.apache.iotdb.tsfile.v1.file.metadata.ChunkMetadataV1;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class DoubleStatisticsTest {
 
@@ -93,4 +101,79 @@ public class DoubleStatisticsTest {
     assertEquals(125.34d, doubleStats3.getLastValue(), maxError);
   }
 
+  @Test
+  public void testSumOfSquares() throws IOException {
+    double[] values = {1.5d, 2.5d, 4d, 8d, 16d, 32.25d};
+    double mean = 0;
+    for (double value : values) {
+      mean += value / values.length;
+    }
+    double expected = 0;
+    for (double value : values) {
+      expected += (value - mean) * (value - mean);
+    }
+
+    Statistics<Double> doubleStats1 = new DoubleStatistics();
+    for (int i = 0; i < 2; i++) {
+      doubleStats1.update(i, values[i]);
+    }
+    Statistics<Double> doubleStats2 = new DoubleStatistics();
+    doubleStats2.update(new long[]{2, 3, 4, 5}, new double[]{4d, 8d, 16d, 32.25d}, 4);
+    Statistics<Double> doubleStats3 = new DoubleStatistics();
+    doubleStats3.mergeStatistics(doubleStats1);
+    doubleStats3.mergeStatistics(doubleStats2);
+    assertEquals(expected, doubleStats3.getSumOfSquares(), maxError);
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    doubleStats3.serialize(outputStream);
+    assertEquals(doubleStats3.getSerializedSize(), outputStream.size());
+    Statistics deserialized = Statistics
+        .deserialize(ByteBuffer.wrap(outputStream.toByteArray()), TSDataType.DOUBLE);
+    assertEquals(6, deserialized.getCount());
+    assertEquals(expected, deserialized.getSumOfSquares(), maxError);
+
+    // the statistics written before have no sum of squares
+    outputStream = new ByteArrayOutputStream();
+    ReadWriteIOUtils.write(doubleStats3.getCount(), outputStream);
+    ReadWriteIOUtils.write(doubleStats3.getStartTime(), outputStream);
+    ReadWriteIOUtils.write(doubleStats3.getEndTime(), outputStream);
+    doubleStats3.serializeStats(outputStream);
+    deserialized = Statistics
+        .deserialize(ByteBuffer.wrap(outputStream.toByteArray()), TSDataType.DOUBLE);
+    assertEquals(6, deserialized.getCount());
+    assertFalse(deserialized.hasSumOfSquares());
+    assertTrue(Double.isNaN(deserialized.getSumOfSquares()));
+
+    // and neither do the statistics merged with them
+    doubleStats1.mergeStatistics(deserialized);
+    assertFalse(doubleStats1.hasSumOfSquares());
+  }
+
+  @Test
+  public void testSumOfSquaresOfV1ChunkMetadata() throws IOException {
+    // the chunk metadata of a v1 file, whose digest has no sum of squares
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ReadWriteIOUtils.write("s1", outputStream);
+    ReadWriteIOUtils.write(0L, outputStream);
+    ReadWriteIOUtils.write(2L, outputStream);
+    ReadWriteIOUtils.write(1L, outputStream);
+    ReadWriteIOUtils.write(2L, outputStream);
+    ReadWriteIOUtils.write(TSDataType.DOUBLE, outputStream);
+    double[] digest = {1.5d, 2.5d, 1.5d, 2.5d, 4d};
+    ReadWriteIOUtils.write(digest.length, outputStream);
+    for (short i = 0; i < digest.length; i++) {
+      ReadWriteIOUtils.write(i, outputStream);
+      ByteBuffer value = ByteBuffer.allocate(Double.BYTES);
+      value.putDouble(digest[i]);
+      ReadWriteIOUtils.write(value, outputStream);
+    }
+
+    ChunkMetadata chunkMetadata = ChunkMetadataV1
+        .deserializeFrom(ByteBuffer.wrap(outputStream.toByteArray())).upgradeToChunkMetadata();
+    Statistics statistics = chunkMetadata.getStatistics();
+    assertEquals(2, statistics.getCount());
+    assertEquals(4d, statistics.getSumValue(), maxError);
+    assertFalse(statistics.hasSumOfSquares());
+    assertTrue(Double.isNaN(statistics.getSumOfSquares()));
+  }
 }
@@ -21,6 +21,7 @@ package org.apache.iotdb.tsfile.read;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -34,7 +35,9 @@ import org.apache.iotdb.tsfile.file.footer.ChunkGroupFooter;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
 import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.utils.FileGenerator;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.junit.After;
@@ -154,4 +157,26 @@ public class TsFileSequenceReaderTest {
     Assert.assertTrue(reader.readChunkMetadataInDevice("d3").isEmpty());
     reader.close();
   }
+
+  @Test
+  public void testMetadataIndexNodeCache() throws IOException {
+    long prevCacheRamSize = TsFileSequenceReader.getTotalMetadataIndexNodeCacheRamSize();
+    TsFileSequenceReader reader = new TsFileSequenceReader(FILE_PATH);
+    TimeseriesMetadata timeseriesMetadata = reader.readTimeseriesMetadata(new Path("d1", "s1"));
+    long cacheRamSize = TsFileSequenceReader.getTotalMetadataIndexNodeCacheRamSize();
+    Assert.assertTrue(cacheRamSize > prevCacheRamSize);
+
+    // the cached nodes are used by the following lookups in the same device
+    Assert.assertEquals(timeseriesMetadata.getStatistics().toString(),
+        reader.readTimeseriesMetadata(new Path("d1", "s1")).getStatistics().toString());
+    Assert.assertEquals(2, reader.readTimeseriesMetadata("d1",
+        new HashSet<>(Arrays.asList("s2", "s3"))).size());
+    Assert.assertNull(reader.readTimeseriesMetadata(new Path("d1", "s9")));
+    Assert.assertEquals(cacheRamSize, TsFileSequenceReader.getTotalMetadataIndexNodeCacheRamSize());
+
+    // the cached nodes are released with the reader
+    reader.close();
+    Assert.assertEquals(prevCacheRamSize,
+        TsFileSequenceReader.getTotalMetadataIndexNodeCacheRamSize());
+  }
 }
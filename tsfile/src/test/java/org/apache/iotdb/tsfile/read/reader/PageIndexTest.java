@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.constant.TestConstant;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.PageIndex;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderByTimestamp;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PageIndexTest {
+
+  private static final String DEVICE = "d1";
+  private static final int PAGE_SIZE = 100;
+
+  private final TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+  private final String path = TestConstant.BASE_OUTPUT_PATH.concat("pageIndex.tsfile");
+  private final String copyPath = TestConstant.BASE_OUTPUT_PATH.concat("pageIndex_copy.tsfile");
+  private int prevMaxNumberOfPointsInPage;
+  private int prevPageIndexMinPageNum;
+
+  @Before
+  public void setUp() throws IOException, WriteProcessException {
+    prevMaxNumberOfPointsInPage = config.getMaxNumberOfPointsInPage();
+    prevPageIndexMinPageNum = config.getPageIndexMinPageNum();
+    config.setMaxNumberOfPointsInPage(PAGE_SIZE);
+    config.setPageIndexMinPageNum(4);
+    deleteFiles();
+
+    // s1 has 20 pages and is indexed, s2 has 3 pages and is not
+    try (TsFileWriter writer = new TsFileWriter(new File(path))) {
+      writer.registerTimeseries(new Path(DEVICE, "s1"),
+          new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.RLE));
+      writer.registerTimeseries(new Path(DEVICE, "s2"),
+          new MeasurementSchema("s2", TSDataType.INT64, TSEncoding.RLE));
+      for (long time = 0; time < 20 * PAGE_SIZE; time++) {
+        TSRecord record = new TSRecord(time, DEVICE);
+        record.addTuple(new LongDataPoint("s1", time * 2));
+        if (time < 3 * PAGE_SIZE) {
+          record.addTuple(new LongDataPoint("s2", time));
+        }
+        writer.write(record);
+      }
+    }
+  }
+
+  @After
+  public void tearDown() {
+    config.setMaxNumberOfPointsInPage(prevMaxNumberOfPointsInPage);
+    config.setPageIndexMinPageNum(prevPageIndexMinPageNum);
+    deleteFiles();
+  }
+
+  private void deleteFiles() {
+    for (String filePath : new String[]{path, copyPath}) {
+      File file = new File(filePath);
+      if (file.exists()) {
+        assertTrue(file.delete());
+      }
+    }
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      List<ChunkMetadata> chunkMetadataList = reader
+          .getChunkMetadataList(new Path(DEVICE, "s1"));
+      assertEquals(1, chunkMetadataList.size());
+      PageIndex pageIndex = chunkMetadataList.get(0).getPageIndex();
+      assertNotNull(pageIndex);
+      assertEquals(20, pageIndex.getPageNum());
+      assertTrue(pageIndex.isSorted());
+      for (int i = 0; i < 20; i++) {
+        assertEquals(i * PAGE_SIZE, pageIndex.getStartTime(i));
+        assertEquals(i * PAGE_SIZE + PAGE_SIZE - 1, pageIndex.getEndTime(i));
+      }
+      assertEquals(0, pageIndex.firstPageEndingFrom(-1));
+      assertEquals(10, pageIndex.firstPageEndingFrom(1050));
+      assertEquals(20, pageIndex.firstPageEndingFrom(2000));
+
+      // the offsets recorded when writing are the positions of the page headers
+      Chunk chunk = reader.readMemChunk(chunkMetadataList.get(0));
+      assertEquals(pageIndex, PageIndex.build(chunk.getData(), TSDataType.INT64));
+
+      assertNull(reader.getChunkMetadataList(new Path(DEVICE, "s2")).get(0).getPageIndex());
+    }
+  }
+
+  @Test
+  public void testReadWithTimeFilter() throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      ChunkMetadata chunkMetadata = reader.getChunkMetadataList(new Path(DEVICE, "s1")).get(0);
+      ChunkReader chunkReader = new ChunkReader(reader.readMemChunk(chunkMetadata),
+          FilterFactory.and(TimeFilter.gtEq(1050L), TimeFilter.lt(1250L)));
+      // only the 3 pages overlapping the filter are read
+      assertEquals(3, chunkReader.loadPageReaderList().size());
+
+      long time = 1050;
+      while (chunkReader.hasNextSatisfiedPage()) {
+        BatchData batchData = chunkReader.nextPageData();
+        while (batchData.hasCurrent()) {
+          assertEquals(time, batchData.currentTime());
+          assertEquals(time * 2, batchData.getLong());
+          batchData.next();
+          time++;
+        }
+      }
+      assertEquals(1250, time);
+    }
+  }
+
+  @Test
+  public void testReadByTimestamp() throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      ChunkMetadata chunkMetadata = reader.getChunkMetadataList(new Path(DEVICE, "s1")).get(0);
+      ChunkReaderByTimestamp chunkReader = new ChunkReaderByTimestamp(
+          reader.readMemChunk(chunkMetadata));
+      chunkReader.setCurrentTimestamp(1510);
+      assertTrue(chunkReader.hasNextSatisfiedPage());
+      assertEquals(1500, chunkReader.nextPageData().currentTime());
+
+      // the pages between are skipped
+      chunkReader.setCurrentTimestamp(1990);
+      assertTrue(chunkReader.hasNextSatisfiedPage());
+      assertEquals(1900, chunkReader.nextPageData().currentTime());
+      assertFalse(chunkReader.hasNextSatisfiedPage());
+    }
+  }
+
+  @Test
+  public void testMergedChunk() throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      ChunkMetadata chunkMetadata = reader.getChunkMetadataList(new Path(DEVICE, "s1")).get(0);
+      Chunk chunk = reader.readMemChunk(chunkMetadata);
+      chunk.mergeChunk(reader.readMemChunk(chunkMetadata));
+      assertNull(chunk.getPageIndex());
+      TsFileIOWriter writer = new TsFileIOWriter(new File(copyPath));
+      writer.startChunkGroup(DEVICE);
+      writer.writeChunk(chunk, chunkMetadata);
+      writer.endChunkGroup();
+      writer.endFile();
+    }
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(copyPath)) {
+      ChunkMetadata chunkMetadata = reader.getChunkMetadataList(new Path(DEVICE, "s1")).get(0);
+      // the PageIndex is built from the page headers, the pages of the merged chunk overlap
+      PageIndex pageIndex = chunkMetadata.getPageIndex();
+      assertEquals(40, pageIndex.getPageNum());
+      assertFalse(pageIndex.isSorted());
+
+      ChunkReader chunkReader = new ChunkReader(reader.readMemChunk(chunkMetadata),
+          TimeFilter.gtEq(1950L));
+      int count = 0;
+      while (chunkReader.hasNextSatisfiedPage()) {
+        BatchData batchData = chunkReader.nextPageData();
+        while (batchData.hasCurrent()) {
+          assertTrue(batchData.currentTime() >= 1950);
+          batchData.next();
+          count++;
+        }
+      }
+      assertEquals(100, count);
+    }
+  }
+}
@@ -21,16 +21,20 @@ package org.apache.iotdb.tsfile.read.reader;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.encoding.decoder.DeltaBinaryDecoder;
+import org.apache.iotdb.tsfile.encoding.decoder.DictionaryDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.DoublePrecisionDecoderV1;
 import org.apache.iotdb.tsfile.encoding.decoder.IntRleDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.LongRleDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.PlainDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.SinglePrecisionDecoderV1;
 import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DictionaryEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.DoublePrecisionEncoderV1;
 import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
 import org.apache.iotdb.tsfile.encoding.encoder.IntRleEncoder;
@@ -40,6 +44,10 @@ import org.apache.iotdb.tsfile.encoding.encoder.SinglePrecisionEncoderV1;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.read.reader.page.PageReader;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.page.PageWriter;
@@ -145,6 +153,65 @@ public class PageReaderTest {
     test.test(TSDataType.TEXT);
   }
 
+  @Test
+  public void testDictionaryBinary() {
+    LoopWriteReadTest test = new LoopWriteReadTest("Test Dictionary",
+        new DictionaryEncoder(), new DictionaryDecoder(), TSDataType.TEXT,
+        POINTS_COUNT_IN_ONE_PAGE) {
+      @Override
+      public Object generateValueByIndex(int i) {
+        return new Binary(new StringBuilder("STATE").append(i / 100 % 10).toString());
+      }
+    };
+    test.test(TSDataType.TEXT);
+  }
+
+  @Test
+  public void testDictionaryFilter() throws IOException {
+    PageWriter pageWriter = new PageWriter();
+    pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+    pageWriter.setValueEncoder(new DictionaryEncoder());
+    pageWriter.initStatistics(TSDataType.TEXT);
+    for (int i = 0; i < 1000; i++) {
+      pageWriter.write(i, new Binary("STATE" + i % 4));
+    }
+    byte[] page = pageWriter.getUncompressedBytes().array();
+
+    Filter eq = ValueFilter.eq(new Binary("STATE1"));
+    Filter in = ValueFilter
+        .in(new HashSet<>(Arrays.asList(new Binary("STATE1"), new Binary("STATE2"))), false);
+    Filter notEq = ValueFilter.not(ValueFilter.eq(new Binary("STATE0")));
+    // the value filter combined with a time filter is evaluated on each value
+    Filter timeAndValue = FilterFactory.and(TimeFilter.gtEq(500L), eq);
+
+    assertDictionaryFiltered(page, eq, Arrays.asList(1), 0);
+    assertDictionaryFiltered(page, in, Arrays.asList(1, 2), 0);
+    assertDictionaryFiltered(page, notEq, Arrays.asList(1, 2, 3), 0);
+    assertDictionaryFiltered(page, timeAndValue, Arrays.asList(1), 500);
+  }
+
+  private void assertDictionaryFiltered(byte[] page, Filter filter, List<Integer> states,
+      long minTime) throws IOException {
+    PageReader pageReader = new PageReader(ByteBuffer.wrap(page), TSDataType.TEXT,
+        new DictionaryDecoder(), new DeltaBinaryDecoder.LongDeltaDecoder(), filter);
+    List<TimeRange> deleteIntervals = new ArrayList<>();
+    deleteIntervals.add(new TimeRange(100, 199));
+    pageReader.setDeleteIntervalList(deleteIntervals);
+    BatchData data = pageReader.getAllSatisfiedPageData();
+    int count = 0;
+    for (long time = minTime; time < 1000; time++) {
+      if (states.contains((int) (time % 4)) && (time < 100 || time > 199)) {
+        Assert.assertTrue(data.hasCurrent());
+        Assert.assertEquals(time, data.currentTime());
+        Assert.assertEquals(new Binary("STATE" + time % 4), data.currentValue());
+        data.next();
+        count++;
+      }
+    }
+    Assert.assertFalse(data.hasCurrent());
+    Assert.assertTrue(count > 0);
+  }
+
   private abstract static class LoopWriteReadTest {
 
     private Encoder encoder;
@@ -0,0 +1,393 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.constant.TestConstant;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetadata;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.ReadOnlyTsFile;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.expression.QueryExpression;
+import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.record.datapoint.DoubleDataPoint;
+import org.apache.iotdb.tsfile.write.record.datapoint.IntDataPoint;
+import org.apache.iotdb.tsfile.write.record.datapoint.StringDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AlignedChunkReadWriteTest {
+
+  private static final String DEVICE = "d1";
+  private static final int ROW_NUM = 1000;
+
+  private final TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+  private final String path = TestConstant.BASE_OUTPUT_PATH.concat("aligned.tsfile");
+  private final String copyPath = TestConstant.BASE_OUTPUT_PATH.concat("aligned_copy.tsfile");
+  private final String laterPath = TestConstant.BASE_OUTPUT_PATH.concat("aligned_later.tsfile");
+  private int prevMaxNumberOfPointsInPage;
+
+  @Before
+  public void setUp() {
+    prevMaxNumberOfPointsInPage = config.getMaxNumberOfPointsInPage();
+    // several pages in each chunk
+    config.setMaxNumberOfPointsInPage(100);
+    deleteFiles();
+  }
+
+  @After
+  public void tearDown() {
+    config.setMaxNumberOfPointsInPage(prevMaxNumberOfPointsInPage);
+    deleteFiles();
+  }
+
+  private void deleteFiles() {
+    for (String filePath : new String[]{path, copyPath, laterPath}) {
+      File file = new File(filePath);
+      if (file.exists()) {
+        assertTrue(file.delete());
+      }
+    }
+  }
+
+  private List<MeasurementSchema> schemas() {
+    return Arrays.asList(
+        new MeasurementSchema("s1", TSDataType.INT32, TSEncoding.RLE),
+        new MeasurementSchema("s2", TSDataType.DOUBLE, TSEncoding.GORILLA),
+        new MeasurementSchema("s3", TSDataType.TEXT, TSEncoding.PLAIN));
+  }
+
+  /**
+   * s1 is written at even times, s2 at times not divisible by 3 and s3 at times divisible by 5,
+   * so every measurement has nulls and s3 is null in some whole pages.
+   */
+  private void writeRecords() throws IOException, WriteProcessException {
+    writeRecords(path, 0);
+  }
+
+  private void writeRecords(String filePath, long timeOffset)
+      throws IOException, WriteProcessException {
+    try (TsFileWriter writer = new TsFileWriter(new File(filePath))) {
+      writer.registerAlignedTimeseries(DEVICE, schemas());
+      for (long time = timeOffset + 1; time <= timeOffset + ROW_NUM; time++) {
+        TSRecord record = new TSRecord(time, DEVICE);
+        if (time % 2 == 0) {
+          record.addTuple(new IntDataPoint("s1", (int) time));
+        }
+        if (time % 3 != 0) {
+          record.addTuple(new DoubleDataPoint("s2", time * 0.5));
+        }
+        if (time % 5 == 0 && (time < 300 || time > 500)) {
+          record.addTuple(new StringDataPoint("s3", Binary.valueOf(String.valueOf(time))));
+        }
+        writer.write(record);
+      }
+    }
+  }
+
+  @Test
+  public void testQuerySingleSeries() throws IOException, WriteProcessException {
+    writeRecords();
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path);
+        ReadOnlyTsFile readTsFile = new ReadOnlyTsFile(reader)) {
+      QueryDataSet dataSet = readTsFile.query(QueryExpression
+          .create(Collections.singletonList(new Path(DEVICE, "s1")), null));
+      long time = 2;
+      while (dataSet.hasNext()) {
+        RowRecord record = dataSet.next();
+        assertEquals(time, record.getTimestamp());
+        assertEquals(time, record.getFields().get(0).getIntV());
+        time += 2;
+      }
+      assertEquals(ROW_NUM + 2, time);
+
+      dataSet = readTsFile.query(QueryExpression
+          .create(Collections.singletonList(new Path(DEVICE, "s3")), null));
+      int count = 0;
+      while (dataSet.hasNext()) {
+        RowRecord record = dataSet.next();
+        long timestamp = record.getTimestamp();
+        assertTrue(timestamp % 5 == 0 && (timestamp < 300 || timestamp > 500));
+        assertEquals(String.valueOf(timestamp),
+            record.getFields().get(0).getBinaryV().getStringValue());
+        count++;
+      }
+      assertEquals(159, count);
+    }
+  }
+
+  @Test
+  public void testQueryMultiSeries() throws IOException, WriteProcessException {
+    writeRecords();
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path);
+        ReadOnlyTsFile readTsFile = new ReadOnlyTsFile(reader)) {
+      QueryDataSet dataSet = readTsFile.query(QueryExpression
+          .create(Arrays.asList(new Path(DEVICE, "s1"), new Path(DEVICE, "s2")), null));
+      int count = 0;
+      while (dataSet.hasNext()) {
+        RowRecord record = dataSet.next();
+        long time = record.getTimestamp();
+        assertTrue(time % 2 == 0 || time % 3 != 0);
+        if (time % 2 == 0) {
+          assertEquals(time, record.getFields().get(0).getIntV());
+        } else {
+          assertNull(record.getFields().get(0));
+        }
+        if (time % 3 != 0) {
+          assertEquals(time * 0.5, record.getFields().get(1).getDoubleV(), 0.0);
+        } else {
+          assertNull(record.getFields().get(1));
+        }
+        count++;
+      }
+      // the times not divisible by 3 or divisible by 6
+      assertEquals(667 + 166, count);
+
+      // a value filter on s2 with s1 selected
+      dataSet = readTsFile.query(QueryExpression
+          .create(Arrays.asList(new Path(DEVICE, "s1"), new Path(DEVICE, "s2")),
+              new SingleSeriesExpression(new Path(DEVICE, "s2"), ValueFilter.gt(400.0))));
+      count = 0;
+      while (dataSet.hasNext()) {
+        RowRecord record = dataSet.next();
+        long time = record.getTimestamp();
+        assertTrue(time > 800 && time % 3 != 0);
+        if (time % 2 == 0) {
+          assertEquals(time, record.getFields().get(0).getIntV());
+        } else {
+          assertNull(record.getFields().get(0));
+        }
+        count++;
+      }
+      assertEquals(133, count);
+    }
+  }
+
+  @Test
+  public void testSharedTimeChunk() throws IOException, WriteProcessException {
+    writeRecords();
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      ChunkMetadata s1Metadata = reader.getChunkMetadataList(new Path(DEVICE, "s1")).get(0);
+      ChunkMetadata s2Metadata = reader.getChunkMetadataList(new Path(DEVICE, "s2")).get(0);
+      assertEquals(ROW_NUM / 2, s1Metadata.getStatistics().getCount());
+      assertEquals(2, s1Metadata.getStartTime());
+      assertEquals(1, s2Metadata.getStartTime());
+      Chunk s1Chunk = reader.readMemChunk(s1Metadata);
+      Chunk s2Chunk = reader.readMemChunk(s2Metadata);
+      assertNotNull(s1Chunk.getTimeChunk());
+      // the value chunks of a chunk group decode their times once
+      assertSame(s1Chunk.getTimeChunk(), s2Chunk.getTimeChunk());
+      assertEquals(ROW_NUM / config.getMaxNumberOfPointsInPage(),
+          s1Chunk.getTimeChunk().getTimeChunkReader().getPageNum());
+    }
+  }
+
+  @Test
+  public void testSelfCheck() throws IOException, WriteProcessException {
+    writeRecords();
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      Map<Path, MeasurementSchema> newSchema = new HashMap<>();
+      List<ChunkGroupMetadata> chunkGroupMetadataList = new ArrayList<>();
+      reader.selfCheck(newSchema, chunkGroupMetadataList, new ArrayList<>(), false);
+      assertEquals(1, chunkGroupMetadataList.size());
+      List<ChunkMetadata> chunkMetadataList = chunkGroupMetadataList.get(0)
+          .getChunkMetadataList();
+      // the time chunk has no ChunkMetadata
+      assertEquals(3, chunkMetadataList.size());
+      assertEquals(3, newSchema.size());
+      assertEquals(ROW_NUM / 2, chunkMetadataList.get(0).getStatistics().getCount());
+      assertEquals(159, chunkMetadataList.get(2).getStatistics().getCount());
+      assertEquals(
+          reader.getChunkMetadataList(new Path(DEVICE, "s2")).get(0).getOffsetOfChunkHeader(),
+          chunkMetadataList.get(1).getOffsetOfChunkHeader());
+    }
+  }
+
+  @Test
+  public void testCopyChunks() throws IOException, WriteProcessException {
+    writeRecords();
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      TsFileIOWriter writer = new TsFileIOWriter(new File(copyPath));
+      writer.startChunkGroup(DEVICE);
+      // copied in an order different from the original one
+      for (String measurement : new String[]{"s2", "s1"}) {
+        ChunkMetadata chunkMetadata = reader
+            .getChunkMetadataList(new Path(DEVICE, measurement)).get(0);
+        writer.writeChunk(reader.readMemChunk(chunkMetadata), chunkMetadata);
+      }
+      writer.endChunkGroup();
+      writer.endFile();
+    }
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(copyPath);
+        ReadOnlyTsFile readTsFile = new ReadOnlyTsFile(reader)) {
+      assertTrue(reader.getChunkMetadataList(new Path(DEVICE, "s3")).isEmpty());
+      QueryDataSet dataSet = readTsFile.query(QueryExpression
+          .create(Arrays.asList(new Path(DEVICE, "s1"), new Path(DEVICE, "s2")), null));
+      int count = 0;
+      while (dataSet.hasNext()) {
+        RowRecord record = dataSet.next();
+        long time = record.getTimestamp();
+        assertEquals(time % 2 == 0, record.getFields().get(0) != null);
+        assertEquals(time % 3 != 0, record.getFields().get(1) != null);
+        count++;
+      }
+      assertEquals(667 + 166, count);
+    }
+  }
+
+  @Test
+  public void testCopyMergedChunks() throws IOException, WriteProcessException {
+    writeRecords();
+    writeRecords(laterPath, ROW_NUM);
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path);
+        TsFileSequenceReader laterReader = new TsFileSequenceReader(laterPath)) {
+      TsFileIOWriter writer = new TsFileIOWriter(new File(copyPath));
+      writer.startChunkGroup(DEVICE);
+      for (String measurement : new String[]{"s1", "s2"}) {
+        ChunkMetadata chunkMetadata = reader
+            .getChunkMetadataList(new Path(DEVICE, measurement)).get(0);
+        ChunkMetadata laterChunkMetadata = laterReader
+            .getChunkMetadataList(new Path(DEVICE, measurement)).get(0);
+        Chunk chunk = reader.readMemChunk(chunkMetadata);
+        // the time chunks are appended again for each value chunk
+        chunk.mergeChunk(laterReader.readMemChunk(laterChunkMetadata));
+        chunkMetadata.mergeChunkMetadata(laterChunkMetadata);
+        writer.writeChunk(chunk, chunkMetadata);
+      }
+      writer.endChunkGroup();
+      writer.endFile();
+    }
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(copyPath);
+        ReadOnlyTsFile readTsFile = new ReadOnlyTsFile(reader)) {
+      Chunk s1Chunk = reader
+          .readMemChunk(reader.getChunkMetadataList(new Path(DEVICE, "s1")).get(0));
+      Chunk s2Chunk = reader
+          .readMemChunk(reader.getChunkMetadataList(new Path(DEVICE, "s2")).get(0));
+      // the time chunks with the same pages are copied once
+      assertEquals(s1Chunk.getHeader().getTimeChunkOffset(),
+          s2Chunk.getHeader().getTimeChunkOffset());
+      QueryDataSet dataSet = readTsFile.query(QueryExpression
+          .create(Arrays.asList(new Path(DEVICE, "s1"), new Path(DEVICE, "s2")), null));
+      int count = 0;
+      while (dataSet.hasNext()) {
+        RowRecord record = dataSet.next();
+        long time = record.getTimestamp();
+        assertEquals(time % 2 == 0, record.getFields().get(0) != null);
+        assertEquals(time % 3 != 0, record.getFields().get(1) != null);
+        count++;
+      }
+      assertEquals(2 * ROW_NUM - 333, count);
+    }
+  }
+
+  @Test
+  public void testWriteTablet() throws IOException, WriteProcessException {
+    // a tablet with a subset of the measurements in another order
+    List<MeasurementSchema> tabletSchemas = Arrays.asList(
+        new MeasurementSchema("s2", TSDataType.DOUBLE, TSEncoding.GORILLA),
+        new MeasurementSchema("s1", TSDataType.INT32, TSEncoding.RLE));
+    try (TsFileWriter writer = new TsFileWriter(new File(path))) {
+      writer.registerAlignedTimeseries(DEVICE, schemas());
+      Tablet tablet = new Tablet(DEVICE, tabletSchemas, ROW_NUM);
+      for (int row = 0; row < ROW_NUM; row++) {
+        tablet.addTimestamp(row, row);
+        tablet.addValue("s1", row, row);
+        tablet.addValue("s2", row, row * 2.0);
+      }
+      tablet.rowSize = ROW_NUM;
+      writer.write(tablet);
+    }
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path);
+        ReadOnlyTsFile readTsFile = new ReadOnlyTsFile(reader)) {
+      // s3 is null in all the rows, so it has no chunk
+      assertTrue(reader.getChunkMetadataList(new Path(DEVICE, "s3")).isEmpty());
+      QueryDataSet dataSet = readTsFile.query(QueryExpression
+          .create(Arrays.asList(new Path(DEVICE, "s1"), new Path(DEVICE, "s2")), null));
+      int row = 0;
+      while (dataSet.hasNext()) {
+        RowRecord record = dataSet.next();
+        assertEquals(row, record.getTimestamp());
+        assertEquals(row, record.getFields().get(0).getIntV());
+        assertEquals(row * 2.0, record.getFields().get(1).getDoubleV(), 0.0);
+        row++;
+      }
+      assertEquals(ROW_NUM, row);
+    }
+  }
+
+  @Test(expected = WriteProcessException.class)
+  public void testRegisterTwice() throws IOException, WriteProcessException {
+    try (TsFileWriter writer = new TsFileWriter(new File(path))) {
+      writer.registerAlignedTimeseries(DEVICE, schemas());
+      writer.registerAlignedTimeseries(DEVICE, schemas());
+    }
+  }
+
+  @Test
+  public void testUnknownMeasurement() throws IOException, WriteProcessException {
+    try (TsFileWriter writer = new TsFileWriter(new File(path))) {
+      writer.registerAlignedTimeseries(DEVICE, schemas());
+      TSRecord record = new TSRecord(1, DEVICE);
+      record.addTuple(new IntDataPoint("s4", 1));
+      boolean thrown = false;
+      try {
+        writer.write(record);
+      } catch (WriteProcessException e) {
+        thrown = true;
+      }
+      assertTrue(thrown);
+    }
+    // nothing of the rejected record is written
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      assertTrue(reader.getChunkMetadataList(new Path(DEVICE, "s1")).isEmpty());
+    }
+  }
+}
@@ -20,17 +20,24 @@ package org.apache.iotdb.tsfile.write;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.constant.TestConstant;
 import org.apache.iotdb.tsfile.file.MetaMarker;
 import org.apache.iotdb.tsfile.file.footer.ChunkGroupFooter;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TimeSeriesMetadataTest;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.file.metadata.utils.TestHelper;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.schema.Schema;
 import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
@@ -110,4 +117,58 @@ public class TsFileIOWriterTest {
     TsFileMetadata metaData = reader.readFileMetadata();
     Assert.assertEquals(1, metaData.getMetadataIndex().getChildren().size());
   }
+
+  @Test
+  public void spilledChunkTest() throws IOException {
+    String spilledTsFile = TestConstant.BASE_OUTPUT_PATH.concat("spilledChunkTest.tsfile");
+    File spillFile = new File(spilledTsFile + ".spill");
+    try {
+      TsFileIOWriter writer = new TsFileIOWriter(new File(spilledTsFile));
+      MeasurementSchema measurementSchema = new MeasurementSchema("sensor02", TSDataType.INT64,
+          TSEncoding.RLE);
+      ChunkWriterImpl chunkWriter = new ChunkWriterImpl(measurementSchema);
+      for (long time = 0; time < 1000; time++) {
+        chunkWriter.write(time, time);
+        if (time % 100 == 99) {
+          chunkWriter.sealCurrentPage();
+          chunkWriter.spill(spillFile);
+        }
+      }
+      chunkWriter.write(1000, 1000L);
+      chunkWriter.sealCurrentPage();
+      long chunkSize = chunkWriter.getCurrentChunkSize();
+      Assert.assertTrue(spillFile.length() > 0);
+
+      writer.startChunkGroup(deviceId);
+      long chunkOffset = writer.getPos();
+      chunkWriter.writeToFileWriter(writer);
+      Assert.assertEquals(chunkSize, writer.getPos() - chunkOffset);
+      writer.endChunkGroup();
+      writer.writeVersion(0L);
+      writer.endFile();
+      Assert.assertFalse(spillFile.exists());
+
+      try (TsFileSequenceReader reader = new TsFileSequenceReader(spilledTsFile)) {
+        List<ChunkMetadata> chunkMetadataList = reader
+            .getChunkMetadataList(new Path(deviceId, "sensor02"));
+        Assert.assertEquals(1, chunkMetadataList.size());
+        ChunkReader chunkReader = new ChunkReader(reader.readMemChunk(chunkMetadataList.get(0)),
+            null);
+        long expectedTime = 0;
+        while (chunkReader.hasNextSatisfiedPage()) {
+          BatchData batchData = chunkReader.nextPageData();
+          while (batchData.hasCurrent()) {
+            Assert.assertEquals(expectedTime, batchData.currentTime());
+            Assert.assertEquals(expectedTime, batchData.getLong());
+            expectedTime++;
+            batchData.next();
+          }
+        }
+        Assert.assertEquals(1001, expectedTime);
+      }
+    } finally {
+      new File(spilledTsFile).delete();
+      spillFile.delete();
+    }
+  }
 }
@@ -19,6 +19,7 @@
 
 package org.apache.iotdb.tsfile.write;
 
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.encoding.TsFileEncodingException;
 import org.apache.iotdb.tsfile.exception.write.NoMeasurementException;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
@@ -36,6 +37,7 @@ import org.apache.iotdb.tsfile.write.record.TSRecord;
 import org.apache.iotdb.tsfile.write.record.datapoint.FloatDataPoint;
 import org.apache.iotdb.tsfile.write.record.datapoint.IntDataPoint;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.schema.Schema;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -45,6 +47,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -218,6 +221,60 @@ public class TsFileWriterTest {
     readOneRow(0);
   }
 
+  @Test
+  public void writeTabletInParallel() throws IOException, WriteProcessException {
+    File sequentialFile = new File("target/tsfileWriter-sequential-" + fileName);
+    File parallelFile = new File("target/tsfileWriter-parallel-" + fileName);
+    try {
+      writeTablets(sequentialFile, 1);
+      writeTablets(parallelFile, 4);
+      // the chunks encoded in parallel are written in the same order
+      assertArrayEquals(Files.readAllBytes(sequentialFile.toPath()),
+          Files.readAllBytes(parallelFile.toPath()));
+    } finally {
+      Files.deleteIfExists(sequentialFile.toPath());
+      Files.deleteIfExists(parallelFile.toPath());
+    }
+  }
+
+  private void writeTablets(File file, int encodingThreadNum)
+      throws IOException, WriteProcessException {
+    TSFileConfig conf = new TSFileConfig();
+    conf.setEncodingThreadNum(encodingThreadNum);
+    // flush the chunk groups a few times
+    conf.setGroupSizeInByte(64 * 1024);
+    List<MeasurementSchema> schemas = Arrays.asList(
+        new MeasurementSchema("s1", TSDataType.FLOAT, TSEncoding.RLE, CompressionType.SNAPPY),
+        new MeasurementSchema("s2", TSDataType.INT32, TSEncoding.RLE, CompressionType.SNAPPY),
+        new MeasurementSchema("s3", TSDataType.INT64, TSEncoding.TS_2DIFF,
+            CompressionType.GZIP),
+        new MeasurementSchema("s4", TSDataType.DOUBLE, TSEncoding.GORILLA,
+            CompressionType.UNCOMPRESSED));
+    Schema schema = new Schema();
+    for (MeasurementSchema measurementSchema : schemas) {
+      schema.registerTimeseries(new Path("d1", measurementSchema.getMeasurementId()),
+          measurementSchema);
+    }
+    try (TsFileWriter tsFileWriter = new TsFileWriter(file, schema, conf)) {
+      Tablet tablet = new Tablet("d1", schemas);
+      for (int time = 0; time < 100_000; time++) {
+        int row = tablet.rowSize++;
+        tablet.timestamps[row] = time;
+        ((float[]) tablet.values[0])[row] = time * 0.5f;
+        ((int[]) tablet.values[1])[row] = time % 100;
+        ((long[]) tablet.values[2])[row] = time * 3L;
+        ((double[]) tablet.values[3])[row] = Math.sin(time);
+        if (tablet.rowSize == tablet.getMaxRowNumber()) {
+          tsFileWriter.write(tablet);
+          tablet.reset();
+        }
+      }
+      if (tablet.rowSize > 0) {
+        tsFileWriter.write(tablet);
+      }
+    }
+  }
+
   @Test
   public void getIOWriter() throws IOException {
     //The interface is just for test